@@ -0,0 +1,9 @@
+-- Tracks which local checkout journal entries have been applied (ReceiptRepository.saveCheckouts).
+-- A replayed entry whose (terminal_id, sequence) is already present is skipped, so every sale lands exactly once.
+
+CREATE TABLE IF NOT EXISTS checkout_journal_applied (
+    terminal_id VARCHAR(64) NOT NULL,
+    sequence    BIGINT      NOT NULL,
+    applied_at  TIMESTAMP   NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (terminal_id, sequence)
+);
@@ -0,0 +1,33 @@
+-- Promotions (discounts.rules.enabled=true). A discount with scope ORDER is chosen by the cashier;
+-- every other scope applies to the cart on its own and takes its amount off each matching unit or set:
+--   ITEM         each unit of item target_id
+--   CATEGORY     each unit of any item in category target_id
+--   BUY_X_GET_Y  for every buy_quantity units of item target_id, the next get_quantity units
+--   COMBO        each complete set of one of every item in combo_item_ids
+-- Stackable promotions add up; the cart gets the larger of their sum and the best non-stackable one.
+--
+-- Any discount can also be scheduled. It then only applies on days_of_week (ISO numbers, 1 = Monday;
+-- NULL means every day), between start_time and end_time (an end before the start runs past midnight),
+-- and from valid_from until valid_until. Terminals switch discounts on and off at the boundaries themselves.
+
+ALTER TABLE discounts
+    ADD COLUMN IF NOT EXISTS scope          VARCHAR(16) NOT NULL DEFAULT 'ORDER'
+        CHECK (scope IN ('ORDER', 'ITEM', 'CATEGORY', 'BUY_X_GET_Y', 'COMBO')),
+    ADD COLUMN IF NOT EXISTS target_id      INTEGER     NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS buy_quantity   INTEGER     NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS get_quantity   INTEGER     NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS combo_item_ids INTEGER[],
+    ADD COLUMN IF NOT EXISTS stackable      BOOLEAN     NOT NULL DEFAULT FALSE,
+    ADD COLUMN IF NOT EXISTS days_of_week   INTEGER[],
+    ADD COLUMN IF NOT EXISTS start_time     TIME,
+    ADD COLUMN IF NOT EXISTS end_time       TIME,
+    ADD COLUMN IF NOT EXISTS valid_from     TIMESTAMP,
+    ADD COLUMN IF NOT EXISTS valid_until    TIMESTAMP;
+
+-- Example: buy two coffees, get the third free.
+-- INSERT INTO discounts (name, amount, is_percentage, active, scope, target_id, buy_quantity, get_quantity)
+-- VALUES ('3 for 2 Coffee', 100, TRUE, TRUE, 'BUY_X_GET_Y', 1, 2, 1);
+
+-- Example: 20% off every order on weekdays from 15:00 to 17:00.
+-- INSERT INTO discounts (name, amount, is_percentage, active, days_of_week, start_time, end_time)
+-- VALUES ('Happy Hour', 20, TRUE, TRUE, '{1,2,3,4,5}', '15:00', '17:00');
@@ -0,0 +1,17 @@
+-- Lines that were sold without enough stock (ReceiptRepository.saveCheckouts).
+-- The sale is already paid for, so the receipt is kept and the inventory is left untouched;
+-- each missing quantity is recorded here, in the checkout's transaction, for a manager to reconcile.
+--
+-- Open shortfalls by item:
+--   SELECT item_id, SUM(quantity) FROM inventory_shortfalls WHERE resolved_at IS NULL GROUP BY item_id;
+
+CREATE TABLE IF NOT EXISTS inventory_shortfalls (
+    id          SERIAL    PRIMARY KEY,
+    receipt_id  INTEGER   NOT NULL REFERENCES receipts_files (id),
+    item_id     INTEGER   NOT NULL,
+    quantity    INTEGER   NOT NULL,
+    recorded_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    resolved_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS inventory_shortfalls_open_idx ON inventory_shortfalls (item_id) WHERE resolved_at IS NULL;
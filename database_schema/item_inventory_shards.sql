@@ -0,0 +1,63 @@
+-- Sharded stock for hot items (ShardedInventoryRepository, inventory.sharding.enabled=true).
+-- A sharded item's stock is the sum of its shard rows; items.inventory is no longer used for it.
+
+CREATE TABLE IF NOT EXISTS item_inventory_shards (
+    item_id   INTEGER NOT NULL REFERENCES items (id) ON DELETE CASCADE,
+    shard     INTEGER NOT NULL,
+    inventory INTEGER NOT NULL,
+    PRIMARY KEY (item_id, shard)
+);
+
+-- Moves an item's stock into evenly filled shards numbered 0..shard_count-1.
+-- Example: SELECT shard_item_inventory(1, 8);
+CREATE OR REPLACE FUNCTION shard_item_inventory(p_item_id INTEGER, p_shard_count INTEGER) RETURNS VOID AS $$
+DECLARE
+    total INTEGER;
+BEGIN
+    SELECT inventory INTO total FROM items WHERE id = p_item_id FOR UPDATE;
+    INSERT INTO item_inventory_shards (item_id, shard, inventory)
+    SELECT p_item_id, s, total / p_shard_count + CASE WHEN s < total % p_shard_count THEN 1 ELSE 0 END
+    FROM generate_series(0, p_shard_count - 1) AS s;
+    UPDATE items SET inventory = 0 WHERE id = p_item_id;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Aggregated stock of every item, sharded or not.
+CREATE OR REPLACE VIEW item_stock AS
+SELECT i.id AS item_id,
+       COALESCE((SELECT SUM(s.inventory) FROM item_inventory_shards s WHERE s.item_id = i.id), i.inventory) AS inventory
+FROM items i;
+
+-- Change notifications for shards (run after reference_data_notify.sql if notifications are enabled).
+-- Adding or removing shard rows is sent on 'item_shards_changed', so terminals stop caching the old set of
+-- sharded items. Every shard change also sends the item on 'items_changed' with its aggregated stock,
+-- in the same format as an update of the items row.
+CREATE OR REPLACE FUNCTION notify_item_shard_change() RETURNS trigger AS $$
+DECLARE
+    changed_item INTEGER;
+    item_row     JSON;
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        changed_item := OLD.item_id;
+    ELSE
+        changed_item := NEW.item_id;
+    END IF;
+    IF TG_OP <> 'UPDATE' THEN
+        PERFORM pg_notify('item_shards_changed', json_build_object('op', TG_OP, 'item_id', changed_item)::text);
+    END IF;
+    SELECT row_to_json(changed) INTO item_row
+    FROM (SELECT i.id, i.name, i.price, i.category_id, i.is_available, st.inventory
+          FROM items i JOIN item_stock st ON st.item_id = i.id
+          WHERE i.id = changed_item) changed;
+    -- No row when the item itself is being deleted; its own trigger announces that.
+    IF item_row IS NOT NULL THEN
+        PERFORM pg_notify('items_changed', json_build_object('op', 'UPDATE', 'row', item_row)::text);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS item_inventory_shards_notify_change ON item_inventory_shards;
+CREATE TRIGGER item_inventory_shards_notify_change
+    AFTER INSERT OR UPDATE OR DELETE ON item_inventory_shards
+    FOR EACH ROW EXECUTE FUNCTION notify_item_shard_change();
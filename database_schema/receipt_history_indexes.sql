@@ -0,0 +1,11 @@
+-- Indexes backing the keyset-paginated receipt history (ReceiptRepository.findReceiptPage).
+-- Pages are read newest first on (upload_date, id), optionally narrowed by employee or customer name prefix.
+
+CREATE INDEX IF NOT EXISTS receipts_files_upload_date_id_idx
+    ON receipts_files (upload_date DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS receipts_files_employee_upload_date_id_idx
+    ON receipts_files (employee_id, upload_date DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS receipts_files_customer_name_prefix_idx
+    ON receipts_files (lower(customer_name) text_pattern_ops);
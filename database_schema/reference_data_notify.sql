@@ -0,0 +1,51 @@
+-- Change notifications for cached reference data (ChangeNotificationListener, MenuChangeApplier).
+-- Every row change on items, categories and discounts is sent on its own channel as
+-- {"op": "<INSERT|UPDATE|DELETE>", "row": {...}}; TRUNCATE sends {"op": "TRUNCATE"} so terminals reload.
+
+CREATE OR REPLACE FUNCTION notify_reference_data_change() RETURNS trigger AS $$
+DECLARE
+    changed RECORD;
+BEGIN
+    IF TG_LEVEL = 'STATEMENT' THEN
+        PERFORM pg_notify(TG_ARGV[0], json_build_object('op', TG_OP)::text);
+        RETURN NULL;
+    END IF;
+    IF TG_OP = 'DELETE' THEN
+        changed := OLD;
+    ELSE
+        changed := NEW;
+    END IF;
+    PERFORM pg_notify(TG_ARGV[0], json_build_object('op', TG_OP, 'row', row_to_json(changed))::text);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS items_notify_change ON items;
+CREATE TRIGGER items_notify_change
+    AFTER INSERT OR UPDATE OR DELETE ON items
+    FOR EACH ROW EXECUTE FUNCTION notify_reference_data_change('items_changed');
+
+DROP TRIGGER IF EXISTS items_notify_truncate ON items;
+CREATE TRIGGER items_notify_truncate
+    AFTER TRUNCATE ON items
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_reference_data_change('items_changed');
+
+DROP TRIGGER IF EXISTS categories_notify_change ON categories;
+CREATE TRIGGER categories_notify_change
+    AFTER INSERT OR UPDATE OR DELETE ON categories
+    FOR EACH ROW EXECUTE FUNCTION notify_reference_data_change('categories_changed');
+
+DROP TRIGGER IF EXISTS categories_notify_truncate ON categories;
+CREATE TRIGGER categories_notify_truncate
+    AFTER TRUNCATE ON categories
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_reference_data_change('categories_changed');
+
+DROP TRIGGER IF EXISTS discounts_notify_change ON discounts;
+CREATE TRIGGER discounts_notify_change
+    AFTER INSERT OR UPDATE OR DELETE ON discounts
+    FOR EACH ROW EXECUTE FUNCTION notify_reference_data_change('discounts_changed');
+
+DROP TRIGGER IF EXISTS discounts_notify_truncate ON discounts;
+CREATE TRIGGER discounts_notify_truncate
+    AFTER TRUNCATE ON discounts
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_reference_data_change('discounts_changed');
@@ -0,0 +1,16 @@
+-- Stock held by items sitting in a cart (DBStockReservationService).
+-- The stock is already subtracted from items (or its shards) while a row exists here; deleting the row
+-- returns it, in the same transaction. Rows left behind by a crashed terminal are swept back into stock
+-- when they expire, or when that terminal starts again. expires_at is NULL while the sale is being paid.
+
+CREATE TABLE IF NOT EXISTS stock_holds (
+    id          BIGSERIAL   PRIMARY KEY,
+    terminal_id VARCHAR(64) NOT NULL,
+    item_id     INTEGER     NOT NULL REFERENCES items (id),
+    quantity    INTEGER     NOT NULL CHECK (quantity > 0),
+    created_at  TIMESTAMP   NOT NULL DEFAULT NOW(),
+    expires_at  TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS stock_holds_expires_idx ON stock_holds (expires_at);
+CREATE INDEX IF NOT EXISTS stock_holds_terminal_idx ON stock_holds (terminal_id);
@@ -7,49 +7,117 @@ import controller.LoginController;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
+import javafx.scene.control.Alert;
 import javafx.stage.Stage;
+import model.dto.CheckoutRecord;
+import model.dto.MenuSnapshot;
+import model.entity.Discount;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import repo.ChangeNotificationListener;
+import repo.CheckoutJournal;
+import repo.CheckoutQuarantine;
+import repo.DBConnection;
+import repo.ReferenceDataSnapshot;
 import repo.repository.*;
+import service.auth.AsyncAuthService;
 import service.auth.AuthService;
 import service.auth.DBAuthService;
 import service.auth.FileAuthService;
+import service.auth.LoginRateLimiter;
+import service.auth.PasswordHasher;
 import service.cart.Cart;
 import service.cart.CartService;
+import service.categories.AsyncCategoryList;
 import service.categories.CategoryList;
 import service.categories.DBCategoryService;
 import service.categories.FileCategoryService;
+import service.discount.AsyncDiscountService;
 import service.discount.DBDiscountService;
 import service.discount.DiscountCalculationService;
 import service.discount.DiscountService;
 import service.discount.FileDiscountService;
+import service.inventory.ConcurrentInventoryStore;
+import service.inventory.DBStockReservationService;
+import service.inventory.InventoryShardRebalancer;
+import service.inventory.InventoryStockReservationService;
+import service.inventory.InventoryStore;
+import service.inventory.MappedInventoryStore;
+import service.inventory.StockReservationService;
+import service.menu.AsyncCatalog;
 import service.menu.Catalog;
 import service.menu.DBMenuService;
 import service.menu.FileMenuService;
+import service.menu.MenuChangeApplier;
+import service.menu.MenuSnapshotService;
+import service.order.MoneyEngine;
+import service.order.PricingQuoteService;
+import service.order.RunningTotals;
 import service.order.TotalsCalculatorService;
+import service.receipt.AsyncReceiptService;
 import service.receipt.DBReceiptService;
 import service.receipt.FileReceiptService;
 import service.receipt.ReceiptBuilderService;
 import service.receipt.ReceiptService;
+import service.receipt.WriteBehindReceiptService;
+import util.AsyncExecutor;
+import util.FxThread;
+import util.TimerWheel;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.math.RoundingMode;
+import java.net.InetAddress;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class AppComposer {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(AppComposer.class);
+
     private Stage primaryStage;
     private Properties properties;
     private String dataSource;
 
     // Services
     private AuthService authService;
+    private PasswordHasher passwordHasher;
     private CategoryList categoryListService;
     private Catalog menuCatalogService;
     private ReceiptService receiptService;
-    private DiscountService discountService;
-    private final Cart cartService = new CartService();
-    private final TotalsCalculatorService totalsCalculatorService = new TotalsCalculatorService();
+    private volatile DiscountService discountService;
+    private Cart cartService;
+    private PricingQuoteService pricingQuoteService;
+    private TotalsCalculatorService totalsCalculatorService;
     private final DiscountCalculationService discountCalculationService = new DiscountCalculationService();
+    private final Object discountsLock = new Object();
+    private List<Discount> lastSnapshotDiscounts; // Guarded by discountsLock
+    private List<Discount> lastActiveDiscounts; // Guarded by discountsLock
+    // Runs the controllers' service calls off the JavaFX thread
+    private final AsyncExecutor asyncExecutor = new AsyncExecutor();
     private ReceiptBuilderService receiptBuilderService;
+    private WriteBehindReceiptService receiptWriter;
+    private CheckoutJournal checkoutJournal;
+    private CheckoutQuarantine checkoutQuarantine;
+    private MenuSnapshotService menuSnapshotService;
+    private ChangeNotificationListener changeListener;
+    private TimerWheel holdTimer;
+    private StockReservationService stockReservationService;
+    private InventoryShardRebalancer shardRebalancer;
+    private MappedInventoryStore mappedInventoryStore;
+
+    // Startup
+    private final StartupPipeline startupPipeline = new StartupPipeline();
+    private CompletableFuture<Void> servicesReady;
+    private CompletableFuture<MainView> preloadedMainView;
+    private volatile CaffeeController activeController;
 
     public AppComposer() {
         loadConfig();
@@ -67,22 +135,458 @@ public class AppComposer {
         }
     }
 
+    /**
+     * Creates the authentication service right away, since the login screen needs it, and schedules
+     * every other service on the startup pipeline, so they load while the login screen is showing.
+     */
     private void createServices() {
+        totalsCalculatorService = new TotalsCalculatorService(createMoneyEngine());
         // This service depends on another, so it's created after the main block
-        receiptBuilderService = new ReceiptBuilderService(totalsCalculatorService);
+        receiptBuilderService = new ReceiptBuilderService(totalsCalculatorService, discountCalculationService);
 
         if ("InternalFile".equals(dataSource)) {
             authService = new FileAuthService();
-            categoryListService = new FileCategoryService();
-            menuCatalogService = new FileMenuService();
-            receiptService = new FileReceiptService();
-            discountService = new FileDiscountService();
+            CompletableFuture<ReferenceDataSnapshot> referenceData = startupPipeline.stage("reference data", this::loadReferenceData);
+            CompletableFuture<Void> categoriesAndDiscounts = startupPipeline.stage("categories, discounts", () -> {
+                ReferenceDataSnapshot snapshot = referenceData.join();
+                categoryListService = snapshot != null ? new FileCategoryService(snapshot.getCategories()) : new FileCategoryService();
+                discountService = snapshot != null ? new FileDiscountService(snapshot.getDiscounts()) : new FileDiscountService();
+                discountService.setScheduleListener(this::onDiscountsChanged);
+                reloadDiscounts();
+                return null;
+            }, referenceData);
+            CompletableFuture<Void> menu = startupPipeline.stage("menu, inventory", () -> {
+                ReferenceDataSnapshot snapshot = referenceData.join();
+                FileMenuService fileMenuService = new FileMenuService(snapshot != null ? snapshot.getItems() : null, this::openInventoryStore);
+                if (stockHoldsEnabled()) {
+                    stockReservationService = new InventoryStockReservationService(fileMenuService.getInventoryStore(), holdTimer(), holdMillis());
+                }
+                menuCatalogService = fileMenuService;
+                return null;
+            }, referenceData);
+            CompletableFuture<Void> receipts = startupPipeline.stage("receipt history", () -> {
+                int historyDays = intProperty("receipts.history.maxAgeDays", 0);
+                receiptService = new FileReceiptService(menuCatalogService,
+                        historyDays > 0 ? LocalDate.now().minusDays(historyDays).atStartOfDay() : null, stockReservationService);
+                return null;
+            }, menu);
+            servicesReady = CompletableFuture.allOf(categoriesAndDiscounts, menu, receipts);
         } else {
-            authService = new DBAuthService(new AuthRepository());
-            categoryListService = new DBCategoryService(new CategoryRepository());
-            menuCatalogService = new DBMenuService(new MenuRepository());
-            receiptService = new DBReceiptService(new ReceiptRepository());
-            discountService = new DBDiscountService(new DiscountRepository());
+            passwordHasher = new PasswordHasher(intProperty("auth.bcrypt.cost", PasswordHasher.DEFAULT_COST),
+                    intProperty("auth.bcrypt.threads", 2), intProperty("auth.bcrypt.queueCapacity", 32));
+            authService = new DBAuthService(new AuthRepository(), passwordHasher,
+                    new LoginRateLimiter(intProperty("auth.rateLimit.attempts", 5), intProperty("auth.rateLimit.refillSeconds", 30) * 1000L));
+            ShardedInventoryRepository shardedInventory = Boolean.parseBoolean(properties.getProperty("inventory.sharding.enabled", "false"))
+                    ? new ShardedInventoryRepository(terminalId(), intProperty("inventory.sharding.shards", 8))
+                    : null;
+            if (shardedInventory != null) {
+                shardRebalancer = new InventoryShardRebalancer(shardedInventory,
+                        intProperty("inventory.sharding.rebalanceSeconds", 60) * 1000L);
+            }
+            MenuRepository menuRepository = new MenuRepository(shardedInventory);
+            boolean snapshotOfShards = shardedInventory != null;
+            boolean discountRules = Boolean.parseBoolean(properties.getProperty("discounts.rules.enabled", "false"));
+            CompletableFuture<Void> snapshot = startupPipeline.stage("menu snapshot", () -> {
+                MenuChangeApplier changeApplier = null;
+                if (Boolean.parseBoolean(properties.getProperty("menu.snapshot.enabled", "true"))) {
+                    menuSnapshotService = new MenuSnapshotService(new MenuSnapshotRepository(snapshotOfShards, discountRules),
+                            intProperty("menu.snapshot.refreshSeconds", 600) * 1000L);
+                    menuSnapshotService.setListener(this::onSnapshotPublished);
+                    try {
+                        menuSnapshotService.getSnapshot();
+                    } catch (Exception e) {
+                        // The services fall back to the snapshot's next load or to the repositories.
+                        LOGGER.warn("Could not preload the menu snapshot.", e);
+                    }
+                    menuSnapshotService.start();
+                    changeApplier = new MenuChangeApplier(menuSnapshotService, discountRules);
+                }
+                if (Boolean.parseBoolean(properties.getProperty("menu.notifications.enabled", "true"))
+                        && (changeApplier != null || shardedInventory != null)) {
+                    startChangeListener(changeApplier, shardedInventory);
+                }
+                return null;
+            });
+            CompletableFuture<Void> dataServices = startupPipeline.stage("menu services", () -> {
+                categoryListService = new DBCategoryService(new CategoryRepository(), menuSnapshotService);
+                menuCatalogService = new DBMenuService(menuRepository, menuSnapshotService);
+                discountService = new DBDiscountService(new DiscountRepository(discountRules), menuSnapshotService);
+                discountService.setScheduleListener(this::onDiscountsChanged);
+                reloadDiscounts();
+                if (stockHoldsEnabled()) {
+                    stockReservationService = new DBStockReservationService(
+                            new StockHoldRepository(menuRepository), terminalId(), holdTimer(), holdMillis());
+                }
+                return null;
+            }, snapshot);
+            CompletableFuture<Void> receipts = startupPipeline.stage("receipt writer", () -> {
+                ReceiptRepository receiptRepository = new ReceiptRepository(menuRepository);
+                ReceiptService dbReceiptService = new DBReceiptService(receiptRepository);
+                if (Boolean.parseBoolean(properties.getProperty("receipts.writeBehind.enabled", "true"))) {
+                    int maxBatchSize = intProperty("receipts.writeBehind.maxBatchSize", 32);
+                    int maxAttempts = intProperty("receipts.writeBehind.maxAttempts", WriteBehindReceiptService.DEFAULT_MAX_ATTEMPTS);
+                    checkoutJournal = openCheckoutJournal(receiptRepository);
+                    checkoutQuarantine = openCheckoutQuarantine();
+                    receiptWriter = new WriteBehindReceiptService(dbReceiptService, receiptRepository, checkoutJournal,
+                            checkoutQuarantine, maxAttempts,
+                            intProperty("receipts.writeBehind.queueCapacity", 256),
+                            maxBatchSize,
+                            intProperty("receipts.writeBehind.offerTimeoutMillis", 2000));
+                    receiptWriter.start();
+                    receiptService = receiptWriter;
+                } else {
+                    receiptService = dbReceiptService;
+                }
+                return null;
+            });
+            // Holds left by the last run are swept once the checkouts still waiting to be saved are known.
+            CompletableFuture<Void> stockHolds = startupPipeline.stage("stock holds", () -> {
+                if (stockReservationService instanceof DBStockReservationService) {
+                    ((DBStockReservationService) stockReservationService).start(pendingHoldIds());
+                }
+                return null;
+            }, dataServices, receipts);
+            servicesReady = CompletableFuture.allOf(dataServices, receipts, stockHolds);
+        }
+        servicesReady = servicesReady.thenRun(() -> {
+            cartService = new CartService(stockReservationService, asyncExecutor);
+            RunningTotals runningTotals = new RunningTotals(cartService, totalsCalculatorService, discountCalculationService);
+            pricingQuoteService = new PricingQuoteService(cartService, runningTotals, discountCalculationService);
+        });
+        startupPipeline.whenAllDone().thenRun(() -> LOGGER.info("Startup timings:{}", startupPipeline.report()));
+    }
+
+    /**
+     * Reads the discounts in force and passes them on. Called at startup, whenever the menu snapshot
+     * changes, and by the discount schedule.
+     */
+    private void reloadDiscounts() {
+        DiscountService discounts = discountService;
+        if (discounts == null) {
+            // The menu snapshot loads before the discount service exists.
+            return;
+        }
+        try {
+            onDiscountsChanged(discounts.getActiveDiscounts());
+        } catch (Exception e) {
+            LOGGER.warn("Could not load the active discounts. Orders are priced without promotions.", e);
+        }
+    }
+
+    /**
+     * Item patches keep the snapshot's discount list, so only a reload or a discount change
+     * reaches the discounts; stock notifications do not.
+     */
+    private void onSnapshotPublished(MenuSnapshot snapshot) {
+        synchronized (discountsLock) {
+            if (snapshot.getDiscounts() == lastSnapshotDiscounts) {
+                return;
+            }
+            lastSnapshotDiscounts = snapshot.getDiscounts();
+        }
+        reloadDiscounts();
+    }
+
+    /**
+     * Hands new active discounts to the pricing and the screen, unless they are the ones already in force.
+     */
+    private void onDiscountsChanged(List<Discount> activeDiscounts) {
+        synchronized (discountsLock) {
+            if (activeDiscounts.equals(lastActiveDiscounts)) {
+                return;
+            }
+            lastActiveDiscounts = activeDiscounts;
+            discountCalculationService.setPromotions(activeDiscounts);
+        }
+        CaffeeController controller = activeController;
+        if (controller != null) {
+            FxThread.runOnFxThread(controller::reloadDiscounts);
+        }
+    }
+
+    private boolean stockHoldsEnabled() {
+        return Boolean.parseBoolean(properties.getProperty("inventory.holds.enabled", "true"));
+    }
+
+    private long holdMillis() {
+        return intProperty("inventory.holds.ttlSeconds", 300) * 1000L;
+    }
+
+    private synchronized TimerWheel holdTimer() {
+        if (holdTimer == null) {
+            // One-second ticks: hold lifetimes are minutes, so finer resolution buys nothing.
+            holdTimer = new TimerWheel(1000, 512, "stock-hold-timer");
+        }
+        return holdTimer;
+    }
+
+    /**
+     * Listens for database change notifications: menu changes patch the snapshot, and changes to
+     * which items are sharded drop the cached set. Either may be null if it is not in use.
+     */
+    private void startChangeListener(MenuChangeApplier changeApplier, ShardedInventoryRepository shardedInventory) {
+        List<String> channels = new ArrayList<>();
+        if (changeApplier != null) {
+            channels.addAll(MenuChangeApplier.CHANNELS);
+        }
+        if (shardedInventory != null) {
+            channels.add(ShardedInventoryRepository.SHARDS_CHANNEL);
+        }
+        changeListener = new ChangeNotificationListener(DBConnection::openDedicatedConnection, channels,
+                (channel, payload) -> {
+                    if (ShardedInventoryRepository.SHARDS_CHANNEL.equals(channel)) {
+                        shardedInventory.invalidate();
+                    } else if (changeApplier != null) {
+                        changeApplier.apply(channel, payload);
+                    }
+                },
+                () -> {
+                    // Notifications may have been missed while disconnected.
+                    if (shardedInventory != null) {
+                        shardedInventory.invalidate();
+                    }
+                    if (changeApplier != null) {
+                        changeApplier.reloadAll();
+                    }
+                },
+                intProperty("menu.notifications.reconnectMillis", 5000));
+        changeListener.start();
+    }
+
+    /**
+     * Opens the local checkout journal, or returns null if it is disabled or cannot be opened,
+     * in which case checkouts are queued in memory only. Its sequence is moved past anything the
+     * database already recorded for this terminal, in case the journal file was lost; a journal
+     * without history is not used if that cannot be read.
+     */
+    private CheckoutJournal openCheckoutJournal(ReceiptRepository receiptRepository) {
+        if (!Boolean.parseBoolean(properties.getProperty("checkout.journal.enabled", "true"))) {
+            return null;
+        }
+        try {
+            Path path = Path.of(properties.getProperty("checkout.journal.path", "journal/checkout.journal"));
+            CheckoutJournal journal = new CheckoutJournal(path, terminalId(),
+                    intProperty("checkout.journal.maxPendingEntries", CheckoutJournal.DEFAULT_MAX_PENDING_ENTRIES));
+            try {
+                journal.advanceSequencePast(receiptRepository.findLastJournalSequence(terminalId()));
+            } catch (SQLException e) {
+                if (journal.isWithoutHistory()) {
+                    // Starting over at sequence 1 would reuse sequences the database already has, and it would drop those sales.
+                    LOGGER.error("The checkout journal is new and the last applied journal sequence could not be read. "
+                            + "Checkouts will only be queued in memory until the next start.", e);
+                    journal.discard();
+                    return null;
+                }
+                LOGGER.warn("Could not read the last applied journal sequence; continuing from the local journal.", e);
+            }
+            return journal;
+        } catch (IOException e) {
+            LOGGER.error("Could not open the checkout journal. Checkouts will only be queued in memory.", e);
+            return null;
+        }
+    }
+
+    /**
+     * @return The stock holds sold by checkouts still in the journal or the quarantine, which must keep their stock,
+     *         or null if they are not known.
+     */
+    private List<Long> pendingHoldIds() {
+        List<Long> holdIds = new ArrayList<>();
+        if (checkoutJournal != null) {
+            holdIds.addAll(checkoutJournal.getPendingHoldIds());
+        }
+        if (checkoutQuarantine != null) {
+            try {
+                for (CheckoutRecord record : checkoutQuarantine.readAll()) {
+                    holdIds.addAll(record.getSettledHoldIds());
+                }
+            } catch (IOException e) {
+                // Without the list the holds of quarantined sales would be returned, so none are swept.
+                LOGGER.error("Could not read the checkout quarantine. Holds left by the last run are kept until the next start.", e);
+                return null;
+            }
+        }
+        return holdIds;
+    }
+
+    /**
+     * Opens the file where checkouts the database keeps rejecting are set aside, or returns null
+     * if it cannot be opened, in which case such checkouts are retried until they succeed.
+     */
+    private CheckoutQuarantine openCheckoutQuarantine() {
+        try {
+            CheckoutQuarantine quarantine = new CheckoutQuarantine(
+                    Path.of(properties.getProperty("receipts.quarantine.path", "journal/checkout.quarantine")));
+            quarantine.start();
+            return quarantine;
+        } catch (IOException e) {
+            LOGGER.error("Could not open the checkout quarantine. Rejected checkouts will be retried indefinitely.", e);
+            return null;
+        }
+    }
+
+    /**
+     * Loads categories, items and discounts from the binary reference snapshot, or returns null
+     * if it is disabled or neither the snapshot nor the JSON files could be read, in which case
+     * each service reads its own JSON file.
+     */
+    private ReferenceDataSnapshot loadReferenceData() {
+        if (!Boolean.parseBoolean(properties.getProperty("reference.snapshot.enabled", "true"))) {
+            return null;
+        }
+        try {
+            return ReferenceDataSnapshot.loadOrBuild(
+                    Path.of(properties.getProperty("reference.snapshot.path", "data-local/reference.snapshot")));
+        } catch (IOException e) {
+            LOGGER.error("Could not load the reference data snapshot.", e);
+            return null;
+        }
+    }
+
+    /**
+     * Opens the persistent inventory store, or falls back to keeping stock in memory
+     * if it is disabled or cannot be opened.
+     */
+    private InventoryStore openInventoryStore(Map<Integer, Integer> menuStock) {
+        if (Boolean.parseBoolean(properties.getProperty("inventory.store.enabled", "true"))) {
+            try {
+                mappedInventoryStore = MappedInventoryStore.open(
+                        Path.of(properties.getProperty("inventory.store.path", "data-local/inventory.store")),
+                        intProperty("inventory.store.capacity", 4096),
+                        menuStock,
+                        intProperty("inventory.store.flushMillis", 1000));
+                return mappedInventoryStore;
+            } catch (IOException | RuntimeException e) {
+                LOGGER.error("Could not open the inventory store. Stock will reset on restart.", e);
+            }
+        }
+        return new ConcurrentInventoryStore(menuStock);
+    }
+
+    private String terminalId() {
+        String configured = properties.getProperty("terminal.id", "").trim();
+        if (!configured.isEmpty()) {
+            return configured;
+        }
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            return "terminal";
+        }
+    }
+
+    /**
+     * Releases resources held by the data services, such as pooled database connections.
+     */
+    public void shutdown() {
+        try {
+            // Services still being created on the startup pipeline must exist before they can be closed.
+            servicesReady.join();
+        } catch (CompletionException e) {
+            LOGGER.warn("Shutting down after a failed startup.", e.getCause());
+        }
+        startupPipeline.close();
+        if (cartService != null) {
+            // Returns the stock held by an abandoned cart, on the executor closed below.
+            cartService.clearCart();
+        }
+        // Lets a checkout that is still being saved, and the returns above, finish before their services close.
+        asyncExecutor.close();
+        if (stockReservationService != null) {
+            stockReservationService.close();
+        }
+        if (holdTimer != null) {
+            holdTimer.close();
+        }
+        if (receiptWriter != null) {
+            receiptWriter.close();
+        }
+        if (shardRebalancer != null) {
+            shardRebalancer.close();
+        }
+        if (checkoutJournal != null) {
+            checkoutJournal.close();
+        }
+        if (checkoutQuarantine != null) {
+            checkoutQuarantine.close();
+        }
+        if (mappedInventoryStore != null) {
+            mappedInventoryStore.close();
+        }
+        if (changeListener != null) {
+            changeListener.close();
+        }
+        if (menuSnapshotService != null) {
+            menuSnapshotService.close();
+        }
+        if (discountService != null) {
+            discountService.close();
+        }
+        if (passwordHasher != null) {
+            passwordHasher.close();
+        }
+        if (!"InternalFile".equals(dataSource)) {
+            DBConnection.shutdown();
+        }
+    }
+
+    /**
+     * Waits for queued receipts to be written before returning to the login screen,
+     * so a shift never ends with the previous employee's sales still in memory.
+     * The wait runs off the JavaFX thread, so the window stays responsive meanwhile.
+     */
+    private void handleLogout() {
+        if (receiptWriter == null) {
+            showLoginScene();
+            return;
+        }
+        CompletableFuture<Boolean> flushed = asyncExecutor.submit(
+                () -> receiptWriter.flush(intProperty("receipts.writeBehind.logoutFlushMillis", 10_000)));
+        FxThread.deliver(flushed, done -> {
+            if (!done) {
+                LOGGER.warn("Logging out with {} receipts still queued for writing.", receiptWriter.getQueueDepth());
+            }
+            showLoginScene();
+        }, e -> {
+            LOGGER.warn("Could not wait for queued receipts before logging out.", e);
+            showLoginScene();
+        });
+    }
+
+    private String describeSyncStatus() {
+        int pending = receiptWriter.getQueueDepth();
+        String status = pending == 0
+                ? "All sales synced"
+                : String.format("%d sales pending sync (%d KB journal)", pending, receiptWriter.getJournalSizeBytes() / 1024);
+        int quarantined = checkoutQuarantine != null ? checkoutQuarantine.getCount() : 0;
+        if (quarantined > 0) {
+            // These sales are kept locally and retried, but the database refused them: a manager has to look.
+            status += String.format(" - %d sales rejected by the database, see the quarantine", quarantined);
+        }
+        return status;
+    }
+
+    private MoneyEngine createMoneyEngine() {
+        RoundingMode roundingMode = enumProperty("pricing.roundingMode", RoundingMode.HALF_UP);
+        MoneyEngine.TaxRounding taxRounding = enumProperty("pricing.taxRounding", MoneyEngine.TaxRounding.PER_ORDER);
+        return new MoneyEngine(TotalsCalculatorService.TAX_RATE_BASIS_POINTS, roundingMode, taxRounding);
+    }
+
+    private <E extends Enum<E>> E enumProperty(String key, E defaultValue) {
+        try {
+            return Enum.valueOf(defaultValue.getDeclaringClass(), properties.getProperty(key, defaultValue.name()).trim());
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn("Invalid value for '{}'. Using default {}.", key, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    private int intProperty(String key, int defaultValue) {
+        try {
+            return Integer.parseInt(properties.getProperty(key, String.valueOf(defaultValue)).trim());
+        } catch (NumberFormatException e) {
+            LOGGER.warn("Invalid value for '{}'. Using default {}.", key, defaultValue);
+            return defaultValue;
         }
     }
 
@@ -90,12 +594,13 @@ public class AppComposer {
         this.primaryStage = primaryStage;
         primaryStage.setTitle("OOP Caffee Kiosk");
         showLoginScene();
+        startupPipeline.mark("login screen shown");
     }
 
     public void showLoginScene() {
         try {
             Runnable onLoginSuccess = this::showMainScene;
-            LoginController loginController = new LoginController(this.authService, onLoginSuccess);
+            LoginController loginController = new LoginController(new AsyncAuthService(this.authService, asyncExecutor), onLoginSuccess);
 
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/login/login.fxml"));
             loader.setControllerFactory(param -> loginController);
@@ -111,49 +616,84 @@ public class AppComposer {
         } catch (IOException e) {
             e.printStackTrace();
         }
+        // Builds the main screen while the employee types their credentials.
+        preloadedMainView = startupPipeline.stage("main view", this::loadMainView, servicesReady);
     }
 
+    /**
+     * Shows the main screen once it has been built, without blocking the JavaFX thread
+     * if the employee logged in before it was ready.
+     */
     public void showMainScene() {
-        try {
-            HistoryController historyController = new HistoryController(this.receiptService);
-            CaffeeController caffeeController = new CaffeeController(
-                    this.categoryListService,
-                    this.menuCatalogService,
-                    this.cartService,
-                    this.discountService,
-                    this.discountCalculationService,
-                    this.totalsCalculatorService,
-                    historyController
-            );
-
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/main/main-view.fxml"));
-            loader.setControllerFactory(param -> caffeeController);
-            Parent root = loader.load();
+        FxThread.deliver(preloadedMainView, this::attachMainView, e -> {
+            LOGGER.error("Could not load the main screen.", e);
+            Alert alert = new Alert(Alert.AlertType.ERROR, "The application could not finish starting: " + e.getMessage());
+            alert.setHeaderText(null);
+            alert.showAndWait();
+        });
+    }
 
-            // Correctly define the checkout completion logic
-            Runnable onCheckoutComplete = caffeeController::clearCartAndResetUI;
-            
-            CheckoutHandler checkoutHandler = new CheckoutHandler(
-                    cartService, menuCatalogService, receiptService, receiptBuilderService, 
-                    discountCalculationService, totalsCalculatorService, onCheckoutComplete,
-                    caffeeController.getDiscountComboBox(), caffeeController.getOtherDiscountField(), 
-                    caffeeController.getOtherDiscountPercentageCheckBox(), caffeeController.getObservationsTextArea()
-            );
-            caffeeController.setCheckoutHandler(checkoutHandler);
+    private void attachMainView(MainView mainView) {
+        CaffeeController caffeeController = mainView.controller;
+        activeController = caffeeController;
 
-            Runnable onLogout = this::showLoginScene;
-            caffeeController.setOnLogoutListener(onLogout);
+        // Correctly define the checkout completion logic
+        Runnable onCheckoutComplete = caffeeController::resetAfterCheckout;
 
-            Scene scene = new Scene(root);
-            primaryStage.setScene(scene);
-            primaryStage.setWidth(1280);
-            primaryStage.setHeight(800);
-            primaryStage.centerOnScreen();
+        CheckoutHandler checkoutHandler = new CheckoutHandler(
+                cartService, new AsyncReceiptService(receiptService, asyncExecutor), receiptBuilderService,
+                pricingQuoteService, onCheckoutComplete,
+                caffeeController.getDiscountComboBox(), caffeeController.getOtherDiscountField(),
+                caffeeController.getOtherDiscountPercentageCheckBox(), caffeeController.getObservationsTextArea()
+        );
+        caffeeController.setCheckoutHandler(checkoutHandler);
 
-            caffeeController.start();
+        Runnable onLogout = this::handleLogout;
+        caffeeController.setOnLogoutListener(onLogout);
+        if (receiptWriter != null) {
+            caffeeController.setSyncStatusSupplier(this::describeSyncStatus);
+        }
 
-        } catch (IOException e) {
-            e.printStackTrace();
+        Scene scene = new Scene(mainView.root);
+        primaryStage.setScene(scene);
+        primaryStage.setWidth(1280);
+        primaryStage.setHeight(800);
+        primaryStage.centerOnScreen();
+
+        caffeeController.start();
+        startupPipeline.mark("main screen shown");
+    }
+
+    /**
+     * Creates the main screen's controllers and parses its FXML. The scene graph is not attached
+     * to a window yet, so this runs off the JavaFX thread.
+     */
+    private MainView loadMainView() throws IOException {
+        HistoryController historyController = new HistoryController(new AsyncReceiptService(this.receiptService, asyncExecutor));
+        CaffeeController caffeeController = new CaffeeController(
+                new AsyncCategoryList(this.categoryListService, asyncExecutor),
+                new AsyncCatalog(this.menuCatalogService, asyncExecutor),
+                this.cartService,
+                new AsyncDiscountService(this.discountService, asyncExecutor),
+                this.pricingQuoteService,
+                historyController
+        );
+
+        FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/main/main-view.fxml"));
+        loader.setControllerFactory(param -> caffeeController);
+        return new MainView(loader.load(), caffeeController);
+    }
+
+    /**
+     * A loaded main screen, ready to be shown.
+     */
+    private static final class MainView {
+        private final Parent root;
+        private final CaffeeController controller;
+
+        private MainView(Parent root, CaffeeController controller) {
+            this.root = root;
+            this.controller = controller;
         }
     }
-}
\ No newline at end of file
+}
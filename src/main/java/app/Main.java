@@ -8,13 +8,22 @@ import javafx.stage.Stage;
  */
 public class Main extends Application {
 
+    private AppComposer appComposer;
+
     @Override
     public void start(Stage primaryStage) throws Exception {
         // The AppComposer will now manage the stages and scenes
-        AppComposer appComposer = new AppComposer();
+        appComposer = new AppComposer();
         appComposer.startApplication(primaryStage);
     }
 
+    @Override
+    public void stop() {
+        if (appComposer != null) {
+            appComposer.shutdown();
+        }
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
@@ -0,0 +1,133 @@
+package app;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the stages of application startup concurrently on virtual threads and records
+ * when each one started and how long it took.
+ *
+ * <p>A stage starts as soon as the stages it depends on have completed; if one of them fails,
+ * the dependent stage is skipped and completes with the same failure.
+ */
+public class StartupPipeline implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StartupPipeline.class);
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final long startNanos = System.nanoTime();
+    private final List<StageTiming> timings = new ArrayList<>(); // Guarded by itself
+    private final List<CompletableFuture<?>> stages = new ArrayList<>(); // Guarded by itself
+
+    /**
+     * Schedules a stage.
+     *
+     * @param name The name shown in the timing report.
+     * @param work The work of the stage.
+     * @param after The stages that must complete first.
+     * @return The result of the stage.
+     */
+    public <T> CompletableFuture<T> stage(String name, Callable<T> work, CompletableFuture<?>... after) {
+        CompletableFuture<T> result = CompletableFuture.allOf(after)
+                .thenApplyAsync(ignored -> run(name, work), executor);
+        synchronized (stages) {
+            stages.add(result);
+        }
+        return result;
+    }
+
+    /**
+     * Records a point in time, such as a screen becoming visible, in the timing report.
+     */
+    public void mark(String name) {
+        long offset = elapsedMillis();
+        synchronized (timings) {
+            timings.add(new StageTiming(name, offset, -1, false));
+        }
+    }
+
+    /**
+     * @return A future that completes, successfully or not, once every stage scheduled so far has finished.
+     */
+    public CompletableFuture<Void> whenAllDone() {
+        CompletableFuture<?>[] scheduled;
+        synchronized (stages) {
+            scheduled = stages.toArray(new CompletableFuture<?>[0]);
+        }
+        return CompletableFuture.allOf(scheduled).handle((ignored, failure) -> null);
+    }
+
+    /**
+     * @return One line per stage and mark in start order, e.g. {@code "menu snapshot  +12 ms  took 85 ms"}.
+     */
+    public String report() {
+        List<StageTiming> sorted;
+        synchronized (timings) {
+            sorted = new ArrayList<>(timings);
+        }
+        sorted.sort(Comparator.comparingLong(timing -> timing.startMillis));
+        StringBuilder report = new StringBuilder();
+        for (StageTiming timing : sorted) {
+            report.append(String.format("%n  %-22s +%5d ms", timing.name, timing.startMillis));
+            if (timing.durationMillis >= 0) {
+                report.append(String.format("  took %5d ms%s", timing.durationMillis, timing.failed ? " (failed)" : ""));
+            }
+        }
+        return report.toString();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private <T> T run(String name, Callable<T> work) {
+        long offset = elapsedMillis();
+        boolean failed = true;
+        try {
+            T value = work.call();
+            failed = false;
+            return value;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        } finally {
+            long duration = elapsedMillis() - offset;
+            synchronized (timings) {
+                timings.add(new StageTiming(name, offset, duration, failed));
+            }
+            if (failed) {
+                LOGGER.error("Startup stage '{}' failed after {} ms.", name, duration);
+            }
+        }
+    }
+
+    private long elapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private static final class StageTiming {
+        private final String name;
+        private final long startMillis;
+        private final long durationMillis; // -1 for a mark
+        private final boolean failed;
+
+        private StageTiming(String name, long startMillis, long durationMillis, boolean failed) {
+            this.name = name;
+            this.startMillis = startMillis;
+            this.durationMillis = durationMillis;
+            this.failed = failed;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package controller;
 
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
@@ -7,6 +9,8 @@ import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.VBox;
+import javafx.util.Duration;
+import model.dto.OrderTotals;
 import model.entity.Category;
 import model.entity.CartItem;
 import model.entity.Discount;
@@ -14,13 +18,15 @@ import model.entity.Item;
 import util.CurrencyFormatter;
 import service.auth.SessionManager;
 import service.cart.Cart;
-import service.categories.CategoryList;
-import service.discount.DiscountCalculationService;
-import service.discount.DiscountService;
-import service.menu.Catalog;
+import service.categories.AsyncCategoryList;
+import service.discount.AsyncDiscountService;
+import service.menu.AsyncCatalog;
+import service.order.PricingQuoteService;
 import service.order.TotalsCalculatorService;
+import util.FxThread;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Main controller for the Caffee Kiosk application.
@@ -51,28 +57,30 @@ public class CaffeeController {
     @FXML private Label totalLabel;
     @FXML private Label employeeLabel;
     @FXML private Label percentageLabel;
+    @FXML private Label syncStatusLabel;
     //</editor-fold>
 
     //<editor-fold desc="Services and Controllers">
-    private final CategoryList categoryListService;
-    private final Catalog menuCatalogService;
+    private final AsyncCategoryList categoryListService;
+    private final AsyncCatalog menuCatalogService;
     private final Cart cartService;
-    private final DiscountService discountService;
-    private final DiscountCalculationService discountCalculationService;
-    private final TotalsCalculatorService totalsCalculatorService;
+    private final AsyncDiscountService discountService;
+    private final PricingQuoteService pricingQuoteService;
     private final HistoryController historyController;
     private CheckoutHandler checkoutHandler;
     private Runnable onLogoutListener;
     private int lastSelectedCategoryId = -1;
+    private long renderedCartVersion = -1;
+    private Supplier<String> syncStatusSupplier;
+    private Timeline syncStatusRefresh;
     //</editor-fold>
 
-    public CaffeeController(CategoryList categoryListService, Catalog menuCatalogService, Cart cartService, DiscountService discountService, DiscountCalculationService discountCalculationService, TotalsCalculatorService totalsCalculatorService, HistoryController historyController) {
+    public CaffeeController(AsyncCategoryList categoryListService, AsyncCatalog menuCatalogService, Cart cartService, AsyncDiscountService discountService, PricingQuoteService pricingQuoteService, HistoryController historyController) {
         this.categoryListService = categoryListService;
         this.menuCatalogService = menuCatalogService;
         this.cartService = cartService;
         this.discountService = discountService;
-        this.discountCalculationService = discountCalculationService;
-        this.totalsCalculatorService = totalsCalculatorService;
+        this.pricingQuoteService = pricingQuoteService;
         this.historyController = historyController;
     }
 
@@ -108,7 +116,7 @@ public class CaffeeController {
         });
 
         discountComboBox.getSelectionModel().selectedItemProperty().addListener((obs, oldSelection, newSelection) -> {
-            boolean isOther = newSelection != null && "Other".equalsIgnoreCase(newSelection.getName());
+            boolean isOther = newSelection != null && newSelection.isOther();
             otherDiscountField.setDisable(!isOther);
             otherDiscountPercentageCheckBox.setDisable(!isOther);
             if (!isOther) {
@@ -130,43 +138,83 @@ public class CaffeeController {
 
     public void start() {
         employeeLabel.setText("Employee: " + SessionManager.getInstance().getLoggedInEmployeeName());
+        startSyncStatusRefresh();
+    }
+
+    private void startSyncStatusRefresh() {
+        if (syncStatusSupplier == null) {
+            return;
+        }
+        syncStatusLabel.setText(syncStatusSupplier.get());
+        syncStatusRefresh = new Timeline(new KeyFrame(Duration.seconds(2), e -> syncStatusLabel.setText(syncStatusSupplier.get())));
+        syncStatusRefresh.setCycleCount(Timeline.INDEFINITE);
+        syncStatusRefresh.play();
     }
 
     private void loadCategories() {
-        try {
-            List<Category> categories = categoryListService.getAllCategories();
-            categoryPanel.getChildren().remove(1, categoryPanel.getChildren().size());
-            for (Category category : categories) {
-                Button categoryButton = new Button(category.getDescription());
-                categoryButton.setPrefWidth(130);
-                categoryButton.setOnAction(e -> handleCategorySelection(category.getId()));
-                categoryPanel.getChildren().add(categoryButton);
-            }
-        } catch (Exception e) {
-            showError("Error loading categories: " + e.getMessage());
+        FxThread.deliver(categoryListService.getAllCategories(), this::showCategories,
+                e -> showError("Error loading categories: " + e.getMessage()));
+    }
+
+    private void showCategories(List<Category> categories) {
+        categoryPanel.getChildren().remove(1, categoryPanel.getChildren().size());
+        for (Category category : categories) {
+            Button categoryButton = new Button(category.getDescription());
+            categoryButton.setPrefWidth(130);
+            categoryButton.setOnAction(e -> handleCategorySelection(category.getId()));
+            categoryPanel.getChildren().add(categoryButton);
         }
     }
 
     private void loadDiscounts() {
-        try {
-            List<Discount> discounts = discountService.getActiveDiscounts();
-            discountComboBox.setItems(FXCollections.observableArrayList(discounts));
-            discountComboBox.getItems().add(0, new Discount(0, "None", 0, false, true));
-            discountComboBox.getItems().add(new Discount(-1, "Other", 0, false, true));
-            discountComboBox.getSelectionModel().selectFirst();
-        } catch (Exception e) {
-            showError("Error loading discounts: " + e.getMessage());
+        FxThread.deliver(discountService.getActiveDiscounts(), this::showDiscounts,
+                e -> showError("Error loading discounts: " + e.getMessage()));
+    }
+
+    private void showDiscounts(List<Discount> discounts) {
+        // Promotions apply to the cart on their own; only order discounts can be chosen.
+        discountComboBox.setItems(FXCollections.observableArrayList(discounts.stream().filter(d -> !d.isPromotion()).toList()));
+        discountComboBox.getItems().add(0, new Discount(Discount.NONE_ID, "None", 0, false, true));
+        discountComboBox.getItems().add(new Discount(Discount.OTHER_ID, "Other", 0, false, true));
+        discountComboBox.getSelectionModel().selectFirst();
+    }
+
+    /**
+     * Reloads the discount list, e.g. when a scheduled discount starts or ends. The selected discount
+     * stays selected while it still applies; otherwise the selection falls back to "None".
+     */
+    public void reloadDiscounts() {
+        FxThread.deliver(discountService.getActiveDiscounts(), this::reselectDiscount,
+                e -> showError("Error loading discounts: " + e.getMessage()));
+    }
+
+    private void reselectDiscount(List<Discount> discounts) {
+        // Read when the new list arrives, so changes made while it loaded are kept.
+        Discount selected = discountComboBox.getSelectionModel().getSelectedItem();
+        String otherAmount = otherDiscountField.getText();
+        boolean otherIsPercentage = otherDiscountPercentageCheckBox.isSelected();
+        showDiscounts(discounts);
+        if (selected != null) {
+            discountComboBox.getItems().stream()
+                    .filter(discount -> discount.getId() == selected.getId())
+                    .findFirst()
+                    .ifPresent(discount -> discountComboBox.getSelectionModel().select(discount));
         }
+        if (selected != null && selected.isOther()) {
+            otherDiscountField.setText(otherAmount);
+            otherDiscountPercentageCheckBox.setSelected(otherIsPercentage);
+        }
+        updateTotals();
     }
 
+    /**
+     * Loads the items of a category. Selecting another category before they arrive discards them.
+     */
     public void handleCategorySelection(int categoryId) {
         this.lastSelectedCategoryId = categoryId;
-        try {
-            List<Item> items = menuCatalogService.getItemsByCategory(categoryId);
-            itemsTable.setItems(FXCollections.observableArrayList(items));
-        } catch (Exception ex) {
-            showError("Error loading items: " + ex.getMessage());
-        }
+        FxThread.deliver(menuCatalogService.getItemsByCategory(categoryId),
+                items -> itemsTable.setItems(FXCollections.observableArrayList(items)),
+                ex -> showError("Error loading items: " + ex.getMessage()));
     }
 
     @FXML
@@ -174,10 +222,15 @@ public class CaffeeController {
         Item selectedItem = itemsTable.getSelectionModel().getSelectedItem();
         if (selectedItem == null) return;
         int quantity = quantitySpinner.getValue();
-        cartService.addItem(selectedItem, quantity);
-        refreshCart();
-        itemsTable.getSelectionModel().clearSelection();
-        quantitySpinner.getValueFactory().setValue(1);
+        FxThread.deliver(cartService.addItem(selectedItem, quantity), added -> {
+            if (!added) {
+                showError("Not enough stock for " + selectedItem.getName() + ". It may be held in another cart.");
+                return;
+            }
+            refreshCart();
+            itemsTable.getSelectionModel().clearSelection();
+            quantitySpinner.getValueFactory().setValue(1);
+        }, e -> showError("Error adding item: " + e.getMessage()));
     }
 
     @FXML
@@ -203,6 +256,9 @@ public class CaffeeController {
     private void handleLogout() {
         SessionManager.getInstance().clearSession();
         cartService.clearCart();
+        if (syncStatusRefresh != null) {
+            syncStatusRefresh.stop();
+        }
         if (onLogoutListener != null) {
             onLogoutListener.run();
         }
@@ -214,18 +270,30 @@ public class CaffeeController {
     }
 
     public void refreshCart() {
-        cartTable.setItems(FXCollections.observableArrayList(cartService.getCartItems()));
+        long cartVersion = cartService.getVersion();
+        if (cartVersion != renderedCartVersion || cartTable.getItems() == null) {
+            cartTable.setItems(FXCollections.observableArrayList(cartService.getCartItems()));
+            renderedCartVersion = cartVersion;
+        }
         updateTotals();
     }
 
     /**
-     * Clears all transactional data from the UI and data services after a checkout is complete.
+     * Clears the cart and all transactional data from the UI.
      */
     public void clearCartAndResetUI() {
         cartService.clearCart();
+        resetAfterCheckout();
+    }
+
+    /**
+     * Resets the order fields after a sale. The sold lines are already off the cart; anything
+     * added while the sale was being saved stays for the next one.
+     */
+    public void resetAfterCheckout() {
         observationsTextArea.clear();
         discountComboBox.getSelectionModel().selectFirst(); // Reset to "None"
-        refreshCart(); // Update UI to show empty cart and reset totals
+        refreshCart(); // Update UI to show what is left in the cart and its totals
 
         // Refresh the item list to show updated inventory
         if (lastSelectedCategoryId != -1) {
@@ -234,19 +302,15 @@ public class CaffeeController {
     }
 
     private void updateTotals() {
-        int subtotal = totalsCalculatorService.calculateSubtotal(cartService.getCartItems());
-        int discountValue = discountCalculationService.calculateDiscount(subtotal, discountComboBox.getSelectionModel().getSelectedItem(), otherDiscountField.getText(), otherDiscountPercentageCheckBox.isSelected());
-        double subtotalAfterDiscount = subtotal - discountValue;
-        double tax = totalsCalculatorService.calculateTax(subtotalAfterDiscount);
-        double total = subtotalAfterDiscount + tax;
-
-        subtotalLabel.setText("Subtotal: " + CurrencyFormatter.format(subtotal));
-        discountLabel.setText("Discount: -" + CurrencyFormatter.format(discountValue));
+        OrderTotals totals = pricingQuoteService.quote(discountComboBox.getSelectionModel().getSelectedItem(), otherDiscountField.getText(), otherDiscountPercentageCheckBox.isSelected());
+
+        subtotalLabel.setText("Subtotal: " + CurrencyFormatter.format(totals.getSubtotal()));
+        discountLabel.setText("Discount: -" + CurrencyFormatter.format(totals.getDiscountValue()));
         
-        String taxString = "Tax (" + Math.round(TotalsCalculatorService.TAX_RATE * 100) + "%): " + CurrencyFormatter.format((int) tax);
+        String taxString = "Tax (" + TotalsCalculatorService.formatTaxRate() + "): " + CurrencyFormatter.format(totals.getTax());
         taxLabel.setText(taxString);
 
-        totalLabel.setText("Total: " + CurrencyFormatter.format((int) total));
+        totalLabel.setText("Total: " + CurrencyFormatter.format(totals.getTotal()));
     }
 
     private void showError(String message) {
@@ -285,6 +349,13 @@ public class CaffeeController {
     public void setCheckoutHandler(CheckoutHandler checkoutHandler) {
         this.checkoutHandler = checkoutHandler;
     }
+
+    /**
+     * @param syncStatusSupplier Describes how many sales are still waiting to reach the database.
+     */
+    public void setSyncStatusSupplier(Supplier<String> syncStatusSupplier) {
+        this.syncStatusSupplier = syncStatusSupplier;
+    }
     //</editor-fold>
 
     private static class CurrencyFormattingCell<T> extends TableCell<T, Integer> {
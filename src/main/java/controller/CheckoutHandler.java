@@ -12,20 +12,22 @@ import javafx.scene.layout.VBox;
 import javafx.scene.text.Font;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import model.dto.OrderTotals;
 import model.entity.CartItem;
 import model.entity.Discount;
 import service.auth.SessionManager;
 import service.cart.Cart;
-import service.discount.DiscountCalculationService;
-import service.menu.Catalog;
-import service.order.TotalsCalculatorService;
+import service.order.PricingQuoteService;
+import service.receipt.AsyncReceiptService;
 import service.receipt.ReceiptBuilderService;
-import service.receipt.ReceiptService;
 import util.CurrencyFormatter;
+import util.FxThread;
 
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -34,11 +36,9 @@ import java.util.Optional;
 public class CheckoutHandler {
 
     private final Cart cartService;
-    private final Catalog menuCatalogService;
-    private final ReceiptService receiptService;
+    private final AsyncReceiptService receiptService;
     private final ReceiptBuilderService receiptBuilderService;
-    private final DiscountCalculationService discountCalculationService;
-    private final TotalsCalculatorService totalsCalculatorService;
+    private final PricingQuoteService pricingQuoteService;
     private final Runnable onCheckoutComplete;
 
     // UI components from the main controller
@@ -46,14 +46,13 @@ public class CheckoutHandler {
     private final TextField otherDiscountField;
     private final CheckBox otherDiscountPercentageCheckBox;
     private final TextArea observationsTextArea;
+    private boolean checkoutInProgress;
 
-    public CheckoutHandler(Cart cartService, Catalog menuCatalogService, ReceiptService receiptService, ReceiptBuilderService receiptBuilderService, DiscountCalculationService discountCalculationService, TotalsCalculatorService totalsCalculatorService, Runnable onCheckoutComplete, ComboBox<Discount> discountComboBox, TextField otherDiscountField, CheckBox otherDiscountPercentageCheckBox, TextArea observationsTextArea) {
+    public CheckoutHandler(Cart cartService, AsyncReceiptService receiptService, ReceiptBuilderService receiptBuilderService, PricingQuoteService pricingQuoteService, Runnable onCheckoutComplete, ComboBox<Discount> discountComboBox, TextField otherDiscountField, CheckBox otherDiscountPercentageCheckBox, TextArea observationsTextArea) {
         this.cartService = cartService;
-        this.menuCatalogService = menuCatalogService;
         this.receiptService = receiptService;
         this.receiptBuilderService = receiptBuilderService;
-        this.discountCalculationService = discountCalculationService;
-        this.totalsCalculatorService = totalsCalculatorService;
+        this.pricingQuoteService = pricingQuoteService;
         this.onCheckoutComplete = onCheckoutComplete;
         this.discountComboBox = discountComboBox;
         this.otherDiscountField = otherDiscountField;
@@ -62,6 +61,10 @@ public class CheckoutHandler {
     }
 
     public void startCheckout() {
+        if (checkoutInProgress) {
+            showError("The previous checkout is still being saved.");
+            return;
+        }
         if (cartService.getCartItems().isEmpty()) {
             showError("The cart is empty.");
             return;
@@ -130,14 +133,11 @@ public class CheckoutHandler {
     }
 
     private void handleCashPayment(String customerName) {
-        double total = totalsCalculatorService.calculateFinalTotal(
-                totalsCalculatorService.calculateSubtotal(cartService.getCartItems()),
-                discountCalculationService.calculateDiscount(totalsCalculatorService.calculateSubtotal(cartService.getCartItems()), discountComboBox.getSelectionModel().getSelectedItem(), otherDiscountField.getText(), otherDiscountPercentageCheckBox.isSelected())
-        );
+        long total = currentTotals().getTotal();
 
         TextInputDialog dialog = new TextInputDialog();
         dialog.setTitle("Cash Payment");
-        dialog.setHeaderText("Total is " + CurrencyFormatter.format((int) Math.round(total)) + ".\nEnter amount tendered:");
+        dialog.setHeaderText("Total is " + CurrencyFormatter.format(total) + ".\nEnter amount tendered:");
         dialog.setContentText("Amount:");
 
         Optional<String> result = dialog.showAndWait();
@@ -148,7 +148,7 @@ public class CheckoutHandler {
                     showError("Amount tendered is less than the total.");
                     return;
                 }
-                int change = amountTendered - (int) Math.round(total);
+                int change = Math.toIntExact(amountTendered - total);
                 Alert alert = new Alert(Alert.AlertType.INFORMATION, "Payment successful!\nChange due: " + CurrencyFormatter.format(change));
                 alert.setTitle("Payment Complete");
                 alert.setHeaderText(null);
@@ -177,18 +177,26 @@ public class CheckoutHandler {
     }
 
     private void processFinalCheckout(String customerName, String paymentType, int amountTendered, int change) {
-        int subtotal = totalsCalculatorService.calculateSubtotal(cartService.getCartItems());
+        OrderTotals totals = currentTotals();
         Discount selectedDiscount = discountComboBox.getSelectionModel().getSelectedItem();
-        int discountValue = discountCalculationService.calculateDiscount(subtotal, selectedDiscount, otherDiscountField.getText(), otherDiscountPercentageCheckBox.isSelected());
-
-        String receiptContent = receiptBuilderService.buildReceiptContent(customerName, SessionManager.getInstance().getLoggedInEmployeeName(), cartService.getCartItems(), selectedDiscount, discountValue, observationsTextArea.getText(), paymentType, amountTendered, change);
+        // The sale is exactly these lines, even if the cart is edited while it is being saved.
+        List<CartItem> soldLines = cartService.getCartItems();
 
-        try {
-            receiptService.saveReceipt(customerName, SessionManager.getInstance().getLoggedInEmployeeId(), receiptContent.getBytes(StandardCharsets.UTF_8));
+        String receiptContent = receiptBuilderService.buildReceiptContent(customerName, SessionManager.getInstance().getLoggedInEmployeeName(), soldLines, selectedDiscount, totals, observationsTextArea.getText(), paymentType, amountTendered, change);
 
-            for (CartItem item : cartService.getCartItems()) {
-                menuCatalogService.updateItemInventory(item.getItem().getId(), item.getQuantity());
-            }
+        Map<Integer, Integer> inventoryDecrements = new LinkedHashMap<>();
+        for (CartItem item : soldLines) {
+            inventoryDecrements.merge(item.getItem().getId(), item.getQuantity(), Integer::sum);
+        }
+        int employeeId = SessionManager.getInstance().getLoggedInEmployeeId();
+        // Stock already held for the cart is settled with the receipt; only the remainder is decremented.
+        // The holds are locked, then the receipt and all inventory changes are written together, off the JavaFX thread.
+        checkoutInProgress = true;
+        FxThread.deliver(cartService.lockHolds().thenCompose(soldHolds -> receiptService.completeCheckout(customerName, employeeId,
+                receiptContent.getBytes(StandardCharsets.UTF_8), inventoryDecrements, soldHolds)), ignored -> {
+            checkoutInProgress = false;
+            cartService.commitHolds();
+            cartService.removeQuantities(soldLines);
 
             Alert successAlert = new Alert(Alert.AlertType.INFORMATION);
             successAlert.setTitle("Checkout Complete");
@@ -204,10 +212,18 @@ public class CheckoutHandler {
             if (onCheckoutComplete != null) {
                 onCheckoutComplete.run();
             }
-
-        } catch (Exception e) {
+        }, e -> {
+            checkoutInProgress = false;
+            cartService.unlockHolds();
             showError("Error during final checkout: " + e.getMessage());
-        }
+        });
+    }
+
+    /**
+     * @return The running totals, with the discount as currently shown in the UI.
+     */
+    private OrderTotals currentTotals() {
+        return pricingQuoteService.quote(discountComboBox.getSelectionModel().getSelectedItem(), otherDiscountField.getText(), otherDiscountPercentageCheckBox.isSelected());
     }
 
     private void showError(String message) {
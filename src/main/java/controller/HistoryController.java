@@ -1,31 +1,48 @@
 package controller;
 
 import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.Label;
+import javafx.scene.control.ScrollBar;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TextArea;
+import javafx.scene.control.TextField;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import model.dto.ReceiptCursor;
+import model.dto.ReceiptHistoryFilter;
+import model.dto.ReceiptPage;
 import model.entity.ReceiptInfo;
-import service.receipt.ReceiptService;
+import service.receipt.AsyncReceiptService;
+import util.FxThread;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controller for the Receipt History window (history-view.fxml).
- * Manages fetching and displaying past receipts.
+ * Manages fetching and displaying past receipts. History is loaded one page at a time,
+ * and the next page is fetched as the user scrolls towards the end of the table.
  */
 public class HistoryController {
 
+    private static final int PAGE_SIZE = 50;
+    private static final double LOAD_MORE_THRESHOLD = 0.9;
+
     @FXML
     private TableView<ReceiptInfo> historyTable;
     @FXML
@@ -36,14 +53,29 @@ public class HistoryController {
     private TableColumn<ReceiptInfo, String> customerColumn;
     @FXML
     private TextArea receiptContentArea;
+    @FXML
+    private TextField customerFilterField;
+    @FXML
+    private DatePicker fromDatePicker;
+    @FXML
+    private DatePicker toDatePicker;
+    @FXML
+    private Button loadMoreButton;
+    @FXML
+    private Label statusLabel;
 
-    private final ReceiptService receiptService;
+    private final AsyncReceiptService receiptService;
+    private final ObservableList<ReceiptInfo> loadedReceipts = FXCollections.observableArrayList();
+    private ReceiptHistoryFilter currentFilter = ReceiptHistoryFilter.none();
+    private ReceiptCursor nextCursor;
+    private boolean hasMore;
+    private CompletableFuture<ReceiptPage> pendingPage;
 
     /**
      * Constructor for dependency injection.
      * @param receiptService The service used to fetch receipt data.
      */
-    public HistoryController(ReceiptService receiptService) {
+    public HistoryController(AsyncReceiptService receiptService) {
         this.receiptService = receiptService;
     }
 
@@ -55,17 +87,41 @@ public class HistoryController {
         dateColumn.setCellValueFactory(new PropertyValueFactory<>("uploadDate"));
         employeeColumn.setCellValueFactory(new PropertyValueFactory<>("employeeName"));
         customerColumn.setCellValueFactory(new PropertyValueFactory<>("customerName"));
+        historyTable.setItems(loadedReceipts);
 
-        // Add a listener to show receipt content on selection
+        // Add a listener to load and show receipt content on selection
         historyTable.getSelectionModel().selectedItemProperty().addListener((obs, oldSelection, newSelection) -> {
             if (newSelection != null) {
-                receiptContentArea.setText(new String(newSelection.getFileData(), StandardCharsets.UTF_8));
+                showReceiptContent(newSelection);
             } else {
                 receiptContentArea.clear();
             }
         });
     }
 
+    /**
+     * Displays the body of the selected receipt, fetching it on demand if only metadata was loaded.
+     */
+    private void showReceiptContent(ReceiptInfo receipt) {
+        if (receipt.hasFileData()) {
+            displayContent(receipt.getFileData());
+            return;
+        }
+        receiptContentArea.clear();
+        FxThread.deliver(receiptService.getReceiptContent(receipt.getId()), this::displayContent, e -> {
+            receiptContentArea.clear();
+            showError("Error loading receipt: " + e.getMessage());
+        });
+    }
+
+    private void displayContent(byte[] content) {
+        if (content != null) {
+            receiptContentArea.setText(new String(content, StandardCharsets.UTF_8));
+        } else {
+            receiptContentArea.setText("Receipt content is not available.");
+        }
+    }
+
     /**
      * Fetches receipt history, loads the FXML view, and displays it in a new window.
      */
@@ -75,22 +131,88 @@ public class HistoryController {
             loader.setControllerFactory(param -> this);
             Parent root = loader.load();
 
-            // Fetch data and populate the table *after* the FXML is loaded
-            List<ReceiptInfo> history = receiptService.getReceiptHistory();
-            historyTable.setItems(FXCollections.observableArrayList(history));
+            // Fetch the first page and populate the table *after* the FXML is loaded
+            currentFilter = ReceiptHistoryFilter.none();
+            reloadFirstPage();
 
             Stage historyStage = new Stage();
             historyStage.setTitle("Receipt History");
             historyStage.setScene(new Scene(root));
             historyStage.initModality(Modality.APPLICATION_MODAL);
+            // The table's scroll bar only exists once the skin has been created on show.
+            historyStage.setOnShown(event -> attachScrollPaging());
             historyStage.show();
 
         } catch (IOException e) {
             showError("Failed to load the history view: " + e.getMessage());
             e.printStackTrace();
-        } catch (Exception e) {
-            showError("Error fetching receipt history: " + e.getMessage());
-            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Applies the filter fields and reloads the history from the first page.
+     */
+    @FXML
+    private void handleSearch() {
+        LocalDate from = fromDatePicker.getValue();
+        LocalDate to = toDatePicker.getValue();
+        currentFilter = new ReceiptHistoryFilter(
+                from == null ? null : from.atStartOfDay(),
+                to == null ? null : to.plusDays(1).atStartOfDay(), // Include the whole end day
+                customerFilterField.getText());
+        reloadFirstPage();
+    }
+
+    @FXML
+    private void handleLoadMore() {
+        loadNextPage();
+    }
+
+    /**
+     * Starts over from the first page; a page of the previous search still loading is discarded.
+     */
+    private void reloadFirstPage() {
+        loadedReceipts.clear();
+        receiptContentArea.clear();
+        nextCursor = null;
+        hasMore = false;
+        requestPage(null);
+    }
+
+    private void loadNextPage() {
+        // Scrolling fires many times; the next page is only requested once.
+        if (!hasMore || (pendingPage != null && !pendingPage.isDone())) {
+            return;
+        }
+        requestPage(nextCursor);
+    }
+
+    private void requestPage(ReceiptCursor after) {
+        pendingPage = receiptService.getReceiptHistoryPage(currentFilter, after, PAGE_SIZE);
+        FxThread.deliver(pendingPage, this::appendPage, e -> showError("Error fetching receipt history: " + e.getMessage()));
+    }
+
+    private void appendPage(ReceiptPage page) {
+        loadedReceipts.addAll(page.getReceipts());
+        hasMore = page.hasMore();
+        nextCursor = page.getNextCursor();
+        loadMoreButton.setDisable(!hasMore);
+        statusLabel.setText("Showing " + loadedReceipts.size() + " receipts" + (hasMore ? " (scroll for more)" : ""));
+    }
+
+    /**
+     * Fetches the next page when the vertical scroll bar nears the bottom of the table.
+     */
+    private void attachScrollPaging() {
+        for (Node node : historyTable.lookupAll(".scroll-bar")) {
+            if (node instanceof ScrollBar && ((ScrollBar) node).getOrientation() == Orientation.VERTICAL) {
+                ScrollBar scrollBar = (ScrollBar) node;
+                scrollBar.valueProperty().addListener((obs, oldValue, newValue) -> {
+                    if (newValue.doubleValue() >= scrollBar.getMax() * LOAD_MORE_THRESHOLD) {
+                        loadNextPage();
+                    }
+                });
+            }
         }
     }
 
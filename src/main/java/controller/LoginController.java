@@ -4,7 +4,8 @@ import javafx.fxml.FXML;
 import javafx.scene.control.Alert;
 import javafx.scene.control.PasswordField;
 import javafx.scene.control.TextField;
-import service.auth.AuthService;
+import service.auth.AsyncAuthService;
+import util.FxThread;
 
 /**
  * JavaFX Controller for the Login screen (login.fxml).
@@ -18,21 +19,23 @@ public class LoginController {
     @FXML
     private PasswordField passwordField;
 
-    private final AuthService authService;
+    private final AsyncAuthService authService;
     private final Runnable onLoginSuccess;
+    private boolean attemptInProgress;
 
     /**
      * Constructor for dependency injection.
      * @param authService The authentication service.
      * @param onLoginSuccess A callback to execute upon successful login.
      */
-    public LoginController(AuthService authService, Runnable onLoginSuccess) {
+    public LoginController(AsyncAuthService authService, Runnable onLoginSuccess) {
         this.authService = authService;
         this.onLoginSuccess = onLoginSuccess;
     }
 
     /**
      * Handles the login button click event. It validates input and uses the AuthService to authenticate.
+     * The check runs in the background; further clicks are ignored until it answers.
      */
     @FXML
     private void handleLoginAttempt() {
@@ -44,8 +47,13 @@ public class LoginController {
             return;
         }
 
-        try {
-            if (authService.authenticate(user, password)) {
+        if (attemptInProgress) {
+            return;
+        }
+        attemptInProgress = true;
+        FxThread.deliver(authService.authenticate(user, password), authenticated -> {
+            attemptInProgress = false;
+            if (authenticated) {
                 if (onLoginSuccess != null) {
                     onLoginSuccess.run();
                 }
@@ -53,9 +61,10 @@ public class LoginController {
                 showMessage("Invalid username or password.", true);
                 passwordField.clear();
             }
-        } catch (Exception e) {
+        }, e -> {
+            attemptInProgress = false;
             showMessage("Critical authentication error: " + e.getMessage(), true);
-        }
+        });
     }
 
     /**
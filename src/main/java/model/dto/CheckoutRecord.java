@@ -0,0 +1,106 @@
+package model.dto;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A Data Transfer Object describing one completed checkout: the receipt to store
+ * and the inventory to subtract for every item sold. It is written as a single unit.
+ * Checkouts that went through the local journal also carry their journal position,
+ * which the database uses to apply each entry exactly once. Stock held for the cart is
+ * settled with the checkout, through the IDs of the holds it sold.
+ */
+public class CheckoutRecord {
+    private final String customerName;
+    private final int employeeId;
+    private final LocalDateTime uploadDate;
+    private final byte[] fileData;
+    private final Map<Integer, Integer> inventoryDecrements;
+    private final List<Long> settledHoldIds;
+    private final String journalTerminalId;
+    private final long journalSequence;
+
+    /**
+     * @param customerName The name of the customer.
+     * @param employeeId The ID of the employee who processed the sale.
+     * @param uploadDate The moment the sale was completed.
+     * @param fileData The raw byte data of the receipt content.
+     * @param inventoryDecrements Quantities sold, keyed by item ID.
+     */
+    public CheckoutRecord(String customerName, int employeeId, LocalDateTime uploadDate, byte[] fileData, Map<Integer, Integer> inventoryDecrements) {
+        this(customerName, employeeId, uploadDate, fileData, inventoryDecrements, List.of());
+    }
+
+    /**
+     * @param inventoryDecrements Quantities sold, keyed by item ID, including the held ones.
+     * @param settledHoldIds The stock holds taken for this sale. Stock still held by them is already
+     *                       off the shelf and is not subtracted again.
+     */
+    public CheckoutRecord(String customerName, int employeeId, LocalDateTime uploadDate, byte[] fileData,
+                          Map<Integer, Integer> inventoryDecrements, List<Long> settledHoldIds) {
+        this(customerName, employeeId, uploadDate, fileData, inventoryDecrements, settledHoldIds, null, 0);
+    }
+
+    /**
+     * @param journalTerminalId The terminal whose journal holds this checkout, or null if not journaled.
+     * @param journalSequence The position of this checkout in that terminal's journal.
+     */
+    public CheckoutRecord(String customerName, int employeeId, LocalDateTime uploadDate, byte[] fileData,
+                          Map<Integer, Integer> inventoryDecrements, List<Long> settledHoldIds,
+                          String journalTerminalId, long journalSequence) {
+        this.customerName = customerName;
+        this.employeeId = employeeId;
+        this.uploadDate = uploadDate;
+        this.fileData = fileData;
+        this.inventoryDecrements = Collections.unmodifiableMap(new LinkedHashMap<>(inventoryDecrements));
+        this.settledHoldIds = List.copyOf(settledHoldIds);
+        this.journalTerminalId = journalTerminalId;
+        this.journalSequence = journalSequence;
+    }
+
+    /**
+     * @return A copy of this checkout stamped with its journal position.
+     */
+    public CheckoutRecord withJournalEntry(String terminalId, long sequence) {
+        return new CheckoutRecord(customerName, employeeId, uploadDate, fileData, inventoryDecrements, settledHoldIds, terminalId, sequence);
+    }
+
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public int getEmployeeId() {
+        return employeeId;
+    }
+
+    public LocalDateTime getUploadDate() {
+        return uploadDate;
+    }
+
+    public byte[] getFileData() {
+        return fileData;
+    }
+
+    public Map<Integer, Integer> getInventoryDecrements() {
+        return inventoryDecrements;
+    }
+
+    public List<Long> getSettledHoldIds() {
+        return settledHoldIds;
+    }
+
+    public String getJournalTerminalId() {
+        return journalTerminalId;
+    }
+
+    public long getJournalSequence() {
+        return journalSequence;
+    }
+
+    public boolean isJournaled() {
+        return journalTerminalId != null;
+    }
+}
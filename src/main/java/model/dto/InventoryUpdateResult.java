@@ -0,0 +1,53 @@
+package model.dto;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The outcome of a bulk inventory decrement. Lines whose stock was too low are
+ * left untouched and reported here with the quantity that could not be filled.
+ */
+public class InventoryUpdateResult {
+
+    private static final InventoryUpdateResult COMPLETE = new InventoryUpdateResult(Collections.emptyMap());
+
+    private final Map<Integer, Integer> unfilledLines;
+
+    /**
+     * @param unfilledLines Requested quantities that were not applied, keyed by item ID.
+     */
+    public InventoryUpdateResult(Map<Integer, Integer> unfilledLines) {
+        this.unfilledLines = unfilledLines.isEmpty()
+                ? Collections.emptyMap()
+                : Collections.unmodifiableMap(new LinkedHashMap<>(unfilledLines));
+    }
+
+    /**
+     * @return A result in which every line was filled.
+     */
+    public static InventoryUpdateResult complete() {
+        return COMPLETE;
+    }
+
+    /**
+     * @return True if every requested line was applied.
+     */
+    public boolean isComplete() {
+        return unfilledLines.isEmpty();
+    }
+
+    public Set<Integer> getUnfilledItemIds() {
+        return unfilledLines.keySet();
+    }
+
+    public Map<Integer, Integer> getUnfilledLines() {
+        return unfilledLines;
+    }
+
+    @Override
+    public String toString() {
+        return isComplete() ? "all lines filled" : "unfilled lines " + unfilledLines;
+    }
+}
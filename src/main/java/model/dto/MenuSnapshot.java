@@ -0,0 +1,200 @@
+package model.dto;
+
+import model.entity.Category;
+import model.entity.Discount;
+import model.entity.Item;
+
+import java.text.Collator;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * An immutable, consistent view of the reference data shown on the main screen:
+ * categories, available items and active discounts, all loaded at the same moment.
+ * Items are indexed by ID and by category (in the order the database sorted them by name) when
+ * the snapshot is built. A newer version of the menu is published as a new snapshot, never by
+ * changing this one; patched copies share every list the change does not touch.
+ */
+public class MenuSnapshot {
+
+    /**
+     * Places a new or renamed item in its category list. Like the database's locale collation,
+     * it compares by letters before case and accents, unlike {@link String#compareTo}.
+     */
+    private static final Comparator<Item> NAME_ORDER = Comparator.comparing(Item::getName, Collator.getInstance())
+            .thenComparingInt(Item::getId);
+
+    private final List<Category> categories;
+    private final List<Discount> discounts;
+    private final Map<Integer, Item> itemsById;
+    private final Map<Integer, List<Item>> itemsByCategory;
+    private final LocalDateTime loadedAt;
+
+    /**
+     * @param categories All categories, in display order.
+     * @param items All available items, sorted by name.
+     * @param discounts All active discounts.
+     * @param loadedAt The moment the data was read.
+     */
+    public MenuSnapshot(List<Category> categories, List<Item> items, List<Discount> discounts, LocalDateTime loadedAt) {
+        this.categories = List.copyOf(categories);
+        this.discounts = List.copyOf(discounts);
+        this.loadedAt = loadedAt;
+
+        Map<Integer, Item> byId = new HashMap<>(items.size() * 2);
+        Map<Integer, List<Item>> byCategory = new HashMap<>();
+        for (Item item : items) {
+            byId.put(item.getId(), item);
+            byCategory.computeIfAbsent(item.getCategoryId(), id -> new ArrayList<>()).add(item);
+        }
+        byCategory.replaceAll((id, categoryItems) -> Collections.unmodifiableList(categoryItems));
+        this.itemsById = byId;
+        this.itemsByCategory = byCategory;
+    }
+
+    private MenuSnapshot(List<Category> categories, List<Discount> discounts,
+                         Map<Integer, Item> itemsById, Map<Integer, List<Item>> itemsByCategory) {
+        this.categories = categories;
+        this.discounts = discounts;
+        this.itemsById = itemsById;
+        this.itemsByCategory = itemsByCategory;
+        this.loadedAt = LocalDateTime.now();
+    }
+
+    public List<Category> getCategories() {
+        return categories;
+    }
+
+    public List<Discount> getDiscounts() {
+        return discounts;
+    }
+
+    /**
+     * @return The item with the given ID, or null if it is not an available item.
+     */
+    public Item getItem(int itemId) {
+        return itemsById.get(itemId);
+    }
+
+    /**
+     * @return The available items of a category sorted by name, as a read-only list.
+     */
+    public List<Item> getItemsByCategory(int categoryId) {
+        return itemsByCategory.getOrDefault(categoryId, Collections.emptyList());
+    }
+
+    /**
+     * @return All available items, grouped by category.
+     */
+    public List<Item> getItems() {
+        List<Item> items = new ArrayList<>(itemsById.size());
+        itemsByCategory.values().forEach(items::addAll);
+        return items;
+    }
+
+    /**
+     * @return A copy of this snapshot with the item added, or replacing the item with the same ID.
+     *         Only the item's category list is copied; an item keeping its name keeps its place.
+     */
+    public MenuSnapshot withItem(Item item) {
+        Map<Integer, Item> byId = new HashMap<>(itemsById);
+        Map<Integer, List<Item>> byCategory = new HashMap<>(itemsByCategory);
+        Item previous = byId.put(item.getId(), item);
+        List<Item> categoryItems;
+        if (previous != null && previous.getCategoryId() == item.getCategoryId() && previous.getName().equals(item.getName())) {
+            categoryItems = new ArrayList<>(getItemsByCategory(item.getCategoryId()));
+            categoryItems.replaceAll(existing -> existing.getId() == item.getId() ? item : existing);
+        } else {
+            if (previous != null) {
+                removeFromCategory(byCategory, previous);
+            }
+            categoryItems = new ArrayList<>(byCategory.getOrDefault(item.getCategoryId(), Collections.emptyList()));
+            int position = Collections.binarySearch(categoryItems, item, NAME_ORDER);
+            categoryItems.add(position < 0 ? -position - 1 : position, item);
+        }
+        byCategory.put(item.getCategoryId(), Collections.unmodifiableList(categoryItems));
+        return new MenuSnapshot(categories, discounts, byId, byCategory);
+    }
+
+    /**
+     * @return A copy of this snapshot without the item.
+     */
+    public MenuSnapshot withoutItem(int itemId) {
+        if (!itemsById.containsKey(itemId)) {
+            return this;
+        }
+        Map<Integer, Item> byId = new HashMap<>(itemsById);
+        Map<Integer, List<Item>> byCategory = new HashMap<>(itemsByCategory);
+        removeFromCategory(byCategory, byId.remove(itemId));
+        return new MenuSnapshot(categories, discounts, byId, byCategory);
+    }
+
+    /**
+     * @return A copy of this snapshot with the category added, or replacing the category with the same ID.
+     */
+    public MenuSnapshot withCategory(Category category) {
+        List<Category> updated = withoutId(categories, Category::getId, category.getId());
+        updated.add(category);
+        updated.sort(Comparator.comparingInt(Category::getId));
+        return new MenuSnapshot(List.copyOf(updated), discounts, itemsById, itemsByCategory);
+    }
+
+    /**
+     * @return A copy of this snapshot without the category.
+     */
+    public MenuSnapshot withoutCategory(int categoryId) {
+        return new MenuSnapshot(List.copyOf(withoutId(categories, Category::getId, categoryId)), discounts, itemsById, itemsByCategory);
+    }
+
+    /**
+     * @return A copy of this snapshot with the discount added, or replacing the discount with the same ID.
+     */
+    public MenuSnapshot withDiscount(Discount discount) {
+        List<Discount> updated = withoutId(discounts, Discount::getId, discount.getId());
+        updated.add(discount);
+        updated.sort(Comparator.comparingInt(Discount::getId));
+        return new MenuSnapshot(categories, List.copyOf(updated), itemsById, itemsByCategory);
+    }
+
+    /**
+     * @return A copy of this snapshot without the discount.
+     */
+    public MenuSnapshot withoutDiscount(int discountId) {
+        return new MenuSnapshot(categories, List.copyOf(withoutId(discounts, Discount::getId, discountId)), itemsById, itemsByCategory);
+    }
+
+    private static void removeFromCategory(Map<Integer, List<Item>> byCategory, Item item) {
+        List<Item> remaining = withoutId(byCategory.getOrDefault(item.getCategoryId(), Collections.emptyList()), Item::getId, item.getId());
+        if (remaining.isEmpty()) {
+            byCategory.remove(item.getCategoryId());
+        } else {
+            byCategory.put(item.getCategoryId(), Collections.unmodifiableList(remaining));
+        }
+    }
+
+    private static <T> List<T> withoutId(List<T> values, ToIntFunction<T> idOf, int id) {
+        List<T> remaining = new ArrayList<>(values.size() + 1);
+        for (T value : values) {
+            if (idOf.applyAsInt(value) != id) {
+                remaining.add(value);
+            }
+        }
+        return remaining;
+    }
+
+    public LocalDateTime getLoadedAt() {
+        return loadedAt;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d categories, %d items, %d discounts loaded at %s",
+                categories.size(), itemsById.size(), discounts.size(), loadedAt);
+    }
+}
@@ -0,0 +1,79 @@
+package model.dto;
+
+/**
+ * An immutable snapshot of an order's totals, all in cents.
+ * The UI, the checkout and the receipt all read the same instance, so they always agree.
+ */
+public class OrderTotals {
+    private final long subtotal;
+    private final long discountValue;
+    private final long promotionValue;
+    private final long tax;
+    private final long total;
+    private final long cartVersion;
+
+    /**
+     * @param subtotal The sum of all cart lines.
+     * @param discountValue The discount taken off the subtotal.
+     * @param tax The tax on the discounted subtotal.
+     * @param total The discounted subtotal plus tax.
+     * @param cartVersion The version of the cart these totals were computed for.
+     */
+    public OrderTotals(long subtotal, long discountValue, long tax, long total, long cartVersion) {
+        this(subtotal, discountValue, 0, tax, total, cartVersion);
+    }
+
+    /**
+     * @param promotionValue The part of {@code discountValue} that comes from the cart's promotions.
+     */
+    public OrderTotals(long subtotal, long discountValue, long promotionValue, long tax, long total, long cartVersion) {
+        this.subtotal = subtotal;
+        this.discountValue = discountValue;
+        this.promotionValue = promotionValue;
+        this.tax = tax;
+        this.total = total;
+        this.cartVersion = cartVersion;
+    }
+
+    public long getSubtotal() {
+        return subtotal;
+    }
+
+    public long getDiscountValue() {
+        return discountValue;
+    }
+
+    public long getPromotionValue() {
+        return promotionValue;
+    }
+
+    /**
+     * @return The part of the discount the cashier chose, apart from the promotions.
+     */
+    public long getOrderDiscountValue() {
+        return discountValue - promotionValue;
+    }
+
+    /**
+     * @return These totals, with the given part of the discount marked as promotions.
+     */
+    public OrderTotals withPromotionValue(long promotionValue) {
+        return new OrderTotals(subtotal, discountValue, Math.min(promotionValue, discountValue), tax, total, cartVersion);
+    }
+
+    public long getSubtotalAfterDiscount() {
+        return subtotal - discountValue;
+    }
+
+    public long getTax() {
+        return tax;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long getCartVersion() {
+        return cartVersion;
+    }
+}
@@ -0,0 +1,42 @@
+package model.dto;
+
+import model.entity.ReceiptInfo;
+
+import java.time.LocalDateTime;
+
+/**
+ * A keyset position in the receipt history, ordered by upload date and then ID, newest first.
+ * The next page starts strictly after this position.
+ */
+public class ReceiptCursor {
+    private final LocalDateTime uploadDate;
+    private final int id;
+
+    public ReceiptCursor(LocalDateTime uploadDate, int id) {
+        this.uploadDate = uploadDate;
+        this.id = id;
+    }
+
+    /**
+     * @return A cursor positioned on the given receipt.
+     */
+    public static ReceiptCursor after(ReceiptInfo receipt) {
+        return new ReceiptCursor(receipt.getUploadDate(), receipt.getId());
+    }
+
+    public LocalDateTime getUploadDate() {
+        return uploadDate;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * @return True if the given receipt comes after this position in newest-first order.
+     */
+    public boolean isBefore(ReceiptInfo receipt) {
+        int byDate = receipt.getUploadDate().compareTo(uploadDate);
+        return byDate < 0 || (byDate == 0 && receipt.getId() < id);
+    }
+}
@@ -0,0 +1,64 @@
+package model.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Server-side filters for a receipt history query. Any field left null is not applied.
+ * The employee restriction is not chosen in the UI; the receipt service adds it for non-managers.
+ */
+public class ReceiptHistoryFilter {
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final Integer employeeId;
+    private final String customerNamePrefix;
+
+    /**
+     * @param from Only receipts saved at or after this moment.
+     * @param to Only receipts saved before this moment.
+     * @param customerNamePrefix Only receipts whose customer name starts with this text (case-insensitive).
+     */
+    public ReceiptHistoryFilter(LocalDateTime from, LocalDateTime to, String customerNamePrefix) {
+        this(from, to, null, customerNamePrefix);
+    }
+
+    private ReceiptHistoryFilter(LocalDateTime from, LocalDateTime to, Integer employeeId, String customerNamePrefix) {
+        this.from = from;
+        this.to = to;
+        this.employeeId = employeeId;
+        this.customerNamePrefix = customerNamePrefix == null || customerNamePrefix.trim().isEmpty() ? null : customerNamePrefix.trim();
+    }
+
+    /**
+     * @return A filter that matches every receipt.
+     */
+    public static ReceiptHistoryFilter none() {
+        return new ReceiptHistoryFilter(null, null, null);
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public Integer getEmployeeId() {
+        return employeeId;
+    }
+
+    public String getCustomerNamePrefix() {
+        return customerNamePrefix;
+    }
+
+    public ReceiptHistoryFilter withFrom(LocalDateTime newFrom) {
+        return new ReceiptHistoryFilter(newFrom, to, employeeId, customerNamePrefix);
+    }
+
+    /**
+     * @return A copy that only matches receipts processed by the given employee.
+     */
+    public ReceiptHistoryFilter withEmployeeId(Integer newEmployeeId) {
+        return new ReceiptHistoryFilter(from, to, newEmployeeId, customerNamePrefix);
+    }
+}
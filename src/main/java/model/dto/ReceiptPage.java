@@ -0,0 +1,40 @@
+package model.dto;
+
+import model.entity.ReceiptInfo;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of receipt history, newest first, with the cursor needed to fetch the next page.
+ */
+public class ReceiptPage {
+    private final List<ReceiptInfo> receipts;
+    private final boolean hasMore;
+
+    public ReceiptPage(List<ReceiptInfo> receipts, boolean hasMore) {
+        this.receipts = Collections.unmodifiableList(receipts);
+        this.hasMore = hasMore;
+    }
+
+    public List<ReceiptInfo> getReceipts() {
+        return receipts;
+    }
+
+    /**
+     * @return True if more receipts match the filter after this page.
+     */
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    /**
+     * @return The cursor for the following page, or null if this is the last page.
+     */
+    public ReceiptCursor getNextCursor() {
+        if (!hasMore || receipts.isEmpty()) {
+            return null;
+        }
+        return ReceiptCursor.after(receipts.get(receipts.size() - 1));
+    }
+}
@@ -3,31 +3,101 @@ package model.entity;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.util.List;
+
 /**
  * Represents a discount that can be applied to an order.
  * Discounts can be a fixed amount or a percentage.
+ *
+ * <p>A discount with a {@link DiscountSchedule} only applies during its time windows.
+ * Order discounts are chosen by the cashier. Every other {@link Scope} is a promotion that
+ * applies to the cart on its own, and whose amount is taken off each matching unit or set.
  */
 public class Discount {
+
+    /** The ID of the "None" entry in the discount list. */
+    public static final int NONE_ID = 0;
+    /** The ID of the "Other" entry, whose amount is typed in by the cashier. */
+    public static final int OTHER_ID = -1;
+
+    /**
+     * What a discount applies to.
+     */
+    public enum Scope {
+        /** The whole order; chosen by the cashier. */
+        ORDER,
+        /** Each unit of the item {@code targetId}. */
+        ITEM,
+        /** Each unit of any item in the category {@code targetId}. */
+        CATEGORY,
+        /** For every {@code buyQuantity} units of the item {@code targetId}, the next {@code getQuantity} units. */
+        BUY_X_GET_Y,
+        /** Each complete set of one of every item in {@code comboItemIds}. */
+        COMBO
+    }
+
     private final int id;
     private final String name;
     private final int amount;
     private final boolean isPercentage;
     private final boolean isActive;
+    private final Scope scope;
+    private final int targetId;
+    private final int buyQuantity;
+    private final int getQuantity;
+    private final List<Integer> comboItemIds;
+    private final boolean stackable;
+    private final DiscountSchedule schedule;
+
+    /**
+     * Creates an order discount.
+     */
+    public Discount(int id, String name, int amount, boolean isPercentage, boolean isActive) {
+        this(id, name, amount, isPercentage, isActive, Scope.ORDER, 0, 0, 0, null, false);
+    }
+
+    /**
+     * Creates a discount that applies at all times.
+     */
+    public Discount(int id, String name, int amount, boolean isPercentage, boolean isActive, Scope scope, int targetId,
+                    int buyQuantity, int getQuantity, List<Integer> comboItemIds, boolean stackable) {
+        this(id, name, amount, isPercentage, isActive, scope, targetId, buyQuantity, getQuantity, comboItemIds, stackable, null);
+    }
 
     /**
      * Constructor for creating a Discount. Annotated for Jackson deserialization.
+     *
+     * @param scope What the discount applies to; null means {@link Scope#ORDER}.
+     * @param targetId The item or category the discount applies to, depending on the scope.
+     * @param comboItemIds The items of a {@link Scope#COMBO}; null for other scopes.
+     * @param stackable True if this promotion can be combined with other stackable promotions.
+     * @param schedule When the discount applies; null means at all times.
      */
     @JsonCreator
     public Discount(@JsonProperty("id") int id, 
                   @JsonProperty("name") String name, 
                   @JsonProperty("amount") int amount, 
                   @JsonProperty("isPercentage") boolean isPercentage, 
-                  @JsonProperty("isActive") boolean isActive) {
+                  @JsonProperty("isActive") boolean isActive,
+                  @JsonProperty("scope") Scope scope,
+                  @JsonProperty("targetId") int targetId,
+                  @JsonProperty("buyQuantity") int buyQuantity,
+                  @JsonProperty("getQuantity") int getQuantity,
+                  @JsonProperty("comboItemIds") List<Integer> comboItemIds,
+                  @JsonProperty("stackable") boolean stackable,
+                  @JsonProperty("schedule") DiscountSchedule schedule) {
         this.id = id;
         this.name = name;
         this.amount = amount;
         this.isPercentage = isPercentage;
         this.isActive = isActive;
+        this.scope = scope != null ? scope : Scope.ORDER;
+        this.targetId = targetId;
+        this.buyQuantity = buyQuantity;
+        this.getQuantity = getQuantity;
+        this.comboItemIds = comboItemIds != null ? List.copyOf(comboItemIds) : List.of();
+        this.stackable = stackable;
+        this.schedule = schedule;
     }
 
     // --- Standard Getters ---
@@ -52,6 +122,52 @@ public class Discount {
         return isActive;
     }
 
+    public Scope getScope() {
+        return scope;
+    }
+
+    public int getTargetId() {
+        return targetId;
+    }
+
+    public int getBuyQuantity() {
+        return buyQuantity;
+    }
+
+    public int getGetQuantity() {
+        return getQuantity;
+    }
+
+    public List<Integer> getComboItemIds() {
+        return comboItemIds;
+    }
+
+    public boolean isStackable() {
+        return stackable;
+    }
+
+    /**
+     * @return When the discount applies, or null if it applies at all times.
+     */
+    public DiscountSchedule getSchedule() {
+        return schedule;
+    }
+
+    /**
+     * @return True for promotions, which apply to the cart on their own instead of being chosen.
+     */
+    public boolean isPromotion() {
+        return scope != Scope.ORDER;
+    }
+
+    public boolean isNone() {
+        return id == NONE_ID;
+    }
+
+    public boolean isOther() {
+        return id == OTHER_ID;
+    }
+
     /**
      * The string representation used in the ComboBox UI.
      * @return The name of the discount.
@@ -0,0 +1,99 @@
+package model.entity;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * When a discount applies: on some days of the week, during a daily time window, and within an
+ * optional validity period. A window whose end is not after its start runs past midnight, so
+ * 22:00-02:00 on Friday covers Friday night and the first two hours of Saturday.
+ */
+public class DiscountSchedule {
+    private final Set<DayOfWeek> days;
+    private final LocalTime startTime;
+    private final LocalTime endTime;
+    private final LocalDateTime validFrom;
+    private final LocalDateTime validUntil;
+
+    /**
+     * @param days The days the window starts on; null or empty means every day.
+     * @param startTime The start of the daily window; null means midnight.
+     * @param endTime The end of the daily window, exclusive; null means the end of the day.
+     * @param validFrom The first moment the discount applies; null means no start.
+     * @param validUntil The moment the discount stops applying, exclusive; null means no end.
+     */
+    public DiscountSchedule(Collection<DayOfWeek> days, LocalTime startTime, LocalTime endTime,
+                            LocalDateTime validFrom, LocalDateTime validUntil) {
+        this.days = days == null || days.isEmpty() ? EnumSet.allOf(DayOfWeek.class) : EnumSet.copyOf(days);
+        this.startTime = startTime != null ? startTime : LocalTime.MIDNIGHT;
+        this.endTime = endTime;
+        this.validFrom = validFrom;
+        this.validUntil = validUntil;
+    }
+
+    /**
+     * Factory for Jackson, which reads times as "HH:mm" and dates as ISO date-times.
+     */
+    @JsonCreator
+    private static DiscountSchedule fromJson(@JsonProperty("days") Collection<DayOfWeek> days,
+                                             @JsonProperty("startTime") String startTime,
+                                             @JsonProperty("endTime") String endTime,
+                                             @JsonProperty("validFrom") String validFrom,
+                                             @JsonProperty("validUntil") String validUntil) {
+        return new DiscountSchedule(days,
+                startTime != null ? LocalTime.parse(startTime) : null,
+                endTime != null ? LocalTime.parse(endTime) : null,
+                validFrom != null ? LocalDateTime.parse(validFrom) : null,
+                validUntil != null ? LocalDateTime.parse(validUntil) : null);
+    }
+
+    public Set<DayOfWeek> getDays() {
+        return days;
+    }
+
+    public LocalTime getStartTime() {
+        return startTime;
+    }
+
+    public LocalTime getEndTime() {
+        return endTime;
+    }
+
+    public LocalDateTime getValidFrom() {
+        return validFrom;
+    }
+
+    public LocalDateTime getValidUntil() {
+        return validUntil;
+    }
+
+    /**
+     * @return The length of the daily window in seconds, at most one day.
+     */
+    public int getWindowSeconds() {
+        int start = startTime.toSecondOfDay();
+        int end = endTime != null ? endTime.toSecondOfDay() : 0;
+        return end > start ? end - start : end + 86_400 - start;
+    }
+
+    /**
+     * @return True if the discount applies all day, every day, so only the validity period matters.
+     */
+    public boolean isAllWeek() {
+        return days.size() == DayOfWeek.values().length && getWindowSeconds() == 86_400;
+    }
+
+    /**
+     * @return True if the moment lies within the validity period; the weekly window is not checked.
+     */
+    public boolean isValidAt(LocalDateTime moment) {
+        return (validFrom == null || !moment.isBefore(validFrom)) && (validUntil == null || moment.isBefore(validUntil));
+    }
+}
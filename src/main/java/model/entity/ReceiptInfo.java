@@ -5,21 +5,47 @@ import java.time.LocalDateTime;
 /**
  * A Data Transfer Object (DTO) representing a historical receipt record.
  * This class is used to display receipt information in the history view.
+ * History queries only fill in the metadata; the receipt body is loaded on demand by its ID.
  */
 public class ReceiptInfo {
+    private final int id;
     private final String employeeName;
     private final String customerName;
     private final LocalDateTime uploadDate;
     private final byte[] fileData;
 
     /**
-     * Constructor for creating a ReceiptInfo object.
+     * Constructor for a metadata-only record whose content is fetched later by ID.
+     * @param id The unique identifier of the stored receipt.
+     * @param employeeName The full name of the employee who processed the sale.
+     * @param customerName The name of the customer.
+     * @param uploadDate The date and time the receipt was saved.
+     */
+    public ReceiptInfo(int id, String employeeName, String customerName, LocalDateTime uploadDate) {
+        this(id, employeeName, customerName, uploadDate, null);
+    }
+
+    /**
+     * Constructor for creating a ReceiptInfo object without a stored ID.
      * @param employeeName The full name of the employee who processed the sale.
      * @param customerName The name of the customer.
      * @param uploadDate The date and time the receipt was saved.
      * @param fileData The raw byte data of the receipt content.
      */
     public ReceiptInfo(String employeeName, String customerName, LocalDateTime uploadDate, byte[] fileData) {
+        this(0, employeeName, customerName, uploadDate, fileData);
+    }
+
+    /**
+     * Constructor for creating a ReceiptInfo object.
+     * @param id The unique identifier of the stored receipt.
+     * @param employeeName The full name of the employee who processed the sale.
+     * @param customerName The name of the customer.
+     * @param uploadDate The date and time the receipt was saved.
+     * @param fileData The raw byte data of the receipt content, or null if not loaded yet.
+     */
+    public ReceiptInfo(int id, String employeeName, String customerName, LocalDateTime uploadDate, byte[] fileData) {
+        this.id = id;
         this.employeeName = employeeName;
         this.customerName = customerName;
         this.uploadDate = uploadDate;
@@ -28,6 +54,10 @@ public class ReceiptInfo {
 
     // --- Standard Getters ---
 
+    public int getId() {
+        return id;
+    }
+
     public String getEmployeeName() {
         return employeeName;
     }
@@ -40,7 +70,14 @@ public class ReceiptInfo {
         return uploadDate;
     }
 
+    /**
+     * @return The receipt content, or null if only the metadata was loaded.
+     */
     public byte[] getFileData() {
         return fileData;
     }
+
+    public boolean hasFileData() {
+        return fileData != null;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,113 @@
+package repo;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Subscribes to PostgreSQL NOTIFY channels on a dedicated connection and hands every
+ * notification to a callback as soon as it arrives.
+ *
+ * <p>Notifications sent while the listener is disconnected are lost, so after every
+ * (re)connect the {@code onResubscribed} callback runs, letting caches reload in full
+ * before relying on notifications again.
+ */
+public class ChangeNotificationListener implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChangeNotificationListener.class);
+    private static final int POLL_TIMEOUT_MILLIS = 500;
+
+    private final ConnectionPool.ConnectionFactory connectionFactory;
+    private final List<String> channels;
+    private final BiConsumer<String, String> onNotification;
+    private final Runnable onResubscribed;
+    private final long reconnectDelayMillis;
+    private final Thread listener;
+    private volatile boolean running = true;
+
+    /**
+     * @param connectionFactory Opens the dedicated connection; it is not returned to any pool.
+     * @param channels The channels to LISTEN on.
+     * @param onNotification Receives the channel name and payload of each notification.
+     * @param onResubscribed Runs after every successful (re)subscription.
+     * @param reconnectDelayMillis How long to wait before reconnecting after the connection fails.
+     */
+    public ChangeNotificationListener(ConnectionPool.ConnectionFactory connectionFactory, List<String> channels,
+                                      BiConsumer<String, String> onNotification, Runnable onResubscribed,
+                                      long reconnectDelayMillis) {
+        this.connectionFactory = connectionFactory;
+        this.channels = List.copyOf(channels);
+        this.onNotification = onNotification;
+        this.onResubscribed = onResubscribed;
+        this.reconnectDelayMillis = reconnectDelayMillis;
+        this.listener = new Thread(this::run, "change-notification-listener");
+        this.listener.setDaemon(true);
+    }
+
+    /**
+     * Starts listening in the background.
+     */
+    public void start() {
+        listener.start();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        listener.interrupt();
+    }
+
+    private void run() {
+        while (running) {
+            try (Connection connection = connectionFactory.create()) {
+                subscribe(connection);
+                receive(connection.unwrap(PGConnection.class));
+            } catch (SQLException e) {
+                if (!running) {
+                    break;
+                }
+                LOGGER.warn("Change notifications interrupted. Reconnecting in {} ms.", reconnectDelayMillis, e);
+                try {
+                    Thread.sleep(reconnectDelayMillis);
+                } catch (InterruptedException ie) {
+                    break;
+                }
+            }
+        }
+        LOGGER.info("Change notification listener stopped.");
+    }
+
+    private void subscribe(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            for (String channel : channels) {
+                stmt.execute("LISTEN " + channel);
+            }
+        }
+        LOGGER.info("Listening for changes on {}.", channels);
+        onResubscribed.run();
+    }
+
+    private void receive(PGConnection connection) throws SQLException {
+        while (running) {
+            // Blocks until a notification arrives or the timeout passes, without a query round trip.
+            PGNotification[] notifications = connection.getNotifications(POLL_TIMEOUT_MILLIS);
+            if (notifications == null) {
+                continue;
+            }
+            for (PGNotification notification : notifications) {
+                try {
+                    onNotification.accept(notification.getName(), notification.getParameter());
+                } catch (RuntimeException e) {
+                    LOGGER.error("Error handling change notification on '{}'.", notification.getName(), e);
+                }
+            }
+        }
+    }
+}
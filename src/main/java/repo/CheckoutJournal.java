@@ -0,0 +1,546 @@
+package repo;
+
+import model.dto.CheckoutRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only, local store-and-forward journal of completed checkouts.
+ * Each checkout is written and fsynced before the sale is confirmed, so tills keep selling
+ * at local-disk speed while the database is slow or unreachable. Concurrent appends are
+ * group-committed: one writer thread flushes every waiting entry with a single fsync.
+ *
+ * <p>Entries are replayed to the database in sequence order. The last applied sequence is kept
+ * in a small marker file, and the database records every applied (terminal, sequence) pair,
+ * so an entry is never applied twice even if the marker is lost in a crash. That only holds
+ * while sequences are never reused, so the highest sequence ever handed out is kept in the
+ * journal header, which survives compaction, and can be raised past what the database has
+ * already seen with {@link #advanceSequencePast(long)}.
+ *
+ * <p>Once {@code maxPendingEntries} checkouts are waiting for the database, appends wait for
+ * room and then fail, so an outage cannot grow the journal without bound.
+ *
+ * <p>File layout: {@code [int magic][long highestSequence]} followed by entries laid out as
+ * {@code [int payloadLength][long sequence][payload][int crc32]}.
+ * A torn entry at the end of the file (from a crash mid-write) is detected by its checksum and discarded.
+ */
+public class CheckoutJournal implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CheckoutJournal.class);
+    private static final int ENTRY_OVERHEAD = Integer.BYTES + Long.BYTES + Integer.BYTES;
+    private static final int MAGIC = 0x434B4A31; // "CKJ1"
+    private static final int HEADER_SIZE = Integer.BYTES + Long.BYTES;
+    private static final long FULL_WAIT_MILLIS = 2_000;
+    public static final int DEFAULT_MAX_PENDING_ENTRIES = 10_000;
+
+    private final String terminalId;
+    private final Path journalPath;
+    private final Path appliedMarkerPath;
+    private final FileChannel channel;
+    private final int maxPendingEntries;
+    private final LinkedBlockingQueue<PendingAppend> appendQueue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private volatile boolean open = true;
+
+    // Guarded by this
+    private final ArrayDeque<CheckoutRecord> unapplied = new ArrayDeque<>();
+    private long nextSequence;
+    private long appliedSequence;
+    // Set when a failed append could not be rolled back; later entries would sit behind its partial bytes.
+    private boolean damaged;
+    private boolean withoutHistory;
+
+    /**
+     * Opens the journal, recovering any entries that were not yet applied to the database.
+     *
+     * @param journalPath The journal file; it and its parent directory are created if missing.
+     * @param terminalId A stable identifier of this till, used to deduplicate replays in the database.
+     * @throws IOException if the journal cannot be opened or read.
+     */
+    public CheckoutJournal(Path journalPath, String terminalId) throws IOException {
+        this(journalPath, terminalId, DEFAULT_MAX_PENDING_ENTRIES);
+    }
+
+    /**
+     * @param maxPendingEntries How many checkouts may wait for the database before appends are refused.
+     */
+    public CheckoutJournal(Path journalPath, String terminalId, int maxPendingEntries) throws IOException {
+        this.terminalId = terminalId;
+        this.maxPendingEntries = Math.max(1, maxPendingEntries);
+        this.journalPath = journalPath;
+        this.appliedMarkerPath = journalPath.resolveSibling(journalPath.getFileName() + ".applied");
+        if (journalPath.getParent() != null) {
+            Files.createDirectories(journalPath.getParent());
+        }
+        boolean created = !Files.exists(journalPath);
+        this.channel = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (created) {
+            forceDirectory(journalPath);
+        }
+        this.appliedSequence = readAppliedMarker();
+        recover();
+
+        this.writer = new Thread(this::runWriter, "checkout-journal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Appends a checkout and waits until it is durable on disk.
+     *
+     * @param record The checkout to store.
+     * @return The checkout stamped with its journal position.
+     * @throws IOException if the entry could not be written, or the journal stayed full.
+     */
+    public CheckoutRecord append(CheckoutRecord record) throws IOException {
+        if (!open) {
+            throw new IOException("Checkout journal is closed.");
+        }
+        awaitRoom();
+        PendingAppend pending = new PendingAppend(record);
+        appendQueue.add(pending);
+        try {
+            return pending.result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing to the checkout journal.", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to write to the checkout journal.", e.getCause());
+        }
+    }
+
+    /**
+     * Waits until fewer than {@code maxPendingEntries} checkouts are waiting for the database.
+     */
+    private synchronized void awaitRoom() throws IOException {
+        long deadline = System.currentTimeMillis() + FULL_WAIT_MILLIS;
+        while (unapplied.size() + appendQueue.size() >= maxPendingEntries) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                throw new IOException("Checkout journal is full with " + unapplied.size() + " checkouts waiting for the database.");
+            }
+            try {
+                wait(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for room in the checkout journal.", e);
+            }
+        }
+    }
+
+    /**
+     * Makes sure every sequence handed out from now on is above {@code sequence}, e.g. the highest
+     * one the database has recorded for this terminal, in case the local journal was lost or reset.
+     */
+    public synchronized void advanceSequencePast(long sequence) throws IOException {
+        if (sequence < nextSequence) {
+            return;
+        }
+        LOGGER.warn("The database has journal entries up to {} for terminal '{}'; continuing after them.", sequence, terminalId);
+        nextSequence = sequence + 1;
+        writeHeader(sequence);
+        channel.force(false);
+    }
+
+    /**
+     * Waits for unapplied entries and returns up to {@code maxEntries} of them, oldest first.
+     *
+     * @return The oldest unapplied entries, or an empty list if none arrived before the timeout.
+     */
+    public synchronized List<CheckoutRecord> awaitUnapplied(int maxEntries, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (unapplied.isEmpty()) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return new ArrayList<>();
+            }
+            wait(remaining);
+        }
+        List<CheckoutRecord> batch = new ArrayList<>(Math.min(maxEntries, unapplied.size()));
+        for (CheckoutRecord record : unapplied) {
+            if (batch.size() == maxEntries) {
+                break;
+            }
+            batch.add(record);
+        }
+        return batch;
+    }
+
+    /**
+     * Records that every entry up to and including {@code sequence} is in the database.
+     * Once nothing is left to apply, the journal file is truncated.
+     */
+    public synchronized void markApplied(long sequence) throws IOException {
+        while (!unapplied.isEmpty() && unapplied.peekFirst().getJournalSequence() <= sequence) {
+            unapplied.pollFirst();
+        }
+        appliedSequence = Math.max(appliedSequence, sequence);
+        writeAppliedMarker(appliedSequence);
+        if (unapplied.isEmpty()) {
+            // The writer appends under the same lock, so no entry can slip in between.
+            // The header stays, so the highest sequence is never forgotten.
+            channel.truncate(HEADER_SIZE);
+            channel.position(HEADER_SIZE);
+        }
+        notifyAll();
+    }
+
+    /**
+     * Waits until every appended entry has been applied to the database.
+     *
+     * @return True if nothing is left to apply, false on timeout.
+     */
+    public synchronized boolean awaitApplied(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (!unapplied.isEmpty()) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            wait(remaining);
+        }
+        return true;
+    }
+
+    public String getTerminalId() {
+        return terminalId;
+    }
+
+    /**
+     * @return The number of entries not yet applied to the database.
+     */
+    public synchronized int getPendingCount() {
+        return unapplied.size();
+    }
+
+    /**
+     * @return The stock holds sold by entries not yet applied to the database.
+     */
+    public synchronized List<Long> getPendingHoldIds() {
+        List<Long> holdIds = new ArrayList<>();
+        for (CheckoutRecord record : unapplied) {
+            holdIds.addAll(record.getSettledHoldIds());
+        }
+        return holdIds;
+    }
+
+    /**
+     * @return True if the journal had no header when it was opened, e.g. because it is new or was
+     *         lost. It then does not know which sequences this terminal already used, and only
+     *         {@link #advanceSequencePast(long)} can tell it.
+     */
+    public synchronized boolean isWithoutHistory() {
+        return withoutHistory;
+    }
+
+    /**
+     * Closes a journal that was never appended to and deletes its files, so the next start
+     * again treats it as having no history.
+     *
+     * @throws IOException if the files could not be deleted.
+     */
+    public void discard() throws IOException {
+        close();
+        Files.deleteIfExists(journalPath);
+        Files.deleteIfExists(appliedMarkerPath);
+    }
+
+    /**
+     * @return The size of the journaled entries in bytes, not counting the header.
+     */
+    public long getSizeBytes() {
+        try {
+            return Math.max(0, channel.size() - HEADER_SIZE);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    @Override
+    public void close() {
+        open = false;
+        try {
+            // The writer is not interrupted: an interrupt during a write would close the channel.
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+            channel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            LOGGER.warn("Error while closing the checkout journal.", e);
+        }
+    }
+
+    // --- Group commit ---
+
+    private void runWriter() {
+        List<PendingAppend> group = new ArrayList<>();
+        while (open || !appendQueue.isEmpty()) {
+            try {
+                PendingAppend first = appendQueue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+            } catch (InterruptedException e) {
+                break;
+            }
+            appendQueue.drainTo(group);
+            writeGroup(group);
+            group.clear();
+        }
+    }
+
+    private void writeGroup(List<PendingAppend> group) {
+        synchronized (this) {
+            List<CheckoutRecord> stamped = new ArrayList<>(group.size());
+            long sequence = nextSequence;
+            long validLength = -1;
+            try {
+                if (damaged) {
+                    throw new IOException("The checkout journal holds a partial entry from an earlier failed append.");
+                }
+                validLength = channel.size();
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                for (PendingAppend pending : group) {
+                    CheckoutRecord record = pending.record.withJournalEntry(terminalId, sequence++);
+                    bytes.write(encodeEntry(record));
+                    stamped.add(record);
+                }
+                ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+                channel.position(channel.size());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                writeHeader(sequence - 1);
+                // One fsync makes the whole group and the new high-water sequence durable.
+                channel.force(false);
+            } catch (IOException e) {
+                LOGGER.error("Failed to append {} checkouts to the journal.", group.size(), e);
+                if (validLength >= 0) {
+                    discardPartialAppend(validLength, e);
+                }
+                group.forEach(pending -> pending.result.completeExceptionally(e));
+                return;
+            }
+            nextSequence = sequence;
+            unapplied.addAll(stamped);
+            notifyAll();
+            for (int i = 0; i < group.size(); i++) {
+                group.get(i).result.complete(stamped.get(i));
+            }
+        }
+    }
+
+    /**
+     * Cuts a failed append off the end of the file. Left in place, its partial bytes would end
+     * recovery early and take every later, acknowledged entry with them.
+     */
+    private void discardPartialAppend(long validLength, IOException cause) {
+        try {
+            channel.truncate(validLength);
+            channel.force(false);
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+            damaged = true;
+            LOGGER.error("Could not remove a partial entry from the checkout journal. Further appends are refused.", e);
+        }
+    }
+
+    // --- Recovery ---
+
+    private void recover() throws IOException {
+        long lastSequence = appliedSequence;
+        ByteBuffer contents = ByteBuffer.wrap(Files.readAllBytes(journalPath));
+        if (contents.remaining() < HEADER_SIZE) {
+            // A new journal, or one that crashed before its header was written; neither has entries.
+            withoutHistory = true;
+            channel.truncate(0);
+            writeHeader(lastSequence);
+            channel.force(false);
+            contents.position(contents.limit());
+        } else {
+            if (contents.getInt() != MAGIC) {
+                throw new IOException(journalPath + " is not a checkout journal.");
+            }
+            lastSequence = Math.max(lastSequence, contents.getLong());
+        }
+        while (contents.remaining() >= ENTRY_OVERHEAD) {
+            int start = contents.position();
+            int length = contents.getInt();
+            if (length < 0 || contents.remaining() < length + Long.BYTES + Integer.BYTES) {
+                // A partially written entry at the tail; everything before it is intact.
+                contents.position(start);
+                break;
+            }
+            long sequence = contents.getLong();
+            byte[] payload = new byte[length];
+            contents.get(payload);
+            if (contents.getInt() != checksum(sequence, payload)) {
+                contents.position(start);
+                break;
+            }
+            lastSequence = Math.max(lastSequence, sequence);
+            if (sequence > appliedSequence) {
+                unapplied.add(decodePayload(payload).withJournalEntry(terminalId, sequence));
+            }
+        }
+        long validLength = Math.max(contents.position(), HEADER_SIZE);
+        if (validLength < channel.size()) {
+            LOGGER.warn("Discarding {} bytes of incomplete data at the end of the checkout journal.", channel.size() - validLength);
+            channel.truncate(validLength);
+        }
+        nextSequence = lastSequence + 1;
+        channel.position(channel.size());
+        if (!unapplied.isEmpty()) {
+            LOGGER.info("Recovered {} checkouts from the journal that still need to be sent to the database.", unapplied.size());
+        }
+    }
+
+    private long readAppliedMarker() throws IOException {
+        if (!Files.exists(appliedMarkerPath)) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(Files.readString(appliedMarkerPath).trim());
+        } catch (NumberFormatException e) {
+            // Safe because sequences come from the header and are never reused: the whole journal is
+            // replayed and the database skips the entries it already has.
+            LOGGER.warn("Ignoring an unreadable journal marker; the database will skip already applied entries.");
+            return 0;
+        }
+    }
+
+    /**
+     * Replaces the marker atomically and fsyncs both the file and the rename.
+     */
+    private void writeAppliedMarker(long sequence) throws IOException {
+        Path temp = appliedMarkerPath.resolveSibling(appliedMarkerPath.getFileName() + ".tmp");
+        try (FileChannel marker = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer contents = ByteBuffer.wrap(Long.toString(sequence).getBytes(StandardCharsets.US_ASCII));
+            while (contents.hasRemaining()) {
+                marker.write(contents);
+            }
+            marker.force(false);
+        }
+        Files.move(temp, appliedMarkerPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory(appliedMarkerPath);
+    }
+
+    private void writeHeader(long highestSequence) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putLong(highestSequence).flip();
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+    }
+
+    /**
+     * Fsyncs the directory holding {@code file}, so a created or renamed file survives a crash.
+     */
+    private static void forceDirectory(Path file) {
+        Path directory = file.toAbsolutePath().getParent();
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Some platforms (e.g. Windows) cannot open a directory; the rename is still atomic there.
+            LOGGER.debug("Could not fsync directory {}.", directory, e);
+        }
+    }
+
+    // --- Encoding ---
+
+    private static byte[] encodeEntry(CheckoutRecord record) throws IOException {
+        byte[] payload = encodePayload(record);
+        ByteBuffer entry = ByteBuffer.allocate(ENTRY_OVERHEAD + payload.length);
+        entry.putInt(payload.length);
+        entry.putLong(record.getJournalSequence());
+        entry.put(payload);
+        entry.putInt(checksum(record.getJournalSequence(), payload));
+        return entry.array();
+    }
+
+    static byte[] encodePayload(CheckoutRecord record) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256 + record.getFileData().length);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(record.getCustomerName());
+            out.writeInt(record.getEmployeeId());
+            out.writeUTF(record.getUploadDate().toString());
+            out.writeInt(record.getFileData().length);
+            out.write(record.getFileData());
+            out.writeInt(record.getInventoryDecrements().size());
+            for (Map.Entry<Integer, Integer> line : record.getInventoryDecrements().entrySet()) {
+                out.writeInt(line.getKey());
+                out.writeInt(line.getValue());
+            }
+            out.writeInt(record.getSettledHoldIds().size());
+            for (long holdId : record.getSettledHoldIds()) {
+                out.writeLong(holdId);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    static CheckoutRecord decodePayload(byte[] payload) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            String customerName = in.readUTF();
+            int employeeId = in.readInt();
+            LocalDateTime uploadDate = LocalDateTime.parse(in.readUTF());
+            byte[] fileData = new byte[in.readInt()];
+            in.readFully(fileData);
+            int lineCount = in.readInt();
+            Map<Integer, Integer> decrements = new LinkedHashMap<>();
+            for (int i = 0; i < lineCount; i++) {
+                decrements.put(in.readInt(), in.readInt());
+            }
+            // Entries written before holds were settled with the sale end here.
+            List<Long> holdIds = new ArrayList<>();
+            if (in.available() > 0) {
+                int holdCount = in.readInt();
+                for (int i = 0; i < holdCount; i++) {
+                    holdIds.add(in.readLong());
+                }
+            }
+            return new CheckoutRecord(customerName, employeeId, uploadDate, fileData, decrements, holdIds);
+        }
+    }
+
+    private static int checksum(long sequence, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(Long.BYTES).putLong(0, sequence).array());
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static final class PendingAppend {
+        private final CheckoutRecord record;
+        private final CompletableFuture<CheckoutRecord> result = new CompletableFuture<>();
+
+        private PendingAppend(CheckoutRecord record) {
+            this.record = record;
+        }
+    }
+}
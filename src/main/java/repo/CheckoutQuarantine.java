@@ -0,0 +1,227 @@
+package repo;
+
+import model.dto.CheckoutRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * A local dead-letter file for checkouts the database would not accept, and for checkouts still
+ * queued in memory when the receipt writer had to shut down. Each one is kept with the reason it
+ * was set aside, so a manager can fix the cause and replay it instead of the sale being lost or
+ * holding up every sale behind it.
+ *
+ * <p>Entry layout: {@code [int length][payload][int crc32]}, where the payload holds the reason,
+ * the journal identity of the checkout (if any) and the checkout itself in the journal's encoding.
+ */
+public class CheckoutQuarantine implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CheckoutQuarantine.class);
+
+    private final Path path;
+    // Guarded by this
+    private FileChannel channel; // Null until started
+    private int count;
+
+    /**
+     * @param path The quarantine file; it and its parent directory are created by {@link #start()} if missing.
+     */
+    public CheckoutQuarantine(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Opens the file and reports any checkouts already waiting in it. Must be called before use.
+     *
+     * @throws IOException if the file cannot be opened.
+     */
+    public synchronized void start() throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        count = readPayloads().size();
+        if (count > 0) {
+            LOGGER.warn("{} quarantined checkouts in {} are waiting to be reconciled.", count, path);
+        }
+    }
+
+    /**
+     * Sets a checkout aside and waits until it is durable on disk.
+     *
+     * @param record The checkout.
+     * @param reason Why it was set aside, e.g. the database error.
+     * @throws IOException if the entry could not be written.
+     */
+    public synchronized void add(CheckoutRecord record, String reason) throws IOException {
+        if (channel == null) {
+            throw new IOException("The checkout quarantine has not been started.");
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(reason == null ? "" : reason);
+            out.writeUTF(record.isJournaled() ? record.getJournalTerminalId() : "");
+            out.writeLong(record.getJournalSequence());
+            byte[] checkout = CheckoutJournal.encodePayload(record);
+            out.writeInt(checkout.length);
+            out.write(checkout);
+        }
+        byte[] payload = bytes.toByteArray();
+        ByteBuffer entry = encodeEntry(payload);
+        channel.position(channel.size());
+        while (entry.hasRemaining()) {
+            channel.write(entry);
+        }
+        channel.force(false);
+        count++;
+        LOGGER.error("Quarantined checkout for '{}' ({}) in {}.", record.getCustomerName(), reason, path);
+    }
+
+    /**
+     * @return Every quarantined checkout, oldest first, with its journal identity restored.
+     *         A torn entry at the end of the file is ignored.
+     * @throws IOException if the file cannot be read.
+     */
+    public synchronized List<CheckoutRecord> readAll() throws IOException {
+        List<CheckoutRecord> records = new ArrayList<>();
+        for (byte[] payload : readPayloads()) {
+            records.add(decode(payload));
+        }
+        return records;
+    }
+
+    /**
+     * @return The number of checkouts waiting to be reconciled.
+     */
+    public synchronized int getCount() {
+        return count;
+    }
+
+    /**
+     * Sends every quarantined checkout to {@code writer} again, oldest first, e.g. once the cause
+     * was fixed. Checkouts it accepts are removed; the file is replaced atomically, so a crash
+     * leaves either the old or the new set. Journaled checkouts keep their journal identity, so
+     * the database skips any it already has.
+     *
+     * @return The number of checkouts that were written and removed.
+     * @throws IOException if the file cannot be read or rewritten; nothing is removed then.
+     */
+    public synchronized int replay(CheckoutWriter writer) throws IOException {
+        if (channel == null) {
+            throw new IOException("The checkout quarantine has not been started.");
+        }
+        List<byte[]> kept = new ArrayList<>();
+        int replayed = 0;
+        for (byte[] payload : readPayloads()) {
+            CheckoutRecord record = decode(payload);
+            try {
+                writer.write(record);
+                replayed++;
+            } catch (Exception e) {
+                LOGGER.warn("Quarantined checkout for '{}' was refused again.", record.getCustomerName(), e);
+                kept.add(payload);
+            }
+        }
+        if (replayed > 0) {
+            rewrite(kept);
+            LOGGER.info("Replayed {} quarantined checkouts; {} are still waiting.", replayed, count);
+        }
+        return replayed;
+    }
+
+    /**
+     * Writes one quarantined checkout back to the database.
+     */
+    public interface CheckoutWriter {
+        void write(CheckoutRecord record) throws Exception;
+    }
+
+    private void rewrite(List<byte[]> payloads) throws IOException {
+        Path replacement = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(replacement, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (byte[] payload : payloads) {
+                ByteBuffer entry = encodeEntry(payload);
+                while (entry.hasRemaining()) {
+                    out.write(entry);
+                }
+            }
+            out.force(true);
+        }
+        channel.close();
+        Files.move(replacement, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        count = payloads.size();
+    }
+
+    /**
+     * @return The payload of every intact entry, oldest first. A torn entry at the end of the file is ignored.
+     */
+    private List<byte[]> readPayloads() throws IOException {
+        List<byte[]> payloads = new ArrayList<>();
+        ByteBuffer contents = ByteBuffer.wrap(Files.readAllBytes(path));
+        while (contents.remaining() >= 2 * Integer.BYTES) {
+            int length = contents.getInt();
+            if (length < 0 || contents.remaining() < length + Integer.BYTES) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            contents.get(payload);
+            if (contents.getInt() != checksum(payload)) {
+                break;
+            }
+            payloads.add(payload);
+        }
+        return payloads;
+    }
+
+    private static CheckoutRecord decode(byte[] payload) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            in.readUTF(); // Reason
+            String terminalId = in.readUTF();
+            long sequence = in.readLong();
+            byte[] checkout = new byte[in.readInt()];
+            in.readFully(checkout);
+            CheckoutRecord record = CheckoutJournal.decodePayload(checkout);
+            return terminalId.isEmpty() ? record : record.withJournalEntry(terminalId, sequence);
+        }
+    }
+
+    private static ByteBuffer encodeEntry(byte[] payload) {
+        ByteBuffer entry = ByteBuffer.allocate(Integer.BYTES + payload.length + Integer.BYTES);
+        entry.putInt(payload.length).put(payload).putInt(checksum(payload)).flip();
+        return entry;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOGGER.warn("Error while closing the checkout quarantine.", e);
+        }
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,301 @@
+package repo;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A small, bounded JDBC connection pool.
+ * Connections are validated when borrowed, idle connections are evicted after a timeout,
+ * and callers wait at most {@code maxWaitMillis} for a free slot before failing.
+ * Closing a borrowed connection returns it to the pool instead of closing the socket.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConnectionPool.class);
+
+    /**
+     * Opens a new physical connection to the database.
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection create() throws SQLException;
+    }
+
+    private final ConnectionFactory factory;
+    private final int maxSize;
+    private final int minIdle;
+    private final long maxWaitMillis;
+    private final long idleTimeoutMillis;
+    private final int validationTimeoutSeconds;
+
+    // Most recently returned connections sit at the head, so the tail holds the longest-idle ones.
+    private final LinkedBlockingDeque<IdleConnection> idleConnections = new LinkedBlockingDeque<>();
+    private final Semaphore slots;
+    private final ScheduledExecutorService evictor;
+    private volatile boolean closed;
+
+    // --- Statistics ---
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong evictedCount = new AtomicLong();
+
+    /**
+     * Creates a new pool. No connections are opened until the first borrow.
+     *
+     * @param factory Opens physical connections.
+     * @param maxSize The maximum number of connections (active plus idle).
+     * @param minIdle The number of idle connections the evictor never closes.
+     * @param maxWaitMillis How long {@link #borrow()} waits for a free connection.
+     * @param idleTimeoutMillis How long a connection may sit idle before it is closed.
+     * @param validationTimeoutSeconds The timeout passed to {@link Connection#isValid(int)} on borrow.
+     */
+    public ConnectionPool(ConnectionFactory factory, int maxSize, int minIdle, long maxWaitMillis,
+                          long idleTimeoutMillis, int validationTimeoutSeconds) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1.");
+        }
+        this.factory = factory;
+        this.maxSize = maxSize;
+        this.minIdle = Math.max(0, Math.min(minIdle, maxSize));
+        this.maxWaitMillis = maxWaitMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.slots = new Semaphore(maxSize, true);
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "db-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long evictionPeriod = Math.max(1000, idleTimeoutMillis / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdleConnections, evictionPeriod, evictionPeriod, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection from the pool, opening a new one if no valid idle connection exists.
+     * The caller must close the returned connection to give it back.
+     *
+     * @return A pooled Connection.
+     * @throws SQLException if the pool is closed, the wait times out, or a new connection cannot be opened.
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLTransientConnectionException("Connection pool has been shut down.");
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!slots.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+                timeoutCount.incrementAndGet();
+                throw new SQLTransientConnectionException("Timed out after " + maxWaitMillis + " ms waiting for a database connection.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection.", e);
+        }
+        recordWait(System.nanoTime() - start);
+
+        try {
+            Connection physical = takeValidIdleConnection();
+            if (physical == null) {
+                physical = factory.create();
+                createdCount.incrementAndGet();
+            }
+            activeCount.incrementAndGet();
+            return wrap(physical);
+        } catch (SQLException | RuntimeException e) {
+            slots.release();
+            throw e;
+        }
+    }
+
+    /**
+     * @return A point-in-time view of the pool's usage counters.
+     */
+    public PoolStats getStats() {
+        long borrows = borrowCount.get();
+        return new PoolStats(
+                activeCount.get(),
+                idleConnections.size(),
+                maxSize,
+                borrows,
+                TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get()),
+                TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()),
+                timeoutCount.get(),
+                createdCount.get(),
+                evictedCount.get()
+        );
+    }
+
+    /**
+     * Closes every idle connection and stops the evictor. Connections still on loan
+     * are closed as they are returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        IdleConnection idle;
+        while ((idle = idleConnections.pollFirst()) != null) {
+            closeQuietly(idle.connection);
+        }
+    }
+
+    private Connection takeValidIdleConnection() {
+        IdleConnection idle;
+        while ((idle = idleConnections.pollFirst()) != null) {
+            if (isUsable(idle.connection)) {
+                return idle.connection;
+            }
+            LOGGER.debug("Discarding a stale pooled connection.");
+            closeQuietly(idle.connection);
+        }
+        return null;
+    }
+
+    private boolean isUsable(Connection connection) {
+        try {
+            return connection.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void release(Connection physical) {
+        activeCount.decrementAndGet();
+        try {
+            if (closed || !resetState(physical)) {
+                closeQuietly(physical);
+            } else {
+                idleConnections.offerFirst(new IdleConnection(physical, System.currentTimeMillis()));
+            }
+        } finally {
+            slots.release();
+        }
+    }
+
+    /**
+     * Rolls back any unfinished transaction so the next borrower gets a clean, auto-commit connection.
+     * @return false if the connection is broken and should be discarded.
+     */
+    private boolean resetState(Connection physical) {
+        try {
+            if (physical.isClosed()) {
+                return false;
+            }
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            return true;
+        } catch (SQLException e) {
+            LOGGER.warn("Discarding a pooled connection that could not be reset.", e);
+            return false;
+        }
+    }
+
+    private void evictIdleConnections() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+        Iterator<IdleConnection> oldestFirst = idleConnections.descendingIterator();
+        while (oldestFirst.hasNext() && idleConnections.size() > minIdle) {
+            IdleConnection idle = oldestFirst.next();
+            if (idle.idleSince < cutoff && idleConnections.remove(idle)) {
+                closeQuietly(idle.connection);
+                evictedCount.incrementAndGet();
+            }
+        }
+    }
+
+    private void recordWait(long waitNanos) {
+        borrowCount.incrementAndGet();
+        totalWaitNanos.addAndGet(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    private Connection wrap(Connection physical) {
+        return (Connection) Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new PooledConnectionHandler(physical));
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            LOGGER.debug("Error while closing a pooled connection.", e);
+        }
+    }
+
+    /**
+     * Intercepts close() so the physical connection goes back to the pool.
+     * Every other call is forwarded until the handle has been returned.
+     */
+    private class PooledConnectionHandler implements InvocationHandler {
+        private final Connection physical;
+        private final AtomicBoolean returned = new AtomicBoolean();
+
+        PooledConnectionHandler(Connection physical) {
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (returned.compareAndSet(false, true)) {
+                        release(physical);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned.get() || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled[" + physical + "]";
+                default:
+                    if (returned.get()) {
+                        throw new SQLException("Connection has already been returned to the pool.");
+                    }
+                    try {
+                        return method.invoke(physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+
+    private static final class IdleConnection {
+        private final Connection connection;
+        private final long idleSince;
+
+        private IdleConnection(Connection connection, long idleSince) {
+            this.connection = connection;
+            this.idleSince = idleSince;
+        }
+    }
+}
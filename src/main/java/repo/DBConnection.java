@@ -9,9 +9,15 @@ import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Handles the application's database connection.
+ * Handles the application's database connections.
+ * Connections are handed out by a bounded {@link ConnectionPool} that is created on first use,
+ * so the InternalFile data source never touches the network. While the pool is open its usage
+ * counters are logged every {@code db.pool.statsLogSeconds}, so waits for connections show up in the logs.
  */
 public class DBConnection {
 
@@ -36,22 +42,134 @@ public class DBConnection {
         }
     }
 
+    private static volatile ConnectionPool pool;
+    private static ScheduledExecutorService statsLogger; // Guarded by DBConnection.class
+
     /**
-     * Gets a new database connection using the settings from app.properties.
-     * @return A new Connection object.
-     * @throws SQLException if a database access error occurs.
+     * Borrows a pooled database connection. Closing it returns it to the pool.
+     * @return A Connection object backed by the pool.
+     * @throws SQLException if a database access error occurs or no connection becomes free in time.
      */
     public static Connection dbConnection() throws SQLException {
         try {
-            String dbUrl = CONFIG.getProperty("db.url");
-            String dbUser = CONFIG.getProperty("db.user");
-            String dbPassword = CONFIG.getProperty("db.password");
-
-            return DriverManager.getConnection(dbUrl, dbUser, dbPassword);
+            Connection connection = getPool().borrow();
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Borrowed pooled connection ({}).", getPool().getStats());
+            }
+            return connection;
         } catch (SQLException e) {
             LOGGER.error("Failed to establish database connection.", e);
             // Re-throw the exception to let the calling service handle the connection failure.
             throw e;
         }
     }
+
+    /**
+     * Opens a connection outside the pool for long-lived sessions, such as listening for
+     * change notifications, that would otherwise hold a pooled connection forever.
+     * The caller owns the connection and must close it.
+     * @return A new Connection object.
+     * @throws SQLException if a database access error occurs.
+     */
+    public static Connection openDedicatedConnection() throws SQLException {
+        return openPhysicalConnection();
+    }
+
+    /**
+     * Opens a new physical connection using the settings from app.properties, bypassing the pool.
+     * @return A new Connection object.
+     * @throws SQLException if a database access error occurs.
+     */
+    private static Connection openPhysicalConnection() throws SQLException {
+        String dbUrl = CONFIG.getProperty("db.url");
+        String dbUser = CONFIG.getProperty("db.user");
+        String dbPassword = CONFIG.getProperty("db.password");
+
+        return DriverManager.getConnection(dbUrl, dbUser, dbPassword);
+    }
+
+    /**
+     * @return Usage counters (active, idle, wait times) of the connection pool.
+     */
+    public static PoolStats getPoolStats() {
+        return getPool().getStats();
+    }
+
+    /**
+     * Closes the pool and all idle connections. A later call to {@link #dbConnection()} creates a fresh pool.
+     */
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            if (statsLogger != null) {
+                statsLogger.shutdownNow();
+                statsLogger = null;
+            }
+            LOGGER.info("Shutting down connection pool ({}).", getPoolStats());
+            pool.close();
+            pool = null;
+        }
+    }
+
+    private static ConnectionPool getPool() {
+        ConnectionPool current = pool;
+        if (current == null) {
+            synchronized (DBConnection.class) {
+                current = pool;
+                if (current == null) {
+                    current = createPool();
+                    pool = current;
+                    startStatsLogger();
+                }
+            }
+        }
+        return current;
+    }
+
+    private static ConnectionPool createPool() {
+        int maxSize = intProperty("db.pool.maxSize", 8);
+        int minIdle = intProperty("db.pool.minIdle", 1);
+        long maxWaitMillis = intProperty("db.pool.maxWaitMillis", 5000);
+        long idleTimeoutMillis = intProperty("db.pool.idleTimeoutMillis", 300_000);
+        int validationTimeoutSeconds = intProperty("db.pool.validationTimeoutSeconds", 2);
+
+        LOGGER.info("Creating connection pool (maxSize={}, minIdle={}, maxWait={}ms, idleTimeout={}ms).",
+                maxSize, minIdle, maxWaitMillis, idleTimeoutMillis);
+        return new ConnectionPool(DBConnection::openPhysicalConnection, maxSize, minIdle,
+                maxWaitMillis, idleTimeoutMillis, validationTimeoutSeconds);
+    }
+
+    /**
+     * Logs the pool's counters periodically. A period of 0 turns this off.
+     */
+    private static void startStatsLogger() {
+        int periodSeconds = intProperty("db.pool.statsLogSeconds", 900);
+        if (periodSeconds <= 0) {
+            return;
+        }
+        statsLogger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "db-pool-stats");
+            thread.setDaemon(true);
+            return thread;
+        });
+        statsLogger.scheduleAtFixedRate(() -> {
+            // Reads the field rather than getPoolStats(), so a tick racing shutdown cannot reopen the pool.
+            ConnectionPool current = pool;
+            if (current != null) {
+                LOGGER.info("Connection pool: {}", current.getStats());
+            }
+        }, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    private static int intProperty(String key, int defaultValue) {
+        String value = CONFIG.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            LOGGER.warn("Invalid value '{}' for '{}'. Using default {}.", value, key, defaultValue);
+            return defaultValue;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,80 @@
+package repo;
+
+/**
+ * An immutable snapshot of the connection pool's usage counters.
+ */
+public class PoolStats {
+    private final int active;
+    private final int idle;
+    private final int maxSize;
+    private final long borrowCount;
+    private final long totalWaitMillis;
+    private final long maxWaitMillis;
+    private final long timeoutCount;
+    private final long createdCount;
+    private final long evictedCount;
+
+    public PoolStats(int active, int idle, int maxSize, long borrowCount, long totalWaitMillis,
+                     long maxWaitMillis, long timeoutCount, long createdCount, long evictedCount) {
+        this.active = active;
+        this.idle = idle;
+        this.maxSize = maxSize;
+        this.borrowCount = borrowCount;
+        this.totalWaitMillis = totalWaitMillis;
+        this.maxWaitMillis = maxWaitMillis;
+        this.timeoutCount = timeoutCount;
+        this.createdCount = createdCount;
+        this.evictedCount = evictedCount;
+    }
+
+    // --- Standard Getters ---
+
+    public int getActive() {
+        return active;
+    }
+
+    public int getIdle() {
+        return idle;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getBorrowCount() {
+        return borrowCount;
+    }
+
+    public long getTotalWaitMillis() {
+        return totalWaitMillis;
+    }
+
+    public long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount;
+    }
+
+    public long getCreatedCount() {
+        return createdCount;
+    }
+
+    public long getEvictedCount() {
+        return evictedCount;
+    }
+
+    /**
+     * @return The average time a caller waited for a connection, in milliseconds.
+     */
+    public double getAverageWaitMillis() {
+        return borrowCount == 0 ? 0 : (double) totalWaitMillis / borrowCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("active=%d, idle=%d, max=%d, borrows=%d, avgWait=%.2fms, maxWait=%dms, timeouts=%d, created=%d, evicted=%d",
+                active, idle, maxSize, borrowCount, getAverageWaitMillis(), maxWaitMillis, timeoutCount, createdCount, evictedCount);
+    }
+}
@@ -0,0 +1,316 @@
+package repo;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import model.entity.Category;
+import model.entity.Discount;
+import model.entity.DiscountSchedule;
+import model.entity.Item;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * The categories, menu items and discounts of the InternalFile data source, loaded from a
+ * compact binary snapshot instead of databinding the JSON files on every start.
+ *
+ * <p>The snapshot is written on the first run and whenever the JSON files change. It records a
+ * checksum of the JSON it was built from; if that no longer matches, or the snapshot is damaged,
+ * the JSON is parsed instead and the snapshot is rewritten.
+ *
+ * <p>File layout: {@code [int magic][int version][long sourceChecksum][int bodyLength][body][int bodyCrc32]},
+ * where the body holds the categories, items and discounts as counted records of
+ * fixed-width ints and length-prefixed UTF-8 strings.
+ */
+public class ReferenceDataSnapshot {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReferenceDataSnapshot.class);
+    private static final int MAGIC = 0x52454653; // "REFS"
+    private static final int VERSION = 3;
+    private static final int HEADER_BYTES = Integer.BYTES + Integer.BYTES + Long.BYTES + Integer.BYTES;
+    private static final String[] SOURCES = {"/data/categories.json", "/data/menu.json", "/data/discounts.json"};
+
+    private final List<Category> categories;
+    private final List<Item> items;
+    private final List<Discount> discounts;
+    private final boolean fromSnapshot;
+
+    private ReferenceDataSnapshot(List<Category> categories, List<Item> items, List<Discount> discounts, boolean fromSnapshot) {
+        this.categories = categories;
+        this.items = items;
+        this.discounts = discounts;
+        this.fromSnapshot = fromSnapshot;
+    }
+
+    /**
+     * Loads the reference data from the snapshot, or from the JSON files if the snapshot is
+     * missing, stale or damaged. In the latter case a fresh snapshot is written for the next start.
+     *
+     * @param snapshotPath The snapshot file; its parent directory is created if missing.
+     * @return The loaded reference data.
+     * @throws IOException if neither the snapshot nor the JSON files can be read.
+     */
+    public static ReferenceDataSnapshot loadOrBuild(Path snapshotPath) throws IOException {
+        long sourceChecksum = sourceChecksum();
+        ReferenceDataSnapshot snapshot = read(snapshotPath, sourceChecksum);
+        if (snapshot != null) {
+            LOGGER.info("Loaded {} categories, {} items and {} discounts from the reference snapshot.",
+                    snapshot.categories.size(), snapshot.items.size(), snapshot.discounts.size());
+            return snapshot;
+        }
+        snapshot = fromJson();
+        try {
+            snapshot.write(snapshotPath, sourceChecksum);
+            LOGGER.info("Wrote reference snapshot {}.", snapshotPath);
+        } catch (IOException e) {
+            LOGGER.warn("Could not write the reference snapshot. The JSON files will be parsed again on the next start.", e);
+        }
+        return snapshot;
+    }
+
+    public List<Category> getCategories() {
+        return categories;
+    }
+
+    public List<Item> getItems() {
+        return items;
+    }
+
+    public List<Discount> getDiscounts() {
+        return discounts;
+    }
+
+    /**
+     * @return True if the data came from the binary snapshot, false if the JSON files were parsed.
+     */
+    public boolean isFromSnapshot() {
+        return fromSnapshot;
+    }
+
+    /**
+     * Reads the snapshot with a single memory-mapped read.
+     *
+     * @return The snapshot, or null if it is missing, was built from other JSON, or is damaged.
+     */
+    static ReferenceDataSnapshot read(Path snapshotPath, long expectedSourceChecksum) {
+        if (!Files.isRegularFile(snapshotPath)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                LOGGER.warn("Ignoring reference snapshot {}: unknown format.", snapshotPath);
+                return null;
+            }
+            if (buffer.getLong() != expectedSourceChecksum) {
+                LOGGER.info("Reference snapshot {} is stale. Reloading from JSON.", snapshotPath);
+                return null;
+            }
+            int bodyLength = buffer.getInt();
+            if (bodyLength < 0 || buffer.remaining() != bodyLength + Integer.BYTES) {
+                LOGGER.warn("Ignoring reference snapshot {}: truncated.", snapshotPath);
+                return null;
+            }
+            ByteBuffer body = buffer.slice(buffer.position(), bodyLength);
+            CRC32 crc = new CRC32();
+            crc.update(body.duplicate());
+            if ((int) crc.getValue() != buffer.getInt(buffer.position() + bodyLength)) {
+                LOGGER.warn("Ignoring reference snapshot {}: checksum mismatch.", snapshotPath);
+                return null;
+            }
+            return decode(body);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Ignoring unreadable reference snapshot {}.", snapshotPath, e);
+            return null;
+        }
+    }
+
+    /**
+     * Writes the snapshot to a temporary file and moves it into place, so a crash never leaves a partial snapshot.
+     */
+    void write(Path snapshotPath, long sourceChecksum) throws IOException {
+        ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bodyBytes)) {
+            out.writeInt(categories.size());
+            for (Category category : categories) {
+                out.writeInt(category.getId());
+                writeString(out, category.getDescription());
+            }
+            out.writeInt(items.size());
+            for (Item item : items) {
+                out.writeInt(item.getId());
+                writeString(out, item.getName());
+                out.writeInt(item.getPrice());
+                out.writeInt(item.getInventory());
+                out.writeInt(item.getCategoryId());
+            }
+            out.writeInt(discounts.size());
+            for (Discount discount : discounts) {
+                out.writeInt(discount.getId());
+                writeString(out, discount.getName());
+                out.writeInt(discount.getAmount());
+                out.writeBoolean(discount.isPercentage());
+                out.writeBoolean(discount.isActive());
+                out.writeByte(discount.getScope().ordinal());
+                out.writeInt(discount.getTargetId());
+                out.writeInt(discount.getBuyQuantity());
+                out.writeInt(discount.getGetQuantity());
+                out.writeInt(discount.getComboItemIds().size());
+                for (int itemId : discount.getComboItemIds()) {
+                    out.writeInt(itemId);
+                }
+                out.writeBoolean(discount.isStackable());
+                writeSchedule(out, discount.getSchedule());
+            }
+        }
+        byte[] body = bodyBytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(body);
+
+        ByteBuffer file = ByteBuffer.allocate(HEADER_BYTES + body.length + Integer.BYTES);
+        file.putInt(MAGIC).putInt(VERSION).putLong(sourceChecksum).putInt(body.length).put(body).putInt((int) crc.getValue());
+
+        if (snapshotPath.getParent() != null) {
+            Files.createDirectories(snapshotPath.getParent());
+        }
+        Path temp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        Files.write(temp, file.array());
+        Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @return A checksum over the raw bytes of the JSON files the snapshot is built from.
+     */
+    static long sourceChecksum() throws IOException {
+        CRC32 crc = new CRC32();
+        for (String source : SOURCES) {
+            crc.update(readResource(source));
+        }
+        return crc.getValue();
+    }
+
+    static ReferenceDataSnapshot fromJson() throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        List<Category> categories = mapper.readValue(readResource(SOURCES[0]), new TypeReference<List<Category>>() {});
+        List<Item> items = mapper.readValue(readResource(SOURCES[1]), new TypeReference<List<Item>>() {});
+        List<Discount> discounts = mapper.readValue(readResource(SOURCES[2]), new TypeReference<List<Discount>>() {});
+        LOGGER.info("Loaded {} categories, {} items and {} discounts from JSON.", categories.size(), items.size(), discounts.size());
+        return new ReferenceDataSnapshot(categories, items, discounts, false);
+    }
+
+    private static ReferenceDataSnapshot decode(ByteBuffer body) {
+        int categoryCount = body.getInt();
+        List<Category> categories = new ArrayList<>(categoryCount);
+        for (int i = 0; i < categoryCount; i++) {
+            categories.add(new Category(body.getInt(), readString(body)));
+        }
+        int itemCount = body.getInt();
+        List<Item> items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            items.add(new Item(body.getInt(), readString(body), body.getInt(), body.getInt(), body.getInt()));
+        }
+        int discountCount = body.getInt();
+        List<Discount> discounts = new ArrayList<>(discountCount);
+        for (int i = 0; i < discountCount; i++) {
+            int id = body.getInt();
+            String name = readString(body);
+            int amount = body.getInt();
+            boolean percentage = body.get() != 0;
+            boolean active = body.get() != 0;
+            Discount.Scope scope = Discount.Scope.values()[body.get()];
+            int targetId = body.getInt();
+            int buyQuantity = body.getInt();
+            int getQuantity = body.getInt();
+            int comboSize = body.getInt();
+            List<Integer> comboItemIds = new ArrayList<>(comboSize);
+            for (int j = 0; j < comboSize; j++) {
+                comboItemIds.add(body.getInt());
+            }
+            boolean stackable = body.get() != 0;
+            discounts.add(new Discount(id, name, amount, percentage, active, scope, targetId, buyQuantity, getQuantity, comboItemIds,
+                    stackable, readSchedule(body)));
+        }
+        return new ReferenceDataSnapshot(categories, items, discounts, true);
+    }
+
+    /**
+     * Writes a presence flag, then the days as a bit mask, the window as seconds of the day (-1 for none)
+     * and the validity period as UTC epoch seconds (Long.MIN_VALUE for none).
+     */
+    private static void writeSchedule(DataOutputStream out, DiscountSchedule schedule) throws IOException {
+        out.writeBoolean(schedule != null);
+        if (schedule == null) {
+            return;
+        }
+        int days = 0;
+        for (DayOfWeek day : schedule.getDays()) {
+            days |= 1 << day.ordinal();
+        }
+        out.writeByte(days);
+        out.writeInt(schedule.getStartTime().toSecondOfDay());
+        out.writeInt(schedule.getEndTime() != null ? schedule.getEndTime().toSecondOfDay() : -1);
+        out.writeLong(schedule.getValidFrom() != null ? schedule.getValidFrom().toEpochSecond(ZoneOffset.UTC) : Long.MIN_VALUE);
+        out.writeLong(schedule.getValidUntil() != null ? schedule.getValidUntil().toEpochSecond(ZoneOffset.UTC) : Long.MIN_VALUE);
+    }
+
+    private static DiscountSchedule readSchedule(ByteBuffer body) {
+        if (body.get() == 0) {
+            return null;
+        }
+        int dayMask = body.get();
+        List<DayOfWeek> days = new ArrayList<>();
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if ((dayMask & (1 << day.ordinal())) != 0) {
+                days.add(day);
+            }
+        }
+        LocalTime startTime = LocalTime.ofSecondOfDay(body.getInt());
+        int endSecond = body.getInt();
+        long validFrom = body.getLong();
+        long validUntil = body.getLong();
+        return new DiscountSchedule(days, startTime,
+                endSecond >= 0 ? LocalTime.ofSecondOfDay(endSecond) : null,
+                validFrom != Long.MIN_VALUE ? LocalDateTime.ofEpochSecond(validFrom, 0, ZoneOffset.UTC) : null,
+                validUntil != Long.MIN_VALUE ? LocalDateTime.ofEpochSecond(validUntil, 0, ZoneOffset.UTC) : null);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] readResource(String name) throws IOException {
+        try (InputStream inputStream = ReferenceDataSnapshot.class.getResourceAsStream(name)) {
+            if (inputStream == null) {
+                throw new IOException("Cannot find '" + name + "' in classpath.");
+            }
+            return inputStream.readAllBytes();
+        }
+    }
+}
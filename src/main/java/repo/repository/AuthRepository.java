@@ -41,4 +41,23 @@ public class AuthRepository {
         }
         return Optional.empty();
     }
-}
\ No newline at end of file
+
+    /**
+     * Replaces an employee's password hash, e.g. after rehashing it with a higher cost factor.
+     *
+     * @param employeeId The ID of the employee.
+     * @param hashedPassword The new BCrypt hash.
+     * @throws SQLException if a database access error occurs.
+     */
+    public void updatePasswordHash(int employeeId, String hashedPassword) throws SQLException {
+        String sql = "UPDATE employees SET password = ? WHERE id = ?";
+
+        try (Connection connection = DBConnection.dbConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+
+            pstmt.setString(1, hashedPassword);
+            pstmt.setInt(2, employeeId);
+            pstmt.executeUpdate();
+        }
+    }
+}
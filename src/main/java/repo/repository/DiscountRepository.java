@@ -1,13 +1,19 @@
 package repo.repository;
 
 import model.entity.Discount;
+import model.entity.DiscountSchedule;
 import repo.DBConnection;
 
+import java.sql.Array;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -15,6 +21,23 @@ import java.util.List;
  */
 public class DiscountRepository {
 
+    /** The promotion and schedule columns added by database_schema/discount_rules.sql. */
+    static final String RULE_COLUMNS = "scope, target_id, buy_quantity, get_quantity, combo_item_ids, stackable, " +
+                                       "days_of_week, start_time, end_time, valid_from, valid_until";
+
+    private final boolean withRules;
+
+    public DiscountRepository() {
+        this(false);
+    }
+
+    /**
+     * @param withRules True to read the promotion and schedule columns, which requires database_schema/discount_rules.sql.
+     */
+    public DiscountRepository(boolean withRules) {
+        this.withRules = withRules;
+    }
+
     /**
      * Fetches all active discounts from the database.
      *
@@ -22,7 +45,8 @@ public class DiscountRepository {
      * @throws SQLException if a database access error occurs.
      */
     public List<Discount> findActiveDiscounts() throws SQLException {
-        String sql = "SELECT id, name, amount, is_percentage, active FROM discounts WHERE active = TRUE";
+        String sql = "SELECT id, name, amount, is_percentage, active" + (withRules ? ", " + RULE_COLUMNS : "") +
+                     " FROM discounts WHERE active = TRUE";
         List<Discount> discounts = new ArrayList<>();
 
         try (Connection connection = DBConnection.dbConnection();
@@ -30,15 +54,45 @@ public class DiscountRepository {
              ResultSet rs = pstmt.executeQuery()) {
 
             while (rs.next()) {
-                discounts.add(new Discount(
-                        rs.getInt("id"),
-                        rs.getString("name"),
-                        rs.getInt("amount"),
-                        rs.getBoolean("is_percentage"),
-                        rs.getBoolean("active")
-                ));
+                discounts.add(mapDiscount(rs, rs.getInt("id"), rs.getString("name"), rs.getBoolean("active"), withRules));
             }
         }
         return discounts;
     }
+
+    /**
+     * Builds a discount from the current row, with or without its promotion columns.
+     */
+    static Discount mapDiscount(ResultSet rs, int id, String name, boolean active, boolean withRules) throws SQLException {
+        if (!withRules) {
+            return new Discount(id, name, rs.getInt("amount"), rs.getBoolean("is_percentage"), active);
+        }
+        Array comboItemIds = rs.getArray("combo_item_ids");
+        return new Discount(id, name, rs.getInt("amount"), rs.getBoolean("is_percentage"), active,
+                Discount.Scope.valueOf(rs.getString("scope")),
+                rs.getInt("target_id"),
+                rs.getInt("buy_quantity"),
+                rs.getInt("get_quantity"),
+                comboItemIds != null ? Arrays.asList((Integer[]) comboItemIds.getArray()) : null,
+                rs.getBoolean("stackable"),
+                mapSchedule(rs));
+    }
+
+    private static DiscountSchedule mapSchedule(ResultSet rs) throws SQLException {
+        Array daysOfWeek = rs.getArray("days_of_week");
+        LocalTime startTime = rs.getObject("start_time", LocalTime.class);
+        LocalTime endTime = rs.getObject("end_time", LocalTime.class);
+        LocalDateTime validFrom = rs.getObject("valid_from", LocalDateTime.class);
+        LocalDateTime validUntil = rs.getObject("valid_until", LocalDateTime.class);
+        if (daysOfWeek == null && startTime == null && endTime == null && validFrom == null && validUntil == null) {
+            return null;
+        }
+        List<DayOfWeek> days = new ArrayList<>();
+        if (daysOfWeek != null) {
+            for (Integer day : (Integer[]) daysOfWeek.getArray()) {
+                days.add(DayOfWeek.of(day));
+            }
+        }
+        return new DiscountSchedule(days, startTime, endTime, validFrom, validUntil);
+    }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package repo.repository;
 
+import model.dto.InventoryUpdateResult;
 import model.entity.Item;
 import repo.DBConnection;
 
@@ -8,14 +9,32 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
  * Repository for handling menu item-related database operations.
+ * With a {@link ShardedInventoryRepository}, stock of sharded items is read as the sum
+ * of their shards and every stock change for them goes to the shards instead of {@code items}.
  */
 public class MenuRepository {
 
+    private final ShardedInventoryRepository shardedInventory;
+
+    public MenuRepository() {
+        this(null);
+    }
+
+    /**
+     * @param shardedInventory The repository for sharded stock, or null if no item is sharded.
+     */
+    public MenuRepository(ShardedInventoryRepository shardedInventory) {
+        this.shardedInventory = shardedInventory;
+    }
+
     /**
      * Finds all available items for a given category.
      *
@@ -24,7 +43,8 @@ public class MenuRepository {
      * @throws SQLException if a database access error occurs.
      */
     public List<Item> findItemsByCategoryId(int categoryId) throws SQLException {
-        String sql = "SELECT id, name, price, inventory FROM items WHERE category_id = ? AND is_available = TRUE ORDER BY name";
+        String sql = "SELECT i.id, i.name, i.price, " + inventoryColumn() + " AS inventory FROM items i " +
+                     "WHERE i.category_id = ? AND i.is_available = TRUE ORDER BY i.name";
         List<Item> items = new ArrayList<>();
 
         try (Connection connection = DBConnection.dbConnection();
@@ -40,6 +60,31 @@ public class MenuRepository {
         return items;
     }
 
+    /**
+     * Reads the current stock of the available items in a category, without the rest of the item.
+     *
+     * @param categoryId The ID of the category.
+     * @return The stock level of each item, keyed by item ID.
+     * @throws SQLException if a database access error occurs.
+     */
+    public Map<Integer, Integer> findInventoryByCategoryId(int categoryId) throws SQLException {
+        String sql = "SELECT i.id, " + inventoryColumn() + " AS inventory FROM items i " +
+                     "WHERE i.category_id = ? AND i.is_available = TRUE";
+        Map<Integer, Integer> inventory = new HashMap<>();
+
+        try (Connection connection = DBConnection.dbConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+
+            pstmt.setInt(1, categoryId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    inventory.put(rs.getInt("id"), rs.getInt("inventory"));
+                }
+            }
+        }
+        return inventory;
+    }
+
     /**
      * Finds a single item by its unique ID.
      *
@@ -48,7 +93,7 @@ public class MenuRepository {
      * @throws SQLException if a database access error occurs.
      */
     public Optional<Item> findItemById(int itemId) throws SQLException {
-        String sql = "SELECT id, name, price, inventory FROM items WHERE id = ?";
+        String sql = "SELECT i.id, i.name, i.price, " + inventoryColumn() + " AS inventory FROM items i WHERE i.id = ?";
         try (Connection conn = DBConnection.dbConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, itemId);
@@ -69,6 +114,15 @@ public class MenuRepository {
      * @throws SQLException if a database access error occurs.
      */
     public void updateInventory(int itemId, int quantity) throws SQLException {
+        if (isSharded(itemId)) {
+            if (quantity < 0) {
+                incrementInventory(itemId, -quantity);
+            } else if (!shardedInventory.tryDecrement(itemId, quantity)) {
+                // Shards must never go below zero, so a sharded item cannot be oversold this way.
+                throw new SQLException("Item " + itemId + " does not have " + quantity + " in stock across its shards.");
+            }
+            return;
+        }
         String sql = "UPDATE items SET inventory = inventory - ? WHERE id = ?";
         try (Connection conn = DBConnection.dbConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -78,6 +132,188 @@ public class MenuRepository {
         }
     }
 
+    /**
+     * Subtracts stock for one item only if enough is available, in a single statement.
+     *
+     * @param itemId The ID of the item.
+     * @param quantity The quantity to subtract.
+     * @return True if the stock was subtracted, false if it was too low.
+     * @throws SQLException if a database access error occurs.
+     */
+    public boolean tryDecrementInventory(int itemId, int quantity) throws SQLException {
+        if (isSharded(itemId)) {
+            return shardedInventory.tryDecrement(itemId, quantity);
+        }
+        String sql = "UPDATE items SET inventory = inventory - ? WHERE id = ? AND inventory >= ?";
+        try (Connection conn = DBConnection.dbConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, quantity);
+            pstmt.setInt(2, itemId);
+            pstmt.setInt(3, quantity);
+            return pstmt.executeUpdate() > 0;
+        }
+    }
+
+    /**
+     * Subtracts stock for one item only if enough is available, on a connection owned by the caller,
+     * so it can take part in a larger transaction. The caller is responsible for committing.
+     *
+     * @return True if the stock was subtracted, false if it was too low.
+     * @throws SQLException if a database access error occurs.
+     */
+    public boolean tryDecrementInventory(Connection conn, int itemId, int quantity) throws SQLException {
+        if (isSharded(itemId)) {
+            return shardedInventory.tryDecrement(conn, itemId, quantity);
+        }
+        String sql = "UPDATE items SET inventory = inventory - ? WHERE id = ? AND inventory >= ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, quantity);
+            pstmt.setInt(2, itemId);
+            pstmt.setInt(3, quantity);
+            return pstmt.executeUpdate() > 0;
+        }
+    }
+
+    /**
+     * Adds stock back to an item, e.g. when a hold is released.
+     *
+     * @param itemId The ID of the item.
+     * @param quantity The quantity to add.
+     * @throws SQLException if a database access error occurs.
+     */
+    public void incrementInventory(int itemId, int quantity) throws SQLException {
+        if (isSharded(itemId)) {
+            try (Connection conn = DBConnection.dbConnection()) {
+                shardedInventory.adjust(conn, itemId, quantity);
+            }
+            return;
+        }
+        String sql = "UPDATE items SET inventory = inventory + ? WHERE id = ?";
+        try (Connection conn = DBConnection.dbConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, quantity);
+            pstmt.setInt(2, itemId);
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Adds stock back to an item on a connection owned by the caller. The caller is responsible for committing.
+     *
+     * @throws SQLException if a database access error occurs.
+     */
+    public void incrementInventory(Connection conn, int itemId, int quantity) throws SQLException {
+        if (isSharded(itemId)) {
+            shardedInventory.adjust(conn, itemId, quantity);
+            return;
+        }
+        String sql = "UPDATE items SET inventory = inventory + ? WHERE id = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, quantity);
+            pstmt.setInt(2, itemId);
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Subtracts the given quantities for a whole cart in one transaction.
+     * A line is only applied if the item has enough stock, so inventory never goes negative.
+     *
+     * @param quantities The quantities to subtract, keyed by item ID.
+     * @return The lines that could not be filled.
+     * @throws SQLException if a database access error occurs; nothing is changed in that case.
+     */
+    public InventoryUpdateResult decrementInventory(Map<Integer, Integer> quantities) throws SQLException {
+        if (quantities.isEmpty()) {
+            return InventoryUpdateResult.complete();
+        }
+        try (Connection conn = DBConnection.dbConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                InventoryUpdateResult result = decrementInventory(conn, quantities);
+                conn.commit();
+                return result;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Subtracts the given quantities as a single JDBC batch on a connection owned by the caller,
+     * so it can take part in a larger transaction. The caller is responsible for committing.
+     *
+     * @param conn The connection to run the batch on.
+     * @param quantities The quantities to subtract, keyed by item ID.
+     * @return The lines that could not be filled.
+     * @throws SQLException if a database access error occurs.
+     */
+    public InventoryUpdateResult decrementInventory(Connection conn, Map<Integer, Integer> quantities) throws SQLException {
+        if (quantities.isEmpty()) {
+            return InventoryUpdateResult.complete();
+        }
+        return decrementInventory(conn, List.of(quantities)).get(0);
+    }
+
+    /**
+     * Subtracts the quantities of several carts in one JDBC batch on a connection owned by the caller.
+     * Carts are applied in order, so an earlier cart gets the stock first when an item runs low.
+     *
+     * @param conn The connection to run the batch on.
+     * @param carts The quantities to subtract for each cart, keyed by item ID.
+     * @return One result per cart, in the same order, listing the lines that could not be filled.
+     * @throws SQLException if a database access error occurs.
+     */
+    public List<InventoryUpdateResult> decrementInventory(Connection conn, List<Map<Integer, Integer>> carts) throws SQLException {
+        String sql = "UPDATE items SET inventory = inventory - ? WHERE id = ? AND inventory >= ?";
+        List<InventoryUpdateResult> results = new ArrayList<>(carts.size());
+        int[] updateCounts;
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            boolean hasLines = false;
+            for (Map<Integer, Integer> cart : carts) {
+                for (Map.Entry<Integer, Integer> line : cart.entrySet()) {
+                    if (isSharded(line.getKey())) {
+                        continue;
+                    }
+                    pstmt.setInt(1, line.getValue());
+                    pstmt.setInt(2, line.getKey());
+                    pstmt.setInt(3, line.getValue());
+                    pstmt.addBatch();
+                    hasLines = true;
+                }
+            }
+            updateCounts = hasLines ? pstmt.executeBatch() : new int[0];
+        }
+
+        int index = 0;
+        for (Map<Integer, Integer> cart : carts) {
+            Map<Integer, Integer> unfilled = new LinkedHashMap<>();
+            for (Map.Entry<Integer, Integer> line : cart.entrySet()) {
+                boolean filled = isSharded(line.getKey())
+                        ? shardedInventory.tryDecrement(conn, line.getKey(), line.getValue())
+                        // The guard leaves the row untouched when stock is too low, so no row is reported as updated.
+                        : updateCounts[index++] > 0;
+                if (!filled) {
+                    unfilled.put(line.getKey(), line.getValue());
+                }
+            }
+            results.add(unfilled.isEmpty() ? InventoryUpdateResult.complete() : new InventoryUpdateResult(unfilled));
+        }
+        return results;
+    }
+
+    private boolean isSharded(int itemId) throws SQLException {
+        return shardedInventory != null && shardedInventory.isSharded(itemId);
+    }
+
+    private String inventoryColumn() {
+        return shardedInventory != null ? ShardedInventoryRepository.AGGREGATED_INVENTORY_SQL : "i.inventory";
+    }
+
     /**
      * Helper method to map a ResultSet row to an Item object.
      */
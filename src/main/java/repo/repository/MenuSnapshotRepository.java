@@ -0,0 +1,88 @@
+package repo.repository;
+
+import model.dto.MenuSnapshot;
+import model.entity.Category;
+import model.entity.Discount;
+import model.entity.Item;
+import repo.DBConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Repository that reads all main-screen reference data in a single round trip.
+ */
+public class MenuSnapshotRepository {
+
+    private final boolean shardedInventory;
+    private final boolean discountRules;
+
+    public MenuSnapshotRepository() {
+        this(false);
+    }
+
+    /**
+     * @param shardedInventory True to read item stock as the sum of its inventory shards.
+     */
+    public MenuSnapshotRepository(boolean shardedInventory) {
+        this(shardedInventory, false);
+    }
+
+    /**
+     * @param shardedInventory True to read item stock as the sum of its inventory shards.
+     * @param discountRules True to read the promotion and schedule columns of discounts, which requires database_schema/discount_rules.sql.
+     */
+    public MenuSnapshotRepository(boolean shardedInventory, boolean discountRules) {
+        this.shardedInventory = shardedInventory;
+        this.discountRules = discountRules;
+    }
+
+    /**
+     * Loads categories, available items and active discounts with one UNION ALL query,
+     * so the three lists always come from the same database snapshot.
+     *
+     * @return The loaded menu.
+     * @throws SQLException if a database access error occurs.
+     */
+    public MenuSnapshot loadSnapshot() throws SQLException {
+        // Categories and items fill the promotion columns with placeholders
+        String noRules = discountRules ? ", NULL, 0, 0, 0, NULL, FALSE, NULL, NULL, NULL, NULL, NULL" : "";
+        String sql = "SELECT 'C' AS kind, id, description AS name, '' AS sort_key, 0 AS amount, 0 AS inventory, 0 AS category_id, FALSE AS is_percentage" +
+                     (discountRules ? ", NULL::VARCHAR AS scope, 0 AS target_id, 0 AS buy_quantity, 0 AS get_quantity, NULL::INTEGER[] AS combo_item_ids, FALSE AS stackable" +
+                                     ", NULL::INTEGER[] AS days_of_week, NULL::TIME AS start_time, NULL::TIME AS end_time" +
+                                     ", NULL::TIMESTAMP AS valid_from, NULL::TIMESTAMP AS valid_until" : "") +
+                     " FROM categories " +
+                     "UNION ALL " +
+                     "SELECT 'D', id, name, '', amount, 0, 0, is_percentage" + (discountRules ? ", " + DiscountRepository.RULE_COLUMNS : "") +
+                     " FROM discounts WHERE active = TRUE " +
+                     "UNION ALL " +
+                     "SELECT 'I', i.id, i.name, i.name, i.price, " +
+                     (shardedInventory ? ShardedInventoryRepository.AGGREGATED_INVENTORY_SQL : "i.inventory") +
+                     ", i.category_id, FALSE" + noRules + " FROM items i WHERE i.is_available = TRUE " +
+                     "ORDER BY kind, sort_key, id";
+        List<Category> categories = new ArrayList<>();
+        List<Discount> discounts = new ArrayList<>();
+        List<Item> items = new ArrayList<>();
+
+        try (Connection connection = DBConnection.dbConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            while (rs.next()) {
+                int id = rs.getInt("id");
+                String name = rs.getString("name");
+                switch (rs.getString("kind")) {
+                    case "C" -> categories.add(new Category(id, name));
+                    case "D" -> discounts.add(DiscountRepository.mapDiscount(rs, id, name, true, discountRules));
+                    default -> items.add(new Item(id, name, rs.getInt("amount"), rs.getInt("inventory"), rs.getInt("category_id")));
+                }
+            }
+        }
+        return new MenuSnapshot(categories, items, discounts, LocalDateTime.now());
+    }
+}
@@ -1,18 +1,39 @@
 package repo.repository;
 
+import model.dto.CheckoutRecord;
+import model.dto.InventoryUpdateResult;
+import model.dto.ReceiptCursor;
+import model.dto.ReceiptHistoryFilter;
+import model.dto.ReceiptPage;
 import model.entity.ReceiptInfo;
 import repo.DBConnection;
 
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * Repository for handling receipt-related database operations.
  */
 public class ReceiptRepository {
 
+    private final MenuRepository menuRepository;
+
+    public ReceiptRepository() {
+        this(new MenuRepository());
+    }
+
+    /**
+     * @param menuRepository Applies the inventory part of a checkout on the shared connection.
+     */
+    public ReceiptRepository(MenuRepository menuRepository) {
+        this.menuRepository = menuRepository;
+    }
+
     /**
      * Saves a receipt record to the database.
      */
@@ -32,25 +53,278 @@ public class ReceiptRepository {
     }
 
     /**
-     * Finds all receipts within the last 30 days.
+     * Saves a receipt and subtracts the sold inventory in one transaction on a single connection.
+     * The inventory updates are sent as one JDBC batch. If any statement fails, nothing is written.
+     *
+     * @param record The checkout to persist.
+     * @return The inventory lines that could not be filled because stock was too low.
+     * @throws SQLException if a database access error occurs; the transaction is rolled back.
+     */
+    public InventoryUpdateResult saveCheckout(CheckoutRecord record) throws SQLException {
+        return saveCheckouts(List.of(record)).get(0);
+    }
+
+    /**
+     * Saves several checkouts in one transaction: all receipts go in a single multi-row INSERT
+     * and all inventory decrements in a single JDBC batch. If any statement fails, nothing is written.
+     * Lines sold without enough stock are kept on the receipt and written to {@code inventory_shortfalls}.
+     * The stock holds sold with each checkout are deleted in the same transaction, so held stock
+     * is either still held or sold, and never returned to the shelf after the sale.
+     * Journaled checkouts are recorded as applied in the same transaction, and any checkout that
+     * was already applied by an earlier replay is skipped, so each journal entry lands exactly once.
+     *
+     * @param records The checkouts to persist, in the order they happened.
+     * @return One inventory result per checkout, in the same order.
+     * @throws SQLException if a database access error occurs; the transaction is rolled back.
+     */
+    public List<InventoryUpdateResult> saveCheckouts(List<CheckoutRecord> records) throws SQLException {
+        if (records.isEmpty()) {
+            return new ArrayList<>();
+        }
+        try (Connection connection = DBConnection.dbConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                List<CheckoutRecord> fresh = claimJournalEntries(connection, records);
+                List<InventoryUpdateResult> freshResults = fresh.isEmpty() ? new ArrayList<>() : insertCheckouts(connection, fresh);
+                connection.commit();
+
+                List<InventoryUpdateResult> results = new ArrayList<>(records.size());
+                int next = 0;
+                for (CheckoutRecord record : records) {
+                    boolean applied = next < fresh.size() && fresh.get(next) == record;
+                    results.add(applied ? freshResults.get(next++) : InventoryUpdateResult.complete());
+                }
+                return results;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Returns the highest journal sequence the database has applied for a terminal.
+     *
+     * @return The sequence, or 0 if none has been applied.
+     */
+    public long findLastJournalSequence(String terminalId) throws SQLException {
+        String sql = "SELECT COALESCE(MAX(sequence), 0) FROM checkout_journal_applied WHERE terminal_id = ?";
+
+        try (Connection connection = DBConnection.dbConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+
+            pstmt.setString(1, terminalId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    /**
+     * Marks journaled checkouts as applied and returns the checkouts that still need to be written.
+     * Checkouts that did not come from a journal are always returned.
+     */
+    private List<CheckoutRecord> claimJournalEntries(Connection connection, List<CheckoutRecord> records) throws SQLException {
+        String sql = "INSERT INTO checkout_journal_applied (terminal_id, sequence) VALUES (?, ?) ON CONFLICT DO NOTHING";
+        List<CheckoutRecord> fresh = new ArrayList<>(records.size());
+        try (PreparedStatement claim = connection.prepareStatement(sql)) {
+            for (CheckoutRecord record : records) {
+                if (!record.isJournaled()) {
+                    fresh.add(record);
+                    continue;
+                }
+                claim.setString(1, record.getJournalTerminalId());
+                claim.setLong(2, record.getJournalSequence());
+                // No row is inserted when an earlier replay already applied this entry.
+                if (claim.executeUpdate() > 0) {
+                    fresh.add(record);
+                }
+            }
+        }
+        return fresh;
+    }
+
+    private List<InventoryUpdateResult> insertCheckouts(Connection connection, List<CheckoutRecord> records) throws SQLException {
+        StringBuilder insertSql = new StringBuilder("INSERT INTO receipts_files (customer_name, employee_id, upload_date, file_data) VALUES ");
+        for (int i = 0; i < records.size(); i++) {
+            insertSql.append(i == 0 ? "(?, ?, ?, ?)" : ", (?, ?, ?, ?)");
+        }
+        List<Map<Integer, Integer>> carts = new ArrayList<>(records.size());
+        List<Integer> receiptIds = new ArrayList<>(records.size());
+        try (PreparedStatement insert = connection.prepareStatement(insertSql.toString(), new String[]{"id"})) {
+            int param = 1;
+            for (CheckoutRecord record : records) {
+                insert.setString(param++, record.getCustomerName());
+                insert.setInt(param++, record.getEmployeeId());
+                insert.setTimestamp(param++, Timestamp.valueOf(record.getUploadDate()));
+                insert.setBytes(param++, record.getFileData());
+                carts.add(settleHolds(connection, record));
+            }
+            insert.executeUpdate();
+            // PostgreSQL returns the generated IDs in the order of the VALUES rows.
+            try (ResultSet keys = insert.getGeneratedKeys()) {
+                while (keys.next()) {
+                    receiptIds.add(keys.getInt(1));
+                }
+            }
+        }
+        List<InventoryUpdateResult> results = menuRepository.decrementInventory(connection, carts);
+        recordShortfalls(connection, receiptIds, results);
+        return results;
+    }
+
+    /**
+     * Deletes the stock holds sold with a checkout and returns what is left to subtract. Stock of
+     * a deleted hold is already off the shelf. A hold that is gone, e.g. swept after it expired,
+     * had its stock returned, so that quantity is subtracted like any other line.
+     */
+    private Map<Integer, Integer> settleHolds(Connection connection, CheckoutRecord record) throws SQLException {
+        if (record.getSettledHoldIds().isEmpty()) {
+            return record.getInventoryDecrements();
+        }
+        String sql = "DELETE FROM stock_holds WHERE id = ANY(?) RETURNING item_id, quantity";
+        Map<Integer, Integer> remaining = new LinkedHashMap<>(record.getInventoryDecrements());
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setArray(1, connection.createArrayOf("bigint", record.getSettledHoldIds().toArray()));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    int held = rs.getInt("quantity");
+                    remaining.computeIfPresent(rs.getInt("item_id"), (itemId, sold) -> sold > held ? sold - held : null);
+                }
+            }
+        }
+        return remaining;
+    }
+
+    /**
+     * Records the lines that were sold without enough stock, in the checkout's own transaction,
+     * so a manager can reconcile the inventory against the receipts later.
+     */
+    private void recordShortfalls(Connection connection, List<Integer> receiptIds, List<InventoryUpdateResult> results) throws SQLException {
+        String sql = "INSERT INTO inventory_shortfalls (receipt_id, item_id, quantity) VALUES (?, ?, ?)";
+        boolean hasShortfalls = false;
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (int i = 0; i < results.size(); i++) {
+                for (Map.Entry<Integer, Integer> line : results.get(i).getUnfilledLines().entrySet()) {
+                    pstmt.setInt(1, receiptIds.get(i));
+                    pstmt.setInt(2, line.getKey());
+                    pstmt.setInt(3, line.getValue());
+                    pstmt.addBatch();
+                    hasShortfalls = true;
+                }
+            }
+            if (hasShortfalls) {
+                pstmt.executeBatch();
+            }
+        }
+    }
+
+    /**
+     * Finds the metadata of all receipts within the last 30 days. The receipt bodies are not loaded.
      */
     public List<ReceiptInfo> findRecentReceiptsForManager() throws SQLException {
-        String sql = "SELECT e.first_name || ' ' || e.last_name AS employee_name, r.customer_name, r.upload_date, r.file_data " +
+        String sql = "SELECT e.first_name || ' ' || e.last_name AS employee_name, r.id, r.customer_name, r.upload_date " +
                      "FROM receipts_files r JOIN employees e ON r.employee_id = e.id " +
                      "WHERE r.upload_date >= NOW() - INTERVAL '30 days' ORDER BY r.upload_date DESC";
         return findReceipts(sql, -1);
     }
 
     /**
-     * Finds all receipts for a specific employee within the last 7 days.
+     * Finds the metadata of all receipts for a specific employee within the last 7 days. The receipt bodies are not loaded.
      */
     public List<ReceiptInfo> findRecentReceiptsForEmployee(int employeeId) throws SQLException {
-        String sql = "SELECT e.first_name || ' ' || e.last_name AS employee_name, r.customer_name, r.upload_date, r.file_data " +
+        String sql = "SELECT e.first_name || ' ' || e.last_name AS employee_name, r.id, r.customer_name, r.upload_date " +
                      "FROM receipts_files r JOIN employees e ON r.employee_id = e.id " +
                      "WHERE r.employee_id = ? AND r.upload_date >= NOW() - INTERVAL '7 days' ORDER BY r.upload_date DESC";
         return findReceipts(sql, employeeId);
     }
 
+    /**
+     * Finds one page of receipt metadata, newest first, using keyset pagination on (upload_date, id).
+     * Each page costs the same regardless of how many receipts precede it.
+     *
+     * @param filter The date range, employee and customer name prefix to match.
+     * @param after The position of the last receipt on the previous page, or null for the first page.
+     * @param pageSize The maximum number of receipts to return.
+     * @return The page of receipts and whether more are available.
+     * @throws SQLException if a database access error occurs.
+     */
+    public ReceiptPage findReceiptPage(ReceiptHistoryFilter filter, ReceiptCursor after, int pageSize) throws SQLException {
+        StringBuilder sql = new StringBuilder(
+                "SELECT e.first_name || ' ' || e.last_name AS employee_name, r.id, r.customer_name, r.upload_date " +
+                "FROM receipts_files r JOIN employees e ON r.employee_id = e.id WHERE TRUE");
+        List<Object> params = new ArrayList<>();
+
+        if (filter.getFrom() != null) {
+            sql.append(" AND r.upload_date >= ?");
+            params.add(Timestamp.valueOf(filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            sql.append(" AND r.upload_date < ?");
+            params.add(Timestamp.valueOf(filter.getTo()));
+        }
+        if (filter.getEmployeeId() != null) {
+            sql.append(" AND r.employee_id = ?");
+            params.add(filter.getEmployeeId());
+        }
+        if (filter.getCustomerNamePrefix() != null) {
+            sql.append(" AND lower(r.customer_name) LIKE ? ESCAPE '\\'");
+            params.add(escapeLikePattern(filter.getCustomerNamePrefix().toLowerCase()) + "%");
+        }
+        if (after != null) {
+            sql.append(" AND (r.upload_date, r.id) < (?, ?)");
+            params.add(Timestamp.valueOf(after.getUploadDate()));
+            params.add(after.getId());
+        }
+        // Fetch one extra row to learn whether another page exists.
+        sql.append(" ORDER BY r.upload_date DESC, r.id DESC LIMIT ?");
+        params.add(pageSize + 1);
+
+        List<ReceiptInfo> receipts = new ArrayList<>();
+        try (Connection connection = DBConnection.dbConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql.toString())) {
+
+            for (int i = 0; i < params.size(); i++) {
+                pstmt.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    receipts.add(mapRowToReceiptInfo(rs));
+                }
+            }
+        }
+
+        boolean hasMore = receipts.size() > pageSize;
+        if (hasMore) {
+            receipts.remove(receipts.size() - 1);
+        }
+        return new ReceiptPage(receipts, hasMore);
+    }
+
+    /**
+     * Loads the stored content of a single receipt.
+     *
+     * @param receiptId The ID of the receipt.
+     * @return An Optional containing the receipt bytes if found, otherwise empty.
+     * @throws SQLException if a database access error occurs.
+     */
+    public Optional<byte[]> findReceiptContent(int receiptId) throws SQLException {
+        String sql = "SELECT file_data FROM receipts_files WHERE id = ?";
+        try (Connection connection = DBConnection.dbConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setInt(1, receiptId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.ofNullable(rs.getBytes("file_data"));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
     /**
      * Generic helper method to execute a receipt search query.
      */
@@ -73,13 +347,20 @@ public class ReceiptRepository {
     }
 
     /**
-     * Helper method to map a ResultSet row to a ReceiptInfo object.
+     * Escapes LIKE wildcards so user input is matched literally.
+     */
+    private static String escapeLikePattern(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * Helper method to map a metadata row to a ReceiptInfo object.
      */
     private ReceiptInfo mapRowToReceiptInfo(ResultSet rs) throws SQLException {
+        int id = rs.getInt("id");
         String employeeName = rs.getString("employee_name");
         String customerName = rs.getString("customer_name");
         LocalDateTime uploadDate = rs.getTimestamp("upload_date").toLocalDateTime();
-        byte[] fileData = rs.getBytes("file_data");
-        return new ReceiptInfo(employeeName, customerName, uploadDate, fileData);
+        return new ReceiptInfo(id, employeeName, customerName, uploadDate);
     }
 }
\ No newline at end of file
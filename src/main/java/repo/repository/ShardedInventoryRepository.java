@@ -0,0 +1,309 @@
+package repo.repository;
+
+import repo.DBConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Repository for items whose stock is split across several rows of {@code item_inventory_shards},
+ * so concurrent checkouts of a popular item update different rows instead of queueing on one row lock.
+ *
+ * <p>A decrement first tries this terminal's preferred shard and then the others, skipping shards
+ * locked by other transactions. Only when no single unlocked shard can fill the line are all shards
+ * of the item locked and the quantity taken across them. The stock of a sharded item is the sum of
+ * its shards; {@link #rebalance()} evens the shards out again.
+ *
+ * <p>Which items are sharded is cached. The shard table notifies {@link #SHARDS_CHANNEL} when an
+ * item is sharded or unsharded (see database_schema/item_inventory_shards.sql), and the listener
+ * calls {@link #invalidate()} so every terminal switches at once.
+ */
+public class ShardedInventoryRepository {
+
+    /**
+     * SQL expression for the current stock of item alias {@code i}: the sum of its shards,
+     * or {@code i.inventory} for items that are not sharded.
+     */
+    public static final String AGGREGATED_INVENTORY_SQL =
+            "COALESCE((SELECT SUM(s.inventory) FROM item_inventory_shards s WHERE s.item_id = i.id), i.inventory)";
+
+    /**
+     * The NOTIFY channel on which shard rows being added or removed are announced.
+     */
+    public static final String SHARDS_CHANNEL = "item_shards_changed";
+
+    private final int preferredShard;
+    private volatile Set<Integer> shardedItemIds;
+
+    /**
+     * @param terminalId Identifies this terminal; terminals spread over shards by its hash.
+     * @param shardCount The number of shards items are split into.
+     */
+    public ShardedInventoryRepository(String terminalId, int shardCount) {
+        this.preferredShard = Math.floorMod(terminalId.hashCode(), shardCount);
+    }
+
+    /**
+     * @return True if the item's stock is kept in shards.
+     * @throws SQLException if the sharded items could not be loaded.
+     */
+    public boolean isSharded(int itemId) throws SQLException {
+        Set<Integer> ids = shardedItemIds;
+        if (ids == null) {
+            ids = reloadShardedItems();
+        }
+        return ids.contains(itemId);
+    }
+
+    /**
+     * Forgets which items are sharded, so the next check reloads it.
+     */
+    public void invalidate() {
+        shardedItemIds = null;
+    }
+
+    /**
+     * Reloads which items are sharded.
+     *
+     * @return The IDs of the sharded items.
+     * @throws SQLException if a database access error occurs.
+     */
+    public Set<Integer> reloadShardedItems() throws SQLException {
+        String sql = "SELECT DISTINCT item_id FROM item_inventory_shards";
+        Set<Integer> ids = new HashSet<>();
+        try (Connection conn = DBConnection.dbConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                ids.add(rs.getInt("item_id"));
+            }
+        }
+        shardedItemIds = ids;
+        return ids;
+    }
+
+    /**
+     * Subtracts stock from a sharded item in its own transaction.
+     *
+     * @return True if the stock was subtracted, false if the item does not have enough in total.
+     * @throws SQLException if a database access error occurs.
+     */
+    public boolean tryDecrement(int itemId, int quantity) throws SQLException {
+        try (Connection conn = DBConnection.dbConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                boolean taken = tryDecrement(conn, itemId, quantity);
+                conn.commit();
+                return taken;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Subtracts stock from a sharded item on a connection owned by the caller.
+     *
+     * @return True if the stock was subtracted, false if the item does not have enough in total.
+     * @throws SQLException if a database access error occurs.
+     */
+    public boolean tryDecrement(Connection conn, int itemId, int quantity) throws SQLException {
+        // Fast path: one unlocked shard with enough stock, starting from this terminal's shard.
+        String sql = "UPDATE item_inventory_shards SET inventory = inventory - ? " +
+                     "WHERE (item_id, shard) = (SELECT item_id, shard FROM item_inventory_shards " +
+                     "WHERE item_id = ? AND inventory >= ? ORDER BY shard < ?, shard LIMIT 1 FOR UPDATE SKIP LOCKED)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, quantity);
+            pstmt.setInt(2, itemId);
+            pstmt.setInt(3, quantity);
+            pstmt.setInt(4, preferredShard);
+            if (pstmt.executeUpdate() > 0) {
+                return true;
+            }
+        }
+        return takeAcrossShards(conn, itemId, quantity);
+    }
+
+    /**
+     * Adds {@code delta} to one shard of the item. A negative delta is taken like a decrement,
+     * across shards if needed, and no shard is ever left below zero.
+     *
+     * @return False if a negative delta is more than the item has in total; nothing is changed then.
+     * @throws SQLException if a database access error occurs.
+     */
+    public boolean adjust(Connection conn, int itemId, int delta) throws SQLException {
+        if (delta < 0) {
+            return tryDecrement(conn, itemId, -delta);
+        }
+        String sql = "UPDATE item_inventory_shards SET inventory = inventory + ? " +
+                     "WHERE (item_id, shard) = (SELECT item_id, shard FROM item_inventory_shards " +
+                     "WHERE item_id = ? ORDER BY shard < ?, shard LIMIT 1)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, delta);
+            pstmt.setInt(2, itemId);
+            pstmt.setInt(3, preferredShard);
+            return pstmt.executeUpdate() > 0;
+        }
+    }
+
+    /**
+     * @return The total stock of the item across its shards.
+     * @throws SQLException if a database access error occurs.
+     */
+    public int getInventory(int itemId) throws SQLException {
+        String sql = "SELECT COALESCE(SUM(inventory), 0) AS inventory FROM item_inventory_shards WHERE item_id = ?";
+        try (Connection conn = DBConnection.dbConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, itemId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                return rs.getInt("inventory");
+            }
+        }
+    }
+
+    /**
+     * Moves an item's stock from {@code items.inventory} into evenly filled shards.
+     *
+     * @param itemId The item to shard.
+     * @param shardCount The number of shards to create.
+     * @throws SQLException if a database access error occurs; nothing is changed in that case.
+     */
+    public void shardItem(int itemId, int shardCount) throws SQLException {
+        try (Connection conn = DBConnection.dbConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                int total;
+                try (PreparedStatement lock = conn.prepareStatement("SELECT inventory FROM items WHERE id = ? FOR UPDATE")) {
+                    lock.setInt(1, itemId);
+                    try (ResultSet rs = lock.executeQuery()) {
+                        if (!rs.next()) {
+                            throw new SQLException("Item " + itemId + " does not exist.");
+                        }
+                        total = rs.getInt("inventory");
+                    }
+                }
+                try (PreparedStatement insert = conn.prepareStatement(
+                        "INSERT INTO item_inventory_shards (item_id, shard, inventory) VALUES (?, ?, ?)")) {
+                    for (int shard = 0; shard < shardCount; shard++) {
+                        insert.setInt(1, itemId);
+                        insert.setInt(2, shard);
+                        insert.setInt(3, evenShare(total, shardCount, shard));
+                        insert.addBatch();
+                    }
+                    insert.executeBatch();
+                }
+                try (PreparedStatement clear = conn.prepareStatement("UPDATE items SET inventory = 0 WHERE id = ?")) {
+                    clear.setInt(1, itemId);
+                    clear.executeUpdate();
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        reloadShardedItems();
+    }
+
+    /**
+     * Evens out the shards of every sharded item, so the fast path keeps finding a shard
+     * with enough stock. Each item is rebalanced in its own short transaction.
+     *
+     * @return The number of items rebalanced.
+     * @throws SQLException if a database access error occurs.
+     */
+    public int rebalance() throws SQLException {
+        Set<Integer> ids = reloadShardedItems();
+        for (int itemId : ids) {
+            try (Connection conn = DBConnection.dbConnection()) {
+                conn.setAutoCommit(false);
+                try {
+                    List<int[]> shards = lockShards(conn, itemId);
+                    int total = shards.stream().mapToInt(shard -> shard[1]).sum();
+                    try (PreparedStatement update = conn.prepareStatement(
+                            "UPDATE item_inventory_shards SET inventory = ? WHERE item_id = ? AND shard = ?")) {
+                        for (int i = 0; i < shards.size(); i++) {
+                            update.setInt(1, evenShare(total, shards.size(), i));
+                            update.setInt(2, itemId);
+                            update.setInt(3, shards.get(i)[0]);
+                            update.addBatch();
+                        }
+                        update.executeBatch();
+                    }
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            }
+        }
+        return ids.size();
+    }
+
+    /**
+     * Slow path: waits for every shard of the item, then takes the quantity across them.
+     */
+    private boolean takeAcrossShards(Connection conn, int itemId, int quantity) throws SQLException {
+        List<int[]> shards = lockShards(conn, itemId);
+        int total = shards.stream().mapToInt(shard -> shard[1]).sum();
+        if (total < quantity) {
+            return false;
+        }
+        int remaining = quantity;
+        try (PreparedStatement update = conn.prepareStatement(
+                "UPDATE item_inventory_shards SET inventory = inventory - ? WHERE item_id = ? AND shard = ?")) {
+            for (int[] shard : shards) {
+                if (remaining == 0) {
+                    break;
+                }
+                int taken = Math.min(remaining, shard[1]);
+                if (taken > 0) {
+                    update.setInt(1, taken);
+                    update.setInt(2, itemId);
+                    update.setInt(3, shard[0]);
+                    update.addBatch();
+                    remaining -= taken;
+                }
+            }
+            update.executeBatch();
+        }
+        return true;
+    }
+
+    /**
+     * Locks all shards of an item in shard order, so concurrent lockers cannot deadlock.
+     *
+     * @return Pairs of {shard, inventory}.
+     */
+    private List<int[]> lockShards(Connection conn, int itemId) throws SQLException {
+        String sql = "SELECT shard, inventory FROM item_inventory_shards WHERE item_id = ? ORDER BY shard FOR UPDATE";
+        List<int[]> shards = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, itemId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    shards.add(new int[]{rs.getInt("shard"), rs.getInt("inventory")});
+                }
+            }
+        }
+        return shards;
+    }
+
+    private static int evenShare(int total, int shardCount, int shardIndex) {
+        return total / shardCount + (shardIndex < total % shardCount ? 1 : 0);
+    }
+}
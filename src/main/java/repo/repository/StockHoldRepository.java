@@ -0,0 +1,152 @@
+package repo.repository;
+
+import repo.DBConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+
+/**
+ * Repository for stock holds kept in {@code stock_holds}. Taking stock and recording the hold,
+ * and deleting the hold and returning its stock, each happen in one transaction, so held stock
+ * is always either in {@code items} or in a hold row and survives a crash of the terminal.
+ * A sold hold is deleted by the transaction that saves its receipt.
+ */
+public class StockHoldRepository {
+
+    private final MenuRepository menuRepository;
+
+    /**
+     * @param menuRepository Takes and returns the stock on the hold's connection.
+     */
+    public StockHoldRepository(MenuRepository menuRepository) {
+        this.menuRepository = menuRepository;
+    }
+
+    /**
+     * Takes stock and records a hold on it that expires after {@code holdMillis}.
+     *
+     * @return The ID of the hold, or 0 if there was not enough stock.
+     * @throws SQLException if a database access error occurs; nothing is changed in that case.
+     */
+    public long placeHold(String terminalId, int itemId, int quantity, long holdMillis) throws SQLException {
+        String sql = "INSERT INTO stock_holds (terminal_id, item_id, quantity, expires_at) " +
+                     "VALUES (?, ?, ?, NOW() + ? * INTERVAL '1 millisecond') RETURNING id";
+        try (Connection conn = DBConnection.dbConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                if (!menuRepository.tryDecrementInventory(conn, itemId, quantity)) {
+                    conn.rollback();
+                    return 0;
+                }
+                long holdId;
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setString(1, terminalId);
+                    pstmt.setInt(2, itemId);
+                    pstmt.setInt(3, quantity);
+                    pstmt.setLong(4, holdMillis);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        rs.next();
+                        holdId = rs.getLong("id");
+                    }
+                }
+                conn.commit();
+                return holdId;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Stops a hold from expiring, while its sale is being completed. Only a restart of the
+     * terminal that placed it sweeps it after that, and only if no pending checkout sold it.
+     *
+     * @throws SQLException if a database access error occurs.
+     */
+    public void pinHold(long holdId) throws SQLException {
+        String sql = "UPDATE stock_holds SET expires_at = NULL WHERE id = ?";
+        try (Connection conn = DBConnection.dbConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setLong(1, holdId);
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Deletes a hold and returns its stock.
+     *
+     * @return False if the hold was already gone, e.g. swept by another terminal; no stock is returned then.
+     * @throws SQLException if a database access error occurs; nothing is changed in that case.
+     */
+    public boolean returnHold(long holdId) throws SQLException {
+        return returnHolds("id = ?", holdId) > 0;
+    }
+
+    /**
+     * Returns the stock of every expired hold, from any terminal.
+     *
+     * @return The number of holds returned.
+     * @throws SQLException if a database access error occurs; nothing is changed in that case.
+     */
+    public int returnExpiredHolds() throws SQLException {
+        return returnHolds("expires_at < NOW()");
+    }
+
+    /**
+     * Returns the stock of every expired hold and of every hold of the given terminal that no
+     * pending checkout sold. Meant for when that terminal starts, since none of its earlier carts
+     * exist any more; a hold sold by a checkout still waiting in its journal or quarantine is
+     * deleted when that checkout is saved.
+     *
+     * @param pendingHoldIds The holds sold by checkouts not yet saved to the database.
+     * @return The number of holds returned.
+     * @throws SQLException if a database access error occurs; nothing is changed in that case.
+     */
+    public int returnStaleHolds(String terminalId, Collection<Long> pendingHoldIds) throws SQLException {
+        return returnHolds("expires_at < NOW() OR (terminal_id = ? AND id <> ALL(?))", terminalId, pendingHoldIds.toArray(new Long[0]));
+    }
+
+    /**
+     * Deletes the matching holds and adds their stock back in one transaction. Concurrent sweeps
+     * cannot return a hold twice, since only one of them deletes its row.
+     *
+     * @param parameters The values of the condition's placeholders; a {@code Long[]} is bound as a bigint array.
+     */
+    private int returnHolds(String condition, Object... parameters) throws SQLException {
+        String sql = "DELETE FROM stock_holds WHERE " + condition + " RETURNING item_id, quantity";
+        try (Connection conn = DBConnection.dbConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                int returned = 0;
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < parameters.length; i++) {
+                        if (parameters[i] instanceof Long[]) {
+                            pstmt.setArray(i + 1, conn.createArrayOf("bigint", (Long[]) parameters[i]));
+                        } else {
+                            pstmt.setObject(i + 1, parameters[i]);
+                        }
+                    }
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            menuRepository.incrementInventory(conn, rs.getInt("item_id"), rs.getInt("quantity"));
+                            returned++;
+                        }
+                    }
+                }
+                conn.commit();
+                return returned;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package service.auth;
+
+import util.AsyncExecutor;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs {@link AuthService} calls off the JavaFX thread, so hashing the password and querying
+ * the employee do not freeze the login screen.
+ */
+public class AsyncAuthService {
+
+    private final AuthService authService;
+    private final AsyncExecutor executor;
+
+    public AsyncAuthService(AuthService authService, AsyncExecutor executor) {
+        this.authService = authService;
+        this.executor = executor;
+    }
+
+    /**
+     * @see AuthService#authenticate(String, String)
+     */
+    public CompletableFuture<Boolean> authenticate(String username, String password) {
+        return executor.submit(() -> authService.authenticate(username, password));
+    }
+}
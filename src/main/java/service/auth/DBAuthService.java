@@ -1,7 +1,6 @@
 package service.auth;
 
 import model.dto.UserSessionInfo;
-import org.mindrot.jbcrypt.BCrypt;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import repo.repository.AuthRepository;
@@ -11,18 +10,37 @@ import java.util.Optional;
 /**
  * Service layer for authentication. Orchestrates the authentication process
  * by using a repository to fetch user data and then applying business logic.
+ *
+ * <p>Passwords are checked on the {@link PasswordHasher}'s worker pool, attempts are limited per
+ * username, and a hash made with another cost factor is replaced after a successful login.
  */
 public class DBAuthService implements AuthService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DBAuthService.class);
+    private static final int DEFAULT_ATTEMPTS = 5;
+    private static final long DEFAULT_REFILL_MILLIS = 30_000;
+
     private final AuthRepository authRepository;
+    private final PasswordHasher passwordHasher;
+    private final LoginRateLimiter rateLimiter;
 
     /**
      * Constructor for dependency injection.
      * @param authRepository The repository for accessing authentication data.
      */
     public DBAuthService(AuthRepository authRepository) {
+        this(authRepository, new PasswordHasher(), new LoginRateLimiter(DEFAULT_ATTEMPTS, DEFAULT_REFILL_MILLIS));
+    }
+
+    /**
+     * @param authRepository The repository for accessing authentication data.
+     * @param passwordHasher Checks passwords, and rehashes them to its cost factor.
+     * @param rateLimiter Limits the attempts per username.
+     */
+    public DBAuthService(AuthRepository authRepository, PasswordHasher passwordHasher, LoginRateLimiter rateLimiter) {
         this.authRepository = authRepository;
+        this.passwordHasher = passwordHasher;
+        this.rateLimiter = rateLimiter;
     }
 
     @Override
@@ -30,6 +48,11 @@ public class DBAuthService implements AuthService {
         if (username == null || username.trim().isEmpty() || password == null || password.isEmpty()) {
             return false;
         }
+        if (!rateLimiter.tryAcquire(username)) {
+            LOGGER.warn("Too many login attempts for user: {}", username);
+            long waitSeconds = Math.max(1, (rateLimiter.getWaitMillis(username) + 999) / 1000);
+            throw new Exception("Too many login attempts for this user. Please try again in " + waitSeconds + " seconds.");
+        }
 
         try {
             Optional<UserSessionInfo> userSessionInfoOpt = authRepository.findUserByUsername(username);
@@ -37,7 +60,12 @@ public class DBAuthService implements AuthService {
             if (userSessionInfoOpt.isPresent()) {
                 UserSessionInfo userInfo = userSessionInfoOpt.get();
                 // Business logic: password verification happens here, in the service layer.
-                if (BCrypt.checkpw(password, userInfo.getHashedPassword())) {
+                if (passwordHasher.verify(password, userInfo.getHashedPassword())) {
+                    // Only wrong guesses count against the username.
+                    rateLimiter.reset(username);
+                    if (passwordHasher.needsRehash(userInfo.getHashedPassword())) {
+                        rehash(userInfo.getId(), password);
+                    }
                     // Session management logic also belongs in the service layer.
                     SessionManager.getInstance().setLoggedInEmployeeId(userInfo.getId());
                     SessionManager.getInstance().setLoggedInEmployeeName(userInfo.getName());
@@ -52,4 +80,17 @@ public class DBAuthService implements AuthService {
             throw new Exception("Authentication failed due to a system error.", e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Replaces the stored hash with one of the configured cost. A failure only costs the upgrade,
+     * never the login.
+     */
+    private void rehash(int employeeId, String password) {
+        try {
+            authRepository.updatePasswordHash(employeeId, passwordHasher.hash(password));
+            LOGGER.info("Rehashed the password of employee {} with cost {}.", employeeId, passwordHasher.getCost());
+        } catch (Exception e) {
+            LOGGER.warn("Could not rehash the password of employee {}.", employeeId, e);
+        }
+    }
+}
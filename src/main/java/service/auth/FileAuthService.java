@@ -7,17 +7,19 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.InputStream;
-import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * An implementation of AuthService that authenticates against a local JSON file.
  * This service uses plain text passwords for simplicity.
+ * Users are indexed by username when the file is loaded, so a login is a single lookup.
  */
 public class FileAuthService implements AuthService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(FileAuthService.class);
-    private final List<User> users;
+    private final Map<String, User> usersByUsername;
 
     /**
      * Loads user data from the /data/users.json file upon instantiation.
@@ -29,8 +31,13 @@ public class FileAuthService implements AuthService {
                 throw new RuntimeException("FATAL: Cannot find '/data/users.json' in classpath. Application cannot start in InternalFile mode.");
             }
             ObjectMapper mapper = new ObjectMapper();
-            this.users = mapper.readValue(inputStream, new TypeReference<List<User>>() {});
-            LOGGER.info("Successfully loaded {} users from users.json for file-based authentication.", this.users.size());
+            List<User> users = mapper.readValue(inputStream, new TypeReference<List<User>>() {});
+            this.usersByUsername = new HashMap<>();
+            for (User user : users) {
+                // Usernames are unique; should the file repeat one, its first entry is used.
+                usersByUsername.putIfAbsent(user.getUsername(), user);
+            }
+            LOGGER.info("Successfully loaded {} users from users.json for file-based authentication.", users.size());
         } catch (Exception e) {
             LOGGER.error("FATAL: Failed to read or parse users.json.", e);
             throw new RuntimeException("Failed to initialize FileAuthService due to a data file error.", e);
@@ -45,14 +52,13 @@ public class FileAuthService implements AuthService {
 
         LOGGER.debug("Attempting to authenticate user: '{}'", username);
 
-        for (User user : users) {
-            if (username.equals(user.getUsername()) && password.equals(user.getPassword())) {
-                LOGGER.info("Authentication successful for user: {}", username);
-                SessionManager.getInstance().setLoggedInEmployeeId(user.getId());
-                SessionManager.getInstance().setLoggedInEmployeeName(user.getName());
-                SessionManager.getInstance().setManager(user.isManager());
-                return true;
-            }
+        User user = usersByUsername.get(username);
+        if (user != null && password.equals(user.getPassword())) {
+            LOGGER.info("Authentication successful for user: {}", username);
+            SessionManager.getInstance().setLoggedInEmployeeId(user.getId());
+            SessionManager.getInstance().setLoggedInEmployeeName(user.getName());
+            SessionManager.getInstance().setManager(user.isManager());
+            return true;
         }
 
         LOGGER.warn("Authentication failed for user: {}. User not found or password incorrect.", username);
@@ -0,0 +1,132 @@
+package service.auth;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits login attempts per username with a token bucket: each username may make a burst of
+ * attempts, and regains one attempt per refill interval. Guessing a password therefore costs
+ * real time, while employees logging in under different names never wait for each other.
+ *
+ * <p>Usernames are compared trimmed and ignoring case, so "Alice " and "alice" share a bucket.
+ * The caller {@link #reset resets} the bucket after a successful login, so only wrong guesses
+ * count. Someone guessing at an employee's name therefore holds them off for at most one refill
+ * interval at a time, and their correct password then clears the bucket.
+ *
+ * <p>Each bucket is a single {@link AtomicLong} holding the time at which it will be full again,
+ * updated by compare-and-set, so checking a bucket takes no lock. The number of usernames tracked
+ * is capped; beyond it the buckets closest to full are forgotten first, so the names being guessed
+ * at are the last to go.
+ */
+public class LoginRateLimiter {
+
+    private static final int MAX_TRACKED_USERNAMES = 1024;
+
+    private final long refillNanos;
+    private final long burstNanos;
+    private final LongSupplier nanoTime;
+    private final long startNanos;
+    private final ConcurrentHashMap<String, AtomicLong> fullAt = new ConcurrentHashMap<>();
+
+    /**
+     * @param attempts The number of attempts a username may make in a row.
+     * @param refillMillis The time after which one more attempt is allowed.
+     */
+    public LoginRateLimiter(int attempts, long refillMillis) {
+        this(attempts, refillMillis, System::nanoTime);
+    }
+
+    LoginRateLimiter(int attempts, long refillMillis, LongSupplier nanoTime) {
+        if (attempts < 1 || refillMillis < 1) {
+            throw new IllegalArgumentException("A login rate limit needs at least one attempt and a positive refill time.");
+        }
+        this.refillNanos = TimeUnit.MILLISECONDS.toNanos(refillMillis);
+        this.burstNanos = refillNanos * (attempts - 1);
+        this.nanoTime = nanoTime;
+        this.startNanos = nanoTime.getAsLong();
+    }
+
+    /**
+     * Takes one attempt from the username's bucket.
+     *
+     * @return True if the attempt is allowed, false if the bucket is empty.
+     */
+    public boolean tryAcquire(String username) {
+        String key = key(username);
+        long now = nanoTime.getAsLong() - startNanos;
+        AtomicLong bucket = fullAt.get(key);
+        if (bucket == null) {
+            if (fullAt.size() >= MAX_TRACKED_USERNAMES) {
+                evict(now);
+            }
+            AtomicLong created = new AtomicLong(now);
+            bucket = fullAt.putIfAbsent(key, created);
+            if (bucket == null) {
+                bucket = created;
+            }
+        }
+        while (true) {
+            long current = bucket.get();
+            long start = Math.max(current, now);
+            if (start - now > burstNanos) {
+                return false;
+            }
+            if (bucket.compareAndSet(current, start + refillNanos)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Refills the username's bucket, e.g. after a successful login, so it cost no attempt.
+     */
+    public void reset(String username) {
+        fullAt.remove(key(username));
+    }
+
+    /**
+     * @return How long until the username may make another attempt, in milliseconds; 0 if it may now.
+     */
+    public long getWaitMillis(String username) {
+        AtomicLong bucket = fullAt.get(key(username));
+        if (bucket == null) {
+            return 0;
+        }
+        long now = nanoTime.getAsLong() - startNanos;
+        return TimeUnit.NANOSECONDS.toMillis(Math.max(0, bucket.get() - burstNanos - now));
+    }
+
+    /**
+     * @return The number of usernames currently tracked.
+     */
+    int getTrackedCount() {
+        return fullAt.size();
+    }
+
+    /**
+     * Forgets full buckets, which carry no information, and if that is not enough the one closest to full.
+     */
+    private void evict(long now) {
+        fullAt.values().removeIf(bucket -> bucket.get() <= now);
+        while (fullAt.size() >= MAX_TRACKED_USERNAMES) {
+            Map.Entry<String, AtomicLong> closestToFull = null;
+            for (Map.Entry<String, AtomicLong> entry : fullAt.entrySet()) {
+                if (closestToFull == null || entry.getValue().get() < closestToFull.getValue().get()) {
+                    closestToFull = entry;
+                }
+            }
+            if (closestToFull == null) {
+                return;
+            }
+            fullAt.remove(closestToFull.getKey(), closestToFull.getValue());
+        }
+    }
+
+    private static String key(String username) {
+        return username.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,122 @@
+package service.auth;
+
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks and creates BCrypt hashes on a small, bounded pool of worker threads.
+ *
+ * <p>BCrypt is slow on purpose, so a dozen employees logging in at a shift change would otherwise
+ * keep every core busy at once. The pool caps how many hashes run in parallel, leaving the JavaFX
+ * thread room to paint, and a full queue fails fast instead of piling up logins.
+ */
+public class PasswordHasher implements AutoCloseable {
+
+    /** The cost factor of {@link BCrypt#gensalt()}. */
+    public static final int DEFAULT_COST = 10;
+    private static final int DEFAULT_QUEUE_CAPACITY = 32;
+
+    private final int cost;
+    private final ThreadPoolExecutor pool;
+
+    public PasswordHasher() {
+        this(DEFAULT_COST, Math.max(1, Runtime.getRuntime().availableProcessors() / 2), DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * @param cost The cost factor new hashes are created with, between 4 and 31.
+     * @param threads The number of hashes computed at the same time.
+     * @param queueCapacity The number of hashes that may wait for a thread before new ones are refused.
+     */
+    public PasswordHasher(int cost, int threads, int queueCapacity) {
+        if (cost < 4 || cost > 31) {
+            throw new IllegalArgumentException("BCrypt cost must be between 4 and 31.");
+        }
+        this.cost = cost;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "bcrypt-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Checks a password against a hash, waiting for a worker thread.
+     *
+     * @return True if the password matches.
+     * @throws Exception if the pool is saturated or the hash is malformed.
+     */
+    public boolean verify(String password, String hash) throws Exception {
+        return run(() -> BCrypt.checkpw(password, hash));
+    }
+
+    /**
+     * Hashes a password with the configured cost, waiting for a worker thread.
+     *
+     * @throws Exception if the pool is saturated.
+     */
+    public String hash(String password) throws Exception {
+        return run(() -> BCrypt.hashpw(password, BCrypt.gensalt(cost)));
+    }
+
+    /**
+     * @return True if the hash was not created with the configured cost, so it should be replaced
+     *         the next time the plain password is known.
+     */
+    public boolean needsRehash(String hash) {
+        return costOf(hash) != cost;
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * @return The cost factor of a hash such as {@code $2a$10$...}, or -1 if it cannot be read.
+     */
+    static int costOf(String hash) {
+        if (hash == null || hash.length() < 7 || hash.charAt(0) != '$' || hash.charAt(6) != '$') {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(hash.substring(4, 6));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private <T> T run(Callable<T> work) throws Exception {
+        Future<T> result;
+        try {
+            result = pool.submit(work);
+        } catch (RejectedExecutionException e) {
+            throw new Exception("Too many logins at once. Please try again in a moment.", e);
+        }
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+}
@@ -2,23 +2,30 @@ package service.cart;
 
 import model.entity.CartItem;
 import model.entity.Item;
+import service.inventory.StockHold;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
 
 /**
  * Defines the contract for a shopping cart service.
- * Implementations manage the state of items selected for purchase.
+ * Implementations manage the state of items selected for purchase. The cart is used from the
+ * JavaFX thread; stock holds may need the database, so they are placed and returned off it.
  */
 public interface Cart {
 
     /**
      * Adds a specified quantity of an item to the cart.
      * If the item already exists in the cart, its quantity should be updated.
+     * Implementations that reserve stock place a hold on the added quantity first, and add the
+     * line on the JavaFX thread once it is held.
      *
      * @param item The {@link Item} to add.
      * @param quantity The number of items to add.
+     * @return Completes with true once the item was added, or with false if there is not enough stock.
      */
-    void addItem(Item item, int quantity);
+    CompletableFuture<Boolean> addItem(Item item, int quantity);
 
     /**
      * Removes a {@link CartItem} from the cart.
@@ -32,10 +39,49 @@ public interface Cart {
      */
     void clearCart();
 
+    /**
+     * Stops the cart's stock holds from expiring while the sale is being completed, and sets them
+     * aside for that sale: removing lines or clearing the cart no longer returns their stock.
+     * Holds placed afterwards, e.g. for items added while the sale is saved, are not part of it.
+     *
+     * @return Completes with the holds still in force, to be settled with the sale. Stock for any
+     *         other cart quantity has not been taken yet.
+     */
+    CompletableFuture<List<StockHold>> lockHolds();
+
+    /**
+     * Turns the holds set aside by {@link #lockHolds()} into a sale; no other hold is touched.
+     */
+    void commitHolds();
+
+    /**
+     * Gives the holds set aside by {@link #lockHolds()} back to the cart's lines, e.g. when the sale could not be saved.
+     */
+    void unlockHolds();
+
+    /**
+     * Takes the given quantities off the cart, e.g. the lines of a completed sale, keeping
+     * anything added since. No stock is returned for the quantities taken off.
+     *
+     * @param lines The lines to take off, as returned by {@link #getCartItems()}.
+     */
+    void removeQuantities(List<CartItem> lines);
+
     /**
      * Retrieves all items currently in the cart.
      *
-     * @return A list of {@link CartItem}s.
+     * @return A read-only list of {@link CartItem}s that does not change when the cart does.
      */
     List<CartItem> getCartItems();
+
+    /**
+     * @return A number that changes whenever the cart's contents change, so callers can skip work when it has not.
+     */
+    long getVersion();
+
+    /**
+     * Registers a callback that receives the old and the new line after every change to the cart.
+     * The old line is null when an item is added, and the new line is null when it is removed.
+     */
+    void setChangeListener(BiConsumer<CartItem, CartItem> listener);
 }
\ No newline at end of file
@@ -2,53 +2,109 @@ package service.cart;
 
 import model.entity.CartItem;
 import model.entity.Item;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import service.inventory.StockHold;
+import service.inventory.StockReservationService;
+import util.AsyncExecutor;
+import util.FxThread;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
 
 /**
  * A concrete implementation of the {@link Cart} interface.
  * This class manages the state of the shopping cart in memory.
+ * With a {@link StockReservationService}, every added quantity is backed by a stock hold
+ * that is returned when the line is removed or the cart is cleared. Holds are placed, locked,
+ * committed and returned on the {@link AsyncExecutor}, and their outcome is applied to the cart
+ * on the JavaFX thread.
  */
 public class CartService implements Cart {
 
-    private final List<CartItem> cartItems = new ArrayList<>();
+    private static final Logger LOGGER = LoggerFactory.getLogger(CartService.class);
+    private static final BiConsumer<CartItem, CartItem> NO_LISTENER = (before, after) -> { };
+
+    private final Map<Integer, CartItem> cartItems = new LinkedHashMap<>(); // Keyed by item ID, in insertion order
+    private long version;
+    private List<CartItem> snapshot = List.of();
+    private long snapshotVersion;
+    private BiConsumer<CartItem, CartItem> changeListener = NO_LISTENER;
+    private final StockReservationService reservationService;
+    private final AsyncExecutor executor;
+    private final Map<Integer, List<StockHold>> holds = new HashMap<>();
+    private final List<StockHold> checkoutHolds = new ArrayList<>(); // Locked for the sale being saved
+
+    public CartService() {
+        this(null, null);
+    }
+
+    /**
+     * @param reservationService The service that holds stock for cart lines, or null to not reserve stock.
+     * @param executor Runs the calls to the reservation service, so the JavaFX thread never waits for the database.
+     */
+    public CartService(StockReservationService reservationService, AsyncExecutor executor) {
+        this.reservationService = reservationService;
+        this.executor = executor;
+    }
 
     /**
-     * Adds an item to the cart. If the item already exists, its quantity is updated
-     * by replacing the existing CartItem with a new one.
+     * Adds an item to the cart. If the item already exists, its line is replaced with the summed
+     * quantity at the same position, so the cart keeps the order items were first added in.
      * @param item The {@link Item} to add.
      * @param quantity The quantity of the item to add.
+     * @return Completes with false if the stock could not be held; the cart is unchanged in that case.
      */
     @Override
-    public void addItem(Item item, int quantity) {
-        // Find if the item is already in the cart.
-        Optional<CartItem> existingItem = cartItems.stream()
-                .filter(cartItem -> cartItem.getItem().getId() == item.getId())
-                .findFirst();
-
-        if (existingItem.isPresent()) {
-            // If item exists, create a new CartItem with the updated quantity.
-            CartItem currentCartItem = existingItem.get();
-            int newQuantity = currentCartItem.getQuantity() + quantity;
-            CartItem updatedCartItem = new CartItem(currentCartItem.getItem(), newQuantity);
-            // Replace the old item with the updated one.
-            cartItems.remove(currentCartItem);
-            cartItems.add(updatedCartItem);
-        } else {
-            // If not found, add as a new item.
-            cartItems.add(new CartItem(item, quantity));
+    public CompletableFuture<Boolean> addItem(Item item, int quantity) {
+        if (reservationService == null) {
+            addLine(item, quantity);
+            return CompletableFuture.completedFuture(true);
         }
+        CompletableFuture<Boolean> added = new CompletableFuture<>();
+        FxThread.deliver(executor.submit(() -> reservationService.hold(item.getId(), quantity)), hold -> {
+            if (hold == null) {
+                added.complete(false);
+                return;
+            }
+            holds.computeIfAbsent(item.getId(), id -> new ArrayList<>()).add(hold);
+            addLine(item, quantity);
+            added.complete(true);
+        }, e -> {
+            // Selling must not stop when stock cannot be checked; the checkout applies its guarded decrement instead.
+            LOGGER.warn("Could not hold stock for item {}. Adding it without a hold.", item.getId(), e);
+            addLine(item, quantity);
+            added.complete(true);
+        });
+        return added;
+    }
+
+    private void addLine(Item item, int quantity) {
+        // A new CartItem rather than setQuantity, so snapshots already handed out stay unchanged.
+        CartItem before = cartItems.get(item.getId());
+        CartItem after = before == null ? new CartItem(item, quantity) : new CartItem(before.getItem(), before.getQuantity() + quantity);
+        cartItems.put(item.getId(), after);
+        version++;
+        changeListener.accept(before, after);
     }
 
     /**
-     * Removes a specific {@link CartItem} from the cart.
+     * Removes the line of the given {@link CartItem}'s item from the cart.
      * @param item The cart item to remove.
      */
     @Override
     public void removeItem(CartItem item) {
-        cartItems.remove(item);
+        CartItem removed = cartItems.remove(item.getItem().getId());
+        if (removed != null) {
+            version++;
+            changeListener.accept(removed, null);
+        }
+        releaseHolds(holds.remove(item.getItem().getId()));
     }
 
     /**
@@ -56,15 +112,108 @@ public class CartService implements Cart {
      */
     @Override
     public void clearCart() {
-        cartItems.clear();
+        if (!cartItems.isEmpty()) {
+            List<CartItem> removed = getCartItems();
+            cartItems.clear();
+            version++;
+            removed.forEach(line -> changeListener.accept(line, null));
+        }
+        List<StockHold> released = new ArrayList<>();
+        holds.values().forEach(released::addAll);
+        holds.clear();
+        releaseHolds(released);
+    }
+
+    @Override
+    public CompletableFuture<List<StockHold>> lockHolds() {
+        List<StockHold> candidates = new ArrayList<>();
+        holds.values().forEach(candidates::addAll);
+        holds.clear();
+        checkoutHolds.addAll(candidates);
+        if (candidates.isEmpty()) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        return executor.submit(() -> {
+            List<StockHold> locked = new ArrayList<>(candidates.size());
+            for (StockHold hold : candidates) {
+                // An expired hold's stock is back on the shelf; committing or releasing it later does nothing.
+                if (reservationService.lock(hold)) {
+                    locked.add(hold);
+                }
+            }
+            return locked;
+        });
+    }
+
+    @Override
+    public void commitHolds() {
+        if (!checkoutHolds.isEmpty()) {
+            List<StockHold> sold = new ArrayList<>(checkoutHolds);
+            executor.submit(() -> {
+                sold.forEach(reservationService::commit);
+                return null;
+            });
+        }
+        checkoutHolds.clear();
+    }
+
+    @Override
+    public void unlockHolds() {
+        for (StockHold hold : checkoutHolds) {
+            holds.computeIfAbsent(hold.getItemId(), id -> new ArrayList<>()).add(hold);
+        }
+        checkoutHolds.clear();
+    }
+
+    @Override
+    public void removeQuantities(List<CartItem> lines) {
+        for (CartItem line : lines) {
+            CartItem before = cartItems.get(line.getItem().getId());
+            if (before == null) {
+                continue;
+            }
+            int left = before.getQuantity() - line.getQuantity();
+            CartItem after = left > 0 ? new CartItem(before.getItem(), left) : null;
+            if (after == null) {
+                cartItems.remove(line.getItem().getId());
+            } else {
+                cartItems.put(line.getItem().getId(), after);
+            }
+            version++;
+            changeListener.accept(before, after);
+        }
     }
 
     /**
-     * Retrieves the list of all items currently in the cart.
-     * @return A list of {@link CartItem} objects.
+     * Retrieves the items currently in the cart. The list is rebuilt only after the cart changes,
+     * so repeated calls between changes return the same instance.
+     * @return A read-only snapshot of the {@link CartItem}s, in the order they were first added.
      */
     @Override
     public List<CartItem> getCartItems() {
-        return new ArrayList<>(cartItems); // Return a copy to prevent external modification
+        if (snapshotVersion != version) {
+            snapshot = List.copyOf(cartItems.values());
+            snapshotVersion = version;
+        }
+        return snapshot;
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public void setChangeListener(BiConsumer<CartItem, CartItem> listener) {
+        this.changeListener = listener == null ? NO_LISTENER : listener;
+    }
+
+    private void releaseHolds(List<StockHold> lineHolds) {
+        if (lineHolds != null && !lineHolds.isEmpty()) {
+            executor.submit(() -> {
+                lineHolds.forEach(reservationService::release);
+                return null;
+            });
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,30 @@
+package service.categories;
+
+import model.entity.Category;
+import util.AsyncExecutor;
+import util.LatestRequest;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs {@link CategoryList} calls off the JavaFX thread. A new load cancels the one still pending.
+ */
+public class AsyncCategoryList {
+
+    private final CategoryList categoryList;
+    private final AsyncExecutor executor;
+    private final LatestRequest<List<Category>> allCategories = new LatestRequest<>();
+
+    public AsyncCategoryList(CategoryList categoryList, AsyncExecutor executor) {
+        this.categoryList = categoryList;
+        this.executor = executor;
+    }
+
+    /**
+     * @see CategoryList#getAllCategories()
+     */
+    public CompletableFuture<List<Category>> getAllCategories() {
+        return allCategories.replace(executor.submit(categoryList::getAllCategories));
+    }
+}
@@ -4,24 +4,35 @@ import model.entity.Category;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import repo.repository.CategoryRepository;
+import service.menu.MenuSnapshotService;
 
 import java.util.List;
 
 /**
  * Service layer for categories. Orchestrates fetching category data
- * by using the CategoryRepository.
+ * by using the CategoryRepository, or the in-memory menu snapshot when one is supplied.
  */
 public class DBCategoryService implements CategoryList {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DBCategoryService.class);
     private final CategoryRepository categoryRepository;
+    private final MenuSnapshotService menuSnapshotService;
 
     /**
      * Constructor for dependency injection.
      * @param categoryRepository The repository for accessing category data.
      */
     public DBCategoryService(CategoryRepository categoryRepository) {
+        this(categoryRepository, null);
+    }
+
+    /**
+     * @param categoryRepository The repository for accessing category data.
+     * @param menuSnapshotService The in-memory menu used for reads, or null to always query the database.
+     */
+    public DBCategoryService(CategoryRepository categoryRepository, MenuSnapshotService menuSnapshotService) {
         this.categoryRepository = categoryRepository;
+        this.menuSnapshotService = menuSnapshotService;
     }
 
     /**
@@ -31,6 +42,9 @@ public class DBCategoryService implements CategoryList {
      */
     @Override
     public List<Category> getAllCategories() throws Exception {
+        if (menuSnapshotService != null) {
+            return menuSnapshotService.getSnapshot().getCategories();
+        }
         try {
             return categoryRepository.getAllCategories();
         } catch (Exception e) {
@@ -22,6 +22,13 @@ public class FileCategoryService implements CategoryList {
         this.categories = loadFromFile();
     }
 
+    /**
+     * @param categories Categories already loaded, e.g. from the reference snapshot.
+     */
+    public FileCategoryService(List<Category> categories) {
+        this.categories = categories;
+    }
+
     @Override
     public List<Category> getAllCategories() {
         return categories;
@@ -0,0 +1,31 @@
+package service.discount;
+
+import model.entity.Discount;
+import util.AsyncExecutor;
+import util.LatestRequest;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs {@link DiscountService} calls off the JavaFX thread. A new load cancels the one still
+ * pending, so a reload triggered by the discount schedule wins over an older one.
+ */
+public class AsyncDiscountService {
+
+    private final DiscountService discountService;
+    private final AsyncExecutor executor;
+    private final LatestRequest<List<Discount>> activeDiscounts = new LatestRequest<>();
+
+    public AsyncDiscountService(DiscountService discountService, AsyncExecutor executor) {
+        this.discountService = discountService;
+        this.executor = executor;
+    }
+
+    /**
+     * @see DiscountService#getActiveDiscounts()
+     */
+    public CompletableFuture<List<Discount>> getActiveDiscounts() {
+        return activeDiscounts.replace(executor.submit(discountService::getActiveDiscounts));
+    }
+}
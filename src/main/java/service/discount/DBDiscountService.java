@@ -4,24 +4,49 @@ import model.entity.Discount;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import repo.repository.DiscountRepository;
+import service.menu.MenuSnapshotService;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Service layer for discounts. Orchestrates fetching discount data
- * by using the DiscountRepository.
+ * by using the DiscountRepository, or the in-memory menu snapshot when one is supplied.
+ * Scheduled discounts are resolved in memory by {@link ScheduledDiscounts}, so with a snapshot
+ * the discounts in force are known without a database round trip.
  */
 public class DBDiscountService implements DiscountService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DBDiscountService.class);
     private final DiscountRepository discountRepository;
+    private final MenuSnapshotService menuSnapshotService;
+    private final ScheduledDiscounts scheduledDiscounts;
 
     /**
      * Constructor for dependency injection.
      * @param discountRepository The repository for accessing discount data.
      */
     public DBDiscountService(DiscountRepository discountRepository) {
+        this(discountRepository, null);
+    }
+
+    /**
+     * @param discountRepository The repository for accessing discount data.
+     * @param menuSnapshotService The in-memory menu used for reads, or null to always query the database.
+     */
+    public DBDiscountService(DiscountRepository discountRepository, MenuSnapshotService menuSnapshotService) {
+        this(discountRepository, menuSnapshotService, new ScheduledDiscounts());
+    }
+
+    /**
+     * @param discountRepository The repository for accessing discount data.
+     * @param menuSnapshotService The in-memory menu used for reads, or null to always query the database.
+     * @param scheduledDiscounts Resolves which of the discounts apply at any moment.
+     */
+    public DBDiscountService(DiscountRepository discountRepository, MenuSnapshotService menuSnapshotService, ScheduledDiscounts scheduledDiscounts) {
         this.discountRepository = discountRepository;
+        this.menuSnapshotService = menuSnapshotService;
+        this.scheduledDiscounts = scheduledDiscounts;
     }
 
     /**
@@ -31,11 +56,27 @@ public class DBDiscountService implements DiscountService {
      */
     @Override
     public List<Discount> getActiveDiscounts() throws Exception {
+        if (menuSnapshotService != null) {
+            // The index is only rebuilt when the snapshot publishes a new discount list.
+            scheduledDiscounts.setDiscounts(menuSnapshotService.getSnapshot().getDiscounts());
+            return scheduledDiscounts.getActive();
+        }
         try {
-            return discountRepository.findActiveDiscounts();
+            scheduledDiscounts.setDiscounts(discountRepository.findActiveDiscounts());
+            return scheduledDiscounts.getActive();
         } catch (Exception e) {
             LOGGER.error("Error fetching active discounts.", e);
             throw new Exception("Failed to retrieve active discounts.", e);
         }
     }
+
+    @Override
+    public void setScheduleListener(Consumer<List<Discount>> listener) {
+        scheduledDiscounts.setListener(listener);
+    }
+
+    @Override
+    public void close() {
+        scheduledDiscounts.close();
+    }
 }
\ No newline at end of file
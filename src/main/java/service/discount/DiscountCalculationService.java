@@ -1,13 +1,48 @@
 package service.discount;
 
+import model.entity.CartItem;
 import model.entity.Discount;
 
+import java.util.List;
+
 /**
  * A service class dedicated to the business logic of calculating discounts.
  * This decouples the calculation logic from the controller.
+ *
+ * <p>An order gets the promotions that apply to its cart, computed by a compiled
+ * {@link DiscountRuleEngine}, plus the order discount chosen by the cashier.
  */
 public class DiscountCalculationService {
 
+    private volatile DiscountRuleEngine promotions = DiscountRuleEngine.compile(List.of());
+
+    /**
+     * Compiles the promotions among the active discounts. Does nothing if the engine was already
+     * compiled from this same list instance, so it is cheap to call with an unchanged snapshot.
+     *
+     * @param activeDiscounts All active discounts; order discounts among them are ignored.
+     */
+    public void setPromotions(List<Discount> activeDiscounts) {
+        if (promotions.getSource() != activeDiscounts) {
+            promotions = DiscountRuleEngine.compile(activeDiscounts);
+        }
+    }
+
+    /**
+     * @return The compiled promotions currently in use. A new instance is compiled whenever they change.
+     */
+    public DiscountRuleEngine getPromotions() {
+        return promotions;
+    }
+
+    /**
+     * @param cartItems The lines of the cart.
+     * @return The discount in cents from all promotions that apply to the cart.
+     */
+    public long calculatePromotions(List<CartItem> cartItems) {
+        return promotions.evaluate(cartItems);
+    }
+
     /**
      * Calculates the total discount amount based on the selected discount type and subtotal.
      *
@@ -18,33 +53,41 @@ public class DiscountCalculationService {
      * @return The calculated discount value in cents.
      */
     public int calculateDiscount(int subtotal, Discount selectedDiscount, String otherAmountStr, boolean isOtherPercentage) {
-        int discountValue = 0;
+        return (int) calculateDiscount((long) subtotal, selectedDiscount, parseOtherAmount(otherAmountStr), isOtherPercentage);
+    }
 
-        if (selectedDiscount == null || "None".equalsIgnoreCase(selectedDiscount.getName())) {
+    /**
+     * Calculates the order discount chosen by the cashier, with the manual amount already parsed.
+     *
+     * @param subtotal The amount the discount applies to.
+     * @param selectedDiscount The {@link Discount} object selected by the user.
+     * @param otherAmount The manually entered discount amount, see {@link #parseOtherAmount(String)}.
+     * @param isOtherPercentage True if the manual amount is a percentage, false if it is a fixed value.
+     * @return The calculated discount value in cents.
+     */
+    public long calculateDiscount(long subtotal, Discount selectedDiscount, int otherAmount, boolean isOtherPercentage) {
+        if (selectedDiscount == null || selectedDiscount.isNone() || selectedDiscount.isPromotion()) {
             return 0;
         }
+        if (selectedDiscount.isOther()) {
+            return isOtherPercentage ? subtotal * otherAmount / 100 : otherAmount;
+        }
+        return selectedDiscount.isPercentage() ? subtotal * selectedDiscount.getAmount() / 100 : selectedDiscount.getAmount();
+    }
 
-        // Handle manually entered ("Other") discounts
-        if ("Other".equalsIgnoreCase(selectedDiscount.getName())) {
-            if (otherAmountStr != null && !otherAmountStr.trim().isEmpty()) {
-                try {
-                    int otherAmount = Integer.parseInt(otherAmountStr);
-                    if (isOtherPercentage) {
-                        discountValue = (subtotal * otherAmount) / 100;
-                    } else {
-                        discountValue = otherAmount;
-                    }
-                } catch (NumberFormatException e) {
-                    // Ignore invalid numbers, discount remains 0
-                }
-            }
-        } else { // Handle pre-defined discounts from the database
-            if (selectedDiscount.isPercentage()) {
-                discountValue = (subtotal * selectedDiscount.getAmount()) / 100;
-            } else {
-                discountValue = selectedDiscount.getAmount();
-            }
+    /**
+     * @param otherAmountStr The manually entered discount amount.
+     * @return The amount, or 0 if it is empty or not a number.
+     */
+    public static int parseOtherAmount(String otherAmountStr) {
+        if (otherAmountStr == null || otherAmountStr.trim().isEmpty()) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(otherAmountStr.trim());
+        } catch (NumberFormatException e) {
+            // Ignore invalid numbers, discount remains 0
+            return 0;
         }
-        return discountValue;
     }
-}
\ No newline at end of file
+}
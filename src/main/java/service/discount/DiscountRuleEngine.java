@@ -0,0 +1,437 @@
+package service.discount;
+
+import model.entity.CartItem;
+import model.entity.Discount;
+import model.entity.Item;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Promotions compiled into flat arrays, so a cart is priced in one pass over its lines without allocating.
+ * Rules are indexed by the item and the category they match. Item and category rules add up as the
+ * lines are visited; buy-X-get-Y and combo rules collect quantities and are settled once at the end.
+ *
+ * <p>Stackable promotions add up, while the others cannot be combined with anything: the cart gets
+ * whichever is larger, the sum of the stackable promotions or the best single exclusive one.
+ * Stackable item and category promotions together never take more off a line than its price.
+ * An engine is immutable and can be shared; each thread evaluates with its own scratch space.
+ * A {@link Tally} keeps the promotions of one cart up to date line by line instead.
+ */
+public final class DiscountRuleEngine {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DiscountRuleEngine.class);
+
+    private final List<Discount> source;
+    private final int ruleCount;
+
+    // One entry per compiled rule
+    private final Discount[] rules;
+    private final Discount.Scope[] scopes;
+    private final int[] amounts;
+    private final boolean[] percentages;
+    private final boolean[] stackable;
+    private final int[] buyQuantities;
+    private final int[] getQuantities;
+    private final int[] comboOffsets;
+    private final int[] comboSizes;
+    private final int comboMemberCount;
+    private final int[] exclusiveRules;
+
+    // Sorted item IDs; the rules of itemKeys[k] are itemRules[itemStarts[k] .. itemStarts[k + 1])
+    private final int[] itemKeys;
+    private final int[] itemStarts;
+    private final int[] itemRules;
+    private final int[] itemMembers; // Combo member slot of each entry, or -1
+    private final int[] categoryKeys;
+    private final int[] categoryStarts;
+    private final int[] categoryRules;
+
+    private final ThreadLocal<Scratch> scratch;
+
+    private DiscountRuleEngine(List<Discount> source, List<Discount> rules) {
+        this.source = source;
+        this.ruleCount = rules.size();
+        this.rules = rules.toArray(new Discount[0]);
+        this.scopes = new Discount.Scope[ruleCount];
+        this.amounts = new int[ruleCount];
+        this.percentages = new boolean[ruleCount];
+        this.stackable = new boolean[ruleCount];
+        this.buyQuantities = new int[ruleCount];
+        this.getQuantities = new int[ruleCount];
+        this.comboOffsets = new int[ruleCount];
+        this.comboSizes = new int[ruleCount];
+
+        Map<Integer, List<int[]>> byItem = new TreeMap<>();
+        Map<Integer, List<int[]>> byCategory = new TreeMap<>();
+        int members = 0;
+        for (int rule = 0; rule < ruleCount; rule++) {
+            Discount discount = rules.get(rule);
+            scopes[rule] = discount.getScope();
+            amounts[rule] = discount.getAmount();
+            percentages[rule] = discount.isPercentage();
+            stackable[rule] = discount.isStackable();
+            buyQuantities[rule] = discount.getBuyQuantity();
+            getQuantities[rule] = discount.getGetQuantity();
+            switch (discount.getScope()) {
+                case CATEGORY -> byCategory.computeIfAbsent(discount.getTargetId(), k -> new ArrayList<>()).add(new int[]{rule, -1});
+                case COMBO -> {
+                    comboOffsets[rule] = members;
+                    for (int itemId : new LinkedHashSet<>(discount.getComboItemIds())) {
+                        byItem.computeIfAbsent(itemId, k -> new ArrayList<>()).add(new int[]{rule, members++});
+                    }
+                    comboSizes[rule] = members - comboOffsets[rule];
+                }
+                default -> byItem.computeIfAbsent(discount.getTargetId(), k -> new ArrayList<>()).add(new int[]{rule, -1});
+            }
+        }
+        this.comboMemberCount = members;
+        int[] exclusive = new int[ruleCount];
+        int exclusiveCount = 0;
+        for (int rule = 0; rule < ruleCount; rule++) {
+            if (!stackable[rule]) {
+                exclusive[exclusiveCount++] = rule;
+            }
+        }
+        this.exclusiveRules = Arrays.copyOf(exclusive, exclusiveCount);
+
+        int[][] items = flatten(byItem);
+        this.itemKeys = items[0];
+        this.itemStarts = items[1];
+        this.itemRules = items[2];
+        this.itemMembers = items[3];
+        int[][] categories = flatten(byCategory);
+        this.categoryKeys = categories[0];
+        this.categoryStarts = categories[1];
+        this.categoryRules = categories[2];
+
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(ruleCount, comboMemberCount));
+    }
+
+    /**
+     * Compiles the promotions among the given discounts. Order discounts, inactive discounts and
+     * malformed promotions are left out.
+     *
+     * @param discounts The active discounts, as returned by {@link DiscountService#getActiveDiscounts()}.
+     * @return The compiled engine.
+     */
+    public static DiscountRuleEngine compile(List<Discount> discounts) {
+        List<Discount> rules = new ArrayList<>();
+        for (Discount discount : discounts) {
+            if (!discount.isActive() || !discount.isPromotion()) {
+                continue;
+            }
+            if (isValid(discount)) {
+                rules.add(discount);
+            } else {
+                LOGGER.warn("Ignoring malformed {} promotion '{}' (ID {}).", discount.getScope(), discount.getName(), discount.getId());
+            }
+        }
+        return new DiscountRuleEngine(discounts, rules);
+    }
+
+    /**
+     * @return The discounts this engine was compiled from.
+     */
+    public List<Discount> getSource() {
+        return source;
+    }
+
+    /**
+     * @return The number of promotions that were compiled.
+     */
+    public int getRuleCount() {
+        return ruleCount;
+    }
+
+    /**
+     * Prices the promotions that apply to a cart.
+     *
+     * @param cartItems The lines of the cart.
+     * @return The discount in cents, which may exceed the subtotal when stackable buy-X-get-Y or combo promotions overlap.
+     */
+    public long evaluate(List<CartItem> cartItems) {
+        if (ruleCount == 0) {
+            return 0;
+        }
+        Scratch s = scratch.get();
+        for (int i = 0, n = cartItems.size(); i < n; i++) {
+            accumulate(s, cartItems.get(i), 1);
+        }
+
+        long stacked = 0;
+        long bestExclusive = 0;
+        for (int t = 0; t < s.touchedCount; t++) {
+            int rule = s.touched[t];
+            long value = settle(rule, s);
+            if (stackable[rule]) {
+                stacked += value;
+            } else {
+                bestExclusive = Math.max(bestExclusive, value);
+            }
+            s.clear(rule, comboOffsets[rule], comboSizes[rule]);
+        }
+        s.touchedCount = 0;
+        return Math.max(stacked, bestExclusive);
+    }
+
+    /**
+     * Lists the promotions that make up {@link #evaluate} for a cart, e.g. to print each on the receipt.
+     *
+     * @param cartItems The lines of the cart.
+     * @return The discount in cents of each applied promotion, in rule order; their sum is what {@link #evaluate} returns.
+     */
+    public Map<Discount, Long> itemize(List<CartItem> cartItems) {
+        Map<Discount, Long> stacked = new LinkedHashMap<>();
+        if (ruleCount == 0) {
+            return stacked;
+        }
+        Scratch s = scratch.get();
+        for (int i = 0, n = cartItems.size(); i < n; i++) {
+            accumulate(s, cartItems.get(i), 1);
+        }
+        long stackedTotal = 0;
+        int bestExclusive = -1;
+        long bestExclusiveValue = 0;
+        for (int t = 0; t < s.touchedCount; t++) {
+            int rule = s.touched[t];
+            long value = settle(rule, s);
+            if (stackable[rule] && value > 0) {
+                stacked.merge(rules[rule], value, Long::sum);
+                stackedTotal += value;
+            } else if (!stackable[rule] && value > bestExclusiveValue) {
+                bestExclusive = rule;
+                bestExclusiveValue = value;
+            }
+            s.clear(rule, comboOffsets[rule], comboSizes[rule]);
+        }
+        s.touchedCount = 0;
+        if (bestExclusiveValue > stackedTotal) {
+            Map<Discount, Long> exclusive = new LinkedHashMap<>();
+            exclusive.put(rules[bestExclusive], bestExclusiveValue);
+            return exclusive;
+        }
+        return stacked;
+    }
+
+    /**
+     * Starts an empty running total of this engine's promotions for one cart.
+     */
+    public Tally newTally() {
+        return new Tally();
+    }
+
+    /**
+     * Adds one cart line, or takes it away with a {@code sign} of -1, to the running sums of the
+     * rules it matches, marking each of them as touched. Stackable item and category rules share
+     * one unit price between them, taken in rule order, so the same line always yields the same share.
+     */
+    private void accumulate(Scratch s, CartItem line, int sign) {
+        Item item = line.getItem();
+        int price = item.getPrice();
+        long quantity = (long) line.getQuantity() * sign;
+        long unitBudget = price; // What stackable item and category rules may still take off each unit
+
+        int key = Arrays.binarySearch(itemKeys, item.getId());
+        if (key >= 0) {
+            for (int entry = itemStarts[key]; entry < itemStarts[key + 1]; entry++) {
+                int rule = itemRules[entry];
+                s.touch(rule);
+                switch (scopes[rule]) {
+                    case BUY_X_GET_Y -> {
+                        s.quantities[rule] += quantity;
+                        s.prices[rule] = price;
+                    }
+                    case COMBO -> {
+                        s.memberQuantities[itemMembers[entry]] += quantity;
+                        s.memberPrices[itemMembers[entry]] = price;
+                    }
+                    default -> {
+                        long discount = unitDiscount(rule, price);
+                        if (stackable[rule]) {
+                            discount = Math.min(discount, unitBudget);
+                            unitBudget -= discount;
+                        }
+                        s.values[rule] += discount * quantity;
+                    }
+                }
+            }
+        }
+        key = Arrays.binarySearch(categoryKeys, item.getCategoryId());
+        if (key >= 0) {
+            for (int entry = categoryStarts[key]; entry < categoryStarts[key + 1]; entry++) {
+                int rule = categoryRules[entry];
+                s.touch(rule);
+                long discount = unitDiscount(rule, price);
+                if (stackable[rule]) {
+                    discount = Math.min(discount, unitBudget);
+                    unitBudget -= discount;
+                }
+                s.values[rule] += discount * quantity;
+            }
+        }
+    }
+
+    private long settle(int rule, Scratch s) {
+        switch (scopes[rule]) {
+            case BUY_X_GET_Y -> {
+                long freeUnits = s.quantities[rule] / (buyQuantities[rule] + getQuantities[rule]) * getQuantities[rule];
+                return freeUnits * unitDiscount(rule, s.prices[rule]);
+            }
+            case COMBO -> {
+                long sets = Long.MAX_VALUE;
+                long setPrice = 0;
+                for (int m = comboOffsets[rule]; m < comboOffsets[rule] + comboSizes[rule]; m++) {
+                    sets = Math.min(sets, s.memberQuantities[m]);
+                    setPrice += s.memberPrices[m];
+                }
+                return sets * unitDiscount(rule, setPrice);
+            }
+            default -> {
+                return s.values[rule];
+            }
+        }
+    }
+
+    /**
+     * @return The discount on one unit (or one combo set) of the given price, never more than the price.
+     */
+    private long unitDiscount(int rule, long price) {
+        return percentages[rule] ? price * amounts[rule] / 100 : Math.min(amounts[rule], price);
+    }
+
+    private static boolean isValid(Discount discount) {
+        if (discount.getAmount() <= 0 || (discount.isPercentage() && discount.getAmount() > 100)) {
+            return false;
+        }
+        return switch (discount.getScope()) {
+            case BUY_X_GET_Y -> discount.getBuyQuantity() > 0 && discount.getGetQuantity() > 0;
+            case COMBO -> !discount.getComboItemIds().isEmpty();
+            default -> true;
+        };
+    }
+
+    /**
+     * Lays out a sorted multimap as keys, range starts, rule indexes and combo member slots.
+     */
+    private static int[][] flatten(Map<Integer, List<int[]>> index) {
+        int entries = index.values().stream().mapToInt(List::size).sum();
+        int[] keys = new int[index.size()];
+        int[] starts = new int[index.size() + 1];
+        int[] rules = new int[entries];
+        int[] members = new int[entries];
+        int k = 0;
+        int e = 0;
+        for (Map.Entry<Integer, List<int[]>> key : index.entrySet()) {
+            keys[k] = key.getKey();
+            starts[k++] = e;
+            for (int[] entry : key.getValue()) {
+                rules[e] = entry[0];
+                members[e++] = entry[1];
+            }
+        }
+        starts[k] = e;
+        return new int[][]{keys, starts, rules, members};
+    }
+
+    /**
+     * The promotions of one cart, kept up to date as lines change. Each change costs the rules
+     * the line matches plus a scan of the exclusive rules, however long the cart is.
+     * A tally is not thread-safe.
+     */
+    public final class Tally {
+        private final Scratch sums = new Scratch(ruleCount, comboMemberCount);
+        private final long[] settled = new long[ruleCount];
+        private long stacked;
+
+        private Tally() {
+        }
+
+        /**
+         * @return The engine whose promotions this tally sums.
+         */
+        public DiscountRuleEngine getEngine() {
+            return DiscountRuleEngine.this;
+        }
+
+        public void add(CartItem line) {
+            apply(line, 1);
+        }
+
+        public void remove(CartItem line) {
+            apply(line, -1);
+        }
+
+        /**
+         * @return The same value {@link #evaluate} returns for the lines currently added.
+         */
+        public long getValue() {
+            long bestExclusive = 0;
+            for (int rule : exclusiveRules) {
+                bestExclusive = Math.max(bestExclusive, settled[rule]);
+            }
+            return Math.max(stacked, bestExclusive);
+        }
+
+        private void apply(CartItem line, int sign) {
+            accumulate(sums, line, sign);
+            for (int t = 0; t < sums.touchedCount; t++) {
+                int rule = sums.touched[t];
+                long value = settle(rule, sums);
+                if (stackable[rule]) {
+                    stacked += value - settled[rule];
+                }
+                settled[rule] = value;
+                sums.isTouched[rule] = false;
+            }
+            sums.touchedCount = 0;
+        }
+    }
+
+    /**
+     * Per-thread working state, returned to all zeros after every evaluation.
+     */
+    private static final class Scratch {
+        private final long[] values;
+        private final long[] quantities;
+        private final long[] prices;
+        private final long[] memberQuantities;
+        private final long[] memberPrices;
+        private final boolean[] isTouched;
+        private final int[] touched;
+        private int touchedCount;
+
+        private Scratch(int ruleCount, int comboMemberCount) {
+            this.values = new long[ruleCount];
+            this.quantities = new long[ruleCount];
+            this.prices = new long[ruleCount];
+            this.memberQuantities = new long[comboMemberCount];
+            this.memberPrices = new long[comboMemberCount];
+            this.isTouched = new boolean[ruleCount];
+            this.touched = new int[ruleCount];
+        }
+
+        private void touch(int rule) {
+            if (!isTouched[rule]) {
+                isTouched[rule] = true;
+                touched[touchedCount++] = rule;
+            }
+        }
+
+        private void clear(int rule, int comboOffset, int comboSize) {
+            isTouched[rule] = false;
+            values[rule] = 0;
+            quantities[rule] = 0;
+            prices[rule] = 0;
+            Arrays.fill(memberQuantities, comboOffset, comboOffset + comboSize, 0);
+            Arrays.fill(memberPrices, comboOffset, comboOffset + comboSize, 0);
+        }
+    }
+}
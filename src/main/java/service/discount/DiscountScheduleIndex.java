@@ -0,0 +1,179 @@
+package service.discount;
+
+import model.entity.Discount;
+import model.entity.DiscountSchedule;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * An immutable index of which discounts apply at each moment of the week.
+ *
+ * <p>The week is cut into segments at every window start and end, measured in seconds since
+ * Monday 00:00, and each segment holds the list of discounts that apply throughout it. A lookup is
+ * a binary search over the segment starts, and returns the same list instance for the whole
+ * segment, so callers can cache anything derived from it until the next transition.
+ *
+ * <p>Validity periods are not part of the weekly segments. An index is built for one moment and
+ * only holds the discounts valid then; it is good until the next validity period starts or ends.
+ */
+public final class DiscountScheduleIndex {
+
+    private static final int SECONDS_PER_DAY = 86_400;
+    private static final int SECONDS_PER_WEEK = 7 * SECONDS_PER_DAY;
+
+    private final LocalDateTime builtAt;
+    private final LocalDateTime validUntil;
+    private final boolean wraps;
+    private final int[] segmentStarts;
+    private final List<List<Discount>> segmentDiscounts;
+
+    private DiscountScheduleIndex(LocalDateTime builtAt, LocalDateTime validUntil, boolean wraps, int[] segmentStarts,
+                                  List<List<Discount>> segmentDiscounts) {
+        this.builtAt = builtAt;
+        this.validUntil = validUntil;
+        this.wraps = wraps;
+        this.segmentStarts = segmentStarts;
+        this.segmentDiscounts = segmentDiscounts;
+    }
+
+    /**
+     * Builds the index of the active discounts that are valid at the given moment.
+     *
+     * @param discounts The discounts, in the order they should be listed.
+     * @param moment The moment the index is built for.
+     * @return The index.
+     */
+    public static DiscountScheduleIndex build(List<Discount> discounts, LocalDateTime moment) {
+        List<Discount> valid = new ArrayList<>();
+        LocalDateTime validUntil = null;
+        for (Discount discount : discounts) {
+            if (!discount.isActive()) {
+                continue;
+            }
+            DiscountSchedule schedule = discount.getSchedule();
+            if (schedule != null) {
+                validUntil = earliestAfter(moment, validUntil, schedule.getValidFrom());
+                validUntil = earliestAfter(moment, validUntil, schedule.getValidUntil());
+            }
+            if (schedule == null || schedule.isValidAt(moment)) {
+                valid.add(discount);
+            }
+        }
+
+        // Each discount's weekly windows as [start, end) pairs, split where they wrap past Sunday night
+        List<int[]> windows = new ArrayList<>();
+        TreeSet<Integer> cuts = new TreeSet<>();
+        cuts.add(0);
+        for (int d = 0; d < valid.size(); d++) {
+            DiscountSchedule schedule = valid.get(d).getSchedule();
+            if (schedule == null || schedule.isAllWeek()) {
+                windows.add(new int[]{d, 0, SECONDS_PER_WEEK});
+                continue;
+            }
+            for (DayOfWeek day : schedule.getDays()) {
+                int start = (day.getValue() - 1) * SECONDS_PER_DAY + schedule.getStartTime().toSecondOfDay();
+                int end = start + schedule.getWindowSeconds();
+                if (end > SECONDS_PER_WEEK) {
+                    windows.add(new int[]{d, start, SECONDS_PER_WEEK});
+                    windows.add(new int[]{d, 0, end - SECONDS_PER_WEEK});
+                    cuts.add(end - SECONDS_PER_WEEK);
+                } else {
+                    windows.add(new int[]{d, start, end});
+                    cuts.add(end % SECONDS_PER_WEEK);
+                }
+                cuts.add(start);
+            }
+        }
+
+        int[] bounds = cuts.stream().mapToInt(Integer::intValue).toArray();
+        List<Integer> starts = new ArrayList<>();
+        List<List<Discount>> lists = new ArrayList<>();
+        boolean[] covered = new boolean[valid.size()];
+        for (int i = 0; i < bounds.length; i++) {
+            int segmentStart = bounds[i];
+            Arrays.fill(covered, false);
+            for (int[] window : windows) {
+                if (window[1] <= segmentStart && segmentStart < window[2]) {
+                    covered[window[0]] = true;
+                }
+            }
+            List<Discount> active = new ArrayList<>();
+            for (int d = 0; d < valid.size(); d++) {
+                if (covered[d]) {
+                    active.add(valid.get(d));
+                }
+            }
+            // Neighbouring segments with the same discounts are merged, so every segment start is a real transition.
+            if (lists.isEmpty() || !lists.get(lists.size() - 1).equals(active)) {
+                starts.add(segmentStart);
+                lists.add(List.copyOf(active));
+            }
+        }
+        // A window running past Sunday night continues in the first segment of the next week.
+        boolean wraps = lists.size() > 2 && lists.get(lists.size() - 1).equals(lists.get(0));
+        if (wraps) {
+            lists.set(lists.size() - 1, lists.get(0));
+        }
+        return new DiscountScheduleIndex(moment, validUntil, wraps,
+                starts.stream().mapToInt(Integer::intValue).toArray(), List.copyOf(lists));
+    }
+
+    /**
+     * @return True if this index can answer for the moment, i.e. no validity period has started or ended since it was built.
+     */
+    public boolean covers(LocalDateTime moment) {
+        return !moment.isBefore(builtAt) && (validUntil == null || moment.isBefore(validUntil));
+    }
+
+    /**
+     * @return The discounts that apply at the moment, which must be {@link #covers covered} by this index.
+     */
+    public List<Discount> activeAt(LocalDateTime moment) {
+        return segmentDiscounts.get(segmentOf(secondOfWeek(moment)));
+    }
+
+    /**
+     * @return The first moment after the given one at which the active discounts may change,
+     *         or null if they never change.
+     */
+    public LocalDateTime nextTransitionAfter(LocalDateTime moment) {
+        LocalDateTime next = null;
+        if (segmentStarts.length > 1) {
+            int segment = segmentOf(secondOfWeek(moment));
+            int nextStart;
+            if (segment + 1 < segmentStarts.length) {
+                nextStart = segmentStarts[segment + 1];
+            } else {
+                nextStart = SECONDS_PER_WEEK + segmentStarts[wraps ? 1 : 0];
+            }
+            next = startOfWeek(moment).plusSeconds(nextStart);
+        }
+        return earliestAfter(moment, next, validUntil);
+    }
+
+    private int segmentOf(int secondOfWeek) {
+        int index = Arrays.binarySearch(segmentStarts, secondOfWeek);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    private static int secondOfWeek(LocalDateTime moment) {
+        return (moment.getDayOfWeek().getValue() - 1) * SECONDS_PER_DAY + moment.toLocalTime().toSecondOfDay();
+    }
+
+    private static LocalDateTime startOfWeek(LocalDateTime moment) {
+        return moment.truncatedTo(ChronoUnit.DAYS).minusDays(moment.getDayOfWeek().getValue() - 1);
+    }
+
+    private static LocalDateTime earliestAfter(LocalDateTime moment, LocalDateTime current, LocalDateTime candidate) {
+        if (candidate == null || !candidate.isAfter(moment)) {
+            return current;
+        }
+        return current == null || candidate.isBefore(current) ? candidate : current;
+    }
+}
@@ -3,17 +3,28 @@ package service.discount;
 import model.entity.Discount;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Defines the contract for a service that provides available discounts.
  */
-public interface DiscountService {
+public interface DiscountService extends AutoCloseable {
 
     /**
-     * Fetches all currently active discounts.
+     * Fetches all currently active discounts, leaving out scheduled discounts whose windows are closed.
      *
      * @return A list of active {@link Discount} objects.
      * @throws Exception if an error occurs during data retrieval.
      */
     List<Discount> getActiveDiscounts() throws Exception;
+
+    /**
+     * @param listener Called with the active discounts whenever a scheduled discount starts or stops applying.
+     */
+    default void setScheduleListener(Consumer<List<Discount>> listener) {
+    }
+
+    @Override
+    default void close() {
+    }
 }
\ No newline at end of file
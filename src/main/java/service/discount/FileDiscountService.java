@@ -9,22 +9,50 @@ import org.slf4j.LoggerFactory;
 import java.io.InputStream;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * An implementation of DiscountService that reads discount data from a local JSON file.
+ * Scheduled discounts are resolved in memory by {@link ScheduledDiscounts}.
  */
 public class FileDiscountService implements DiscountService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(FileDiscountService.class);
-    private final List<Discount> discounts;
+    private final ScheduledDiscounts scheduledDiscounts;
 
     public FileDiscountService() {
-        this.discounts = loadFromFile();
+        this(null);
+    }
+
+    /**
+     * @param discounts Discounts already loaded, e.g. from the reference snapshot, or null to read the JSON file.
+     */
+    public FileDiscountService(List<Discount> discounts) {
+        this(discounts, new ScheduledDiscounts());
+    }
+
+    /**
+     * @param discounts Discounts already loaded, or null to read the JSON file.
+     * @param scheduledDiscounts Resolves which of the discounts apply at any moment.
+     */
+    public FileDiscountService(List<Discount> discounts, ScheduledDiscounts scheduledDiscounts) {
+        this.scheduledDiscounts = scheduledDiscounts;
+        this.scheduledDiscounts.setDiscounts(discounts != null ? discounts : loadFromFile());
     }
 
     @Override
     public List<Discount> getActiveDiscounts() {
-        return discounts;
+        return scheduledDiscounts.getActive();
+    }
+
+    @Override
+    public void setScheduleListener(Consumer<List<Discount>> listener) {
+        scheduledDiscounts.setListener(listener);
+    }
+
+    @Override
+    public void close() {
+        scheduledDiscounts.close();
     }
 
     private List<Discount> loadFromFile() {
@@ -0,0 +1,167 @@
+package service.discount;
+
+import model.entity.Discount;
+import model.entity.DiscountSchedule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Answers which discounts apply right now from an in-memory {@link DiscountScheduleIndex},
+ * without going back to the data source. A timer fires at each window boundary and tells the
+ * listener about the new list, so happy hours start and end on time without anyone flipping rows.
+ */
+public class ScheduledDiscounts implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ScheduledDiscounts.class);
+
+    private final Clock clock;
+    private volatile Consumer<List<Discount>> listener = active -> { };
+
+    // Guarded by this
+    private List<Discount> discounts = List.of();
+    private DiscountScheduleIndex index;
+    private List<Discount> lastActive;
+    private ScheduledExecutorService timer;
+    private ScheduledFuture<?> nextTransition;
+    private boolean closed;
+
+    public ScheduledDiscounts() {
+        this(Clock.systemDefaultZone());
+    }
+
+    /**
+     * @param clock The clock that decides which windows are open.
+     */
+    public ScheduledDiscounts(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * @param listener Called on the timer thread with the active discounts whenever a window opens or closes.
+     */
+    public void setListener(Consumer<List<Discount>> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Replaces the discounts and rebuilds the index. Does nothing if given the same list again, or
+     * a list of the same discounts on the same terms, e.g. when they are read from the database on
+     * every call; the index, its timer and the instances already handed out are kept then.
+     *
+     * @param discounts All discounts, scheduled or not.
+     */
+    public synchronized void setDiscounts(List<Discount> discounts) {
+        if (index != null && (discounts == this.discounts || sameTerms(discounts, this.discounts))) {
+            return;
+        }
+        this.discounts = discounts;
+        rebuild(LocalDateTime.now(clock));
+    }
+
+    /**
+     * @return The discounts that apply now. The same list instance is returned until the next transition.
+     */
+    public synchronized List<Discount> getActive() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        if (index == null || !index.covers(now)) {
+            rebuild(now);
+        }
+        lastActive = index.activeAt(now);
+        return lastActive;
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (timer != null) {
+            timer.shutdownNow();
+        }
+    }
+
+    /**
+     * @return True if both lists hold discounts with the same IDs and terms, in the same order.
+     */
+    static boolean sameTerms(List<Discount> a, List<Discount> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            Discount x = a.get(i);
+            Discount y = b.get(i);
+            if (x.getId() != y.getId() || x.getAmount() != y.getAmount() || x.isPercentage() != y.isPercentage()
+                    || x.isActive() != y.isActive() || x.getScope() != y.getScope() || x.getTargetId() != y.getTargetId()
+                    || x.getBuyQuantity() != y.getBuyQuantity() || x.getGetQuantity() != y.getGetQuantity()
+                    || x.isStackable() != y.isStackable() || !Objects.equals(x.getName(), y.getName())
+                    || !x.getComboItemIds().equals(y.getComboItemIds()) || !sameSchedule(x.getSchedule(), y.getSchedule())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean sameSchedule(DiscountSchedule x, DiscountSchedule y) {
+        if (x == null || y == null) {
+            return x == y;
+        }
+        return x.getDays().equals(y.getDays()) && x.getStartTime().equals(y.getStartTime())
+                && Objects.equals(x.getEndTime(), y.getEndTime()) && Objects.equals(x.getValidFrom(), y.getValidFrom())
+                && Objects.equals(x.getValidUntil(), y.getValidUntil());
+    }
+
+    private void rebuild(LocalDateTime now) {
+        index = DiscountScheduleIndex.build(discounts, now);
+        scheduleNextTransition(now);
+    }
+
+    private void scheduleNextTransition(LocalDateTime now) {
+        if (nextTransition != null) {
+            nextTransition.cancel(false);
+            nextTransition = null;
+        }
+        LocalDateTime next = index.nextTransitionAfter(now);
+        if (next == null || closed) {
+            return;
+        }
+        if (timer == null) {
+            timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "discount-schedule");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        // Measured between zoned instants, so the delay stays right across daylight saving changes.
+        long delayMillis = Duration.between(now.atZone(clock.getZone()), next.atZone(clock.getZone())).toMillis();
+        nextTransition = timer.schedule(this::onTransition, Math.max(delayMillis, 0), TimeUnit.MILLISECONDS);
+        LOGGER.debug("Next discount transition at {}.", next);
+    }
+
+    private void onTransition() {
+        List<Discount> previous;
+        List<Discount> active;
+        synchronized (this) {
+            previous = lastActive;
+            active = getActive();
+            // A timer that fired a little early simply waits for the same boundary again.
+            scheduleNextTransition(LocalDateTime.now(clock));
+        }
+        if (!active.equals(previous)) {
+            LOGGER.info("Active discounts changed: {}.", active);
+            try {
+                listener.accept(active);
+            } catch (RuntimeException e) {
+                LOGGER.error("Discount schedule listener failed.", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package service.inventory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import util.TimerWheel;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base class for reservation services: tracks open holds and expires them on a {@link TimerWheel}.
+ * Subclasses only decide how stock is taken and given back, and may record each step of a hold
+ * where it outlives this process.
+ */
+public abstract class AbstractStockReservationService implements StockReservationService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AbstractStockReservationService.class);
+
+    private final TimerWheel timerWheel;
+    private final long holdMillis;
+    private final Map<StockHold, TimerWheel.Timeout> openHolds = new ConcurrentHashMap<>();
+    // Returning stock may touch the database, so it runs off the wheel's thread.
+    private final ExecutorService releaser = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "stock-hold-release");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @param timerWheel The wheel that expires holds.
+     * @param holdMillis How long a hold lasts before its stock is returned automatically.
+     */
+    protected AbstractStockReservationService(TimerWheel timerWheel, long holdMillis) {
+        this.timerWheel = timerWheel;
+        this.holdMillis = holdMillis;
+    }
+
+    /**
+     * Takes stock if enough is available.
+     *
+     * @return The hold on the taken stock, or null if there was not enough.
+     */
+    protected abstract StockHold take(int itemId, int quantity) throws Exception;
+
+    /**
+     * Returns the stock of a hold.
+     */
+    protected abstract void giveBack(StockHold hold) throws Exception;
+
+    /**
+     * Records that a hold no longer expires because its sale is being completed. Does nothing by default.
+     */
+    protected void pin(StockHold hold) throws Exception {
+    }
+
+    /**
+     * Records that a hold ended in a sale, so its stock stays taken. Does nothing by default.
+     */
+    protected void settle(StockHold hold) throws Exception {
+    }
+
+    /**
+     * Runs a task after a delay, off the wheel's thread, e.g. to sweep holds left behind elsewhere.
+     *
+     * @return A handle that can cancel the task before it runs.
+     */
+    protected TimerWheel.Timeout scheduleTask(Runnable task, long delayMillis) {
+        return timerWheel.schedule(() -> releaser.execute(task), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public StockHold hold(int itemId, int quantity) throws Exception {
+        StockHold hold = take(itemId, quantity);
+        if (hold == null) {
+            return null;
+        }
+        TimerWheel.Timeout timeout = timerWheel.schedule(() -> {
+            if (hold.expire()) {
+                LOGGER.info("Hold on {} expired.", hold);
+                releaser.execute(() -> returnStock(hold));
+            }
+        }, holdMillis, TimeUnit.MILLISECONDS);
+        openHolds.put(hold, timeout);
+        if (!hold.isActive()) {
+            // Expired before it was tracked.
+            openHolds.remove(hold);
+        }
+        return hold;
+    }
+
+    @Override
+    public boolean lock(StockHold hold) {
+        if (!hold.lock()) {
+            return false;
+        }
+        try {
+            pin(hold);
+        } catch (Exception e) {
+            // The hold is locked here either way; only a crash would leave it expiring elsewhere.
+            LOGGER.warn("Failed to record the lock on {}.", hold, e);
+        }
+        return true;
+    }
+
+    @Override
+    public void commit(StockHold hold) {
+        if (hold.end()) {
+            cancelTimeout(hold);
+            try {
+                settle(hold);
+            } catch (Exception e) {
+                LOGGER.error("Failed to record the sale of {}.", hold, e);
+            }
+        }
+    }
+
+    @Override
+    public void release(StockHold hold) {
+        if (hold.end()) {
+            returnStock(hold);
+        }
+    }
+
+    /**
+     * @return The number of holds currently in force.
+     */
+    public int getOpenHoldCount() {
+        return openHolds.size();
+    }
+
+    @Override
+    public void close() {
+        for (StockHold hold : openHolds.keySet()) {
+            release(hold);
+        }
+        releaser.shutdown();
+        try {
+            releaser.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void returnStock(StockHold hold) {
+        cancelTimeout(hold);
+        try {
+            giveBack(hold);
+        } catch (Exception e) {
+            LOGGER.error("Failed to return stock for {}.", hold, e);
+        }
+    }
+
+    private void cancelTimeout(StockHold hold) {
+        TimerWheel.Timeout timeout = openHolds.remove(hold);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+}
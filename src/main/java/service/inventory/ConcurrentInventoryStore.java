@@ -0,0 +1,73 @@
+package service.inventory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * A lock-free {@link InventoryStore} backed by one {@link AtomicInteger} per item.
+ * Decrements are compare-and-set loops, so concurrent checkouts on the same item never
+ * lose an update and never take stock below zero.
+ */
+public class ConcurrentInventoryStore implements InventoryStore {
+
+    private static final BiConsumer<Integer, Integer> NO_LISTENER = (itemId, quantity) -> { };
+
+    private final ConcurrentHashMap<Integer, AtomicInteger> stock = new ConcurrentHashMap<>();
+    private volatile BiConsumer<Integer, Integer> changeListener = NO_LISTENER;
+
+    /**
+     * @param initialStock The starting stock levels, keyed by item ID.
+     */
+    public ConcurrentInventoryStore(Map<Integer, Integer> initialStock) {
+        initialStock.forEach((itemId, quantity) -> stock.put(itemId, new AtomicInteger(quantity)));
+    }
+
+    @Override
+    public int get(int itemId) {
+        AtomicInteger counter = stock.get(itemId);
+        return counter == null ? 0 : counter.get();
+    }
+
+    @Override
+    public boolean set(int itemId, int quantity) {
+        stock.computeIfAbsent(itemId, id -> new AtomicInteger()).set(quantity);
+        changeListener.accept(itemId, quantity);
+        return true;
+    }
+
+    @Override
+    public boolean tryDecrement(int itemId, int quantity) {
+        AtomicInteger counter = stock.get(itemId);
+        if (counter == null) {
+            return false;
+        }
+        while (true) {
+            int current = counter.get();
+            if (current < quantity) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current - quantity)) {
+                changeListener.accept(itemId, current - quantity);
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public int adjust(int itemId, int delta) {
+        AtomicInteger counter = stock.get(itemId);
+        if (counter == null) {
+            throw new IllegalArgumentException("Item " + itemId + " is not in the inventory store.");
+        }
+        int updated = counter.addAndGet(delta);
+        changeListener.accept(itemId, updated);
+        return updated;
+    }
+
+    @Override
+    public void setChangeListener(BiConsumer<Integer, Integer> listener) {
+        this.changeListener = listener == null ? NO_LISTENER : listener;
+    }
+}
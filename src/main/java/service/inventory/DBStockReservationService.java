@@ -0,0 +1,101 @@
+package service.inventory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import repo.repository.StockHoldRepository;
+import util.TimerWheel;
+
+import java.util.Collection;
+
+/**
+ * Holds stock in PostgreSQL. Each hold takes its stock and records itself in {@code stock_holds}
+ * in one short transaction, so held stock is never only known to this process: holds left behind
+ * by a crash, or whose return failed, are swept back into stock when this terminal starts and
+ * periodically once they have expired, by whichever terminal gets there first. A sold hold is
+ * deleted by the transaction that saves its receipt, so committing one records nothing here.
+ */
+public class DBStockReservationService extends AbstractStockReservationService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DBStockReservationService.class);
+
+    private final StockHoldRepository stockHoldRepository;
+    private final String terminalId;
+    private final long holdMillis;
+    private volatile boolean open = true;
+    private volatile TimerWheel.Timeout nextSweep;
+
+    /**
+     * @param terminalId Identifies this terminal's holds, which are all stale when it starts.
+     */
+    public DBStockReservationService(StockHoldRepository stockHoldRepository, String terminalId, TimerWheel timerWheel, long holdMillis) {
+        super(timerWheel, holdMillis);
+        this.stockHoldRepository = stockHoldRepository;
+        this.terminalId = terminalId;
+        this.holdMillis = holdMillis;
+    }
+
+    /**
+     * Returns the holds this terminal left behind and starts sweeping expired holds periodically.
+     *
+     * @param pendingHoldIds The holds sold by checkouts still waiting to be saved, which keep their stock;
+     *                       or null if they are not known, in which case only expired holds are returned.
+     */
+    public void start(Collection<Long> pendingHoldIds) {
+        try {
+            int returned = pendingHoldIds != null
+                    ? stockHoldRepository.returnStaleHolds(terminalId, pendingHoldIds)
+                    : stockHoldRepository.returnExpiredHolds();
+            if (returned > 0) {
+                LOGGER.info("Returned {} stock holds left behind by an earlier run or an expired cart.", returned);
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Could not sweep stale stock holds. They are retried in {} ms.", holdMillis, e);
+        }
+        nextSweep = scheduleTask(this::sweepExpired, holdMillis);
+    }
+
+    @Override
+    protected StockHold take(int itemId, int quantity) throws Exception {
+        long holdId = stockHoldRepository.placeHold(terminalId, itemId, quantity, holdMillis);
+        return holdId > 0 ? new StockHold(holdId, itemId, quantity) : null;
+    }
+
+    @Override
+    protected void giveBack(StockHold hold) {
+        try {
+            stockHoldRepository.returnHold(hold.getId());
+        } catch (Exception e) {
+            // The hold row is still there, so the stock is not lost.
+            LOGGER.error("Failed to return stock for {}. The next sweep returns it.", hold, e);
+        }
+    }
+
+    @Override
+    protected void pin(StockHold hold) throws Exception {
+        stockHoldRepository.pinHold(hold.getId());
+    }
+
+    @Override
+    public void close() {
+        open = false;
+        if (nextSweep != null) {
+            nextSweep.cancel();
+        }
+        super.close();
+    }
+
+    private void sweepExpired() {
+        if (!open) {
+            return;
+        }
+        try {
+            int returned = stockHoldRepository.returnExpiredHolds();
+            if (returned > 0) {
+                LOGGER.info("Returned {} expired stock holds.", returned);
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Could not sweep expired stock holds.", e);
+        }
+        nextSweep = scheduleTask(this::sweepExpired, holdMillis);
+    }
+}
@@ -0,0 +1,48 @@
+package service.inventory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import repo.repository.ShardedInventoryRepository;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically evens out the inventory shards of hot items, so that decrements keep finding
+ * a shard with enough stock on the fast path instead of locking every shard of the item.
+ */
+public class InventoryShardRebalancer implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InventoryShardRebalancer.class);
+
+    private final ShardedInventoryRepository shardedInventoryRepository;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "inventory-shard-rebalancer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @param shardedInventoryRepository The repository whose shards are rebalanced.
+     * @param intervalMillis How often to rebalance.
+     */
+    public InventoryShardRebalancer(ShardedInventoryRepository shardedInventoryRepository, long intervalMillis) {
+        this.shardedInventoryRepository = shardedInventoryRepository;
+        scheduler.scheduleWithFixedDelay(this::rebalance, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void rebalance() {
+        try {
+            int items = shardedInventoryRepository.rebalance();
+            LOGGER.debug("Rebalanced inventory shards of {} items.", items);
+        } catch (Exception e) {
+            LOGGER.error("Error rebalancing inventory shards.", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,32 @@
+package service.inventory;
+
+import util.TimerWheel;
+
+/**
+ * Holds stock in an in-memory {@link InventoryStore}, for the InternalFile data source.
+ * Each hold is a single compare-and-set, so many carts can contend for the same item cheaply.
+ */
+public class InventoryStockReservationService extends AbstractStockReservationService {
+
+    private final InventoryStore inventoryStore;
+
+    public InventoryStockReservationService(InventoryStore inventoryStore, TimerWheel timerWheel, long holdMillis) {
+        super(timerWheel, holdMillis);
+        this.inventoryStore = inventoryStore;
+    }
+
+    @Override
+    protected StockHold take(int itemId, int quantity) {
+        return inventoryStore.tryHold(itemId, quantity) ? new StockHold(itemId, quantity) : null;
+    }
+
+    @Override
+    protected void giveBack(StockHold hold) {
+        inventoryStore.releaseHold(hold.getItemId(), hold.getQuantity());
+    }
+
+    @Override
+    protected void settle(StockHold hold) {
+        inventoryStore.commitHold(hold.getItemId(), hold.getQuantity());
+    }
+}
@@ -0,0 +1,68 @@
+package service.inventory;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Defines the contract for a thread-safe store of stock levels, keyed by item ID.
+ * It is the single source of truth for inventory in the InternalFile data source;
+ * the JavaFX properties of {@link model.entity.Item} only mirror it for display.
+ */
+public interface InventoryStore {
+
+    /**
+     * @return The current stock of the item, or 0 if the item is unknown.
+     */
+    int get(int itemId);
+
+    /**
+     * Sets the stock of an item, registering it if it is unknown.
+     *
+     * @return True if the stock was set, false if the item is unknown and the store has no room for it.
+     */
+    boolean set(int itemId, int quantity);
+
+    /**
+     * Atomically subtracts {@code quantity} if at least that much is in stock.
+     *
+     * @return True if the stock was decremented, false if it was too low or the item is unknown.
+     */
+    boolean tryDecrement(int itemId, int quantity);
+
+    /**
+     * Unconditionally adds {@code delta} (which may be negative) to the stock of a known item.
+     *
+     * @return The new stock level.
+     * @throws IllegalArgumentException if the item is unknown.
+     */
+    int adjust(int itemId, int delta);
+
+    /**
+     * Takes stock for a cart hold. Stores that outlive the process also count it as held, so
+     * that it can be returned if the process dies before the hold is released or committed.
+     *
+     * @return True if the stock was taken, false if it was too low or the item is unknown.
+     */
+    default boolean tryHold(int itemId, int quantity) {
+        return tryDecrement(itemId, quantity);
+    }
+
+    /**
+     * Gives the stock of a hold back.
+     *
+     * @throws IllegalArgumentException if the item is unknown.
+     */
+    default void releaseHold(int itemId, int quantity) {
+        adjust(itemId, quantity);
+    }
+
+    /**
+     * Marks the stock of a hold as sold, so it is no longer counted as held.
+     */
+    default void commitHold(int itemId, int quantity) {
+    }
+
+    /**
+     * Registers a callback that receives the item ID and new stock level after every change.
+     */
+    void setChangeListener(BiConsumer<Integer, Integer> listener);
+}
@@ -0,0 +1,340 @@
+package service.inventory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * A persistent {@link InventoryStore} kept in a memory-mapped file, so stock survives restarts
+ * without re-reading it from menu.json. Stock is updated in place and written back to disk
+ * on a fixed cadence and on close.
+ *
+ * <p>File layout (native byte order): a 16-byte header {@code [int magic][int version][int slotsUsed][int capacity]}
+ * followed by {@code capacity} slots of {@code [int itemId][int stock][int held]}.
+ *
+ * <p>Stock changes are atomic compare-and-set operations on the mapped memory, which is shared by
+ * every process mapping the file, so several kiosk processes on one host can sell from the same stock.
+ * Adding a slot for a new item takes an exclusive file lock on the header.
+ *
+ * <p>Stock taken by cart holds is also counted as held. Every open store keeps a shared lock on
+ * the file, so the first process to open it after all others are gone knows that no hold is live
+ * and returns whatever is still counted as held: stock held when a kiosk crashed is not lost.
+ */
+public class MappedInventoryStore implements InventoryStore, AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MappedInventoryStore.class);
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+    private static final BiConsumer<Integer, Integer> NO_LISTENER = (itemId, quantity) -> { };
+
+    private static final int MAGIC = 0x43414646; // "CAFF"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 16;
+    private static final int SLOTS_USED_OFFSET = 8;
+    private static final int CAPACITY_OFFSET = 12;
+    private static final int SLOT_BYTES = 12;
+    // A byte far past the end of the file, locked shared by every store that has the file open.
+    private static final long LIVENESS_POSITION = Long.MAX_VALUE - 1;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final Map<Integer, Integer> slotByItemId = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+    private volatile BiConsumer<Integer, Integer> changeListener = NO_LISTENER;
+    private int knownSlots; // Slots already indexed, guarded by this
+    private FileLock liveness;
+
+    private MappedInventoryStore(FileChannel channel, MappedByteBuffer buffer, int capacity, long flushIntervalMillis) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inventory-store-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flusher.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens or creates the store. Items already in the file keep their persisted stock;
+     * items missing from it are added with their stock from {@code initialStock}.
+     *
+     * @param path The store file.
+     * @param capacity The number of item slots in a newly created file.
+     * @param initialStock The stock to use for items not yet in the file, keyed by item ID.
+     * @param flushIntervalMillis How often changes are written back to disk.
+     * @throws IOException if the file cannot be opened, is not a store, or is full.
+     */
+    public static MappedInventoryStore open(Path path, int capacity, Map<Integer, Integer> initialStock, long flushIntervalMillis) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedInventoryStore store = null;
+        try {
+            int fileCapacity = withHeaderLock(channel, () -> initializeIfEmpty(channel, capacity));
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) fileCapacity * SLOT_BYTES);
+            store = new MappedInventoryStore(channel, buffer, fileCapacity, flushIntervalMillis);
+            store.addMissing(initialStock);
+            store.returnAbandonedHolds();
+            LOGGER.info("Opened inventory store {} ({} of {} slots used).", path, store.knownSlots, fileCapacity);
+            return store;
+        } catch (IOException | RuntimeException e) {
+            if (store != null) {
+                store.close();
+            } else {
+                channel.close();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public int get(int itemId) {
+        int offset = stockOffset(itemId);
+        return offset < 0 ? 0 : (int) INT.getVolatile(buffer, offset);
+    }
+
+    @Override
+    public boolean set(int itemId, int quantity) {
+        int offset = stockOffset(itemId);
+        if (offset < 0) {
+            try {
+                addMissing(Map.of(itemId, quantity));
+            } catch (IOException e) {
+                LOGGER.error("Could not add item {} to the inventory store.", itemId, e);
+                return false;
+            }
+            offset = stockOffset(itemId);
+        }
+        INT.setVolatile(buffer, offset, quantity);
+        changeListener.accept(itemId, quantity);
+        return true;
+    }
+
+    @Override
+    public boolean tryDecrement(int itemId, int quantity) {
+        int offset = stockOffset(itemId);
+        if (offset < 0) {
+            return false;
+        }
+        while (true) {
+            int current = (int) INT.getVolatile(buffer, offset);
+            if (current < quantity) {
+                return false;
+            }
+            if (INT.compareAndSet(buffer, offset, current, current - quantity)) {
+                changeListener.accept(itemId, current - quantity);
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public int adjust(int itemId, int delta) {
+        int offset = stockOffset(itemId);
+        if (offset < 0) {
+            throw new IllegalArgumentException("Item " + itemId + " is not in the inventory store.");
+        }
+        int updated = (int) INT.getAndAdd(buffer, offset, delta) + delta;
+        changeListener.accept(itemId, updated);
+        return updated;
+    }
+
+    /**
+     * Takes the stock first and then counts it as held, so a crash in between can only lose
+     * stock, never sell it twice.
+     */
+    @Override
+    public boolean tryHold(int itemId, int quantity) {
+        if (!tryDecrement(itemId, quantity)) {
+            return false;
+        }
+        INT.getAndAdd(buffer, stockOffset(itemId) + Integer.BYTES, quantity);
+        return true;
+    }
+
+    @Override
+    public void releaseHold(int itemId, int quantity) {
+        commitHold(itemId, quantity);
+        adjust(itemId, quantity);
+    }
+
+    @Override
+    public void commitHold(int itemId, int quantity) {
+        int offset = stockOffset(itemId);
+        if (offset < 0) {
+            throw new IllegalArgumentException("Item " + itemId + " is not in the inventory store.");
+        }
+        INT.getAndAdd(buffer, offset + Integer.BYTES, -quantity);
+    }
+
+    @Override
+    public void setChangeListener(BiConsumer<Integer, Integer> listener) {
+        this.changeListener = listener == null ? NO_LISTENER : listener;
+    }
+
+    /**
+     * Writes all changes to disk now.
+     */
+    public void flush() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdownNow();
+        flush();
+        try {
+            // Closing the channel also drops the liveness lock.
+            channel.close();
+        } catch (IOException e) {
+            LOGGER.warn("Error while closing the inventory store.", e);
+        }
+    }
+
+    private int stockOffset(int itemId) {
+        Integer slot = slotByItemId.get(itemId);
+        if (slot == null) {
+            // Another process may have added the item since we last looked.
+            indexNewSlots();
+            slot = slotByItemId.get(itemId);
+        }
+        return slot == null ? -1 : HEADER_BYTES + slot * SLOT_BYTES + Integer.BYTES;
+    }
+
+    private synchronized void indexNewSlots() {
+        int used = (int) INT.getVolatile(buffer, SLOTS_USED_OFFSET);
+        for (int slot = knownSlots; slot < used; slot++) {
+            slotByItemId.put((int) INT.getVolatile(buffer, HEADER_BYTES + slot * SLOT_BYTES), slot);
+        }
+        knownSlots = used;
+    }
+
+    /**
+     * Adds slots for the items not yet in the file.
+     *
+     * @throws IOException if the header cannot be locked or the store has no room left; no item is added then.
+     */
+    private synchronized void addMissing(Map<Integer, Integer> stock) throws IOException {
+        withHeaderLock(channel, () -> {
+            indexNewSlots();
+            long missing = stock.keySet().stream().filter(itemId -> !slotByItemId.containsKey(itemId)).count();
+            if (knownSlots + missing > capacity) {
+                throw new IOException("Inventory store is full: " + missing + " new items do not fit in the "
+                        + (capacity - knownSlots) + " free slots. Raise inventory.store.capacity and recreate the store.");
+            }
+            int used = knownSlots;
+            for (Map.Entry<Integer, Integer> item : stock.entrySet()) {
+                if (slotByItemId.containsKey(item.getKey())) {
+                    continue;
+                }
+                int offset = HEADER_BYTES + used * SLOT_BYTES;
+                INT.setVolatile(buffer, offset, item.getKey());
+                INT.setVolatile(buffer, offset + Integer.BYTES, item.getValue());
+                INT.setVolatile(buffer, offset + 2 * Integer.BYTES, 0);
+                slotByItemId.put(item.getKey(), used++);
+            }
+            // Publishing the count last makes the new slots visible to other processes only once filled.
+            INT.setVolatile(buffer, SLOTS_USED_OFFSET, used);
+            knownSlots = used;
+            return null;
+        });
+    }
+
+    /**
+     * If no other store has the file open, no hold can be live, so stock still counted as held
+     * was left by a process that died; it is put back. Then takes this store's liveness lock.
+     */
+    private void returnAbandonedHolds() throws IOException {
+        synchronized (MappedInventoryStore.class) {
+            FileLock exclusive = null;
+            try {
+                exclusive = channel.tryLock(LIVENESS_POSITION, 1, false);
+            } catch (OverlappingFileLockException e) {
+                // Another store in this JVM has the file open.
+            }
+            if (exclusive != null) {
+                try {
+                    int returned = 0;
+                    for (int slot = 0; slot < knownSlots; slot++) {
+                        int offset = HEADER_BYTES + slot * SLOT_BYTES;
+                        int held = (int) INT.getAndSet(buffer, offset + 2 * Integer.BYTES, 0);
+                        if (held > 0) {
+                            INT.getAndAdd(buffer, offset + Integer.BYTES, held);
+                            returned += held;
+                        }
+                    }
+                    if (returned > 0) {
+                        LOGGER.warn("Returned {} units of stock that were held in carts when the kiosk last stopped.", returned);
+                    }
+                } finally {
+                    exclusive.release();
+                }
+            }
+            try {
+                liveness = channel.lock(LIVENESS_POSITION, 1, true);
+            } catch (OverlappingFileLockException e) {
+                // Already held for this JVM by another store on the same file.
+            }
+        }
+    }
+
+    private interface HeaderAction<T> {
+        T run() throws IOException;
+    }
+
+    /**
+     * Runs an action while holding an exclusive lock on the header against other processes.
+     * File locks are held per JVM, so threads of this process are serialized on the class for
+     * the whole locked region; otherwise a second lock attempt would fail with an
+     * {@link OverlappingFileLockException} instead of waiting.
+     */
+    private static <T> T withHeaderLock(FileChannel channel, HeaderAction<T> action) throws IOException {
+        synchronized (MappedInventoryStore.class) {
+            FileLock lock = channel.lock(0, HEADER_BYTES, false);
+            try {
+                return action.run();
+            } finally {
+                lock.release();
+            }
+        }
+    }
+
+    private static int initializeIfEmpty(FileChannel channel, int capacity) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.nativeOrder());
+        if (channel.size() >= HEADER_BYTES) {
+            channel.read(header, 0);
+            header.flip();
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException("Not an inventory store file, or an unsupported version.");
+            }
+            return header.getInt(CAPACITY_OFFSET);
+        }
+        header.putInt(MAGIC).putInt(VERSION).putInt(0).putInt(capacity).flip();
+        channel.write(header, 0);
+        // Extend the file to its full size up front, so the mapping never changes.
+        channel.write(ByteBuffer.allocate(1), HEADER_BYTES + (long) capacity * SLOT_BYTES - 1);
+        channel.force(true);
+        return capacity;
+    }
+}
@@ -0,0 +1,81 @@
+package service.inventory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A short-lived claim on stock for one cart line. The stock is taken when the hold is
+ * placed; the hold then ends exactly once: committed by a sale, released by the cart,
+ * or expired by its timer. Whoever ends it first wins, so stock is never returned twice.
+ */
+public class StockHold {
+
+    private static final int ACTIVE = 0;
+    private static final int LOCKED = 1;
+    private static final int ENDED = 2;
+
+    private final long id;
+    private final int itemId;
+    private final int quantity;
+    private final AtomicInteger state = new AtomicInteger(ACTIVE);
+
+    public StockHold(int itemId, int quantity) {
+        this(0, itemId, quantity);
+    }
+
+    /**
+     * @param id The row that records the hold in the database, or 0 if it is only kept in memory.
+     */
+    public StockHold(long id, int itemId, int quantity) {
+        this.id = id;
+        this.itemId = itemId;
+        this.quantity = quantity;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public int getItemId() {
+        return itemId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * Stops the hold from expiring, e.g. while the sale is being paid for.
+     *
+     * @return True if the hold is still in force.
+     */
+    boolean lock() {
+        return state.compareAndSet(ACTIVE, LOCKED) || state.get() == LOCKED;
+    }
+
+    /**
+     * Ends the hold if its timer has not been stopped.
+     *
+     * @return True if this call ended it.
+     */
+    boolean expire() {
+        return state.compareAndSet(ACTIVE, ENDED);
+    }
+
+    /**
+     * Ends the hold whether or not it is locked.
+     *
+     * @return True if this call ended it.
+     */
+    boolean end() {
+        return state.compareAndSet(ACTIVE, ENDED) || state.compareAndSet(LOCKED, ENDED);
+    }
+
+    public boolean isActive() {
+        return state.get() != ENDED;
+    }
+
+    @Override
+    public String toString() {
+        return quantity + " x item " + itemId;
+    }
+}
@@ -0,0 +1,41 @@
+package service.inventory;
+
+/**
+ * Defines the contract for placing time-limited holds on stock while items sit in a cart,
+ * so two terminals cannot both sell the last unit of an item.
+ */
+public interface StockReservationService extends AutoCloseable {
+
+    /**
+     * Takes stock for a cart line and starts its expiry timer.
+     *
+     * @param itemId The item to hold.
+     * @param quantity The quantity to hold.
+     * @return The hold, or null if there is not enough stock.
+     * @throws Exception if the stock could not be checked.
+     */
+    StockHold hold(int itemId, int quantity) throws Exception;
+
+    /**
+     * Stops a hold from expiring while its sale is being completed.
+     *
+     * @return True if the hold is still in force; false if it already expired or was released.
+     */
+    boolean lock(StockHold hold);
+
+    /**
+     * Ends a hold because its sale is complete. The stock stays taken.
+     */
+    void commit(StockHold hold);
+
+    /**
+     * Ends a hold and returns its stock.
+     */
+    void release(StockHold hold);
+
+    /**
+     * Releases every hold that is still in force and stops the expiry timer.
+     */
+    @Override
+    void close();
+}
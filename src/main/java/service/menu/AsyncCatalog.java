@@ -0,0 +1,31 @@
+package service.menu;
+
+import model.entity.Item;
+import util.AsyncExecutor;
+import util.LatestRequest;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs {@link Catalog} calls off the JavaFX thread. Only the latest category load counts:
+ * selecting another category cancels the load that is still pending.
+ */
+public class AsyncCatalog {
+
+    private final Catalog catalog;
+    private final AsyncExecutor executor;
+    private final LatestRequest<List<Item>> itemsByCategory = new LatestRequest<>();
+
+    public AsyncCatalog(Catalog catalog, AsyncExecutor executor) {
+        this.catalog = catalog;
+        this.executor = executor;
+    }
+
+    /**
+     * @see Catalog#getItemsByCategory(int)
+     */
+    public CompletableFuture<List<Item>> getItemsByCategory(int categoryId) {
+        return itemsByCategory.replace(executor.submit(() -> catalog.getItemsByCategory(categoryId)));
+    }
+}
@@ -1,8 +1,10 @@
 package service.menu;
 
+import model.dto.InventoryUpdateResult;
 import model.entity.Item;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Defines the contract for a service that manages the product catalog.
@@ -35,4 +37,14 @@ public interface Catalog {
      * @throws Exception if a database error occurs.
      */
     void updateItemInventory(int itemId, int quantity) throws Exception;
-}
\ No newline at end of file
+
+    /**
+     * Subtracts inventory for a whole cart in one operation.
+     * Lines without enough stock are skipped, so inventory never goes negative.
+     *
+     * @param quantities The quantities to subtract, keyed by item ID.
+     * @return An {@link InventoryUpdateResult} listing the lines that could not be filled.
+     * @throws Exception if a database error occurs.
+     */
+    InventoryUpdateResult updateItemInventories(Map<Integer, Integer> quantities) throws Exception;
+}
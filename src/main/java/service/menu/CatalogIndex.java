@@ -0,0 +1,104 @@
+package service.menu;
+
+import model.entity.Item;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An in-memory index over menu items: an ID lookup table and, per category, a list of items
+ * already sorted by name. Lookups are constant time and return prebuilt read-only lists,
+ * so browsing the menu allocates nothing.
+ *
+ * <p>Changes are applied incrementally: adding, replacing or removing an item only rebuilds
+ * the list of the categories it belongs to. Each category list is replaced as a whole,
+ * so a list handed out earlier never changes under its reader.
+ */
+public class CatalogIndex {
+
+    private static final Comparator<Item> BY_NAME = Comparator.comparing(Item::getName, String.CASE_INSENSITIVE_ORDER)
+            .thenComparingInt(Item::getId);
+
+    private final Map<Integer, Item> itemsById = new HashMap<>();
+    private final Map<Integer, List<Item>> itemsByCategory = new HashMap<>();
+
+    /**
+     * Builds the index over the given items.
+     */
+    public CatalogIndex(Collection<Item> items) {
+        Map<Integer, List<Item>> grouped = new HashMap<>();
+        for (Item item : items) {
+            itemsById.put(item.getId(), item);
+        }
+        for (Item item : itemsById.values()) {
+            grouped.computeIfAbsent(item.getCategoryId(), id -> new ArrayList<>()).add(item);
+        }
+        for (Map.Entry<Integer, List<Item>> category : grouped.entrySet()) {
+            category.getValue().sort(BY_NAME);
+            itemsByCategory.put(category.getKey(), Collections.unmodifiableList(category.getValue()));
+        }
+    }
+
+    /**
+     * @return The item with the given ID, or null if it is not in the index.
+     */
+    public synchronized Item getById(int itemId) {
+        return itemsById.get(itemId);
+    }
+
+    /**
+     * @return The items of a category sorted by name, as a read-only list; empty if the category has none.
+     */
+    public synchronized List<Item> getByCategory(int categoryId) {
+        return itemsByCategory.getOrDefault(categoryId, Collections.emptyList());
+    }
+
+    /**
+     * Adds an item, or replaces the item with the same ID.
+     */
+    public synchronized void put(Item item) {
+        Item previous = itemsById.put(item.getId(), item);
+        if (previous != null) {
+            removeFromCategory(previous);
+        }
+        List<Item> updated = new ArrayList<>(getByCategory(item.getCategoryId()));
+        int position = Collections.binarySearch(updated, item, BY_NAME);
+        updated.add(position < 0 ? -position - 1 : position, item);
+        itemsByCategory.put(item.getCategoryId(), Collections.unmodifiableList(updated));
+    }
+
+    /**
+     * Removes an item from the index.
+     *
+     * @return The removed item, or null if it was not indexed.
+     */
+    public synchronized Item remove(int itemId) {
+        Item removed = itemsById.remove(itemId);
+        if (removed != null) {
+            removeFromCategory(removed);
+        }
+        return removed;
+    }
+
+    /**
+     * @return The number of indexed items.
+     */
+    public synchronized int size() {
+        return itemsById.size();
+    }
+
+    private void removeFromCategory(Item item) {
+        List<Item> updated = new ArrayList<>(getByCategory(item.getCategoryId()));
+        updated.removeIf(candidate -> candidate.getId() == item.getId());
+        if (updated.isEmpty()) {
+            itemsByCategory.remove(item.getCategoryId());
+        } else {
+            itemsByCategory.put(item.getCategoryId(), Collections.unmodifiableList(updated));
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package service.menu;
 
+import model.dto.InventoryUpdateResult;
 import model.entity.Item;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import repo.repository.MenuRepository;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service layer for the product catalog. Orchestrates fetching and updating menu items
@@ -53,4 +55,14 @@ public class DBMenu implements Catalog {
             throw new Exception("Failed to update inventory.", e);
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    public InventoryUpdateResult updateItemInventories(Map<Integer, Integer> quantities) throws Exception {
+        try {
+            return menuRepository.decrementInventory(quantities);
+        } catch (Exception e) {
+            LOGGER.error("Error updating inventory in bulk.", e);
+            throw new Exception("Failed to update inventory.", e);
+        }
+    }
+}
@@ -1,32 +1,51 @@
 package service.menu;
 
+import model.dto.InventoryUpdateResult;
 import model.entity.Item;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import repo.repository.MenuRepository;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service layer for the product catalog. Orchestrates fetching and updating menu items
- * by using the MenuRepository.
+ * by using the MenuRepository. When a {@link MenuSnapshotService} is supplied, item names and
+ * prices are read from the in-memory menu snapshot. Stock is always read from the database,
+ * since the snapshot may be minutes old and is not fit for deciding what can be sold.
  */
 public class DBMenuService implements Catalog {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DBMenuService.class);
     private final MenuRepository menuRepository;
+    private final MenuSnapshotService menuSnapshotService;
 
     /**
      * Constructor for dependency injection.
      * @param menuRepository The repository for accessing menu item data.
      */
     public DBMenuService(MenuRepository menuRepository) {
+        this(menuRepository, null);
+    }
+
+    /**
+     * @param menuRepository The repository for accessing menu item data.
+     * @param menuSnapshotService The in-memory menu used for reads, or null to always query the database.
+     */
+    public DBMenuService(MenuRepository menuRepository, MenuSnapshotService menuSnapshotService) {
         this.menuRepository = menuRepository;
+        this.menuSnapshotService = menuSnapshotService;
     }
 
     @Override
     public List<Item> getItemsByCategory(int categoryId) throws Exception {
         try {
+            if (menuSnapshotService != null) {
+                return withLiveInventory(menuSnapshotService.getSnapshot().getItemsByCategory(categoryId),
+                        menuRepository.findInventoryByCategoryId(categoryId));
+            }
             return menuRepository.findItemsByCategoryId(categoryId);
         } catch (Exception e) {
             LOGGER.error("Error fetching items by category.", e);
@@ -36,6 +55,7 @@ public class DBMenuService implements Catalog {
 
     @Override
     public Item getItemById(int itemId) throws Exception {
+        // Always from the database, so the stock is current.
         try {
             return menuRepository.findItemById(itemId).orElse(null);
         } catch (Exception e) {
@@ -53,4 +73,27 @@ public class DBMenuService implements Catalog {
             throw new Exception("Failed to update inventory.", e);
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    public InventoryUpdateResult updateItemInventories(Map<Integer, Integer> quantities) throws Exception {
+        try {
+            return menuRepository.decrementInventory(quantities);
+        } catch (Exception e) {
+            LOGGER.error("Error updating inventory in bulk.", e);
+            throw new Exception("Failed to update inventory.", e);
+        }
+    }
+
+    /**
+     * Copies the snapshot items with the current stock. The snapshot's own items are shared
+     * between threads and are not modified.
+     */
+    private static List<Item> withLiveInventory(List<Item> items, Map<Integer, Integer> inventory) {
+        List<Item> live = new ArrayList<>(items.size());
+        for (Item item : items) {
+            live.add(new Item(item.getId(), item.getName(), item.getPrice(),
+                    inventory.getOrDefault(item.getId(), 0), item.getCategoryId()));
+        }
+        return live;
+    }
+}
@@ -2,47 +2,116 @@ package service.menu;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import model.dto.InventoryUpdateResult;
 import model.entity.Item;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import service.inventory.ConcurrentInventoryStore;
+import service.inventory.InventoryStore;
+import util.FxThread;
 
 import java.io.InputStream;
-import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.function.Function;
 
 /**
  * An implementation of Catalog that reads menu item data from a local JSON file.
+ * Items are held in a {@link CatalogIndex}, so lookups by ID or category do not scan the menu.
+ * Stock levels live in an {@link InventoryStore}, which makes concurrent checkouts safe;
+ * each item's inventory property mirrors the store for display on the JavaFX thread.
  */
 public class FileMenuService implements Catalog {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(FileMenuService.class);
-    private final List<Item> items;
+    private final CatalogIndex index;
+    private final InventoryStore inventoryStore;
 
     public FileMenuService() {
-        this.items = loadFromFile();
+        this(ConcurrentInventoryStore::new);
     }
 
+    /**
+     * @param storeFactory Creates the inventory store from the stock listed in menu.json.
+     *                     A persistent store may keep its own stock for items it already knows,
+     *                     in which case the items are shown with that stock instead.
+     */
+    public FileMenuService(Function<Map<Integer, Integer>, InventoryStore> storeFactory) {
+        this(null, storeFactory);
+    }
+
+    /**
+     * @param items The menu items already loaded, e.g. from the reference snapshot,
+     *              or null to read them from menu.json.
+     * @param storeFactory Creates the inventory store from the stock listed with the items.
+     */
+    public FileMenuService(List<Item> items, Function<Map<Integer, Integer>, InventoryStore> storeFactory) {
+        if (items == null) {
+            items = loadFromFile();
+        }
+        Map<Integer, Integer> stock = new HashMap<>();
+        for (Item item : items) {
+            stock.put(item.getId(), item.getInventory());
+        }
+        this.index = new CatalogIndex(items);
+        this.inventoryStore = storeFactory.apply(stock);
+        for (Item item : items) {
+            item.setInventory(inventoryStore.get(item.getId()));
+        }
+        this.inventoryStore.setChangeListener((itemId, quantity) -> mirrorInventory(itemId));
+    }
+
+    /**
+     * @return The store holding the authoritative stock levels of this catalog.
+     */
+    public InventoryStore getInventoryStore() {
+        return inventoryStore;
+    }
+
+    /**
+     * @return The items of the category sorted by name, as a read-only list.
+     */
     @Override
     public List<Item> getItemsByCategory(int categoryId) {
-        return items.stream()
-                .filter(item -> item.getCategoryId() == categoryId)
-                .collect(Collectors.toList());
+        return index.getByCategory(categoryId);
     }
 
     @Override
     public Item getItemById(int itemId) {
-        return items.stream()
-                .filter(item -> item.getId() == itemId)
-                .findFirst()
-                .orElse(null);
+        return index.getById(itemId);
     }
 
     @Override
-    public void updateItemInventory(int itemId, int quantity) {
-        Item item = getItemById(itemId);
+    public void updateItemInventory(int itemId, int quantity) throws Exception {
+        try {
+            inventoryStore.adjust(itemId, -quantity);
+        } catch (IllegalArgumentException e) {
+            LOGGER.error("Failed to update inventory for item {}.", itemId, e);
+            throw new Exception("Failed to update inventory.", e);
+        }
+    }
+
+    @Override
+    public InventoryUpdateResult updateItemInventories(Map<Integer, Integer> quantities) {
+        Map<Integer, Integer> unfilled = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Integer> line : quantities.entrySet()) {
+            if (!inventoryStore.tryDecrement(line.getKey(), line.getValue())) {
+                unfilled.put(line.getKey(), line.getValue());
+            }
+        }
+        return unfilled.isEmpty() ? InventoryUpdateResult.complete() : new InventoryUpdateResult(unfilled);
+    }
+
+    /**
+     * Copies the current stock into the item's display property. The value is read on the
+     * JavaFX thread, so out-of-order callbacks from several threads still settle on the latest level.
+     */
+    private void mirrorInventory(int itemId) {
+        Item item = index.getById(itemId);
         if (item != null) {
-            item.setInventory(item.getInventory() - quantity);
+            FxThread.runOnFxThread(() -> item.setInventory(inventoryStore.get(itemId)));
         }
     }
 
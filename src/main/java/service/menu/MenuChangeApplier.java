@@ -0,0 +1,142 @@
+package service.menu;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import model.entity.Category;
+import model.entity.Discount;
+import model.entity.DiscountSchedule;
+import model.entity.Item;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Applies database change notifications to the in-memory menu snapshot, so edits to items,
+ * categories and discounts reach the screen without a reload. Each notification carries the
+ * operation and the changed row as JSON (see database_schema/reference_data_notify.sql).
+ * Anything that cannot be patched precisely triggers a full snapshot refresh instead.
+ */
+public class MenuChangeApplier {
+
+    public static final String ITEMS_CHANNEL = "items_changed";
+    public static final String CATEGORIES_CHANNEL = "categories_changed";
+    public static final String DISCOUNTS_CHANNEL = "discounts_changed";
+    public static final List<String> CHANNELS = List.of(ITEMS_CHANNEL, CATEGORIES_CHANNEL, DISCOUNTS_CHANNEL);
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MenuChangeApplier.class);
+
+    private final MenuSnapshotService menuSnapshotService;
+    private final boolean withRules;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public MenuChangeApplier(MenuSnapshotService menuSnapshotService) {
+        this(menuSnapshotService, false);
+    }
+
+    /**
+     * @param withRules True to read the promotion and schedule columns of discount rows, as the
+     *                  snapshot does when discount rules are enabled.
+     */
+    public MenuChangeApplier(MenuSnapshotService menuSnapshotService, boolean withRules) {
+        this.menuSnapshotService = menuSnapshotService;
+        this.withRules = withRules;
+    }
+
+    /**
+     * Patches the snapshot with one change notification.
+     *
+     * @param channel The channel the notification arrived on.
+     * @param payload The JSON payload: {@code {"op": "UPDATE", "row": {...}}}.
+     */
+    public void apply(String channel, String payload) {
+        try {
+            JsonNode change = mapper.readTree(payload);
+            String operation = change.path("op").asText();
+            JsonNode row = change.path("row");
+            if (row.isMissingNode() || row.isNull()) {
+                // Statement-level changes such as TRUNCATE carry no row.
+                reloadAll();
+                return;
+            }
+            boolean deleted = "DELETE".equals(operation);
+            int id = row.path("id").asInt();
+            switch (channel) {
+                case ITEMS_CHANNEL -> menuSnapshotService.update(snapshot ->
+                        deleted || !row.path("is_available").asBoolean(true)
+                                ? snapshot.withoutItem(id)
+                                : snapshot.withItem(new Item(id, row.path("name").asText(), row.path("price").asInt(),
+                                        row.path("inventory").asInt(), row.path("category_id").asInt())));
+                case CATEGORIES_CHANNEL -> menuSnapshotService.update(snapshot ->
+                        deleted
+                                ? snapshot.withoutCategory(id)
+                                : snapshot.withCategory(new Category(id, row.path("description").asText())));
+                case DISCOUNTS_CHANNEL -> menuSnapshotService.update(snapshot ->
+                        deleted || !row.path("active").asBoolean()
+                                ? snapshot.withoutDiscount(id)
+                                : snapshot.withDiscount(toDiscount(id, row)));
+                default -> reloadAll();
+            }
+            LOGGER.debug("Applied {} on {} for id {}.", operation, channel, id);
+        } catch (Exception e) {
+            LOGGER.warn("Could not apply change notification on '{}'. Reloading the menu.", channel, e);
+            reloadAll();
+        }
+    }
+
+    /**
+     * Reads a discount row, including its promotion columns when discount rules are enabled.
+     * Otherwise every discount is a plain order discount, as when it is loaded from the database.
+     */
+    private Discount toDiscount(int id, JsonNode row) {
+        if (!withRules) {
+            return new Discount(id, row.path("name").asText(), row.path("amount").asInt(), row.path("is_percentage").asBoolean(), true);
+        }
+        List<Integer> comboItemIds = new ArrayList<>();
+        row.path("combo_item_ids").forEach(itemId -> comboItemIds.add(itemId.asInt()));
+        String scope = row.path("scope").textValue();
+        return new Discount(id, row.path("name").asText(), row.path("amount").asInt(), row.path("is_percentage").asBoolean(), true,
+                scope != null ? Discount.Scope.valueOf(scope) : Discount.Scope.ORDER,
+                row.path("target_id").asInt(),
+                row.path("buy_quantity").asInt(),
+                row.path("get_quantity").asInt(),
+                comboItemIds,
+                row.path("stackable").asBoolean(),
+                toSchedule(row));
+    }
+
+    /**
+     * Reads the schedule columns of a discount row, or returns null if it has none.
+     */
+    private static DiscountSchedule toSchedule(JsonNode row) {
+        List<DayOfWeek> days = new ArrayList<>();
+        row.path("days_of_week").forEach(day -> days.add(DayOfWeek.of(day.asInt())));
+        String startTime = row.path("start_time").textValue();
+        String endTime = row.path("end_time").textValue();
+        String validFrom = row.path("valid_from").textValue();
+        String validUntil = row.path("valid_until").textValue();
+        if (days.isEmpty() && startTime == null && endTime == null && validFrom == null && validUntil == null) {
+            return null;
+        }
+        return new DiscountSchedule(days,
+                startTime != null ? LocalTime.parse(startTime) : null,
+                endTime != null ? LocalTime.parse(endTime) : null,
+                validFrom != null ? LocalDateTime.parse(validFrom) : null,
+                validUntil != null ? LocalDateTime.parse(validUntil) : null);
+    }
+
+    /**
+     * Reloads the whole snapshot, e.g. after reconnecting, when notifications may have been missed.
+     */
+    public void reloadAll() {
+        try {
+            menuSnapshotService.refresh();
+        } catch (Exception e) {
+            // Already logged; the last good snapshot keeps serving reads.
+        }
+    }
+}
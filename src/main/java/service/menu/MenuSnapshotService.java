@@ -0,0 +1,159 @@
+package service.menu;
+
+import model.dto.MenuSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import repo.repository.MenuSnapshotRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Keeps the current {@link MenuSnapshot} in memory for the database data source.
+ * Each refresh loads the whole menu in one query and publishes it with an atomic swap,
+ * so readers always see either the previous menu or the new one, never a mix.
+ * If a refresh fails, the last good snapshot stays in place.
+ *
+ * <p>Changes patched in with {@link #update(UnaryOperator)} while a refresh is loading are
+ * replayed onto the loaded snapshot before it is published, so a reload that read the database
+ * just before a change cannot undo it. Patches replace or remove whole rows, so replaying one
+ * the loaded snapshot already contains does no harm.
+ */
+public class MenuSnapshotService implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MenuSnapshotService.class);
+
+    private final MenuSnapshotRepository snapshotRepository;
+    private final AtomicReference<MenuSnapshot> current = new AtomicReference<>();
+    private final ScheduledExecutorService scheduler;
+    private final long refreshIntervalMillis;
+    private volatile Consumer<MenuSnapshot> listener = snapshot -> { };
+    private final Object refreshLock = new Object();
+    private final Object publishLock = new Object();
+    // Guarded by publishLock; non-null while a refresh is loading
+    private List<UnaryOperator<MenuSnapshot>> patchesDuringRefresh;
+
+    /**
+     * @param snapshotRepository The repository that loads the menu.
+     * @param refreshIntervalMillis How often to reload the menu in the background; 0 disables periodic refresh.
+     */
+    public MenuSnapshotService(MenuSnapshotRepository snapshotRepository, long refreshIntervalMillis) {
+        this.snapshotRepository = snapshotRepository;
+        this.refreshIntervalMillis = refreshIntervalMillis;
+        if (refreshIntervalMillis > 0) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "menu-snapshot-refresh");
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    /**
+     * Starts reloading the menu in the background, if periodic refresh is enabled.
+     */
+    public void start() {
+        if (scheduler != null) {
+            scheduler.scheduleWithFixedDelay(this::refreshQuietly, refreshIntervalMillis, refreshIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * @param listener Called with every newly published snapshot, on the publishing thread.
+     */
+    public void setListener(Consumer<MenuSnapshot> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Returns the current snapshot, loading it first if none has been loaded yet.
+     *
+     * @throws Exception if no snapshot is available and loading one fails.
+     */
+    public MenuSnapshot getSnapshot() throws Exception {
+        MenuSnapshot snapshot = current.get();
+        return snapshot != null ? snapshot : refresh();
+    }
+
+    /**
+     * Loads the menu now and publishes it.
+     *
+     * @return The newly published snapshot.
+     * @throws Exception if the menu could not be loaded; the previous snapshot is kept.
+     */
+    public MenuSnapshot refresh() throws Exception {
+        MenuSnapshot snapshot;
+        synchronized (refreshLock) {
+            List<UnaryOperator<MenuSnapshot>> patches = new ArrayList<>();
+            synchronized (publishLock) {
+                patchesDuringRefresh = patches;
+            }
+            try {
+                snapshot = snapshotRepository.loadSnapshot();
+            } catch (Exception e) {
+                synchronized (publishLock) {
+                    patchesDuringRefresh = null;
+                }
+                LOGGER.error("Error loading the menu snapshot.", e);
+                throw new Exception("Failed to load the menu.", e);
+            }
+            synchronized (publishLock) {
+                for (UnaryOperator<MenuSnapshot> patch : patches) {
+                    snapshot = patch.apply(snapshot);
+                }
+                patchesDuringRefresh = null;
+                current.set(snapshot);
+            }
+            if (!patches.isEmpty()) {
+                LOGGER.debug("Replayed {} changes that arrived during the menu reload.", patches.size());
+            }
+        }
+        LOGGER.debug("Published menu snapshot: {}", snapshot);
+        listener.accept(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Publishes a snapshot derived from the current one, for applying a small change without a full reload.
+     * Does nothing if no snapshot has been loaded yet.
+     *
+     * @param change Builds the new snapshot from the current one; it runs again on a snapshot being loaded meanwhile.
+     */
+    public void update(UnaryOperator<MenuSnapshot> change) {
+        MenuSnapshot updated;
+        synchronized (publishLock) {
+            MenuSnapshot snapshot = current.get();
+            updated = snapshot == null ? null : change.apply(snapshot);
+            current.set(updated);
+            if (patchesDuringRefresh != null) {
+                patchesDuringRefresh.add(change);
+            }
+        }
+        if (updated != null) {
+            listener.accept(updated);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            // Already logged; the last good snapshot keeps serving reads.
+        }
+    }
+}
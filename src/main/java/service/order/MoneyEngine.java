@@ -0,0 +1,152 @@
+package service.order;
+
+import java.math.RoundingMode;
+
+/**
+ * Exact money arithmetic on {@code long} cents. Every division states its rounding mode,
+ * so totals, tax and change computed anywhere in the application agree to the cent.
+ * The bulk methods work on primitive arrays and allocate nothing.
+ *
+ * <p>Tax is either rounded once on the whole order ({@link TaxRounding#PER_ORDER}) or on each line
+ * ({@link TaxRounding#PER_LINE}). With per-line rounding, an order-level discount is first spread
+ * over the lines in proportion to their totals.
+ */
+public final class MoneyEngine {
+
+    /**
+     * Where tax is rounded to whole cents.
+     */
+    public enum TaxRounding {
+        /** Tax is computed on the order's discounted subtotal and rounded once. */
+        PER_ORDER,
+        /** Tax is computed and rounded for each line, then summed. */
+        PER_LINE
+    }
+
+    /** Indexes into the result array of {@link #priceOrder}. */
+    public static final int SUBTOTAL = 0;
+    public static final int DISCOUNT = 1;
+    public static final int TAX = 2;
+    public static final int TOTAL = 3;
+    public static final int RESULT_LENGTH = 4;
+
+    private static final long BASIS_POINTS = 10_000;
+
+    private final long taxRateBasisPoints;
+    private final RoundingMode roundingMode;
+    private final TaxRounding taxRounding;
+
+    /**
+     * @param taxRateBasisPoints The tax rate in hundredths of a percent, e.g. 700 for 7%.
+     * @param roundingMode How tax is rounded to whole cents.
+     * @param taxRounding Whether tax is rounded per order or per line.
+     */
+    public MoneyEngine(long taxRateBasisPoints, RoundingMode roundingMode, TaxRounding taxRounding) {
+        if (taxRateBasisPoints < 0) {
+            throw new IllegalArgumentException("The tax rate cannot be negative.");
+        }
+        this.taxRateBasisPoints = taxRateBasisPoints;
+        this.roundingMode = roundingMode;
+        this.taxRounding = taxRounding;
+    }
+
+    public long getTaxRateBasisPoints() {
+        return taxRateBasisPoints;
+    }
+
+    public RoundingMode getRoundingMode() {
+        return roundingMode;
+    }
+
+    public TaxRounding getTaxRounding() {
+        return taxRounding;
+    }
+
+    /**
+     * @return The total of one line.
+     * @throws ArithmeticException if the result overflows a long.
+     */
+    public long lineTotal(long unitPriceCents, long quantity) {
+        return Math.multiplyExact(unitPriceCents, quantity);
+    }
+
+    /**
+     * @return The sum of the first {@code count} lines.
+     * @throws ArithmeticException if the result overflows a long.
+     */
+    public long subtotal(int[] unitPricesCents, int[] quantities, int count) {
+        long subtotal = 0;
+        for (int i = 0; i < count; i++) {
+            subtotal = Math.addExact(subtotal, lineTotal(unitPricesCents[i], quantities[i]));
+        }
+        return subtotal;
+    }
+
+    /**
+     * @return The tax on an amount, rounded once with this engine's rounding mode.
+     */
+    public long tax(long taxableCents) {
+        return divide(Math.multiplyExact(taxableCents, taxRateBasisPoints), BASIS_POINTS, roundingMode);
+    }
+
+    /**
+     * Prices a whole order according to this engine's tax rounding policy.
+     *
+     * @param unitPricesCents The unit price of each line.
+     * @param quantities The quantity of each line.
+     * @param count The number of lines to read from the arrays.
+     * @param discountCents The discount taken off the subtotal; it is capped at the subtotal.
+     * @param result Receives the subtotal, discount, tax and total at {@link #SUBTOTAL}, {@link #DISCOUNT},
+     *               {@link #TAX} and {@link #TOTAL}; it must hold at least {@link #RESULT_LENGTH} values.
+     * @throws ArithmeticException if an amount overflows a long.
+     */
+    public void priceOrder(int[] unitPricesCents, int[] quantities, int count, long discountCents, long[] result) {
+        long subtotal = subtotal(unitPricesCents, quantities, count);
+        long discount = Math.max(0, Math.min(discountCents, subtotal));
+        long tax;
+        if (taxRounding == TaxRounding.PER_ORDER || subtotal == 0) {
+            tax = tax(subtotal - discount);
+        } else {
+            tax = 0;
+            long discountLeft = discount;
+            for (int i = 0; i < count; i++) {
+                long line = lineTotal(unitPricesCents[i], quantities[i]);
+                // The last line takes what is left, so the shares always add up to the whole discount.
+                long share = i == count - 1 ? discountLeft : Math.multiplyExact(discount, line) / subtotal;
+                discountLeft -= share;
+                tax = Math.addExact(tax, tax(line - share));
+            }
+        }
+        result[SUBTOTAL] = subtotal;
+        result[DISCOUNT] = discount;
+        result[TAX] = tax;
+        result[TOTAL] = subtotal - discount + tax;
+    }
+
+    /**
+     * Divides with an explicit rounding mode, without going through BigDecimal.
+     *
+     * @throws ArithmeticException if the mode is {@link RoundingMode#UNNECESSARY} and the division is inexact.
+     */
+    static long divide(long dividend, long divisor, RoundingMode mode) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+        int sign = (dividend < 0) == (divisor < 0) ? 1 : -1;
+        long twiceRemainder = Math.abs(remainder) * 2;
+        long absDivisor = Math.abs(divisor);
+        boolean awayFromZero = switch (mode) {
+            case UP -> true;
+            case DOWN -> false;
+            case CEILING -> sign > 0;
+            case FLOOR -> sign < 0;
+            case HALF_UP -> twiceRemainder >= absDivisor;
+            case HALF_DOWN -> twiceRemainder > absDivisor;
+            case HALF_EVEN -> twiceRemainder > absDivisor || (twiceRemainder == absDivisor && (quotient & 1) != 0);
+            case UNNECESSARY -> throw new ArithmeticException("Rounding necessary for " + dividend + " / " + divisor + ".");
+        };
+        return awayFromZero ? quotient + sign : quotient;
+    }
+}
@@ -0,0 +1,110 @@
+package service.order;
+
+import model.dto.OrderTotals;
+import model.entity.Discount;
+import service.cart.Cart;
+import service.discount.DiscountCalculationService;
+import service.discount.DiscountRuleEngine;
+import util.LruCache;
+
+import java.util.Objects;
+
+/**
+ * Hands out one immutable {@link OrderTotals} quote per cart version and discount selection.
+ * The totals panel, the cash dialog, the checkout and the receipt all ask for the same state
+ * while the cart is unchanged, so the quote is computed once and every one of them gets the same
+ * instance. Quotes for the current cart are kept in a small LRU cache, which covers flipping back
+ * and forth between discounts in the combo box; a cart change drops them, since no one asks for
+ * an older cart again.
+ */
+public class PricingQuoteService {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final Cart cart;
+    private final RunningTotals runningTotals;
+    private final DiscountCalculationService discountCalculationService;
+    private final LruCache<QuoteKey, OrderTotals> quotes;
+    private long quotedVersion; // Guarded by this
+
+    public PricingQuoteService(Cart cart, RunningTotals runningTotals, DiscountCalculationService discountCalculationService) {
+        this(cart, runningTotals, discountCalculationService, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity The number of quotes kept.
+     */
+    public PricingQuoteService(Cart cart, RunningTotals runningTotals, DiscountCalculationService discountCalculationService, int capacity) {
+        this.cart = cart;
+        this.runningTotals = runningTotals;
+        this.discountCalculationService = discountCalculationService;
+        this.quotes = new LruCache<>(capacity);
+    }
+
+    /**
+     * Returns the totals for the current cart with the given discount selection, with the same
+     * arguments as {@link DiscountCalculationService#calculateDiscount(int, Discount, String, boolean)}.
+     *
+     * @return The quote, the same instance for as long as the cart, the promotions and the selection are unchanged.
+     */
+    public synchronized OrderTotals quote(Discount discount, String otherAmountStr, boolean isOtherPercentage) {
+        int otherAmount = DiscountCalculationService.parseOtherAmount(otherAmountStr);
+        DiscountRuleEngine promotions = discountCalculationService.getPromotions();
+        QuoteKey key = new QuoteKey(cart.getVersion(), promotions, discount, otherAmount, isOtherPercentage);
+        if (key.cartVersion != quotedVersion) {
+            quotes.clear();
+            quotedVersion = key.cartVersion;
+        }
+        OrderTotals cached = quotes.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        OrderTotals totals = runningTotals.setDiscount(discount, otherAmount, isOtherPercentage);
+        // The cart or the promotions may have changed while pricing; such a quote is returned but not kept.
+        if (totals.getCartVersion() == key.cartVersion && discountCalculationService.getPromotions() == promotions) {
+            quotes.put(key, totals);
+        }
+        return totals;
+    }
+
+    /**
+     * The state a quote depends on. Discounts and promotions are compared by identity, since a
+     * reloaded discount list always brings new instances.
+     */
+    private static final class QuoteKey {
+        private final long cartVersion;
+        private final DiscountRuleEngine promotions;
+        private final Discount discount;
+        private final int otherAmount;
+        private final boolean otherIsPercentage;
+
+        private QuoteKey(long cartVersion, DiscountRuleEngine promotions, Discount discount, int otherAmount, boolean otherIsPercentage) {
+            this.cartVersion = cartVersion;
+            this.promotions = promotions;
+            this.discount = discount;
+            // The manual amount only matters for the "Other" discount.
+            boolean other = discount != null && discount.isOther();
+            this.otherAmount = other ? otherAmount : 0;
+            this.otherIsPercentage = other && otherIsPercentage;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof QuoteKey)) {
+                return false;
+            }
+            QuoteKey that = (QuoteKey) o;
+            return cartVersion == that.cartVersion && promotions == that.promotions && discount == that.discount
+                    && otherAmount == that.otherAmount && otherIsPercentage == that.otherIsPercentage;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(cartVersion, System.identityHashCode(promotions), System.identityHashCode(discount), otherAmount, otherIsPercentage);
+        }
+    }
+}
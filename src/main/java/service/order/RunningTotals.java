@@ -0,0 +1,121 @@
+package service.order;
+
+import model.dto.OrderTotals;
+import model.entity.CartItem;
+import model.entity.Discount;
+import service.cart.Cart;
+import service.discount.DiscountCalculationService;
+import service.discount.DiscountRuleEngine;
+
+/**
+ * Keeps the totals of a cart up to date as it changes, instead of summing the whole cart
+ * on every keystroke. Each cart change adjusts the subtotal and the promotions by the difference
+ * of the changed line; the {@link OrderTotals} are only built when next read, so a burst of
+ * changes such as clearing the cart is priced once. The promotions are summed again from the
+ * whole cart only when a reload brings a new set of them. With per-line tax rounding the cart is
+ * repriced whenever the totals are built, since every line's tax must be rounded on its own.
+ * The chosen order discount applies to what is left after the cart's promotions.
+ */
+public class RunningTotals {
+
+    private final Cart cart;
+    private final TotalsCalculatorService totalsCalculatorService;
+    private final DiscountCalculationService discountCalculationService;
+
+    // Guarded by this
+    private long subtotal;
+    private DiscountRuleEngine.Tally promotions;
+    private Discount discount;
+    private int otherAmount;
+    private boolean otherIsPercentage;
+    private OrderTotals totals; // Null when out of date
+
+    /**
+     * Attaches to the cart, replacing any change listener it already has.
+     */
+    public RunningTotals(Cart cart, TotalsCalculatorService totalsCalculatorService, DiscountCalculationService discountCalculationService) {
+        this.cart = cart;
+        this.totalsCalculatorService = totalsCalculatorService;
+        this.discountCalculationService = discountCalculationService;
+        synchronized (this) {
+            this.subtotal = totalsCalculatorService.calculateSubtotal(cart.getCartItems());
+            this.promotions = tally(discountCalculationService.getPromotions());
+        }
+        cart.setChangeListener(this::lineChanged);
+    }
+
+    /**
+     * @return The totals as of the latest cart, discount or promotion change; the same instance
+     *         until one of them changes.
+     */
+    public synchronized OrderTotals getTotals() {
+        if (totals == null || promotions.getEngine() != discountCalculationService.getPromotions()) {
+            publish();
+        }
+        return totals;
+    }
+
+    /**
+     * Sets the discount applied to the order, with the same arguments as
+     * {@link DiscountCalculationService#calculateDiscount(int, Discount, String, boolean)}.
+     * The manual amount is parsed once here, not on every cart change.
+     *
+     * @return The updated totals.
+     */
+    public OrderTotals setDiscount(Discount discount, String otherAmount, boolean otherIsPercentage) {
+        return setDiscount(discount, DiscountCalculationService.parseOtherAmount(otherAmount), otherIsPercentage);
+    }
+
+    /**
+     * Sets the discount applied to the order, with the manual amount already parsed.
+     *
+     * @return The updated totals.
+     */
+    public synchronized OrderTotals setDiscount(Discount discount, int otherAmount, boolean otherIsPercentage) {
+        if (discount != this.discount || otherAmount != this.otherAmount || otherIsPercentage != this.otherIsPercentage) {
+            this.discount = discount;
+            this.otherAmount = otherAmount;
+            this.otherIsPercentage = otherIsPercentage;
+            totals = null;
+        }
+        return getTotals();
+    }
+
+    private synchronized void lineChanged(CartItem before, CartItem after) {
+        subtotal += lineTotal(after) - lineTotal(before);
+        if (before != null) {
+            promotions.remove(before);
+        }
+        if (after != null) {
+            promotions.add(after);
+        }
+        totals = null;
+    }
+
+    private void publish() {
+        DiscountRuleEngine engine = discountCalculationService.getPromotions();
+        if (promotions.getEngine() != engine) {
+            promotions = tally(engine);
+        }
+        long promotionValue = Math.min(promotions.getValue(), subtotal);
+        long discountValue = promotionValue + discountCalculationService.calculateDiscount(subtotal - promotionValue, discount, otherAmount, otherIsPercentage);
+        OrderTotals updated;
+        if (totalsCalculatorService.getMoneyEngine().getTaxRounding() == MoneyEngine.TaxRounding.PER_ORDER) {
+            updated = totalsCalculatorService.calculateTotalsFromSubtotal(subtotal, discountValue, cart.getVersion());
+        } else {
+            // Per-line rounding needs every line, so this policy reprices the whole cart.
+            updated = totalsCalculatorService.calculateTotals(cart.getCartItems(), discountValue, cart.getVersion());
+        }
+        totals = updated.withPromotionValue(promotionValue);
+    }
+
+    private DiscountRuleEngine.Tally tally(DiscountRuleEngine engine) {
+        DiscountRuleEngine.Tally tally = engine.newTally();
+        cart.getCartItems().forEach(tally::add);
+        return tally;
+    }
+
+    private long lineTotal(CartItem line) {
+        return line == null ? 0 : totalsCalculatorService.getMoneyEngine().lineTotal(line.getItem().getPrice(), line.getQuantity());
+    }
+}
@@ -1,17 +1,48 @@
 package service.order;
 
+import model.dto.OrderTotals;
 import model.entity.CartItem;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.List;
 
 /**
  * A dedicated service for performing all order-related calculations.
  * This includes subtotal, taxes, and final totals, ensuring that business
- * logic for calculations is centralized.
+ * logic for calculations is centralized. All amounts are whole cents computed
+ * by a {@link MoneyEngine}, so every screen and the receipt show the same figures.
  */
 public class TotalsCalculatorService {
 
-    public static final double TAX_RATE = 0.07;
+    public static final long TAX_RATE_BASIS_POINTS = 700;
+
+    private final MoneyEngine moneyEngine;
+
+    /**
+     * Creates a calculator that rounds tax half-up once per order.
+     */
+    public TotalsCalculatorService() {
+        this(new MoneyEngine(TAX_RATE_BASIS_POINTS, RoundingMode.HALF_UP, MoneyEngine.TaxRounding.PER_ORDER));
+    }
+
+    /**
+     * @param moneyEngine The engine that defines the tax rate and rounding.
+     */
+    public TotalsCalculatorService(MoneyEngine moneyEngine) {
+        this.moneyEngine = moneyEngine;
+    }
+
+    public MoneyEngine getMoneyEngine() {
+        return moneyEngine;
+    }
+
+    /**
+     * @return The tax rate as shown to customers, e.g. "7%" or "7.25%".
+     */
+    public static String formatTaxRate() {
+        return BigDecimal.valueOf(TAX_RATE_BASIS_POINTS, 2).stripTrailingZeros().toPlainString() + "%";
+    }
 
     /**
      * Calculates the subtotal of all items in the cart.
@@ -19,29 +50,76 @@ public class TotalsCalculatorService {
      * @return The calculated subtotal in cents.
      */
     public int calculateSubtotal(List<CartItem> cartItems) {
-        return cartItems.stream()
-                .mapToInt(item -> item.getItem().getPrice() * item.getQuantity())
-                .sum();
+        long subtotal = 0;
+        for (CartItem item : cartItems) {
+            subtotal = Math.addExact(subtotal, moneyEngine.lineTotal(item.getItem().getPrice(), item.getQuantity()));
+        }
+        return Math.toIntExact(subtotal);
     }
 
     /**
-     * Calculates the tax amount based on the subtotal after discounts.
+     * Calculates the tax on an order's discounted subtotal, rounded once.
+     * With per-line tax rounding, use {@link #calculateTotals(List, long)} instead.
      * @param subtotalAfterDiscount The subtotal minus any applicable discounts.
      * @return The calculated tax amount in cents.
      */
-    public double calculateTax(double subtotalAfterDiscount) {
-        return subtotalAfterDiscount * TAX_RATE;
+    public long calculateTax(long subtotalAfterDiscount) {
+        return moneyEngine.tax(subtotalAfterDiscount);
     }
 
     /**
-     * Calculates the final total of the order.
+     * Calculates the final total of the order, with tax rounded once.
      * @param subtotal The initial subtotal.
      * @param discountValue The value of the discount applied.
-     * @return The final total amount.
+     * @return The final total amount in cents.
+     */
+    public long calculateFinalTotal(long subtotal, long discountValue) {
+        long discount = Math.max(0, Math.min(discountValue, subtotal));
+        return subtotal - discount + moneyEngine.tax(subtotal - discount);
+    }
+
+    /**
+     * Prices the cart according to the engine's tax rounding policy.
+     * @param cartItems The list of items in the cart.
+     * @param discountValue The discount taken off the subtotal; it is capped at the subtotal.
+     * @return The order's totals.
+     */
+    public OrderTotals calculateTotals(List<CartItem> cartItems, long discountValue) {
+        return calculateTotals(cartItems, discountValue, 0);
+    }
+
+    /**
+     * Prices the cart according to the engine's tax rounding policy.
+     * @param cartVersion The version of the cart the items were read from.
+     * @return The order's totals.
+     */
+    public OrderTotals calculateTotals(List<CartItem> cartItems, long discountValue, long cartVersion) {
+        int count = cartItems.size();
+        int[] prices = new int[count];
+        int[] quantities = new int[count];
+        for (int i = 0; i < count; i++) {
+            CartItem item = cartItems.get(i);
+            prices[i] = item.getItem().getPrice();
+            quantities[i] = item.getQuantity();
+        }
+        long[] result = new long[MoneyEngine.RESULT_LENGTH];
+        moneyEngine.priceOrder(prices, quantities, count, discountValue, result);
+        return new OrderTotals(result[MoneyEngine.SUBTOTAL], result[MoneyEngine.DISCOUNT],
+                result[MoneyEngine.TAX], result[MoneyEngine.TOTAL], cartVersion);
+    }
+
+    /**
+     * Computes the totals from a known subtotal without visiting the lines. Only valid with
+     * per-order tax rounding, since per-line rounding needs every line.
+     * @return The order's totals.
+     * @throws IllegalStateException if the engine rounds tax per line.
      */
-    public double calculateFinalTotal(int subtotal, int discountValue) {
-        double subtotalAfterDiscount = subtotal - discountValue;
-        double tax = calculateTax(subtotalAfterDiscount);
-        return subtotalAfterDiscount + tax;
+    public OrderTotals calculateTotalsFromSubtotal(long subtotal, long discountValue, long cartVersion) {
+        if (moneyEngine.getTaxRounding() != MoneyEngine.TaxRounding.PER_ORDER) {
+            throw new IllegalStateException("Per-line tax rounding needs the cart lines.");
+        }
+        long discount = Math.max(0, Math.min(discountValue, subtotal));
+        long tax = moneyEngine.tax(subtotal - discount);
+        return new OrderTotals(subtotal, discount, tax, subtotal - discount + tax, cartVersion);
     }
-}
\ No newline at end of file
+}
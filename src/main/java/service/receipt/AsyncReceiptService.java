@@ -0,0 +1,55 @@
+package service.receipt;
+
+import model.dto.ReceiptCursor;
+import model.dto.ReceiptHistoryFilter;
+import model.dto.ReceiptPage;
+import service.inventory.StockHold;
+import util.AsyncExecutor;
+import util.LatestRequest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs {@link ReceiptService} calls off the JavaFX thread. Reads follow the latest request:
+ * a new search cancels the page still pending, and selecting another receipt cancels the
+ * content still loading. Checkouts are never cancelled.
+ */
+public class AsyncReceiptService {
+
+    private final ReceiptService receiptService;
+    private final AsyncExecutor executor;
+    private final LatestRequest<ReceiptPage> historyPage = new LatestRequest<>();
+    private final LatestRequest<byte[]> receiptContent = new LatestRequest<>();
+
+    public AsyncReceiptService(ReceiptService receiptService, AsyncExecutor executor) {
+        this.receiptService = receiptService;
+        this.executor = executor;
+    }
+
+    /**
+     * @see ReceiptService#completeCheckout(String, int, byte[], Map, List)
+     */
+    public CompletableFuture<Void> completeCheckout(String customerName, int employeeId, byte[] fileData, Map<Integer, Integer> inventoryDecrements,
+                                                    List<StockHold> soldHolds) {
+        return executor.submit(() -> {
+            receiptService.completeCheckout(customerName, employeeId, fileData, inventoryDecrements, soldHolds);
+            return null;
+        });
+    }
+
+    /**
+     * @see ReceiptService#getReceiptHistoryPage(ReceiptHistoryFilter, ReceiptCursor, int)
+     */
+    public CompletableFuture<ReceiptPage> getReceiptHistoryPage(ReceiptHistoryFilter filter, ReceiptCursor after, int pageSize) {
+        return historyPage.replace(executor.submit(() -> receiptService.getReceiptHistoryPage(filter, after, pageSize)));
+    }
+
+    /**
+     * @see ReceiptService#getReceiptContent(int)
+     */
+    public CompletableFuture<byte[]> getReceiptContent(int receiptId) {
+        return receiptContent.replace(executor.submit(() -> receiptService.getReceiptContent(receiptId)));
+    }
+}
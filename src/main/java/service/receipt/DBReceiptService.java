@@ -1,12 +1,22 @@
 package service.receipt;
 
+import model.dto.CheckoutRecord;
+import model.dto.InventoryUpdateResult;
+import model.dto.ReceiptCursor;
+import model.dto.ReceiptHistoryFilter;
+import model.dto.ReceiptPage;
 import model.entity.ReceiptInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import repo.repository.ReceiptRepository;
 import service.auth.SessionManager;
+import service.inventory.StockHold;
+import util.LruCache;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service layer for receipts. Orchestrates saving and retrieving receipt data
@@ -15,14 +25,26 @@ import java.util.List;
 public class DBReceiptService implements ReceiptService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DBReceiptService.class);
+    private static final int DEFAULT_CONTENT_CACHE_SIZE = 32;
+
     private final ReceiptRepository receiptRepository;
+    private final LruCache<Integer, byte[]> contentCache;
 
     /**
      * Constructor for dependency injection.
      * @param receiptRepository The repository for accessing receipt data.
      */
     public DBReceiptService(ReceiptRepository receiptRepository) {
+        this(receiptRepository, DEFAULT_CONTENT_CACHE_SIZE);
+    }
+
+    /**
+     * @param receiptRepository The repository for accessing receipt data.
+     * @param contentCacheSize How many recently viewed receipt bodies to keep in memory.
+     */
+    public DBReceiptService(ReceiptRepository receiptRepository, int contentCacheSize) {
         this.receiptRepository = receiptRepository;
+        this.contentCache = new LruCache<>(contentCacheSize);
     }
 
     @Override
@@ -35,6 +57,22 @@ public class DBReceiptService implements ReceiptService {
         }
     }
 
+    @Override
+    public void completeCheckout(String customerName, int employeeId, byte[] fileData, Map<Integer, Integer> inventoryDecrements,
+                                 List<StockHold> soldHolds) throws Exception {
+        try {
+            InventoryUpdateResult result = receiptRepository.saveCheckout(new CheckoutRecord(customerName, employeeId, LocalDateTime.now(),
+                    fileData, inventoryDecrements, holdIds(soldHolds)));
+            if (result != null && !result.isComplete()) {
+                // The sale is already paid for, so it is kept; the shortfall is recorded in inventory_shortfalls.
+                LOGGER.warn("Checkout for '{}' completed with insufficient stock: {}", customerName, result);
+            }
+        } catch (Exception e) {
+            LOGGER.error("Failed to complete checkout.", e);
+            throw new Exception("Failed to complete checkout due to a system error.", e);
+        }
+    }
+
     @Override
     public List<ReceiptInfo> getReceiptHistory() throws Exception {
         try {
@@ -50,4 +88,58 @@ public class DBReceiptService implements ReceiptService {
             throw new Exception("Failed to retrieve receipt history.", e);
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    public ReceiptPage getReceiptHistoryPage(ReceiptHistoryFilter filter, ReceiptCursor after, int pageSize) throws Exception {
+        try {
+            return receiptRepository.findReceiptPage(restrictToRole(filter, LocalDateTime.now()), after, pageSize);
+        } catch (Exception e) {
+            LOGGER.error("Error fetching receipt history page.", e);
+            throw new Exception("Failed to retrieve receipt history.", e);
+        }
+    }
+
+    /**
+     * Business logic: managers see the last 30 days unless they ask for another range,
+     * while employees only ever see their own receipts from the last 7 days.
+     */
+    private ReceiptHistoryFilter restrictToRole(ReceiptHistoryFilter filter, LocalDateTime now) {
+        SessionManager session = SessionManager.getInstance();
+        if (session.isManager()) {
+            return filter.getFrom() == null ? filter.withFrom(now.minusDays(30)) : filter;
+        }
+        LocalDateTime earliest = now.minusDays(7);
+        LocalDateTime from = filter.getFrom() == null || filter.getFrom().isBefore(earliest) ? earliest : filter.getFrom();
+        return filter.withFrom(from).withEmployeeId(session.getLoggedInEmployeeId());
+    }
+
+    @Override
+    public byte[] getReceiptContent(int receiptId) throws Exception {
+        byte[] cached = contentCache.get(receiptId);
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            byte[] content = receiptRepository.findReceiptContent(receiptId).orElse(null);
+            if (content != null) {
+                // Stored receipts never change, so a cached body cannot go stale.
+                contentCache.put(receiptId, content);
+            }
+            return content;
+        } catch (Exception e) {
+            LOGGER.error("Error fetching receipt content.", e);
+            throw new Exception("Failed to retrieve receipt content.", e);
+        }
+    }
+
+    /**
+     * @return The database IDs of the holds, which the checkout's transaction deletes.
+     */
+    static List<Long> holdIds(List<StockHold> holds) {
+        List<Long> holdIds = new ArrayList<>(holds.size());
+        for (StockHold hold : holds) {
+            holdIds.add(hold.getId());
+        }
+        return holdIds;
+    }
+}
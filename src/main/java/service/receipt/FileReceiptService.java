@@ -1,32 +1,61 @@
 package service.receipt;
 
-import com.fasterxml.jackson.annotation.JsonCreator;
-import com.fasterxml.jackson.annotation.JsonProperty;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import model.dto.InventoryUpdateResult;
+import model.dto.ReceiptCursor;
+import model.dto.ReceiptHistoryFilter;
+import model.dto.ReceiptPage;
 import model.entity.ReceiptInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import service.inventory.StockHold;
+import service.inventory.StockReservationService;
+import service.menu.Catalog;
 
 import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 /**
  * An implementation of the ReceiptService for the InternalFile data source.
  * It saves receipts to a log and reads a mock history from a JSON file.
+ * The history is streamed with {@link StreamingReceiptLoader}, keeping only receipt metadata and
+ * the offset of each receipt's content in memory.
  */
 public class FileReceiptService implements ReceiptService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(FileReceiptService.class);
+    private static final String RECEIPTS_RESOURCE = "/data/receipts.json";
+    private final StreamingReceiptLoader loader = new StreamingReceiptLoader();
     private final List<ReceiptInfo> receiptHistory;
+    private final List<ReceiptInfo> newestFirst;
+    private final Map<Integer, Long> contentOffsets = new HashMap<>();
+    private final Catalog catalog;
+    private final StockReservationService reservationService;
 
-    public FileReceiptService() {
-        this.receiptHistory = loadFromFile();
+    /**
+     * @param catalog The in-memory catalog whose inventory is updated on checkout.
+     */
+    public FileReceiptService(Catalog catalog) {
+        this(catalog, null, null);
+    }
+
+    /**
+     * @param catalog The in-memory catalog whose inventory is updated on checkout.
+     * @param historyFrom Only receipts saved at or after this moment are loaded, or null to load all.
+     * @param reservationService The service that placed the holds sold at checkout, or null if stock is not held.
+     */
+    public FileReceiptService(Catalog catalog, LocalDateTime historyFrom, StockReservationService reservationService) {
+        this.catalog = catalog;
+        this.reservationService = reservationService;
+        this.receiptHistory = loadFromFile(historyFrom);
+        this.newestFirst = new ArrayList<>(receiptHistory);
+        this.newestFirst.sort(Comparator.comparing(ReceiptInfo::getUploadDate).thenComparingInt(ReceiptInfo::getId).reversed());
     }
 
     @Override
@@ -35,64 +64,81 @@ public class FileReceiptService implements ReceiptService {
         // In a file-based context, we only log the action, no persistence.
     }
 
+    @Override
+    public void completeCheckout(String customerName, int employeeId, byte[] fileData, Map<Integer, Integer> inventoryDecrements,
+                                 List<StockHold> soldHolds) throws Exception {
+        saveReceipt(customerName, employeeId, fileData);
+        // Settled together with the rest of the sale's stock, so a crash cannot return held stock that was sold.
+        Map<Integer, Integer> remaining = new LinkedHashMap<>(inventoryDecrements);
+        for (StockHold hold : soldHolds) {
+            reservationService.commit(hold);
+            remaining.computeIfPresent(hold.getItemId(), (itemId, sold) -> sold > hold.getQuantity() ? sold - hold.getQuantity() : null);
+        }
+        InventoryUpdateResult result = catalog.updateItemInventories(remaining);
+        if (!result.isComplete()) {
+            LOGGER.warn("File-based service: Checkout for '{}' completed with insufficient stock: {}", customerName, result);
+        }
+    }
+
     @Override
     public List<ReceiptInfo> getReceiptHistory() {
         LOGGER.info("File-based service: Returning {} receipts from JSON.", receiptHistory.size());
         return receiptHistory;
     }
 
-    private List<ReceiptInfo> loadFromFile() {
-        try (InputStream inputStream = getClass().getResourceAsStream("/data/receipts.json")) {
-            if (inputStream == null) {
-                LOGGER.warn("Could not find '/data/receipts.json'. History will be empty.");
-                return Collections.emptyList();
+    @Override
+    public ReceiptPage getReceiptHistoryPage(ReceiptHistoryFilter filter, ReceiptCursor after, int pageSize) {
+        // The mock history has no employee IDs, so only the date and customer filters apply.
+        String prefix = filter.getCustomerNamePrefix() == null ? null : filter.getCustomerNamePrefix().toLowerCase();
+        List<ReceiptInfo> page = new ArrayList<>();
+        boolean hasMore = false;
+        for (ReceiptInfo receipt : newestFirst) {
+            if ((after != null && !after.isBefore(receipt))
+                    || (filter.getFrom() != null && receipt.getUploadDate().isBefore(filter.getFrom()))
+                    || (filter.getTo() != null && !receipt.getUploadDate().isBefore(filter.getTo()))
+                    || (prefix != null && (receipt.getCustomerName() == null || !receipt.getCustomerName().toLowerCase().startsWith(prefix)))) {
+                continue;
             }
-            ObjectMapper mapper = new ObjectMapper();
-            mapper.registerModule(new JavaTimeModule()); // Needed to parse LocalDateTime
-
-            List<ReceiptData> loadedData = mapper.readValue(inputStream, new TypeReference<List<ReceiptData>>() {});
-            
-            // Convert DTOs to the domain model
-            return loadedData.stream()
-                    .map(data -> new ReceiptInfo(
-                            data.getEmployeeName(),
-                            data.getCustomerName(),
-                            data.getUploadDate(),
-                            data.getFileData().getBytes(StandardCharsets.UTF_8) // Convert String to byte[]
-                    ))
-                    .collect(Collectors.toList());
-
-        } catch (Exception e) {
-            LOGGER.error("Failed to read or parse receipts.json. History will be empty.", e);
-            return Collections.emptyList();
+            if (page.size() == pageSize) {
+                hasMore = true;
+                break;
+            }
+            page.add(receipt);
         }
+        return new ReceiptPage(page, hasMore);
     }
 
     /**
-     * A private DTO class for deserializing receipt data from JSON.
-     * This is needed because the `fileData` in the JSON is a String, not a byte array.
+     * Reads the receipt body from the JSON file on demand, starting at the offset noted while loading.
+     * Receipts outside the loaded history have no content.
      */
-    private static class ReceiptData {
-        private String employeeName;
-        private String customerName;
-        private LocalDateTime uploadDate;
-        private String fileData;
-
-        @JsonCreator
-        public ReceiptData(@JsonProperty("employeeName") String employeeName, 
-                           @JsonProperty("customerName") String customerName, 
-                           @JsonProperty("uploadDate") LocalDateTime uploadDate, 
-                           @JsonProperty("fileData") String fileData) {
-            this.employeeName = employeeName;
-            this.customerName = customerName;
-            this.uploadDate = uploadDate;
-            this.fileData = fileData;
+    @Override
+    public byte[] getReceiptContent(int receiptId) {
+        Long offset = contentOffsets.get(receiptId);
+        if (offset == null) {
+            return null;
+        }
+        try (InputStream inputStream = getClass().getResourceAsStream(RECEIPTS_RESOURCE)) {
+            return inputStream == null ? null : loader.readContentAt(inputStream, offset);
+        } catch (Exception e) {
+            LOGGER.error("Failed to read receipt {} from receipts.json.", receiptId, e);
+            return null;
         }
+    }
 
-        // Getters
-        public String getEmployeeName() { return employeeName; }
-        public String getCustomerName() { return customerName; }
-        public LocalDateTime getUploadDate() { return uploadDate; }
-        public String getFileData() { return fileData; }
+    private List<ReceiptInfo> loadFromFile(LocalDateTime historyFrom) {
+        try (InputStream inputStream = getClass().getResourceAsStream(RECEIPTS_RESOURCE)) {
+            if (inputStream == null) {
+                LOGGER.warn("Could not find '{}'. History will be empty.", RECEIPTS_RESOURCE);
+                return Collections.emptyList();
+            }
+            List<ReceiptInfo> loaded = new ArrayList<>();
+            int receiptCount = loader.load(inputStream, historyFrom, null, loaded::add, contentOffsets);
+            LOGGER.info("Loaded {} of {} receipts from JSON.", loaded.size(), receiptCount);
+            return loaded;
+        } catch (Exception e) {
+            LOGGER.error("Failed to read or parse receipts.json. History will be empty.", e);
+            return Collections.emptyList();
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,13 +1,16 @@
 package service.receipt;
 
+import model.dto.OrderTotals;
 import model.entity.CartItem;
 import model.entity.Discount;
 import util.CurrencyFormatter;
+import service.discount.DiscountCalculationService;
 import service.order.TotalsCalculatorService;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Map;
 
 /**
  * A service dedicated to building the final, formatted string representation of a receipt.
@@ -15,17 +18,36 @@ import java.util.List;
 public class ReceiptBuilderService {
 
     private final TotalsCalculatorService totalsCalculatorService;
+    private final DiscountCalculationService discountCalculationService;
 
     public ReceiptBuilderService(TotalsCalculatorService totalsCalculatorService) {
+        this(totalsCalculatorService, null);
+    }
+
+    /**
+     * @param discountCalculationService The source of the promotions in force, so each can be listed
+     *                                   on its own line, or null to list them as one line.
+     */
+    public ReceiptBuilderService(TotalsCalculatorService totalsCalculatorService, DiscountCalculationService discountCalculationService) {
         this.totalsCalculatorService = totalsCalculatorService;
+        this.discountCalculationService = discountCalculationService;
     }
 
     public String buildReceiptContent(String customerName, String employeeName, List<CartItem> cartItems, Discount discount, int discountValue, String observations, String paymentMethod, int amountTendered, int change) {
+        OrderTotals totals = totalsCalculatorService.calculateTotals(cartItems, discountValue);
+        return buildReceiptContent(customerName, employeeName, cartItems, discount, totals, observations, paymentMethod, amountTendered, change);
+    }
+
+    /**
+     * Builds the receipt from totals that were already computed, e.g. by {@link service.order.PricingQuoteService},
+     * so the receipt shows exactly what the customer was charged.
+     */
+    public String buildReceiptContent(String customerName, String employeeName, List<CartItem> cartItems, Discount discount, OrderTotals totals, String observations, String paymentMethod, int amountTendered, int change) {
         StringBuilder receipt = new StringBuilder();
-        int subtotal = totalsCalculatorService.calculateSubtotal(cartItems);
-        double subtotalAfterDiscount = subtotal - discountValue;
-        double tax = totalsCalculatorService.calculateTax(subtotalAfterDiscount);
-        double total = subtotalAfterDiscount + tax;
+        long subtotal = totals.getSubtotal();
+        long discountValue = totals.getOrderDiscountValue();
+        long tax = totals.getTax();
+        long total = totals.getTotal();
 
         receipt.append("\tOOP Caffee\n");
         receipt.append("----------------------------------------------------\n");
@@ -42,17 +64,18 @@ public class ReceiptBuilderService {
 
         receipt.append("----------------------------------------------------\n");
         receipt.append(String.format("%-38s %12s\n", "Subtotal:", CurrencyFormatter.format(subtotal)));
+        appendPromotions(receipt, cartItems, totals.getPromotionValue());
 
         if (discountValue > 0) {
-            String discountName = (discount != null && !"Other".equalsIgnoreCase(discount.getName())) ? discount.getName() : "";
+            String discountName = (discount != null && !discount.isNone() && !discount.isOther()) ? discount.getName() : "";
             String discountLabel = "Discount" + (!discountName.isEmpty() ? " (" + discountName + ")" : "") + ":";
             receipt.append(String.format("%-38s %12s\n", discountLabel, "-" + CurrencyFormatter.format(discountValue)));
         }
 
-        String taxText = "Tax (" + Math.round(TotalsCalculatorService.TAX_RATE * 100) + "%):";
-        receipt.append(String.format("%-38s %12s\n", taxText, CurrencyFormatter.format((int) tax)));
+        String taxText = "Tax (" + TotalsCalculatorService.formatTaxRate() + "):";
+        receipt.append(String.format("%-38s %12s\n", taxText, CurrencyFormatter.format(tax)));
 
-        receipt.append(String.format("%-38s %12s\n", "TOTAL:", CurrencyFormatter.format((int) total)));
+        receipt.append(String.format("%-38s %12s\n", "TOTAL:", CurrencyFormatter.format(total)));
         receipt.append("----------------------------------------------------\n");
 
         if (observations != null && !observations.trim().isEmpty()) {
@@ -68,4 +91,25 @@ public class ReceiptBuilderService {
         receipt.append("\n\tThank you for your visit!\n");
         return receipt.toString();
     }
+
+    /**
+     * Lists each promotion on its own line. The lines never add up to more than was taken off;
+     * anything the promotions in force no longer explain is shown as one line.
+     */
+    private void appendPromotions(StringBuilder receipt, List<CartItem> cartItems, long promotionValue) {
+        long remaining = promotionValue;
+        if (remaining > 0 && discountCalculationService != null) {
+            for (Map.Entry<Discount, Long> promotion : discountCalculationService.getPromotions().itemize(cartItems).entrySet()) {
+                long value = Math.min(promotion.getValue(), remaining);
+                if (value <= 0) {
+                    break;
+                }
+                receipt.append(String.format("%-38s %12s\n", "Promotion (" + promotion.getKey().getName() + "):", "-" + CurrencyFormatter.format(value)));
+                remaining -= value;
+            }
+        }
+        if (remaining > 0) {
+            receipt.append(String.format("%-38s %12s\n", "Promotions:", "-" + CurrencyFormatter.format(remaining)));
+        }
+    }
 }
\ No newline at end of file
@@ -1,8 +1,13 @@
 package service.receipt;
 
+import model.dto.ReceiptCursor;
+import model.dto.ReceiptHistoryFilter;
+import model.dto.ReceiptPage;
 import model.entity.ReceiptInfo;
+import service.inventory.StockHold;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Defines the contract for a service that handles receipt persistence and retrieval.
@@ -19,11 +24,58 @@ public interface ReceiptService {
      */
     void saveReceipt(String customerName, int employeeId, byte[] fileData) throws Exception;
 
+    /**
+     * Saves a receipt and subtracts the sold inventory as a single operation.
+     * Either both the receipt and every inventory change are stored, or neither is.
+     *
+     * @param customerName The name of the customer.
+     * @param employeeId The ID of the employee who created the receipt.
+     * @param fileData The byte array representation of the receipt content.
+     * @param inventoryDecrements Quantities sold, keyed by item ID.
+     * @throws Exception if there is an error during the checkout.
+     */
+    default void completeCheckout(String customerName, int employeeId, byte[] fileData, Map<Integer, Integer> inventoryDecrements) throws Exception {
+        completeCheckout(customerName, employeeId, fileData, inventoryDecrements, List.of());
+    }
+
+    /**
+     * Completes a checkout whose stock was partly held for the cart. The holds are settled with the
+     * sale, so their stock stays taken even if the terminal stops right after; only the quantities
+     * they do not cover are subtracted.
+     *
+     * @param inventoryDecrements Quantities sold, keyed by item ID, including the held ones.
+     * @param soldHolds The locked holds of the sale.
+     * @throws Exception if there is an error during the checkout; the holds are not settled then.
+     */
+    void completeCheckout(String customerName, int employeeId, byte[] fileData, Map<Integer, Integer> inventoryDecrements,
+                          List<StockHold> soldHolds) throws Exception;
+
     /**
      * Fetches receipt history from the data store based on the current user's role.
+     * The returned records may carry only metadata; use {@link #getReceiptContent(int)} to load a body.
      *
      * @return A list of {@link ReceiptInfo} objects.
      * @throws Exception if a database error occurs.
      */
     List<ReceiptInfo> getReceiptHistory() throws Exception;
+
+    /**
+     * Fetches one page of receipt history, newest first, restricted by the current user's role.
+     *
+     * @param filter The date range, employee and customer name prefix to match.
+     * @param after The cursor of the previous page ({@link ReceiptPage#getNextCursor()}), or null for the first page.
+     * @param pageSize The maximum number of receipts to return.
+     * @return A {@link ReceiptPage} of metadata-only receipts.
+     * @throws Exception if a database error occurs.
+     */
+    ReceiptPage getReceiptHistoryPage(ReceiptHistoryFilter filter, ReceiptCursor after, int pageSize) throws Exception;
+
+    /**
+     * Fetches the content of a single receipt.
+     *
+     * @param receiptId The ID of the receipt, as reported by {@link ReceiptInfo#getId()}.
+     * @return The receipt content, or null if no such receipt exists.
+     * @throws Exception if a database error occurs.
+     */
+    byte[] getReceiptContent(int receiptId) throws Exception;
 }
\ No newline at end of file
@@ -0,0 +1,127 @@
+package service.receipt;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import model.entity.ReceiptInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Reads a receipts.json history token by token, so large histories load in bounded memory.
+ * Receipts are numbered by their position in the file, starting at 1.
+ *
+ * <p>Only the metadata is materialized: each receipt's {@code fileData} is skipped by the parser
+ * without being decoded. Its byte offset is noted instead, so a single receipt can be read later
+ * with {@link #readContentAt} without parsing the receipts before it.
+ */
+public class StreamingReceiptLoader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StreamingReceiptLoader.class);
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    /**
+     * Streams the metadata of every receipt saved within the window to {@code sink}, in file order.
+     *
+     * @param inputStream The JSON array of receipts; it is not closed.
+     * @param from Only receipts saved at or after this moment, or null for no lower bound.
+     * @param to Only receipts saved before this moment, or null for no upper bound.
+     * @param sink Receives each matching receipt as it is parsed; its content is not loaded.
+     * @return The total number of receipts in the file, including those outside the window.
+     * @throws IOException if the JSON cannot be read or is not an array of receipt objects.
+     */
+    public int load(InputStream inputStream, LocalDateTime from, LocalDateTime to, Consumer<ReceiptInfo> sink) throws IOException {
+        return load(inputStream, from, to, sink, null);
+    }
+
+    /**
+     * Like {@link #load(InputStream, LocalDateTime, LocalDateTime, Consumer)}, also noting where
+     * the content of each matching receipt starts. Receipts without an upload date cannot be
+     * placed in the history; they are logged and left out.
+     *
+     * @param contentOffsets Receives the byte offset of each matching receipt's content, keyed by its ID, or null.
+     */
+    public int load(InputStream inputStream, LocalDateTime from, LocalDateTime to, Consumer<ReceiptInfo> sink,
+                    Map<Integer, Long> contentOffsets) throws IOException {
+        try (JsonParser parser = openArray(inputStream)) {
+            int position = 0;
+            int undated = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                position++;
+                String employeeName = null;
+                String customerName = null;
+                LocalDateTime uploadDate = null;
+                long contentOffset = -1;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    parser.nextToken();
+                    switch (field) {
+                        case "employeeName" -> employeeName = parser.getValueAsString();
+                        case "customerName" -> customerName = parser.getValueAsString();
+                        case "uploadDate" -> {
+                            String text = parser.getValueAsString();
+                            uploadDate = text == null ? null : LocalDateTime.parse(text);
+                        }
+                        case "fileData" -> {
+                            if (parser.currentToken() == JsonToken.VALUE_STRING) {
+                                contentOffset = parser.currentTokenLocation().getByteOffset();
+                            }
+                            parser.skipChildren();
+                        }
+                        // Skips the receipt body and any unknown nested value without decoding it.
+                        default -> parser.skipChildren();
+                    }
+                }
+                if (uploadDate == null) {
+                    undated++;
+                    LOGGER.debug("Receipt {} has no upload date and is left out of the history.", position);
+                } else if ((from == null || !uploadDate.isBefore(from)) && (to == null || uploadDate.isBefore(to))) {
+                    sink.accept(new ReceiptInfo(position, employeeName, customerName, uploadDate));
+                    if (contentOffsets != null && contentOffset >= 0) {
+                        contentOffsets.put(position, contentOffset);
+                    }
+                }
+            }
+            if (undated > 0) {
+                LOGGER.warn("{} of {} receipts have no upload date and were not loaded.", undated, position);
+            }
+            return position;
+        }
+    }
+
+    /**
+     * Reads the content of a single receipt from the offset noted by {@link #load}.
+     *
+     * @param inputStream The same JSON array of receipts, from its start; it is not closed.
+     * @param contentOffset The byte offset of the receipt's content.
+     * @return The receipt content.
+     * @throws IOException if the JSON cannot be read or there is no content at that offset.
+     */
+    public byte[] readContentAt(InputStream inputStream, long contentOffset) throws IOException {
+        inputStream.skipNBytes(contentOffset);
+        try (JsonParser parser = JSON_FACTORY.createParser(inputStream)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            if (parser.nextToken() != JsonToken.VALUE_STRING) {
+                throw new IOException("No receipt content at offset " + contentOffset + ".");
+            }
+            return parser.getText().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private static JsonParser openArray(InputStream inputStream) throws IOException {
+        JsonParser parser = JSON_FACTORY.createParser(inputStream);
+        parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            parser.close();
+            throw new IOException("Expected a JSON array of receipts.");
+        }
+        return parser;
+    }
+}
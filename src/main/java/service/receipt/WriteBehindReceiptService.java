@@ -0,0 +1,455 @@
+package service.receipt;
+
+import model.dto.CheckoutRecord;
+import model.dto.InventoryUpdateResult;
+import model.dto.ReceiptCursor;
+import model.dto.ReceiptHistoryFilter;
+import model.dto.ReceiptPage;
+import model.entity.ReceiptInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import repo.CheckoutJournal;
+import repo.CheckoutQuarantine;
+import repo.repository.ReceiptRepository;
+import service.inventory.StockHold;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientConnectionException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A write-behind stage in front of the database receipt service.
+ * Checkouts are accepted into a bounded queue and returned to the cashier immediately;
+ * a background worker writes them in batches, each batch as one multi-row insert in one transaction.
+ * When the queue is full, callers wait briefly and then fall back to a synchronous write,
+ * which slows checkout down to the speed of the database instead of dropping sales.
+ * Reads are delegated to the wrapped service after pending writes have had a chance to land.
+ *
+ * <p>With a {@link CheckoutJournal}, each checkout is first made durable in the local journal
+ * and the worker replays the journal to the database, so sales survive a crash or restart
+ * while the database is unreachable.
+ *
+ * <p>With a {@link CheckoutQuarantine}, a checkout the database keeps rejecting is set aside after
+ * a few attempts instead of blocking every sale behind it. Failures to reach the database at all
+ * are not counted, so an outage never quarantines sales; they simply wait. The worker offers the
+ * quarantined checkouts to the database again when it starts and every few minutes after that,
+ * so they land once the cause is fixed.
+ */
+public class WriteBehindReceiptService implements ReceiptService, AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WriteBehindReceiptService.class);
+    private static final long MAX_RETRY_DELAY_MILLIS = 30_000;
+    private static final long READ_FLUSH_WAIT_MILLIS = 1_000;
+    private static final long QUARANTINE_REPLAY_INTERVAL_MILLIS = 5 * 60_000;
+    public static final int DEFAULT_MAX_ATTEMPTS = 5;
+
+    private final ReceiptService delegate;
+    private final ReceiptRepository receiptRepository;
+    private final CheckoutJournal journal;
+    private final CheckoutQuarantine quarantine;
+    private final int maxAttempts;
+    private final BlockingQueue<CheckoutRecord> queue;
+    private final int maxBatchSize;
+    private final long offerTimeoutMillis;
+    private volatile Thread worker; // Null until started
+    private final Object flushMonitor = new Object();
+    private volatile boolean running = true;
+    private int pending; // Queued plus in-flight checkouts, guarded by flushMonitor
+    private long nextQuarantineReplayMillis; // Only touched by the worker thread
+
+    // --- Metrics ---
+    private final AtomicLong flushedCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong failedFlushCount = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private final AtomicLong lastFlushNanos = new AtomicLong();
+    private final AtomicLong synchronousFallbackCount = new AtomicLong();
+    private final AtomicLong quarantinedCount = new AtomicLong();
+
+    /**
+     * @param delegate The service used for reads and for synchronous fallback writes.
+     * @param receiptRepository The repository that performs batched writes.
+     * @param journal The local journal checkouts are stored in before being written, or null to queue in memory only.
+     * @param quarantine Where checkouts that keep failing, or are still queued at shutdown, are set aside; null to retry forever.
+     * @param maxAttempts How often a checkout the database rejects is tried before it is quarantined.
+     * @param queueCapacity The maximum number of checkouts waiting in memory. Unused with a journal, which has no bound.
+     * @param maxBatchSize The maximum number of checkouts written in one transaction.
+     * @param offerTimeoutMillis How long a caller waits for queue space before writing synchronously. Unused with a journal.
+     */
+    public WriteBehindReceiptService(ReceiptService delegate, ReceiptRepository receiptRepository, CheckoutJournal journal,
+                                     CheckoutQuarantine quarantine, int maxAttempts,
+                                     int queueCapacity, int maxBatchSize, long offerTimeoutMillis) {
+        this.delegate = delegate;
+        this.receiptRepository = receiptRepository;
+        this.journal = journal;
+        this.quarantine = quarantine;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.queue = new ArrayBlockingQueue<>(journal == null ? queueCapacity : 1);
+        this.maxBatchSize = maxBatchSize;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+    }
+
+    /**
+     * Starts the worker that writes queued or journaled checkouts to the database.
+     */
+    public synchronized void start() {
+        if (worker != null) {
+            return;
+        }
+        worker = new Thread(journal == null ? this::runWorker : this::runJournalWorker, "receipt-write-behind");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void saveReceipt(String customerName, int employeeId, byte[] fileData) throws Exception {
+        completeCheckout(customerName, employeeId, fileData, Collections.emptyMap());
+    }
+
+    @Override
+    public void completeCheckout(String customerName, int employeeId, byte[] fileData, Map<Integer, Integer> inventoryDecrements,
+                                 List<StockHold> soldHolds) throws Exception {
+        CheckoutRecord record = new CheckoutRecord(customerName, employeeId, LocalDateTime.now(), fileData, inventoryDecrements,
+                DBReceiptService.holdIds(soldHolds));
+        if (!running) {
+            throw new Exception("Receipt writer has been shut down.");
+        }
+        if (journal != null) {
+            try {
+                journal.append(record);
+                return;
+            } catch (IOException e) {
+                // The sale must not be lost, so it goes straight to the database instead.
+                synchronousFallbackCount.incrementAndGet();
+                LOGGER.error("Could not journal checkout for '{}'. Writing it synchronously.", customerName, e);
+                delegate.completeCheckout(customerName, employeeId, fileData, inventoryDecrements, soldHolds);
+                return;
+            }
+        }
+        adjustPending(1);
+        if (!queue.offer(record, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+            adjustPending(-1);
+            // Backpressure: the database is not keeping up, so this sale is written in the caller's thread.
+            synchronousFallbackCount.incrementAndGet();
+            LOGGER.warn("Receipt queue is full ({} pending). Writing checkout for '{}' synchronously.", queue.size(), customerName);
+            delegate.completeCheckout(customerName, employeeId, fileData, inventoryDecrements, soldHolds);
+        }
+    }
+
+    @Override
+    public List<ReceiptInfo> getReceiptHistory() throws Exception {
+        flush(READ_FLUSH_WAIT_MILLIS);
+        return delegate.getReceiptHistory();
+    }
+
+    @Override
+    public ReceiptPage getReceiptHistoryPage(ReceiptHistoryFilter filter, ReceiptCursor after, int pageSize) throws Exception {
+        if (after == null) {
+            // Only the first page needs to include the sales that were just rung up.
+            flush(READ_FLUSH_WAIT_MILLIS);
+        }
+        return delegate.getReceiptHistoryPage(filter, after, pageSize);
+    }
+
+    @Override
+    public byte[] getReceiptContent(int receiptId) throws Exception {
+        return delegate.getReceiptContent(receiptId);
+    }
+
+    /**
+     * Waits until every queued checkout has been written.
+     *
+     * @param timeoutMillis The maximum time to wait.
+     * @return True if the queue was fully drained, false on timeout.
+     */
+    public boolean flush(long timeoutMillis) throws InterruptedException {
+        if (journal != null) {
+            return journal.awaitApplied(timeoutMillis);
+        }
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (flushMonitor) {
+            while (pending > 0) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                flushMonitor.wait(remaining);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stops accepting checkouts, writes everything still queued and stops the worker.
+     * Without a journal, checkouts that could not be written in time are moved to the quarantine.
+     */
+    @Override
+    public void close() {
+        running = false;
+        boolean drained = false;
+        try {
+            drained = flush(MAX_RETRY_DELAY_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker != null) {
+            worker.interrupt();
+        }
+        if (!drained) {
+            if (journal != null) {
+                LOGGER.warn("Receipt writer shut down with {} checkouts still in the journal. They will be sent on next start.", getQueueDepth());
+            } else {
+                try {
+                    // The worker hands its in-flight batch back to the quarantine before it exits.
+                    if (worker != null) {
+                        worker.join(TimeUnit.SECONDS.toMillis(5));
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                List<CheckoutRecord> unwritten = new ArrayList<>();
+                queue.drainTo(unwritten);
+                quarantineAll(unwritten, "Still queued when the receipt writer shut down");
+            }
+        }
+        LOGGER.info("Receipt writer stopped. {}", this);
+    }
+
+    // --- Metrics ---
+
+    public int getQueueDepth() {
+        return journal != null ? journal.getPendingCount() : queue.size();
+    }
+
+    /**
+     * @return The size of the local journal in bytes, or 0 when no journal is used.
+     */
+    public long getJournalSizeBytes() {
+        return journal != null ? journal.getSizeBytes() : 0;
+    }
+
+    public long getFlushedCount() {
+        return flushedCount.get();
+    }
+
+    public long getFailedFlushCount() {
+        return failedFlushCount.get();
+    }
+
+    public long getSynchronousFallbackCount() {
+        return synchronousFallbackCount.get();
+    }
+
+    public long getQuarantinedCount() {
+        return quarantinedCount.get();
+    }
+
+    public double getLastFlushMillis() {
+        return lastFlushNanos.get() / 1_000_000.0;
+    }
+
+    public double getAverageFlushMillis() {
+        long batches = batchCount.get();
+        return batches == 0 ? 0 : totalFlushNanos.get() / 1_000_000.0 / batches;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("queueDepth=%d, flushed=%d, batches=%d, failedFlushes=%d, syncFallbacks=%d, quarantined=%d, avgFlush=%.2fms",
+                getQueueDepth(), getFlushedCount(), batchCount.get(), getFailedFlushCount(), getSynchronousFallbackCount(),
+                getQuarantinedCount(), getAverageFlushMillis());
+    }
+
+    private void adjustPending(int delta) {
+        synchronized (flushMonitor) {
+            pending += delta;
+            if (pending == 0) {
+                flushMonitor.notifyAll();
+            }
+        }
+    }
+
+    private void runWorker() {
+        while (running || !queue.isEmpty()) {
+            replayQuarantineWhenDue();
+            try {
+                CheckoutRecord first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                // A fresh list per batch, since the repository may still hold on to the previous one.
+                List<CheckoutRecord> batch = new ArrayList<>(maxBatchSize);
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                try {
+                    write(batch);
+                } catch (InterruptedException e) {
+                    // Only close() interrupts the worker, after it has given up waiting for the queue to drain.
+                    quarantineAll(batch, "Still being written when the receipt writer shut down");
+                    throw e;
+                } finally {
+                    adjustPending(-batch.size());
+                }
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+    }
+
+    private void runJournalWorker() {
+        while (running || journal.getPendingCount() > 0) {
+            replayQuarantineWhenDue();
+            try {
+                List<CheckoutRecord> batch = journal.awaitUnapplied(maxBatchSize, 500);
+                if (batch.isEmpty()) {
+                    continue;
+                }
+                write(batch);
+                journal.markApplied(batch.get(batch.size() - 1).getJournalSequence());
+            } catch (InterruptedException e) {
+                // Anything still in the journal is replayed on the next start.
+                break;
+            } catch (IOException e) {
+                // The database already holds the batch; a replay is skipped there, so the marker can catch up later.
+                LOGGER.error("Failed to record applied journal entries.", e);
+            }
+        }
+    }
+
+    /**
+     * Sends the quarantined checkouts to the database again, one at a time.
+     *
+     * @return The number that were written and left the quarantine.
+     * @throws IOException if the quarantine cannot be read or rewritten.
+     */
+    public int replayQuarantine() throws IOException {
+        if (quarantine == null) {
+            return 0;
+        }
+        int replayed = quarantine.replay(record -> receiptRepository.saveCheckouts(List.of(record)));
+        flushedCount.addAndGet(replayed);
+        return replayed;
+    }
+
+    private void replayQuarantineWhenDue() {
+        if (quarantine == null || !running || quarantine.getCount() == 0 || System.currentTimeMillis() < nextQuarantineReplayMillis) {
+            return;
+        }
+        nextQuarantineReplayMillis = System.currentTimeMillis() + QUARANTINE_REPLAY_INTERVAL_MILLIS;
+        try {
+            replayQuarantine();
+        } catch (IOException e) {
+            LOGGER.error("Failed to replay the checkout quarantine.", e);
+        }
+    }
+
+    /**
+     * Writes a batch. If the database keeps rejecting it, each checkout is tried on its own, so only
+     * the ones it will not accept are quarantined and the rest of the batch still lands.
+     */
+    private void write(List<CheckoutRecord> batch) throws InterruptedException {
+        if (writeWithRetry(batch)) {
+            return;
+        }
+        if (batch.size() > 1) {
+            LOGGER.warn("A batch of {} receipts keeps failing. Writing them one at a time.", batch.size());
+            for (CheckoutRecord record : batch) {
+                if (!writeWithRetry(List.of(record))) {
+                    quarantineAll(List.of(record), "Rejected by the database " + maxAttempts + " times");
+                }
+            }
+        } else {
+            quarantineAll(batch, "Rejected by the database " + maxAttempts + " times");
+        }
+    }
+
+    /**
+     * Writes a batch, retrying with exponential backoff. The batch stays in memory meanwhile, so a
+     * slow or unreachable database delays writes but loses nothing. Attempts that fail because the
+     * database cannot be reached are not counted.
+     *
+     * @return True once written, false after {@code maxAttempts} rejections when a quarantine is available.
+     */
+    private boolean writeWithRetry(List<CheckoutRecord> batch) throws InterruptedException {
+        long retryDelay = 250;
+        int rejections = 0;
+        while (true) {
+            long start = System.nanoTime();
+            try {
+                List<InventoryUpdateResult> results = receiptRepository.saveCheckouts(batch);
+                long elapsed = System.nanoTime() - start;
+                lastFlushNanos.set(elapsed);
+                totalFlushNanos.addAndGet(elapsed);
+                batchCount.incrementAndGet();
+                flushedCount.addAndGet(batch.size());
+                logShortfalls(batch, results);
+                return true;
+            } catch (Exception e) {
+                failedFlushCount.incrementAndGet();
+                if (!isConnectionFailure(e) && ++rejections >= maxAttempts && quarantine != null) {
+                    LOGGER.error("The database rejected a batch of {} receipts {} times.", batch.size(), rejections, e);
+                    return false;
+                }
+                LOGGER.error("Failed to write a batch of {} receipts. Retrying in {} ms.", batch.size(), retryDelay, e);
+                Thread.sleep(retryDelay);
+                retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * @return True if the error means the database could not be reached, rather than that it refused the data.
+     */
+    static boolean isConnectionFailure(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLTransientConnectionException || cause instanceof SQLRecoverableException) {
+                return true;
+            }
+            // SQL state class 08 is "connection exception".
+            if (cause instanceof SQLException && ((SQLException) cause).getSQLState() != null
+                    && ((SQLException) cause).getSQLState().startsWith("08")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void quarantineAll(List<CheckoutRecord> records, String reason) {
+        if (records.isEmpty()) {
+            return;
+        }
+        if (quarantine == null) {
+            LOGGER.error("{} checkouts could not be written and there is no quarantine to keep them: {}", records.size(), reason);
+            return;
+        }
+        for (CheckoutRecord record : records) {
+            try {
+                quarantine.add(record, reason);
+                quarantinedCount.incrementAndGet();
+            } catch (IOException e) {
+                LOGGER.error("Failed to quarantine checkout for '{}'. It is lost.", record.getCustomerName(), e);
+            }
+        }
+    }
+
+    private void logShortfalls(List<CheckoutRecord> batch, List<InventoryUpdateResult> results) {
+        if (results == null) {
+            return;
+        }
+        for (int i = 0; i < results.size(); i++) {
+            if (!results.get(i).isComplete()) {
+                LOGGER.warn("Checkout for '{}' completed with insufficient stock: {}", batch.get(i).getCustomerName(), results.get(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs blocking service calls on virtual threads, so the JavaFX thread never waits for the database.
+ *
+ * <p>Cancelling a returned future drops its result, and a call that has not started yet is skipped.
+ * A call that is already running is left to finish: interrupting a virtual thread blocked on a
+ * socket closes that socket, which would break the pooled connection it was using.
+ */
+public class AsyncExecutor implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncExecutor.class);
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * @param work The blocking call.
+     * @return A future that completes with the result of the call, or with the exception it threw.
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        executor.execute(() -> {
+            if (result.isDone()) {
+                return; // Cancelled before it started
+            }
+            try {
+                result.complete(work.call());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Stops accepting calls and waits a few seconds for running ones, such as a checkout being saved.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LOGGER.warn("Service calls still running after {} s; shutting down anyway.", SHUTDOWN_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package util;
 
+import java.math.BigDecimal;
 import java.text.NumberFormat;
 import java.util.Locale;
 
@@ -13,6 +14,15 @@ public class CurrencyFormatter {
      * @return A formatted currency string.
      */
     public static String format(int priceInCents) {
-        return CURRENCY_INSTANCE.format(priceInCents / 100.0);
+        return format((long) priceInCents);
+    }
+
+    /**
+     * Formats an amount in cents into a currency string (e.g., $10.50) without going through floating point.
+     * @param amountInCents The amount in cents.
+     * @return A formatted currency string.
+     */
+    public static String format(long amountInCents) {
+        return CURRENCY_INSTANCE.format(BigDecimal.valueOf(amountInCents, 2));
     }
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+package util;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * Helpers for handing work to the JavaFX Application Thread.
+ */
+public final class FxThread {
+
+    private FxThread() {
+    }
+
+    /**
+     * Runs the task on the JavaFX Application Thread: immediately if already on it, otherwise later.
+     * When the JavaFX toolkit is not running (e.g. in tests or headless tools), the task runs inline.
+     */
+    public static void runOnFxThread(Runnable task) {
+        if (Platform.isFxApplicationThread()) {
+            task.run();
+            return;
+        }
+        try {
+            Platform.runLater(task);
+        } catch (IllegalStateException e) {
+            // Toolkit not initialized.
+            task.run();
+        }
+    }
+
+    /**
+     * Hands the outcome of an asynchronous call to the JavaFX Application Thread.
+     * Nothing is delivered if the call was cancelled, e.g. because a newer request replaced it.
+     *
+     * @param request The asynchronous call.
+     * @param onSuccess Receives the result.
+     * @param onFailure Receives the exception the call failed with.
+     */
+    public static <T> void deliver(CompletableFuture<T> request, Consumer<? super T> onSuccess, Consumer<Throwable> onFailure) {
+        request.whenComplete((result, failure) -> {
+            if (request.isCancelled()) {
+                return;
+            }
+            runOnFxThread(() -> {
+                if (failure == null) {
+                    onSuccess.accept(result);
+                } else {
+                    onFailure.accept(failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure);
+                }
+            });
+        });
+    }
+}
@@ -0,0 +1,28 @@
+package util;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Keeps only the latest of a series of requests for the same thing, such as the items of the
+ * category the user clicked last. Starting a new request cancels the one before it, so a slow
+ * answer to an old click can never overwrite the answer to a newer one.
+ *
+ * @param <T> The result type.
+ */
+public class LatestRequest<T> {
+
+    private CompletableFuture<T> current; // Guarded by this
+
+    /**
+     * Cancels the previous request, if it is still pending, and makes this one the latest.
+     *
+     * @return The given request.
+     */
+    public synchronized CompletableFuture<T> replace(CompletableFuture<T> request) {
+        if (current != null) {
+            current.cancel(false);
+        }
+        current = request;
+        return request;
+    }
+}
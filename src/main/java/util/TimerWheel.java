@@ -0,0 +1,144 @@
+package util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A hashed timer wheel for large numbers of short-lived timeouts, such as stock holds.
+ * Scheduling and cancelling are O(1) and lock-free for callers; a single daemon thread
+ * advances the wheel one tick at a time and runs the tasks that are due.
+ * Timeouts fire at tick granularity, never early, and at most one tick late.
+ *
+ * <p>Tasks run on the wheel's thread and must be short; anything slow should be handed off.
+ */
+public class TimerWheel implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TimerWheel.class);
+
+    private final long tickMillis;
+    private final List<ArrayDeque<Timeout>> buckets;
+    private final ConcurrentLinkedQueue<Timeout> newTimeouts = new ConcurrentLinkedQueue<>();
+    private final Thread worker;
+    private final long startNanos = System.nanoTime();
+    private volatile boolean running = true;
+    private long tick; // Only touched by the worker thread
+
+    /**
+     * @param tickMillis The duration of one tick, which is the timing resolution.
+     * @param wheelSize The number of buckets; a full turn of the wheel spans {@code tickMillis * wheelSize}.
+     * @param name The name of the worker thread.
+     */
+    public TimerWheel(long tickMillis, int wheelSize, String name) {
+        this.tickMillis = tickMillis;
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new ArrayDeque<>());
+        }
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Schedules a task to run once after the given delay.
+     *
+     * @return A handle that can cancel the task before it runs.
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        long deadlineMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) + unit.toMillis(delay);
+        Timeout timeout = new Timeout(task, deadlineMillis);
+        newTimeouts.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Stops the wheel. Pending tasks are discarded without running.
+     */
+    @Override
+    public void close() {
+        running = false;
+        worker.interrupt();
+    }
+
+    private void run() {
+        while (running) {
+            long nextTickMillis = (tick + 1) * tickMillis;
+            long sleepMillis = nextTickMillis - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            if (sleepMillis > 0) {
+                try {
+                    Thread.sleep(sleepMillis);
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+            tick++;
+            transferNewTimeouts();
+            expire(buckets.get((int) (tick % buckets.size())));
+        }
+    }
+
+    private void transferNewTimeouts() {
+        Timeout timeout;
+        while ((timeout = newTimeouts.poll()) != null) {
+            if (timeout.cancelled) {
+                continue;
+            }
+            // Round up so a timeout never fires before its deadline.
+            long dueTick = Math.max(tick, (timeout.deadlineMillis + tickMillis - 1) / tickMillis);
+            timeout.remainingRounds = (dueTick - tick) / buckets.size();
+            buckets.get((int) (dueTick % buckets.size())).add(timeout);
+        }
+    }
+
+    private void expire(ArrayDeque<Timeout> bucket) {
+        Iterator<Timeout> iterator = bucket.iterator();
+        while (iterator.hasNext()) {
+            Timeout timeout = iterator.next();
+            if (timeout.cancelled) {
+                iterator.remove();
+            } else if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+            } else {
+                iterator.remove();
+                try {
+                    timeout.task.run();
+                } catch (RuntimeException e) {
+                    LOGGER.error("Timer task failed.", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * A scheduled task that has not run yet.
+     */
+    public static final class Timeout {
+        private final Runnable task;
+        private final long deadlineMillis;
+        private volatile boolean cancelled;
+        private long remainingRounds;
+
+        private Timeout(Runnable task, long deadlineMillis) {
+            this.task = task;
+            this.deadlineMillis = deadlineMillis;
+        }
+
+        /**
+         * Prevents the task from running if it has not run yet. The bucket slot is reclaimed lazily.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package app;
+
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class StartupPipelineTest {
+
+    private StartupPipeline pipeline;
+
+    @BeforeAll
+    void printHeader() {
+        System.out.println("====================================================================");
+        System.out.println("FILE TESTING: StartupPipelineTest.java");
+        System.out.println("PURPOSE: Tests ordering, failure handling and timing of startup stages.");
+        System.out.println("--------------------------------------------------------------------");
+    }
+
+    @AfterAll
+    void printFooter() {
+        System.out.println("====================================================================\n");
+    }
+
+    @AfterEach
+    void reportTestResult(TestInfo testInfo) {
+        System.out.println("  - " + testInfo.getDisplayName() + " - PASSED");
+    }
+
+    @BeforeEach
+    void setUp() {
+        pipeline = new StartupPipeline();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.close();
+    }
+
+    @Test
+    @DisplayName("1. testIndependentStagesRunConcurrently()")
+    void testIndependentStagesRunConcurrently() {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        CompletableFuture<Boolean> first = pipeline.stage("first", () -> {
+            bothStarted.countDown();
+            return bothStarted.await(5, TimeUnit.SECONDS);
+        });
+        CompletableFuture<Boolean> second = pipeline.stage("second", () -> {
+            bothStarted.countDown();
+            return bothStarted.await(5, TimeUnit.SECONDS);
+        });
+
+        assertTrue(first.join(), "Each stage should see the other one running at the same time.");
+        assertTrue(second.join());
+    }
+
+    @Test
+    @DisplayName("2. testDependentStageWaitsAndIsSkippedOnFailure()")
+    void testDependentStageWaitsAndIsSkippedOnFailure() {
+        CompletableFuture<Integer> data = pipeline.stage("data", () -> 21);
+        CompletableFuture<Integer> view = pipeline.stage("view", () -> data.join() * 2, data);
+        assertEquals(42, view.join());
+
+        AtomicBoolean ran = new AtomicBoolean();
+        CompletableFuture<Void> broken = pipeline.stage("broken", () -> {
+            throw new IllegalStateException("menu.json missing");
+        });
+        CompletableFuture<Void> dependent = pipeline.stage("dependent", () -> {
+            ran.set(true);
+            return null;
+        }, broken);
+
+        CompletionException failure = assertThrows(CompletionException.class, dependent::join);
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+        assertFalse(ran.get(), "A stage must not run when a stage it depends on failed.");
+    }
+
+    @Test
+    @DisplayName("3. testReportListsStagesAndMarks()")
+    void testReportListsStagesAndMarks() {
+        pipeline.stage("reference data", () -> null);
+        pipeline.stage("broken", () -> {
+            throw new Exception("boom");
+        });
+        pipeline.mark("login screen shown");
+        pipeline.whenAllDone().join();
+
+        String report = pipeline.report();
+        assertTrue(report.contains("reference data"));
+        assertTrue(report.contains("broken") && report.contains("(failed)"));
+        assertTrue(report.contains("login screen shown"));
+    }
+}
@@ -0,0 +1,73 @@
+package benchmark;
+
+import model.entity.CartItem;
+import model.entity.Discount;
+import model.entity.Item;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import service.discount.DiscountRuleEngine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures pricing large carts against hundreds of active promotions of every kind.
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=benchmark.DiscountRuleEngineBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiscountRuleEngineBenchmark {
+
+    private static final int MENU_SIZE = 1_000;
+    private static final int CATEGORIES = 20;
+
+    @Param({"100", "500"})
+    private int rules;
+
+    @Param({"10", "200"})
+    private int cartLines;
+
+    private DiscountRuleEngine engine;
+    private List<CartItem> cart;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        Discount.Scope[] scopes = {Discount.Scope.ITEM, Discount.Scope.CATEGORY, Discount.Scope.BUY_X_GET_Y, Discount.Scope.COMBO};
+        List<Discount> discounts = new ArrayList<>();
+        for (int id = 1; id <= rules; id++) {
+            Discount.Scope scope = scopes[id % scopes.length];
+            int target = scope == Discount.Scope.CATEGORY ? random.nextInt(CATEGORIES) : random.nextInt(MENU_SIZE);
+            List<Integer> combo = scope == Discount.Scope.COMBO
+                    ? List.of(random.nextInt(MENU_SIZE), random.nextInt(MENU_SIZE), random.nextInt(MENU_SIZE))
+                    : null;
+            discounts.add(new Discount(id, "Promo " + id, 1 + random.nextInt(30), random.nextBoolean(), true,
+                    scope, target, 1 + random.nextInt(3), 1, combo, random.nextBoolean()));
+        }
+        engine = DiscountRuleEngine.compile(discounts);
+
+        cart = new ArrayList<>();
+        for (int i = 0; i < cartLines; i++) {
+            Item item = new Item(i * (MENU_SIZE / cartLines), "Item " + i, 100 + random.nextInt(900), 100, random.nextInt(CATEGORIES));
+            cart.add(new CartItem(item, 1 + random.nextInt(4)));
+        }
+        cart = List.copyOf(cart);
+    }
+
+    @Benchmark
+    public long evaluate() {
+        return engine.evaluate(cart);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(DiscountRuleEngineBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,46 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import service.order.MoneyEngine;
+
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures pricing a typical cart with each tax rounding policy.
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=benchmark.MoneyEngineBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyEngineBenchmark {
+
+    @Param({"PER_ORDER", "PER_LINE"})
+    private MoneyEngine.TaxRounding taxRounding;
+
+    private MoneyEngine engine;
+    private final int[] prices = {250, 450, 325, 199, 600, 275, 410, 150};
+    private final int[] quantities = {2, 1, 3, 1, 1, 2, 1, 4};
+    private final long[] result = new long[MoneyEngine.RESULT_LENGTH];
+
+    @Setup
+    public void setUp() {
+        engine = new MoneyEngine(700, RoundingMode.HALF_UP, taxRounding);
+    }
+
+    @Benchmark
+    public long priceOrder() {
+        engine.priceOrder(prices, quantities, prices.length, 275, result);
+        return result[MoneyEngine.TOTAL];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MoneyEngineBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,176 @@
+package repo;
+
+import model.dto.CheckoutRecord;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CheckoutJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path journalPath;
+
+    @BeforeAll
+    void printHeader() {
+        System.out.println("====================================================================");
+        System.out.println("FILE TESTING: CheckoutJournalTest.java");
+        System.out.println("PURPOSE: Tests durability, recovery and compaction of the local checkout journal.");
+        System.out.println("--------------------------------------------------------------------");
+    }
+
+    @AfterAll
+    void printFooter() {
+        System.out.println("====================================================================\n");
+    }
+
+    @AfterEach
+    void reportTestResult(TestInfo testInfo) {
+        System.out.println("  - " + testInfo.getDisplayName() + " - PASSED");
+    }
+
+    @BeforeEach
+    void setUp(TestInfo testInfo) {
+        journalPath = tempDir.resolve(testInfo.getTestMethod().orElseThrow().getName()).resolve("checkout.journal");
+    }
+
+    private CheckoutRecord checkout(String customerName) {
+        return new CheckoutRecord(customerName, 7, LocalDateTime.of(2024, 3, 1, 12, 30), customerName.getBytes(), Map.of(1, 2));
+    }
+
+    @Test
+    @DisplayName("1. testUnappliedEntriesSurviveReopen()")
+    void testUnappliedEntriesSurviveReopen() throws Exception {
+        try (CheckoutJournal journal = new CheckoutJournal(journalPath, "till-1")) {
+            CheckoutRecord first = journal.append(checkout("Ana"));
+            CheckoutRecord second = journal.append(checkout("Bruno"));
+            assertEquals("till-1", first.getJournalTerminalId());
+            assertTrue(second.getJournalSequence() > first.getJournalSequence());
+        }
+
+        try (CheckoutJournal reopened = new CheckoutJournal(journalPath, "till-1")) {
+            List<CheckoutRecord> recovered = reopened.awaitUnapplied(10, 0);
+            assertEquals(2, recovered.size());
+            assertEquals("Ana", recovered.get(0).getCustomerName());
+            assertEquals(7, recovered.get(0).getEmployeeId());
+            assertEquals(LocalDateTime.of(2024, 3, 1, 12, 30), recovered.get(0).getUploadDate());
+            assertArrayEquals("Ana".getBytes(), recovered.get(0).getFileData());
+            assertEquals(Map.of(1, 2), recovered.get(0).getInventoryDecrements());
+            assertEquals("Bruno", recovered.get(1).getCustomerName());
+        }
+    }
+
+    @Test
+    @DisplayName("2. testAppliedEntriesAreNotReplayedAndJournalIsCompacted()")
+    void testAppliedEntriesAreNotReplayedAndJournalIsCompacted() throws Exception {
+        long lastSequence;
+        try (CheckoutJournal journal = new CheckoutJournal(journalPath, "till-1")) {
+            journal.append(checkout("Ana"));
+            lastSequence = journal.append(checkout("Bruno")).getJournalSequence();
+            journal.markApplied(lastSequence);
+
+            assertEquals(0, journal.getPendingCount());
+            assertEquals(0, journal.getSizeBytes(), "A fully applied journal should be truncated.");
+        }
+
+        try (CheckoutJournal reopened = new CheckoutJournal(journalPath, "till-1")) {
+            assertEquals(0, reopened.getPendingCount());
+            CheckoutRecord next = reopened.append(checkout("Carla"));
+            assertTrue(next.getJournalSequence() > lastSequence, "Sequences must keep increasing across restarts.");
+        }
+    }
+
+    @Test
+    @DisplayName("3. testTornTailIsDiscardedOnRecovery()")
+    void testTornTailIsDiscardedOnRecovery() throws Exception {
+        long intact;
+        try (CheckoutJournal journal = new CheckoutJournal(journalPath, "till-1")) {
+            journal.append(checkout("Ana"));
+            intact = journal.getSizeBytes();
+        }
+        // Simulates a crash in the middle of writing the next entry.
+        Files.write(journalPath, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        try (CheckoutJournal reopened = new CheckoutJournal(journalPath, "till-1")) {
+            assertEquals(1, reopened.getPendingCount());
+            assertEquals(intact, reopened.getSizeBytes());
+        }
+    }
+
+    @Test
+    @DisplayName("4. testSequencesAreNotReusedWhenTheMarkerIsLost()")
+    void testSequencesAreNotReusedWhenTheMarkerIsLost() throws Exception {
+        long lastSequence;
+        try (CheckoutJournal journal = new CheckoutJournal(journalPath, "till-1")) {
+            lastSequence = journal.append(checkout("Ana")).getJournalSequence();
+            journal.markApplied(lastSequence);
+        }
+        Files.writeString(journalPath.resolveSibling("checkout.journal.applied"), "garbage");
+
+        try (CheckoutJournal reopened = new CheckoutJournal(journalPath, "till-1")) {
+            assertTrue(reopened.append(checkout("Bruno")).getJournalSequence() > lastSequence,
+                    "The header must keep sequences increasing even without the marker.");
+            reopened.advanceSequencePast(500);
+            assertEquals(501, reopened.append(checkout("Carla")).getJournalSequence());
+        }
+    }
+
+    @Test
+    @DisplayName("5. testFullJournalRefusesAppends()")
+    void testFullJournalRefusesAppends() throws Exception {
+        try (CheckoutJournal journal = new CheckoutJournal(journalPath, "till-1", 1)) {
+            journal.append(checkout("Ana"));
+            assertThrows(IOException.class, () -> journal.append(checkout("Bruno")));
+            assertEquals(1, journal.getPendingCount());
+        }
+    }
+
+    @Test
+    @DisplayName("6. testSoldHoldsStayPendingUntilApplied()")
+    void testSoldHoldsStayPendingUntilApplied() throws Exception {
+        CheckoutRecord withHolds = new CheckoutRecord("Ana", 7, LocalDateTime.of(2024, 3, 1, 12, 30), "Ana".getBytes(),
+                Map.of(1, 2), List.of(41L, 42L));
+        try (CheckoutJournal journal = new CheckoutJournal(journalPath, "till-1")) {
+            journal.append(withHolds);
+            journal.append(checkout("Bruno"));
+        }
+
+        try (CheckoutJournal reopened = new CheckoutJournal(journalPath, "till-1")) {
+            List<CheckoutRecord> recovered = reopened.awaitUnapplied(10, 0);
+            assertEquals(List.of(41L, 42L), recovered.get(0).getSettledHoldIds());
+            assertEquals(List.of(), recovered.get(1).getSettledHoldIds());
+            assertEquals(List.of(41L, 42L), reopened.getPendingHoldIds());
+
+            reopened.markApplied(recovered.get(0).getJournalSequence());
+            assertEquals(List.of(), reopened.getPendingHoldIds(), "Applied checkouts have already deleted their holds.");
+        }
+    }
+
+    @Test
+    @DisplayName("7. testDiscardedJournalStaysWithoutHistory()")
+    void testDiscardedJournalStaysWithoutHistory() throws Exception {
+        CheckoutJournal created = new CheckoutJournal(journalPath, "till-1");
+        assertTrue(created.isWithoutHistory());
+        created.discard();
+        assertFalse(Files.exists(journalPath));
+
+        try (CheckoutJournal reopened = new CheckoutJournal(journalPath, "till-1")) {
+            assertTrue(reopened.isWithoutHistory(), "A discarded journal must not look like it knows its sequences.");
+            reopened.append(checkout("Ana"));
+        }
+        try (CheckoutJournal reopened = new CheckoutJournal(journalPath, "till-1")) {
+            assertFalse(reopened.isWithoutHistory());
+        }
+    }
+}
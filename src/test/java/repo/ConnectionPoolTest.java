@@ -0,0 +1,111 @@
+package repo;
+
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ConnectionPoolTest {
+
+    private ConnectionPool pool;
+    private List<Connection> physicalConnections;
+
+    @BeforeAll
+    void printHeader() {
+        System.out.println("====================================================================");
+        System.out.println("FILE TESTING: ConnectionPoolTest.java");
+        System.out.println("PURPOSE: Tests connection reuse, validation and limits of the JDBC pool.");
+        System.out.println("--------------------------------------------------------------------");
+    }
+
+    @AfterAll
+    void printFooter() {
+        System.out.println("====================================================================\n");
+    }
+
+    @AfterEach
+    void reportTestResult(TestInfo testInfo) {
+        System.out.println("  - " + testInfo.getDisplayName() + " - PASSED");
+    }
+
+    @BeforeEach
+    void setUp() {
+        physicalConnections = new ArrayList<>();
+        pool = new ConnectionPool(this::newMockConnection, 2, 0, 100, 60_000, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    private Connection newMockConnection() throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(connection.isValid(anyInt())).thenReturn(true);
+        when(connection.getAutoCommit()).thenReturn(true);
+        physicalConnections.add(connection);
+        return connection;
+    }
+
+    @Test
+    @DisplayName("1. testClosedConnectionIsReused()")
+    void testClosedConnectionIsReused() throws Exception {
+        Connection first = pool.borrow();
+        first.close();
+        Connection second = pool.borrow();
+        second.close();
+
+        assertEquals(1, physicalConnections.size(), "Returning a connection should let the next borrower reuse it.");
+        verify(physicalConnections.get(0), never()).close();
+        assertEquals(2, pool.getStats().getBorrowCount());
+        assertEquals(1, pool.getStats().getIdle());
+    }
+
+    @Test
+    @DisplayName("2. testBorrowTimesOutWhenPoolIsExhausted()")
+    void testBorrowTimesOutWhenPoolIsExhausted() throws Exception {
+        Connection first = pool.borrow();
+        Connection second = pool.borrow();
+
+        assertThrows(SQLException.class, () -> pool.borrow(), "A third borrow should time out on a pool of two.");
+        assertEquals(2, pool.getStats().getActive());
+        assertEquals(1, pool.getStats().getTimeoutCount());
+
+        first.close();
+        second.close();
+    }
+
+    @Test
+    @DisplayName("3. testInvalidIdleConnectionIsDiscarded()")
+    void testInvalidIdleConnectionIsDiscarded() throws Exception {
+        Connection first = pool.borrow();
+        first.close();
+        when(physicalConnections.get(0).isValid(anyInt())).thenReturn(false);
+
+        pool.borrow().close();
+
+        assertEquals(2, physicalConnections.size(), "A connection failing validation should be replaced.");
+        verify(physicalConnections.get(0)).close();
+    }
+
+    @Test
+    @DisplayName("4. testUnfinishedTransactionIsRolledBackOnReturn()")
+    void testUnfinishedTransactionIsRolledBackOnReturn() throws Exception {
+        Connection connection = pool.borrow();
+        Connection physical = physicalConnections.get(0);
+        when(physical.getAutoCommit()).thenReturn(false);
+
+        connection.close();
+
+        verify(physical).rollback();
+        verify(physical).setAutoCommit(true);
+        assertThrows(SQLException.class, connection::createStatement, "A returned handle must not be usable.");
+    }
+}
@@ -0,0 +1,89 @@
+package repo;
+
+import model.entity.Item;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReferenceDataSnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path snapshotPath;
+
+    @BeforeAll
+    void printHeader() {
+        System.out.println("====================================================================");
+        System.out.println("FILE TESTING: ReferenceDataSnapshotTest.java");
+        System.out.println("PURPOSE: Tests building, loading and invalidating the binary reference data snapshot.");
+        System.out.println("--------------------------------------------------------------------");
+    }
+
+    @AfterAll
+    void printFooter() {
+        System.out.println("====================================================================\n");
+    }
+
+    @AfterEach
+    void reportTestResult(TestInfo testInfo) {
+        System.out.println("  - " + testInfo.getDisplayName() + " - PASSED");
+    }
+
+    @BeforeEach
+    void setUp(TestInfo testInfo) {
+        snapshotPath = tempDir.resolve(testInfo.getTestMethod().orElseThrow().getName() + ".snapshot");
+    }
+
+    @Test
+    @DisplayName("1. testSecondStartLoadsTheSameDataFromSnapshot()")
+    void testSecondStartLoadsTheSameDataFromSnapshot() throws Exception {
+        ReferenceDataSnapshot firstStart = ReferenceDataSnapshot.loadOrBuild(snapshotPath);
+        assertFalse(firstStart.isFromSnapshot(), "The first start has no snapshot yet.");
+        assertTrue(Files.exists(snapshotPath));
+
+        ReferenceDataSnapshot secondStart = ReferenceDataSnapshot.loadOrBuild(snapshotPath);
+        assertTrue(secondStart.isFromSnapshot());
+        assertEquals(firstStart.getCategories().size(), secondStart.getCategories().size());
+        assertEquals(firstStart.getDiscounts().get(0).getName(), secondStart.getDiscounts().get(0).getName());
+        assertEquals(firstStart.getDiscounts().get(0).isPercentage(), secondStart.getDiscounts().get(0).isPercentage());
+        for (int i = 0; i < firstStart.getItems().size(); i++) {
+            Item expected = firstStart.getItems().get(i);
+            Item actual = secondStart.getItems().get(i);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getName(), actual.getName());
+            assertEquals(expected.getPrice(), actual.getPrice());
+            assertEquals(expected.getInventory(), actual.getInventory());
+            assertEquals(expected.getCategoryId(), actual.getCategoryId());
+        }
+    }
+
+    @Test
+    @DisplayName("2. testStaleSnapshotFallsBackToJson()")
+    void testStaleSnapshotFallsBackToJson() throws Exception {
+        long currentChecksum = ReferenceDataSnapshot.sourceChecksum();
+        ReferenceDataSnapshot.fromJson().write(snapshotPath, currentChecksum + 1);
+
+        assertNull(ReferenceDataSnapshot.read(snapshotPath, currentChecksum), "A snapshot built from other JSON is stale.");
+        assertFalse(ReferenceDataSnapshot.loadOrBuild(snapshotPath).isFromSnapshot());
+        assertNotNull(ReferenceDataSnapshot.read(snapshotPath, currentChecksum), "The stale snapshot should have been rebuilt.");
+    }
+
+    @Test
+    @DisplayName("3. testDamagedSnapshotFallsBackToJson()")
+    void testDamagedSnapshotFallsBackToJson() throws Exception {
+        ReferenceDataSnapshot.loadOrBuild(snapshotPath);
+        byte[] bytes = Files.readAllBytes(snapshotPath);
+        bytes[bytes.length - 8] ^= 0x5A;
+        Files.write(snapshotPath, bytes);
+
+        ReferenceDataSnapshot reloaded = ReferenceDataSnapshot.loadOrBuild(snapshotPath);
+        assertFalse(reloaded.isFromSnapshot());
+        assertFalse(reloaded.getItems().isEmpty());
+    }
+}
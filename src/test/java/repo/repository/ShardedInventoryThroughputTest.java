@@ -0,0 +1,108 @@
+package repo.repository;
+
+import org.junit.jupiter.api.*;
+import repo.DBConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures checkout throughput on one hot item as the number of concurrent terminals grows,
+ * with the stock in a single row and split across shards. Each terminal decrements the item
+ * in its own transaction, as a checkout does.
+ *
+ * <p>Run against a scratch database: it rewrites the stock of {@code benchmark.itemId} (default 1)
+ * and leaves the item sharded afterwards.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ShardedInventoryThroughputTest {
+
+    private static final int ITEM_ID = Integer.getInteger("benchmark.itemId", 1);
+    private static final int SHARDS = 8;
+    private static final long RUN_MILLIS = 5_000;
+    private static final int[] TERMINALS = {1, 2, 4, 8, 16};
+
+    @BeforeAll
+    void printHeader() {
+        System.out.println("====================================================================");
+        System.out.println("FILE TESTING: ShardedInventoryThroughputTest.java");
+        System.out.println("PURPOSE: Compares checkout throughput on a hot item with and without inventory shards.");
+        System.out.println("--------------------------------------------------------------------");
+    }
+
+    @AfterAll
+    void printFooter() {
+        DBConnection.shutdown();
+        System.out.println("====================================================================\n");
+    }
+
+    @Test
+    @Disabled("This is a benchmark and requires a running database. Enable it to measure shard throughput.")
+    @DisplayName("1. benchmarkHotItemDecrements()")
+    void benchmarkHotItemDecrements() throws Exception {
+        resetStock();
+        MenuRepository singleRow = new MenuRepository();
+        System.out.println("  Single row:");
+        for (int terminals : TERMINALS) {
+            report(terminals, run(terminals, terminal -> singleRow.tryDecrementInventory(ITEM_ID, 1)));
+        }
+
+        resetStock();
+        new ShardedInventoryRepository("setup", SHARDS).shardItem(ITEM_ID, SHARDS);
+        System.out.println("  " + SHARDS + " shards:");
+        for (int terminals : TERMINALS) {
+            ShardedInventoryRepository[] perTerminal = new ShardedInventoryRepository[terminals];
+            for (int i = 0; i < terminals; i++) {
+                perTerminal[i] = new ShardedInventoryRepository("terminal-" + i, SHARDS);
+            }
+            report(terminals, run(terminals, terminal -> perTerminal[terminal].tryDecrement(ITEM_ID, 1)));
+        }
+    }
+
+    private interface Checkout {
+        boolean run(int terminal) throws Exception;
+    }
+
+    private long run(int terminals, Checkout checkout) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(terminals);
+        CountDownLatch start = new CountDownLatch(1);
+        LongAdder completed = new LongAdder();
+        long deadline = System.currentTimeMillis() + RUN_MILLIS;
+        for (int i = 0; i < terminals; i++) {
+            int terminal = i;
+            pool.submit(() -> {
+                start.await();
+                while (System.currentTimeMillis() < deadline) {
+                    if (checkout.run(terminal)) {
+                        completed.increment();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        pool.awaitTermination(RUN_MILLIS * 2, TimeUnit.MILLISECONDS);
+        return completed.sum();
+    }
+
+    private void report(int terminals, long completed) {
+        System.out.printf("    %2d terminals: %8.1f checkouts/s%n", terminals, completed * 1000.0 / RUN_MILLIS);
+    }
+
+    private void resetStock() throws Exception {
+        try (Connection conn = DBConnection.dbConnection();
+             PreparedStatement clearShards = conn.prepareStatement("DELETE FROM item_inventory_shards WHERE item_id = ?");
+             PreparedStatement refill = conn.prepareStatement("UPDATE items SET inventory = 100000000 WHERE id = ?")) {
+            clearShards.setInt(1, ITEM_ID);
+            clearShards.executeUpdate();
+            refill.setInt(1, ITEM_ID);
+            refill.executeUpdate();
+        }
+    }
+}
@@ -4,6 +4,7 @@ import model.dto.UserSessionInfo;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mindrot.jbcrypt.BCrypt;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import repo.repository.AuthRepository;
@@ -81,4 +82,53 @@ class DBAuthServiceTest {
         // Verify that the repository was never called for an empty username
         verify(mockAuthRepository, never()).findUserByUsername(anyString());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("4. testSuccessfulLoginRehashesToConfiguredCost()")
+    void testSuccessfulLoginRehashesToConfiguredCost() throws Exception {
+        try (PasswordHasher hasher = new PasswordHasher(5, 1, 4)) {
+            DBAuthService service = new DBAuthService(mockAuthRepository, hasher, new LoginRateLimiter(5, 30_000));
+            String oldHash = BCrypt.hashpw(testPassword, BCrypt.gensalt(4));
+            when(mockAuthRepository.findUserByUsername(testUser)).thenReturn(Optional.of(new UserSessionInfo(1, "Test User", oldHash, false)));
+
+            assertTrue(service.authenticate(testUser, testPassword));
+
+            ArgumentCaptor<String> newHash = ArgumentCaptor.forClass(String.class);
+            verify(mockAuthRepository).updatePasswordHash(eq(1), newHash.capture());
+            assertEquals(5, PasswordHasher.costOf(newHash.getValue()));
+            assertTrue(BCrypt.checkpw(testPassword, newHash.getValue()));
+
+            assertFalse(service.authenticate(testUser, "wrongpassword"));
+            verifyNoMoreInteractions(ignoreStubs(mockAuthRepository));
+        }
+    }
+
+    @Test
+    @DisplayName("5. testTooManyAttemptsAreRefused()")
+    void testTooManyAttemptsAreRefused() throws Exception {
+        try (PasswordHasher hasher = new PasswordHasher(5, 1, 4)) {
+            DBAuthService service = new DBAuthService(mockAuthRepository, hasher, new LoginRateLimiter(2, 30_000));
+            when(mockAuthRepository.findUserByUsername(testUser)).thenReturn(Optional.empty());
+
+            assertFalse(service.authenticate(testUser, "guess1"));
+            assertFalse(service.authenticate(testUser, "guess2"));
+            assertThrows(Exception.class, () -> service.authenticate(testUser, "guess3"));
+            verify(mockAuthRepository, times(2)).findUserByUsername(testUser);
+        }
+    }
+
+    @Test
+    @DisplayName("6. testSuccessfulLoginsDoNotUseUpAttempts()")
+    void testSuccessfulLoginsDoNotUseUpAttempts() throws Exception {
+        try (PasswordHasher hasher = new PasswordHasher(4, 1, 4)) {
+            DBAuthService service = new DBAuthService(mockAuthRepository, hasher, new LoginRateLimiter(2, 30_000));
+            String hash = BCrypt.hashpw(testPassword, BCrypt.gensalt(4));
+            when(mockAuthRepository.findUserByUsername(testUser)).thenReturn(Optional.of(new UserSessionInfo(1, "Test User", hash, false)));
+
+            assertFalse(service.authenticate(testUser, "wrongpassword"));
+            for (int i = 0; i < 5; i++) {
+                assertTrue(service.authenticate(testUser, testPassword), "Logging in and out all shift must not lock the employee out.");
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package service.auth;
+
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class LoginRateLimiterTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    @BeforeAll
+    void printHeader() {
+        System.out.println("====================================================================");
+        System.out.println("FILE TESTING: LoginRateLimiterTest.java");
+        System.out.println("PURPOSE: Tests the per-username token bucket for login attempts.");
+        System.out.println("--------------------------------------------------------------------");
+    }
+
+    @AfterAll
+    void printFooter() {
+        System.out.println("====================================================================\n");
+    }
+
+    @AfterEach
+    void reportTestResult(TestInfo testInfo) {
+        System.out.println("  - " + testInfo.getDisplayName() + " - PASSED");
+    }
+
+    private void advanceSeconds(long seconds) {
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+
+    @Test
+    @DisplayName("1. testBurstThenRefill()")
+    void testBurstThenRefill() {
+        LoginRateLimiter limiter = new LoginRateLimiter(3, 30_000, nanos::get);
+
+        assertTrue(limiter.tryAcquire("alice"));
+        assertTrue(limiter.tryAcquire("alice"));
+        assertTrue(limiter.tryAcquire("alice"));
+        assertFalse(limiter.tryAcquire("alice"), "The burst is used up.");
+
+        advanceSeconds(29);
+        assertFalse(limiter.tryAcquire("alice"), "No attempt is regained before the refill interval.");
+        advanceSeconds(1);
+        assertTrue(limiter.tryAcquire("alice"));
+        assertFalse(limiter.tryAcquire("alice"));
+
+        advanceSeconds(600);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire("alice"), "A long pause refills the bucket, but no further than its size.");
+        }
+        assertFalse(limiter.tryAcquire("alice"));
+    }
+
+    @Test
+    @DisplayName("2. testUsernamesHaveSeparateBuckets()")
+    void testUsernamesHaveSeparateBuckets() {
+        LoginRateLimiter limiter = new LoginRateLimiter(1, 30_000, nanos::get);
+
+        assertTrue(limiter.tryAcquire("alice"));
+        assertFalse(limiter.tryAcquire("alice"));
+        for (int i = 0; i < 12; i++) {
+            assertTrue(limiter.tryAcquire("employee" + i), "A shift change of other employees is not throttled.");
+        }
+    }
+
+    @Test
+    @DisplayName("3. testUsernamesAreNormalizedAndResetOnSuccess()")
+    void testUsernamesAreNormalizedAndResetOnSuccess() {
+        LoginRateLimiter limiter = new LoginRateLimiter(2, 30_000, nanos::get);
+
+        assertTrue(limiter.tryAcquire("alice"));
+        assertTrue(limiter.tryAcquire(" Alice "));
+        assertFalse(limiter.tryAcquire("ALICE"), "Case and spaces do not make a new bucket.");
+        assertEquals(30_000, limiter.getWaitMillis("alice"));
+
+        limiter.reset("Alice");
+        assertEquals(0, limiter.getWaitMillis("alice"));
+        assertTrue(limiter.tryAcquire("alice"), "A successful login gives the attempts back.");
+    }
+
+    @Test
+    @DisplayName("4. testTrackedUsernamesAreCapped()")
+    void testTrackedUsernamesAreCapped() {
+        LoginRateLimiter limiter = new LoginRateLimiter(3, 30_000, nanos::get);
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("alice");
+        }
+
+        for (int i = 0; i < 5000; i++) {
+            assertTrue(limiter.tryAcquire("guess" + i));
+        }
+
+        assertTrue(limiter.getTrackedCount() <= 1024, "The map must not grow without limit.");
+        assertFalse(limiter.tryAcquire("alice"), "The most throttled name is the last to be forgotten.");
+    }
+}
@@ -0,0 +1,88 @@
+package service.auth;
+
+import org.junit.jupiter.api.*;
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PasswordHasherTest {
+
+    private PasswordHasher hasher;
+
+    @BeforeAll
+    void printHeader() {
+        System.out.println("====================================================================");
+        System.out.println("FILE TESTING: PasswordHasherTest.java");
+        System.out.println("PURPOSE: Tests BCrypt verification on the bounded pool and cost-factor rehash detection.");
+        System.out.println("--------------------------------------------------------------------");
+    }
+
+    @AfterAll
+    void printFooter() {
+        System.out.println("====================================================================\n");
+    }
+
+    @AfterEach
+    void reportTestResult(TestInfo testInfo) {
+        System.out.println("  - " + testInfo.getDisplayName() + " - PASSED");
+    }
+
+    @BeforeEach
+    void setUp() {
+        hasher = new PasswordHasher(5, 2, 16);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hasher.close();
+    }
+
+    @Test
+    @DisplayName("1. testHashAndVerify()")
+    void testHashAndVerify() throws Exception {
+        String hash = hasher.hash("latte");
+
+        assertEquals(5, PasswordHasher.costOf(hash));
+        assertTrue(hasher.verify("latte", hash));
+        assertFalse(hasher.verify("mocha", hash));
+        assertTrue(hasher.verify("latte", BCrypt.hashpw("latte", BCrypt.gensalt(4))), "Hashes of any cost can be checked.");
+    }
+
+    @Test
+    @DisplayName("2. testNeedsRehashOnCostMismatch()")
+    void testNeedsRehashOnCostMismatch() {
+        assertFalse(hasher.needsRehash(BCrypt.hashpw("latte", BCrypt.gensalt(5))));
+        assertTrue(hasher.needsRehash(BCrypt.hashpw("latte", BCrypt.gensalt(4))));
+        assertTrue(hasher.needsRehash("not a hash"));
+        assertEquals(-1, PasswordHasher.costOf(null));
+    }
+
+    @Test
+    @DisplayName("3. testConcurrentLoginsAreAllAnswered()")
+    void testConcurrentLoginsAreAllAnswered() throws Exception {
+        String hash = hasher.hash("latte");
+        List<CompletableFuture<Boolean>> logins = new ArrayList<>();
+        try (ExecutorService employees = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 12; i++) {
+                String password = i % 2 == 0 ? "latte" : "wrong";
+                logins.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return hasher.verify(password, hash);
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                }, employees));
+            }
+            for (int i = 0; i < logins.size(); i++) {
+                assertEquals(i % 2 == 0, logins.get(i).join());
+            }
+        }
+    }
+}
@@ -4,6 +4,8 @@ import model.entity.CartItem;
 import model.entity.Item;
 import org.junit.jupiter.api.*;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
@@ -78,4 +80,35 @@ class CartServiceTest {
         cartService.clearCart();
         assertTrue(cartService.getCartItems().isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("4. testQuantityUpdateKeepsLineOrder()")
+    void testQuantityUpdateKeepsLineOrder() {
+        cartService.addItem(item1, 1);
+        cartService.addItem(item2, 1);
+        List<CartItem> before = cartService.getCartItems();
+
+        cartService.addItem(item1, 2);
+        List<CartItem> after = cartService.getCartItems();
+
+        assertEquals(1, after.get(0).getItem().getId(), "Updating a quantity should not move the line to the end.");
+        assertEquals(3, after.get(0).getQuantity());
+        assertEquals(1, before.get(0).getQuantity(), "An earlier snapshot must not see later changes.");
+        assertThrows(UnsupportedOperationException.class, () -> after.add(new CartItem(item2, 1)));
+    }
+
+    @Test
+    @DisplayName("5. testSnapshotIsReusedUntilTheCartChanges()")
+    void testSnapshotIsReusedUntilTheCartChanges() {
+        cartService.addItem(item1, 1);
+        long version = cartService.getVersion();
+        List<CartItem> snapshot = cartService.getCartItems();
+
+        assertSame(snapshot, cartService.getCartItems());
+        assertEquals(version, cartService.getVersion());
+
+        cartService.removeItem(snapshot.get(0));
+        assertNotEquals(version, cartService.getVersion());
+        assertNotSame(snapshot, cartService.getCartItems());
+    }
+}
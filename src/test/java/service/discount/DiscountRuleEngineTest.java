@@ -0,0 +1,162 @@
+package service.discount;
+
+import model.entity.CartItem;
+import model.entity.Discount;
+import model.entity.Item;
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class DiscountRuleEngineTest {
+
+    private final Item coffee = new Item(1, "Coffee", 250, 10, 1);
+    private final Item tea = new Item(2, "Tea", 200, 10, 1);
+    private final Item cake = new Item(3, "Cake", 450, 5, 2);
+
+    @BeforeAll
+    void printHeader() {
+        System.out.println("====================================================================");
+        System.out.println("FILE TESTING: DiscountRuleEngineTest.java");
+        System.out.println("PURPOSE: Tests compiled item, category, buy-X-get-Y, combo and stacking promotions.");
+        System.out.println("--------------------------------------------------------------------");
+    }
+
+    @AfterAll
+    void printFooter() {
+        System.out.println("====================================================================\n");
+    }
+
+    @AfterEach
+    void reportTestResult(TestInfo testInfo) {
+        System.out.println("  - " + testInfo.getDisplayName() + " - PASSED");
+    }
+
+    private static Discount promotion(int id, Discount.Scope scope, int amount, boolean percentage, int targetId,
+                                      int buy, int get, List<Integer> combo, boolean stackable) {
+        return new Discount(id, "Promo " + id, amount, percentage, true, scope, targetId, buy, get, combo, stackable);
+    }
+
+    @Test
+    @DisplayName("1. testEachRuleKind()")
+    void testEachRuleKind() {
+        List<CartItem> cart = List.of(new CartItem(coffee, 5), new CartItem(tea, 1), new CartItem(cake, 2));
+
+        DiscountRuleEngine item = DiscountRuleEngine.compile(List.of(promotion(1, Discount.Scope.ITEM, 50, false, 1, 0, 0, null, false)));
+        assertEquals(5 * 50, item.evaluate(cart));
+
+        DiscountRuleEngine category = DiscountRuleEngine.compile(List.of(promotion(2, Discount.Scope.CATEGORY, 10, true, 1, 0, 0, null, false)));
+        assertEquals(5 * 25 + 20, category.evaluate(cart), "10% off every drink.");
+
+        DiscountRuleEngine buyTwoGetOne = DiscountRuleEngine.compile(List.of(promotion(3, Discount.Scope.BUY_X_GET_Y, 100, true, 1, 2, 1, null, false)));
+        assertEquals(250, buyTwoGetOne.evaluate(cart), "Five coffees hold one complete 2+1 group.");
+
+        DiscountRuleEngine combo = DiscountRuleEngine.compile(List.of(promotion(4, Discount.Scope.COMBO, 100, false, 0, 0, 0, List.of(1, 3), false)));
+        assertEquals(2 * 100, combo.evaluate(cart), "Two cakes make two coffee-and-cake sets.");
+        assertEquals(0, combo.evaluate(List.of(new CartItem(coffee, 3))), "An incomplete set gets nothing.");
+    }
+
+    @Test
+    @DisplayName("2. testStackingAndBestPrice()")
+    void testStackingAndBestPrice() {
+        List<CartItem> cart = List.of(new CartItem(coffee, 4), new CartItem(cake, 1));
+        Discount stackA = promotion(1, Discount.Scope.ITEM, 20, false, 1, 0, 0, null, true);          // 80
+        Discount stackB = promotion(2, Discount.Scope.CATEGORY, 10, true, 2, 0, 0, null, true);       // 45
+        Discount exclusiveSmall = promotion(3, Discount.Scope.ITEM, 10, true, 1, 0, 0, null, false);  // 100
+        Discount exclusiveLarge = promotion(4, Discount.Scope.BUY_X_GET_Y, 100, true, 1, 3, 1, null, false); // 250
+
+        assertEquals(125, DiscountRuleEngine.compile(List.of(stackA, stackB)).evaluate(cart), "Stackable promotions add up.");
+        assertEquals(125, DiscountRuleEngine.compile(List.of(stackA, stackB, exclusiveSmall)).evaluate(cart),
+                "The stacked sum beats a smaller exclusive promotion.");
+        assertEquals(250, DiscountRuleEngine.compile(List.of(stackA, stackB, exclusiveSmall, exclusiveLarge)).evaluate(cart),
+                "The best exclusive promotion wins when it is larger.");
+    }
+
+    @Test
+    @DisplayName("3. testCompileSkipsOrderAndMalformedDiscounts()")
+    void testCompileSkipsOrderAndMalformedDiscounts() {
+        DiscountRuleEngine engine = DiscountRuleEngine.compile(List.of(
+                new Discount(1, "Employee Discount", 10, true, true),
+                promotion(2, Discount.Scope.BUY_X_GET_Y, 100, true, 1, 0, 1, null, false),
+                promotion(3, Discount.Scope.COMBO, 100, false, 0, 0, 0, null, false),
+                promotion(4, Discount.Scope.ITEM, 150, true, 1, 0, 0, null, false),
+                new Discount(5, "Inactive", 50, false, false, Discount.Scope.ITEM, 1, 0, 0, null, false)));
+
+        assertEquals(0, engine.getRuleCount());
+        assertEquals(0, engine.evaluate(List.of(new CartItem(coffee, 3))));
+    }
+
+    @Test
+    @DisplayName("4. testScratchIsResetBetweenEvaluations()")
+    void testScratchIsResetBetweenEvaluations() {
+        DiscountRuleEngine engine = DiscountRuleEngine.compile(List.of(
+                promotion(1, Discount.Scope.BUY_X_GET_Y, 100, true, 1, 1, 1, null, false),
+                promotion(2, Discount.Scope.COMBO, 50, true, 0, 0, 0, List.of(2, 3), true)));
+
+        assertEquals(250, engine.evaluate(List.of(new CartItem(coffee, 2))));
+        assertEquals(250, engine.evaluate(List.of(new CartItem(coffee, 2))));
+        assertEquals(325, engine.evaluate(List.of(new CartItem(tea, 1), new CartItem(cake, 1))));
+        assertEquals(0, engine.evaluate(List.of(new CartItem(coffee, 1))));
+    }
+
+    @Test
+    @DisplayName("5. testTallyMatchesEvaluateAsLinesChange()")
+    void testTallyMatchesEvaluateAsLinesChange() {
+        Discount stackable = promotion(1, Discount.Scope.ITEM, 20, false, 1, 0, 0, null, true);
+        Discount buyThreeGetOne = promotion(2, Discount.Scope.BUY_X_GET_Y, 100, true, 1, 3, 1, null, false);
+        Discount combo = promotion(3, Discount.Scope.COMBO, 50, false, 0, 0, 0, List.of(2, 3), true);
+        DiscountRuleEngine engine = DiscountRuleEngine.compile(List.of(stackable, buyThreeGetOne, combo));
+        DiscountRuleEngine.Tally tally = engine.newTally();
+
+        CartItem twoCoffees = new CartItem(coffee, 2);
+        CartItem fourCoffees = new CartItem(coffee, 4);
+        CartItem oneTea = new CartItem(tea, 1);
+        CartItem oneCake = new CartItem(cake, 1);
+        tally.add(twoCoffees);
+        tally.add(oneTea);
+        tally.add(oneCake);
+        assertEquals(engine.evaluate(List.of(twoCoffees, oneTea, oneCake)), tally.getValue());
+
+        tally.remove(twoCoffees);
+        tally.add(fourCoffees);
+        assertEquals(250, tally.getValue(), "The free coffee now beats the stacked 80 + 50.");
+        assertEquals(engine.evaluate(List.of(fourCoffees, oneTea, oneCake)), tally.getValue());
+
+        tally.remove(oneCake);
+        tally.remove(fourCoffees);
+        assertEquals(0, tally.getValue());
+    }
+
+    @Test
+    @DisplayName("6. testItemizeListsTheAppliedPromotions()")
+    void testItemizeListsTheAppliedPromotions() {
+        List<CartItem> cart = List.of(new CartItem(coffee, 4), new CartItem(cake, 1));
+        Discount stackA = promotion(1, Discount.Scope.ITEM, 20, false, 1, 0, 0, null, true);
+        Discount stackB = promotion(2, Discount.Scope.CATEGORY, 10, true, 2, 0, 0, null, true);
+        Discount exclusiveLarge = promotion(4, Discount.Scope.BUY_X_GET_Y, 100, true, 1, 3, 1, null, false);
+
+        assertEquals(Map.of(stackA, 80L, stackB, 45L), DiscountRuleEngine.compile(List.of(stackA, stackB)).itemize(cart));
+        assertEquals(Map.of(exclusiveLarge, 250L), DiscountRuleEngine.compile(List.of(stackA, stackB, exclusiveLarge)).itemize(cart));
+    }
+
+    @Test
+    @DisplayName("7. testStackedItemAndCategoryDiscountsStopAtTheLinePrice()")
+    void testStackedItemAndCategoryDiscountsStopAtTheLinePrice() {
+        List<CartItem> cart = List.of(new CartItem(coffee, 2));
+        Discount itemOff = promotion(1, Discount.Scope.ITEM, 200, false, 1, 0, 0, null, true);        // 200 of 250 per coffee
+        Discount drinksHalfOff = promotion(2, Discount.Scope.CATEGORY, 50, true, 1, 0, 0, null, true); // 125, only 50 left
+        DiscountRuleEngine engine = DiscountRuleEngine.compile(List.of(itemOff, drinksHalfOff));
+
+        assertEquals(2 * 250, engine.evaluate(cart), "Two coffees cannot be discounted below free.");
+        assertEquals(Map.of(itemOff, 400L, drinksHalfOff, 100L), engine.itemize(cart));
+
+        DiscountRuleEngine.Tally tally = engine.newTally();
+        tally.add(cart.get(0));
+        assertEquals(2 * 250, tally.getValue());
+        tally.remove(cart.get(0));
+        assertEquals(0, tally.getValue());
+    }
+}
@@ -0,0 +1,94 @@
+package service.discount;
+
+import model.entity.Discount;
+import model.entity.DiscountSchedule;
+import org.junit.jupiter.api.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class DiscountScheduleIndexTest {
+
+    // 2026-10-19 is a Monday.
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2026, 10, 19, 0, 0);
+
+    private final Discount always = new Discount(1, "Employee Discount", 10, true, true);
+    private final Discount happyHour = scheduled(2, "Happy Hour",
+            new DiscountSchedule(Set.of(DayOfWeek.MONDAY, DayOfWeek.TUESDAY), LocalTime.of(15, 0), LocalTime.of(17, 0), null, null));
+    private final Discount lateNight = scheduled(3, "Late Night",
+            new DiscountSchedule(Set.of(DayOfWeek.SUNDAY), LocalTime.of(22, 0), LocalTime.of(2, 0), null, null));
+
+    @BeforeAll
+    void printHeader() {
+        System.out.println("====================================================================");
+        System.out.println("FILE TESTING: DiscountScheduleIndexTest.java");
+        System.out.println("PURPOSE: Tests which discounts apply at each moment of the week and when that changes.");
+        System.out.println("--------------------------------------------------------------------");
+    }
+
+    @AfterAll
+    void printFooter() {
+        System.out.println("====================================================================\n");
+    }
+
+    @AfterEach
+    void reportTestResult(TestInfo testInfo) {
+        System.out.println("  - " + testInfo.getDisplayName() + " - PASSED");
+    }
+
+    private static Discount scheduled(int id, String name, DiscountSchedule schedule) {
+        return new Discount(id, name, 20, true, true, Discount.Scope.ORDER, 0, 0, 0, null, false, schedule);
+    }
+
+    @Test
+    @DisplayName("1. testWindowsOpenAndCloseOnTheirBoundaries()")
+    void testWindowsOpenAndCloseOnTheirBoundaries() {
+        DiscountScheduleIndex index = DiscountScheduleIndex.build(List.of(always, happyHour, lateNight), MONDAY);
+
+        assertEquals(List.of(always), index.activeAt(MONDAY.withHour(14).withMinute(59).withSecond(59)));
+        assertEquals(List.of(always, happyHour), index.activeAt(MONDAY.withHour(15)));
+        assertEquals(List.of(always), index.activeAt(MONDAY.withHour(17)), "The end of a window is exclusive.");
+        assertEquals(List.of(always), index.activeAt(MONDAY.plusDays(2).withHour(16)), "Wednesday has no happy hour.");
+
+        assertSame(index.activeAt(MONDAY.withHour(15)), index.activeAt(MONDAY.withHour(16).withMinute(30)),
+                "A whole segment shares one list.");
+    }
+
+    @Test
+    @DisplayName("2. testWindowPastMidnightWrapsIntoNextWeek()")
+    void testWindowPastMidnightWrapsIntoNextWeek() {
+        DiscountScheduleIndex index = DiscountScheduleIndex.build(List.of(lateNight), MONDAY);
+
+        assertEquals(List.of(lateNight), index.activeAt(MONDAY.plusDays(6).withHour(23)), "Sunday night.");
+        assertEquals(List.of(lateNight), index.activeAt(MONDAY.plusHours(1)), "The window runs into Monday morning.");
+        assertEquals(List.of(), index.activeAt(MONDAY.withHour(2)));
+
+        assertEquals(MONDAY.withHour(2), index.nextTransitionAfter(MONDAY.plusHours(1)));
+        assertEquals(MONDAY.plusDays(6).withHour(22), index.nextTransitionAfter(MONDAY.withHour(2)));
+        assertEquals(MONDAY.plusDays(7).withHour(2), index.nextTransitionAfter(MONDAY.plusDays(6).withHour(23)));
+    }
+
+    @Test
+    @DisplayName("3. testValidityPeriodLimitsTheIndex()")
+    void testValidityPeriodLimitsTheIndex() {
+        Discount launchWeek = scheduled(4, "Launch Week",
+                new DiscountSchedule(null, null, null, MONDAY.plusDays(1), MONDAY.plusDays(8)));
+        Discount inactive = new Discount(5, "Retired", 5, true, false);
+
+        DiscountScheduleIndex beforeLaunch = DiscountScheduleIndex.build(List.of(always, launchWeek, inactive), MONDAY);
+        assertEquals(List.of(always), beforeLaunch.activeAt(MONDAY));
+        assertEquals(MONDAY.plusDays(1), beforeLaunch.nextTransitionAfter(MONDAY));
+        assertFalse(beforeLaunch.covers(MONDAY.plusDays(1)), "The index must be rebuilt once the period starts.");
+
+        DiscountScheduleIndex duringLaunch = DiscountScheduleIndex.build(List.of(always, launchWeek, inactive), MONDAY.plusDays(1));
+        assertEquals(List.of(always, launchWeek), duringLaunch.activeAt(MONDAY.plusDays(3)));
+        assertEquals(MONDAY.plusDays(8), duringLaunch.nextTransitionAfter(MONDAY.plusDays(3)));
+        assertNull(DiscountScheduleIndex.build(List.of(always), MONDAY).nextTransitionAfter(MONDAY), "Unscheduled discounts never change.");
+    }
+}
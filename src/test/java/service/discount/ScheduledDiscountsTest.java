@@ -0,0 +1,94 @@
+package service.discount;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import model.entity.Discount;
+import model.entity.DiscountSchedule;
+import org.junit.jupiter.api.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ScheduledDiscountsTest {
+
+    @BeforeAll
+    void printHeader() {
+        System.out.println("====================================================================");
+        System.out.println("FILE TESTING: ScheduledDiscountsTest.java");
+        System.out.println("PURPOSE: Tests that scheduled discounts switch on at their window boundary.");
+        System.out.println("--------------------------------------------------------------------");
+    }
+
+    @AfterAll
+    void printFooter() {
+        System.out.println("====================================================================\n");
+    }
+
+    @AfterEach
+    void reportTestResult(TestInfo testInfo) {
+        System.out.println("  - " + testInfo.getDisplayName() + " - PASSED");
+    }
+
+    @Test
+    @DisplayName("1. testTransitionFiresAtWindowStart()")
+    void testTransitionFiresAtWindowStart() throws Exception {
+        LocalTime start = LocalTime.now().truncatedTo(ChronoUnit.SECONDS).plusSeconds(2);
+        Discount flashSale = new Discount(7, "Flash Sale", 15, true, true, Discount.Scope.ORDER, 0, 0, 0, null, false,
+                new DiscountSchedule(null, start, start.plusMinutes(30), null, null));
+        CountDownLatch opened = new CountDownLatch(1);
+        AtomicReference<List<Discount>> notified = new AtomicReference<>();
+
+        try (ScheduledDiscounts scheduledDiscounts = new ScheduledDiscounts()) {
+            scheduledDiscounts.setListener(active -> {
+                notified.set(active);
+                opened.countDown();
+            });
+            scheduledDiscounts.setDiscounts(List.of(flashSale));
+            assertTrue(scheduledDiscounts.getActive().isEmpty());
+
+            assertTrue(opened.await(5, TimeUnit.SECONDS), "The listener should be told when the window opens.");
+            assertEquals(List.of(flashSale), notified.get());
+            assertEquals(List.of(flashSale), scheduledDiscounts.getActive());
+            assertFalse(LocalTime.now().isBefore(start), "The transition must not fire before the boundary.");
+        }
+    }
+
+    @Test
+    @DisplayName("2. testScheduleIsReadFromJson()")
+    void testScheduleIsReadFromJson() throws Exception {
+        String json = "{ \"id\": 3, \"name\": \"Breakfast Deal\", \"amount\": 10, \"isPercentage\": true, \"isActive\": true," +
+                " \"schedule\": { \"days\": [\"SATURDAY\", \"SUNDAY\"], \"startTime\": \"07:00\", \"endTime\": \"10:30\" } }";
+
+        Discount discount = new ObjectMapper().readValue(json, Discount.class);
+
+        DiscountSchedule schedule = discount.getSchedule();
+        assertEquals(Discount.Scope.ORDER, discount.getScope());
+        assertEquals(List.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY), List.copyOf(schedule.getDays()));
+        assertEquals(LocalTime.of(7, 0), schedule.getStartTime());
+        assertEquals(3 * 3600 + 1800, schedule.getWindowSeconds());
+        assertNull(schedule.getValidUntil());
+    }
+
+    @Test
+    @DisplayName("3. testReloadingTheSameDiscountsKeepsTheIndex()")
+    void testReloadingTheSameDiscountsKeepsTheIndex() {
+        try (ScheduledDiscounts scheduledDiscounts = new ScheduledDiscounts()) {
+            scheduledDiscounts.setDiscounts(List.of(new Discount(1, "Staff", 10, true, true)));
+            List<Discount> active = scheduledDiscounts.getActive();
+
+            // As read again from the database: new instances on the same terms.
+            scheduledDiscounts.setDiscounts(List.of(new Discount(1, "Staff", 10, true, true)));
+            assertSame(active, scheduledDiscounts.getActive(), "Unchanged discounts must not rebuild the index.");
+
+            scheduledDiscounts.setDiscounts(List.of(new Discount(1, "Staff", 15, true, true)));
+            assertEquals(15, scheduledDiscounts.getActive().get(0).getAmount());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package service.inventory;
+
+import org.junit.jupiter.api.*;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ConcurrentInventoryStoreTest {
+
+    private ConcurrentInventoryStore store;
+
+    @BeforeAll
+    void printHeader() {
+        System.out.println("====================================================================");
+        System.out.println("FILE TESTING: ConcurrentInventoryStoreTest.java");
+        System.out.println("PURPOSE: Tests atomic decrements and whole-cart reservations of the inventory store.");
+        System.out.println("--------------------------------------------------------------------");
+    }
+
+    @AfterAll
+    void printFooter() {
+        System.out.println("====================================================================\n");
+    }
+
+    @AfterEach
+    void reportTestResult(TestInfo testInfo) {
+        System.out.println("  - " + testInfo.getDisplayName() + " - PASSED");
+    }
+
+    @BeforeEach
+    void setUp() {
+        store = new ConcurrentInventoryStore(Map.of(1, 1000, 2, 1));
+    }
+
+    @Test
+    @DisplayName("1. testConcurrentDecrementsAreNotLost()")
+    void testConcurrentDecrementsAreNotLost() throws Exception {
+        ExecutorService terminals = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger sold = new AtomicInteger();
+        for (int i = 0; i < 1200; i++) {
+            terminals.submit(() -> {
+                start.await();
+                if (store.tryDecrement(1, 1)) {
+                    sold.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        terminals.shutdown();
+        assertTrue(terminals.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(1000, sold.get(), "Exactly the available stock should be sold.");
+        assertEquals(0, store.get(1));
+    }
+
+    @Test
+    @DisplayName("2. testTryDecrementRefusesWhenStockIsLow()")
+    void testTryDecrementRefusesWhenStockIsLow() {
+        assertFalse(store.tryDecrement(2, 2));
+        assertFalse(store.tryDecrement(99, 1), "Unknown items have no stock.");
+        assertEquals(1, store.get(2));
+    }
+}
@@ -0,0 +1,107 @@
+package service.inventory;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class MappedInventoryStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path storePath;
+
+    @BeforeAll
+    void printHeader() {
+        System.out.println("====================================================================");
+        System.out.println("FILE TESTING: MappedInventoryStoreTest.java");
+        System.out.println("PURPOSE: Tests persistence and sharing of the memory-mapped inventory store.");
+        System.out.println("--------------------------------------------------------------------");
+    }
+
+    @AfterAll
+    void printFooter() {
+        System.out.println("====================================================================\n");
+    }
+
+    @AfterEach
+    void reportTestResult(TestInfo testInfo) {
+        System.out.println("  - " + testInfo.getDisplayName() + " - PASSED");
+    }
+
+    @BeforeEach
+    void setUp(TestInfo testInfo) {
+        storePath = tempDir.resolve(testInfo.getTestMethod().orElseThrow().getName() + ".store");
+    }
+
+    @Test
+    @DisplayName("1. testStockSurvivesReopen()")
+    void testStockSurvivesReopen() throws Exception {
+        try (MappedInventoryStore store = MappedInventoryStore.open(storePath, 16, Map.of(1, 10, 2, 5), 1000)) {
+            assertTrue(store.tryDecrement(1, 3));
+            assertFalse(store.tryDecrement(2, 6), "Cannot take more than is in stock.");
+        }
+
+        // menu.json still lists the full stock; the persisted levels must win, and new items are added.
+        try (MappedInventoryStore store = MappedInventoryStore.open(storePath, 16, Map.of(1, 10, 2, 5, 3, 8), 1000)) {
+            assertEquals(7, store.get(1));
+            assertEquals(5, store.get(2));
+            assertEquals(8, store.get(3));
+        }
+    }
+
+    @Test
+    @DisplayName("2. testTwoStoresShareTheSameFile()")
+    void testTwoStoresShareTheSameFile() throws Exception {
+        try (MappedInventoryStore first = MappedInventoryStore.open(storePath, 16, Map.of(1, 1), 1000);
+             MappedInventoryStore second = MappedInventoryStore.open(storePath, 16, Map.of(1, 1), 1000)) {
+            assertTrue(first.tryDecrement(1, 1));
+            assertFalse(second.tryDecrement(1, 1), "The last unit was already sold by the other kiosk.");
+
+            // An item added by one kiosk becomes visible to the other.
+            first.set(42, 4);
+            assertEquals(4, second.get(42));
+        }
+    }
+
+    @Test
+    @DisplayName("3. testFullStoreRejectsNewItems()")
+    void testFullStoreRejectsNewItems() throws Exception {
+        try (MappedInventoryStore store = MappedInventoryStore.open(storePath, 2, Map.of(1, 1, 2, 1), 1000)) {
+            assertFalse(store.set(3, 1), "There is no slot left for a new item.");
+            assertEquals(0, store.get(3));
+            assertThrows(IllegalArgumentException.class, () -> store.adjust(3, 1));
+        }
+    }
+
+    @Test
+    @DisplayName("4. testHeldStockIsReturnedAfterACrash()")
+    void testHeldStockIsReturnedAfterACrash() throws Exception {
+        try (MappedInventoryStore first = MappedInventoryStore.open(storePath, 16, Map.of(1, 10), 1000)) {
+            assertTrue(first.tryHold(1, 4));
+            assertTrue(first.tryHold(1, 2));
+            first.commitHold(1, 2);
+
+            // A live kiosk still has the file open, so its hold must not be returned.
+            try (MappedInventoryStore second = MappedInventoryStore.open(storePath, 16, Map.of(1, 10), 1000)) {
+                assertEquals(4, second.get(1));
+            }
+        }
+        // The first kiosk went away with the hold of 4 still open; the sold 2 stay sold.
+        try (MappedInventoryStore store = MappedInventoryStore.open(storePath, 16, Map.of(1, 10), 1000)) {
+            assertEquals(8, store.get(1));
+        }
+    }
+
+    @Test
+    @DisplayName("5. testFullStoreFailsToOpen()")
+    void testFullStoreFailsToOpen() {
+        assertThrows(IOException.class, () -> MappedInventoryStore.open(storePath, 1, Map.of(1, 1, 2, 1), 1000));
+    }
+}
@@ -0,0 +1,155 @@
+package service.inventory;
+
+import model.entity.CartItem;
+import model.entity.Item;
+import org.junit.jupiter.api.*;
+import service.cart.CartService;
+import util.AsyncExecutor;
+import util.TimerWheel;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class StockReservationServiceTest {
+
+    private static final long HOLD_MILLIS = 200;
+
+    private AsyncExecutor executor;
+    private TimerWheel timerWheel;
+    private ConcurrentInventoryStore store;
+    private InventoryStockReservationService reservationService;
+
+    @BeforeAll
+    void printHeader() {
+        System.out.println("====================================================================");
+        System.out.println("FILE TESTING: StockReservationServiceTest.java");
+        System.out.println("PURPOSE: Tests placing, expiring and committing stock holds for cart lines.");
+        System.out.println("--------------------------------------------------------------------");
+    }
+
+    @AfterAll
+    void printFooter() {
+        System.out.println("====================================================================\n");
+    }
+
+    @AfterEach
+    void reportTestResult(TestInfo testInfo) {
+        System.out.println("  - " + testInfo.getDisplayName() + " - PASSED");
+    }
+
+    @BeforeEach
+    void setUp() {
+        executor = new AsyncExecutor();
+        timerWheel = new TimerWheel(10, 64, "test-hold-timer");
+        store = new ConcurrentInventoryStore(Map.of(1, 1));
+        reservationService = new InventoryStockReservationService(store, timerWheel, HOLD_MILLIS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+        reservationService.close();
+        timerWheel.close();
+    }
+
+    @Test
+    @DisplayName("1. testSecondCartCannotHoldTheLastUnit()")
+    void testSecondCartCannotHoldTheLastUnit() throws Exception {
+        Item croissant = new Item(1, "Croissant", 400, 1);
+        CartService firstTerminal = new CartService(reservationService, executor);
+        CartService secondTerminal = new CartService(reservationService, executor);
+
+        assertTrue(firstTerminal.addItem(croissant, 1).get());
+        assertFalse(secondTerminal.addItem(croissant, 1).get(), "The last unit is already held by another cart.");
+        assertTrue(secondTerminal.getCartItems().isEmpty());
+
+        firstTerminal.clearCart();
+        awaitStock(1);
+        assertEquals(1, store.get(1), "Clearing the cart should return the held stock.");
+        assertTrue(secondTerminal.addItem(croissant, 1).get());
+    }
+
+    @Test
+    @DisplayName("2. testHoldExpiresAndReturnsStock()")
+    void testHoldExpiresAndReturnsStock() throws Exception {
+        StockHold hold = reservationService.hold(1, 1);
+        assertNotNull(hold);
+        assertEquals(0, store.get(1));
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (store.get(1) == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertEquals(1, store.get(1));
+        assertFalse(hold.isActive());
+        assertFalse(reservationService.lock(hold), "An expired hold cannot be used at checkout.");
+    }
+
+    @Test
+    @DisplayName("3. testLockedHoldSurvivesExpiryAndCommitKeepsStock()")
+    void testLockedHoldSurvivesExpiryAndCommitKeepsStock() throws Exception {
+        CartService cart = new CartService(reservationService, executor);
+        cart.addItem(new Item(1, "Croissant", 400, 1), 1).get();
+
+        assertEquals(1, cart.lockHolds().get().size());
+        Thread.sleep(HOLD_MILLIS * 2);
+        cart.commitHolds();
+        cart.clearCart();
+        Thread.sleep(HOLD_MILLIS * 2);
+
+        assertEquals(0, store.get(1), "A sold unit must not be returned to stock.");
+        assertEquals(0, reservationService.getOpenHoldCount());
+    }
+
+    @Test
+    @DisplayName("4. testReleasedHoldDoesNotExpireLater()")
+    void testReleasedHoldDoesNotExpireLater() throws Exception {
+        StockHold hold = reservationService.hold(1, 1);
+        reservationService.release(hold);
+        assertEquals(1, store.get(1));
+
+        // Someone else takes the returned unit; the cancelled timer must not hand it back again.
+        assertTrue(store.tryDecrement(1, 1));
+        Thread.sleep(HOLD_MILLIS * 2);
+
+        assertEquals(0, store.get(1));
+        assertEquals(0, reservationService.getOpenHoldCount());
+    }
+
+    @Test
+    @DisplayName("5. testCheckoutCommitsOnlyTheLockedHolds()")
+    void testCheckoutCommitsOnlyTheLockedHolds() throws Exception {
+        store.set(1, 3);
+        CartService cart = new CartService(reservationService, executor);
+        Item croissant = new Item(1, "Croissant", 400, 3);
+        cart.addItem(croissant, 1).get();
+        List<CartItem> soldLines = cart.getCartItems();
+        List<StockHold> locked = cart.lockHolds().get();
+        assertEquals(1, locked.size());
+        assertEquals(1, locked.get(0).getQuantity());
+
+        // Added while the sale is being saved: not part of it.
+        cart.addItem(croissant, 1).get();
+        cart.commitHolds();
+        cart.removeQuantities(soldLines);
+
+        assertEquals(1, cart.getCartItems().get(0).getQuantity(), "The unsold croissant stays in the cart.");
+        cart.clearCart();
+        awaitStock(2);
+        assertEquals(2, store.get(1), "Only the sold croissant is taken from stock.");
+    }
+
+    /**
+     * Waits for holds returned on the executor to reach the store.
+     */
+    private void awaitStock(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (store.get(1) != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package service.menu;
+
+import model.entity.Item;
+import org.junit.jupiter.api.*;
+import util.AsyncExecutor;
+import util.FxThread;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AsyncCatalogTest {
+
+    private final List<Item> coffees = List.of(new Item(1, "Latte", 350, 10, 1));
+    private final List<Item> pastries = List.of(new Item(2, "Croissant", 300, 5, 2));
+    private AsyncExecutor executor;
+
+    @BeforeAll
+    void printHeader() {
+        System.out.println("====================================================================");
+        System.out.println("FILE TESTING: AsyncCatalogTest.java");
+        System.out.println("PURPOSE: Tests background catalog loads, stale-request cancellation and error delivery.");
+        System.out.println("--------------------------------------------------------------------");
+    }
+
+    @AfterAll
+    void printFooter() {
+        System.out.println("====================================================================\n");
+    }
+
+    @AfterEach
+    void reportTestResult(TestInfo testInfo) {
+        System.out.println("  - " + testInfo.getDisplayName() + " - PASSED");
+    }
+
+    @BeforeEach
+    void setUp() {
+        executor = new AsyncExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    @DisplayName("1. testNewCategoryCancelsStaleLoad()")
+    void testNewCategoryCancelsStaleLoad() throws Exception {
+        Catalog catalog = mock(Catalog.class);
+        CountDownLatch slowLoadStarted = new CountDownLatch(1);
+        CountDownLatch releaseSlowLoad = new CountDownLatch(1);
+        when(catalog.getItemsByCategory(1)).thenAnswer(invocation -> {
+            slowLoadStarted.countDown();
+            releaseSlowLoad.await(5, TimeUnit.SECONDS);
+            return coffees;
+        });
+        when(catalog.getItemsByCategory(2)).thenReturn(pastries);
+        AsyncCatalog asyncCatalog = new AsyncCatalog(catalog, executor);
+        AtomicReference<List<Item>> shown = new AtomicReference<>();
+
+        CompletableFuture<List<Item>> first = asyncCatalog.getItemsByCategory(1);
+        FxThread.deliver(first, shown::set, e -> fail("The stale load should not report anything."));
+        assertTrue(slowLoadStarted.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<List<Item>> second = asyncCatalog.getItemsByCategory(2);
+        assertTrue(first.isCancelled(), "Selecting another category cancels the pending load.");
+        assertEquals(pastries, second.get(5, TimeUnit.SECONDS));
+        FxThread.deliver(second, shown::set, e -> fail(e.getMessage()));
+        assertEquals(pastries, shown.get());
+
+        releaseSlowLoad.countDown();
+        executor.close();
+        assertEquals(pastries, shown.get(), "The late answer for the first category is dropped.");
+    }
+
+    @Test
+    @DisplayName("2. testFailureIsDeliveredUnwrapped()")
+    void testFailureIsDeliveredUnwrapped() throws Exception {
+        Catalog catalog = mock(Catalog.class);
+        Exception failure = new Exception("Database error");
+        when(catalog.getItemsByCategory(anyInt())).thenThrow(failure);
+        AsyncCatalog asyncCatalog = new AsyncCatalog(catalog, executor);
+
+        CompletableFuture<List<Item>> request = asyncCatalog.getItemsByCategory(1);
+        CompletableFuture<Throwable> reported = new CompletableFuture<>();
+        FxThread.deliver(request, items -> fail("The load should fail."), reported::complete);
+
+        assertSame(failure, reported.get(5, TimeUnit.SECONDS));
+    }
+}
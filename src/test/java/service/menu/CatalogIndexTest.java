@@ -0,0 +1,78 @@
+package service.menu;
+
+import model.entity.Item;
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CatalogIndexTest {
+
+    private CatalogIndex index;
+
+    @BeforeAll
+    void printHeader() {
+        System.out.println("====================================================================");
+        System.out.println("FILE TESTING: CatalogIndexTest.java");
+        System.out.println("PURPOSE: Tests ID and category lookups of the in-memory catalog index.");
+        System.out.println("--------------------------------------------------------------------");
+    }
+
+    @AfterAll
+    void printFooter() {
+        System.out.println("====================================================================\n");
+    }
+
+    @AfterEach
+    void reportTestResult(TestInfo testInfo) {
+        System.out.println("  - " + testInfo.getDisplayName() + " - PASSED");
+    }
+
+    @BeforeEach
+    void setUp() {
+        index = new CatalogIndex(List.of(
+                new Item(1, "Latte", 350, 10, 1),
+                new Item(2, "Espresso", 250, 10, 1),
+                new Item(3, "Cheese Bread", 400, 5, 2)
+        ));
+    }
+
+    @Test
+    @DisplayName("1. testLookupsByIdAndSortedCategory()")
+    void testLookupsByIdAndSortedCategory() {
+        assertEquals("Cheese Bread", index.getById(3).getName());
+        assertNull(index.getById(99));
+
+        List<Item> coffees = index.getByCategory(1);
+        assertEquals(List.of("Espresso", "Latte"), coffees.stream().map(Item::getName).toList());
+        assertSame(coffees, index.getByCategory(1), "Repeated lookups should return the prebuilt list.");
+        assertTrue(index.getByCategory(42).isEmpty());
+        assertThrows(UnsupportedOperationException.class, () -> coffees.add(new Item(9, "Mocha", 400, 1, 1)));
+    }
+
+    @Test
+    @DisplayName("2. testPutKeepsCategoryOrderAndMovesReplacedItems()")
+    void testPutKeepsCategoryOrderAndMovesReplacedItems() {
+        List<Item> before = index.getByCategory(1);
+        index.put(new Item(4, "Cappuccino", 450, 8, 1));
+        index.put(new Item(1, "Latte", 350, 10, 2));
+
+        assertEquals(List.of("Cappuccino", "Espresso"), index.getByCategory(1).stream().map(Item::getName).toList());
+        assertEquals(List.of("Cheese Bread", "Latte"), index.getByCategory(2).stream().map(Item::getName).toList());
+        assertEquals(2, before.size(), "A list handed out earlier must not change.");
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    @DisplayName("3. testRemove()")
+    void testRemove() {
+        assertNotNull(index.remove(3));
+        assertNull(index.remove(3));
+
+        assertNull(index.getById(3));
+        assertTrue(index.getByCategory(2).isEmpty());
+        assertEquals(2, index.size());
+    }
+}
@@ -1,5 +1,6 @@
 package service.menu;
 
+import model.dto.InventoryUpdateResult;
 import model.entity.Item;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -9,6 +10,7 @@ import repo.repository.MenuRepository;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -83,4 +85,17 @@ class DBMenuTest {
         // Verify that the service correctly called the repository method
         verify(mockMenuRepository).updateInventory(1, 5);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("4. testUpdateItemInventoriesReportsUnfilledLines()")
+    void testUpdateItemInventoriesReportsUnfilledLines() throws Exception {
+        Map<Integer, Integer> cart = Map.of(1, 2, 2, 9);
+        when(mockMenuRepository.decrementInventory(cart)).thenReturn(new InventoryUpdateResult(Map.of(2, 9)));
+
+        InventoryUpdateResult result = dbMenu.updateItemInventories(cart);
+
+        assertFalse(result.isComplete());
+        assertEquals(Map.of(2, 9), result.getUnfilledLines());
+        verify(mockMenuRepository, never()).updateInventory(anyInt(), anyInt());
+    }
+}
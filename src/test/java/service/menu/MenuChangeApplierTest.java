@@ -0,0 +1,98 @@
+package service.menu;
+
+import model.dto.MenuSnapshot;
+import model.entity.Category;
+import model.entity.Discount;
+import model.entity.Item;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import repo.repository.MenuSnapshotRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class MenuChangeApplierTest {
+
+    private MenuSnapshotService menuSnapshotService;
+    private MenuChangeApplier changeApplier;
+
+    @Mock
+    private MenuSnapshotRepository mockSnapshotRepository;
+
+    @BeforeAll
+    void printHeader() {
+        System.out.println("====================================================================");
+        System.out.println("FILE TESTING: MenuChangeApplierTest.java");
+        System.out.println("PURPOSE: Tests patching the menu snapshot from database change notifications.");
+        System.out.println("--------------------------------------------------------------------");
+    }
+
+    @AfterAll
+    void printFooter() {
+        System.out.println("====================================================================\n");
+    }
+
+    @AfterEach
+    void reportTestResult(TestInfo testInfo) {
+        System.out.println("  - " + testInfo.getDisplayName() + " - PASSED");
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(mockSnapshotRepository.loadSnapshot()).thenReturn(new MenuSnapshot(
+                List.of(new Category(1, "Coffee")),
+                List.of(new Item(1, "Espresso", 250, 10, 1), new Item(2, "Latte", 350, 10, 1)),
+                List.of(new Discount(1, "Staff", 10, true, true)),
+                LocalDateTime.now()));
+        menuSnapshotService = new MenuSnapshotService(mockSnapshotRepository, 0);
+        menuSnapshotService.getSnapshot();
+        changeApplier = new MenuChangeApplier(menuSnapshotService);
+    }
+
+    @Test
+    @DisplayName("1. testItemUpdateIsPatchedWithoutReload()")
+    void testItemUpdateIsPatchedWithoutReload() throws Exception {
+        changeApplier.apply(MenuChangeApplier.ITEMS_CHANNEL,
+                "{\"op\":\"UPDATE\",\"row\":{\"id\":2,\"name\":\"Cafe Latte\",\"price\":375,\"inventory\":4,\"category_id\":1,\"is_available\":true}}");
+        changeApplier.apply(MenuChangeApplier.ITEMS_CHANNEL,
+                "{\"op\":\"INSERT\",\"row\":{\"id\":3,\"name\":\"Americano\",\"price\":300,\"inventory\":9,\"category_id\":1,\"is_available\":true}}");
+
+        MenuSnapshot snapshot = menuSnapshotService.getSnapshot();
+        assertEquals(List.of("Americano", "Cafe Latte", "Espresso"),
+                snapshot.getItemsByCategory(1).stream().map(Item::getName).toList());
+        assertEquals(4, snapshot.getItem(2).getInventory());
+        verify(mockSnapshotRepository, times(1)).loadSnapshot();
+    }
+
+    @Test
+    @DisplayName("2. testDeletedOrDeactivatedRowsAreEvicted()")
+    void testDeletedOrDeactivatedRowsAreEvicted() throws Exception {
+        changeApplier.apply(MenuChangeApplier.ITEMS_CHANNEL,
+                "{\"op\":\"UPDATE\",\"row\":{\"id\":1,\"name\":\"Espresso\",\"price\":250,\"inventory\":10,\"category_id\":1,\"is_available\":false}}");
+        changeApplier.apply(MenuChangeApplier.DISCOUNTS_CHANNEL,
+                "{\"op\":\"DELETE\",\"row\":{\"id\":1,\"name\":\"Staff\",\"amount\":10,\"is_percentage\":true,\"active\":true}}");
+        changeApplier.apply(MenuChangeApplier.CATEGORIES_CHANNEL,
+                "{\"op\":\"INSERT\",\"row\":{\"id\":2,\"description\":\"Pastries\"}}");
+
+        MenuSnapshot snapshot = menuSnapshotService.getSnapshot();
+        assertNull(snapshot.getItem(1));
+        assertTrue(snapshot.getDiscounts().isEmpty());
+        assertEquals(2, snapshot.getCategories().size());
+    }
+
+    @Test
+    @DisplayName("3. testUnreadableNotificationTriggersReload()")
+    void testUnreadableNotificationTriggersReload() throws Exception {
+        changeApplier.apply(MenuChangeApplier.ITEMS_CHANNEL, "{\"op\":\"TRUNCATE\"}");
+        changeApplier.apply(MenuChangeApplier.ITEMS_CHANNEL, "not json");
+
+        verify(mockSnapshotRepository, times(3)).loadSnapshot();
+    }
+}
@@ -0,0 +1,147 @@
+package service.menu;
+
+import model.dto.MenuSnapshot;
+import model.entity.Category;
+import model.entity.Discount;
+import model.entity.Item;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import repo.repository.MenuRepository;
+import repo.repository.MenuSnapshotRepository;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class MenuSnapshotServiceTest {
+
+    private MenuSnapshotService menuSnapshotService;
+
+    @Mock
+    private MenuSnapshotRepository mockSnapshotRepository;
+
+    @Mock
+    private MenuRepository mockMenuRepository;
+
+    @BeforeAll
+    void printHeader() {
+        System.out.println("====================================================================");
+        System.out.println("FILE TESTING: MenuSnapshotServiceTest.java");
+        System.out.println("PURPOSE: Tests loading, publishing and serving the in-memory menu snapshot.");
+        System.out.println("--------------------------------------------------------------------");
+    }
+
+    @AfterAll
+    void printFooter() {
+        System.out.println("====================================================================\n");
+    }
+
+    @AfterEach
+    void reportTestResult(TestInfo testInfo) {
+        System.out.println("  - " + testInfo.getDisplayName() + " - PASSED");
+    }
+
+    @BeforeEach
+    void setUp() {
+        menuSnapshotService = new MenuSnapshotService(mockSnapshotRepository, 0);
+    }
+
+    private MenuSnapshot snapshotWith(String... itemNames) {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < itemNames.length; i++) {
+            items.add(new Item(i + 1, itemNames[i], 300, 10, 1));
+        }
+        return new MenuSnapshot(List.of(new Category(1, "Coffee")), items,
+                List.of(new Discount(1, "Staff", 10, true, true)), LocalDateTime.now());
+    }
+
+    @Test
+    @DisplayName("1. testCategoryReadsAreServedFromSnapshotWithLiveStock()")
+    void testCategoryReadsAreServedFromSnapshotWithLiveStock() throws Exception {
+        when(mockSnapshotRepository.loadSnapshot()).thenReturn(snapshotWith("Espresso", "Latte"));
+        when(mockMenuRepository.findInventoryByCategoryId(1)).thenReturn(Map.of(1, 4));
+        DBMenuService menuService = new DBMenuService(mockMenuRepository, menuSnapshotService);
+
+        for (int click = 0; click < 3; click++) {
+            List<Item> items = menuService.getItemsByCategory(1);
+            assertEquals(2, items.size());
+            assertEquals(4, items.get(0).getInventory(), "Stock must come from the database, not the snapshot.");
+            assertEquals(0, items.get(1).getInventory(), "An item the database no longer offers has no stock.");
+        }
+
+        verify(mockSnapshotRepository, times(1)).loadSnapshot();
+        verify(mockMenuRepository, never()).findItemsByCategoryId(anyInt());
+        assertEquals(10, menuSnapshotService.getSnapshot().getItem(1).getInventory(), "The snapshot must not be modified.");
+    }
+
+    @Test
+    @DisplayName("2. testRefreshPublishesNewSnapshot()")
+    void testRefreshPublishesNewSnapshot() throws Exception {
+        when(mockSnapshotRepository.loadSnapshot()).thenReturn(snapshotWith("Espresso"), snapshotWith("Espresso", "Mocha"));
+
+        MenuSnapshot first = menuSnapshotService.getSnapshot();
+        menuSnapshotService.refresh();
+        MenuSnapshot second = menuSnapshotService.getSnapshot();
+
+        assertNotSame(first, second);
+        assertEquals(1, first.getItemsByCategory(1).size(), "A published snapshot must never change.");
+        assertEquals(2, second.getItemsByCategory(1).size());
+    }
+
+    @Test
+    @DisplayName("3. testFailedRefreshKeepsLastGoodSnapshot()")
+    void testFailedRefreshKeepsLastGoodSnapshot() throws Exception {
+        when(mockSnapshotRepository.loadSnapshot())
+                .thenReturn(snapshotWith("Espresso"))
+                .thenThrow(new SQLException("Connection refused"));
+
+        MenuSnapshot first = menuSnapshotService.getSnapshot();
+        Exception exception = assertThrows(Exception.class, () -> menuSnapshotService.refresh());
+
+        assertEquals("Failed to load the menu.", exception.getMessage());
+        assertSame(first, menuSnapshotService.getSnapshot());
+    }
+
+    @Test
+    @DisplayName("4. testChangeDuringRefreshIsNotLost()")
+    void testChangeDuringRefreshIsNotLost() throws Exception {
+        when(mockSnapshotRepository.loadSnapshot())
+                .thenReturn(snapshotWith("Espresso"))
+                .thenAnswer(invocation -> {
+                    // A change notification arrives after the reload has read the database.
+                    menuSnapshotService.update(snapshot -> snapshot.withItem(new Item(9, "Mocha", 400, 5, 1)));
+                    return snapshotWith("Espresso");
+                });
+
+        menuSnapshotService.getSnapshot();
+        MenuSnapshot refreshed = menuSnapshotService.refresh();
+
+        assertNotNull(refreshed.getItem(9), "The change must be replayed onto the reloaded menu.");
+        assertSame(refreshed, menuSnapshotService.getSnapshot());
+    }
+
+    @Test
+    @DisplayName("5. testPatchedItemOnlyTouchesItsCategory()")
+    void testPatchedItemOnlyTouchesItsCategory() {
+        MenuSnapshot snapshot = new MenuSnapshot(List.of(new Category(1, "Coffee"), new Category(2, "Tea")),
+                List.of(new Item(1, "americano", 300, 10, 1), new Item(2, "Latte", 300, 10, 1), new Item(3, "Chai", 300, 10, 2)),
+                List.of(), LocalDateTime.now());
+
+        MenuSnapshot patched = snapshot.withItem(new Item(4, "Cappuccino", 350, 10, 1));
+
+        // Ordered by letters first, as the database collation does, not by String.compareTo.
+        assertEquals(List.of("americano", "Cappuccino", "Latte"),
+                patched.getItemsByCategory(1).stream().map(Item::getName).toList());
+        assertSame(snapshot.getItemsByCategory(2), patched.getItemsByCategory(2));
+        assertEquals(2, snapshot.getItemsByCategory(1).size(), "The original snapshot must not change.");
+    }
+}
@@ -0,0 +1,91 @@
+package service.order;
+
+import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class MoneyEngineTest {
+
+    @BeforeAll
+    void printHeader() {
+        System.out.println("====================================================================");
+        System.out.println("FILE TESTING: MoneyEngineTest.java");
+        System.out.println("PURPOSE: Tests exact cent arithmetic, rounding modes and tax rounding policies.");
+        System.out.println("--------------------------------------------------------------------");
+    }
+
+    @AfterAll
+    void printFooter() {
+        System.out.println("====================================================================\n");
+    }
+
+    @AfterEach
+    void reportTestResult(TestInfo testInfo) {
+        System.out.println("  - " + testInfo.getDisplayName() + " - PASSED");
+    }
+
+    @Test
+    @DisplayName("1. testDivideMatchesBigDecimalForEveryRoundingMode()")
+    void testDivideMatchesBigDecimalForEveryRoundingMode() {
+        long[] dividends = {0, 1, 4, 5, 6, 15, 25, 35, 9_999, -1, -5, -15, -25, -9_999, 123_456_789};
+        for (RoundingMode mode : RoundingMode.values()) {
+            if (mode == RoundingMode.UNNECESSARY) {
+                continue;
+            }
+            for (long dividend : dividends) {
+                long expected = BigDecimal.valueOf(dividend).divide(BigDecimal.TEN, 0, mode).longValueExact();
+                assertEquals(expected, MoneyEngine.divide(dividend, 10, mode), mode + " " + dividend + "/10");
+            }
+        }
+        assertEquals(3, MoneyEngine.divide(30, 10, RoundingMode.UNNECESSARY));
+        assertThrows(ArithmeticException.class, () -> MoneyEngine.divide(31, 10, RoundingMode.UNNECESSARY));
+    }
+
+    @Test
+    @DisplayName("2. testPerLineTaxRoundsEachLine()")
+    void testPerLineTaxRoundsEachLine() {
+        // Three lines of 150 cents: 7% is 10.5 cents per line, 31.5 cents on the order.
+        int[] prices = {150, 150, 150};
+        int[] quantities = {1, 1, 1};
+        long[] result = new long[MoneyEngine.RESULT_LENGTH];
+
+        new MoneyEngine(700, RoundingMode.HALF_UP, MoneyEngine.TaxRounding.PER_ORDER).priceOrder(prices, quantities, 3, 0, result);
+        assertEquals(450, result[MoneyEngine.SUBTOTAL]);
+        assertEquals(32, result[MoneyEngine.TAX]);
+        assertEquals(482, result[MoneyEngine.TOTAL]);
+
+        new MoneyEngine(700, RoundingMode.HALF_UP, MoneyEngine.TaxRounding.PER_LINE).priceOrder(prices, quantities, 3, 0, result);
+        assertEquals(33, result[MoneyEngine.TAX]);
+        assertEquals(483, result[MoneyEngine.TOTAL]);
+
+        new MoneyEngine(700, RoundingMode.HALF_EVEN, MoneyEngine.TaxRounding.PER_LINE).priceOrder(prices, quantities, 3, 0, result);
+        assertEquals(30, result[MoneyEngine.TAX], "10.5 rounds to the even 10 on each line.");
+    }
+
+    @Test
+    @DisplayName("3. testDiscountIsCappedAndSpreadOverLines()")
+    void testDiscountIsCappedAndSpreadOverLines() {
+        MoneyEngine perLine = new MoneyEngine(700, RoundingMode.HALF_UP, MoneyEngine.TaxRounding.PER_LINE);
+        int[] prices = {250, 450};
+        int[] quantities = {2, 1};
+        long[] result = new long[MoneyEngine.RESULT_LENGTH];
+
+        perLine.priceOrder(prices, quantities, 2, 5_000, result);
+        assertEquals(950, result[MoneyEngine.DISCOUNT], "The discount cannot exceed the subtotal.");
+        assertEquals(0, result[MoneyEngine.TAX]);
+        assertEquals(0, result[MoneyEngine.TOTAL]);
+
+        perLine.priceOrder(prices, quantities, 2, 95, result);
+        // Lines of 500 and 450 take 50 and 45 of the discount: tax is round(31.5) + round(28.35).
+        assertEquals(32 + 28, result[MoneyEngine.TAX]);
+        assertEquals(950 - 95 + 60, result[MoneyEngine.TOTAL]);
+
+        perLine.priceOrder(prices, quantities, 2, -10, result);
+        assertEquals(0, result[MoneyEngine.DISCOUNT], "A negative discount is ignored.");
+        assertThrows(ArithmeticException.class, () -> perLine.lineTotal(Long.MAX_VALUE, 2));
+    }
+}
@@ -0,0 +1,96 @@
+package service.order;
+
+import model.dto.OrderTotals;
+import model.entity.Discount;
+import model.entity.Item;
+import org.junit.jupiter.api.*;
+import service.cart.CartService;
+import service.discount.DiscountCalculationService;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PricingQuoteServiceTest {
+
+    private CartService cart;
+    private DiscountCalculationService discountCalculationService;
+    private PricingQuoteService pricingQuoteService;
+    private final Item coffee = new Item(1, "Coffee", 250, 10, 1);
+    private final Discount staff = new Discount(1, "Staff Discount", 10, true, true);
+    private final Discount other = new Discount(Discount.OTHER_ID, "Other", 0, false, true);
+
+    @BeforeAll
+    void printHeader() {
+        System.out.println("====================================================================");
+        System.out.println("FILE TESTING: PricingQuoteServiceTest.java");
+        System.out.println("PURPOSE: Tests that pricing quotes are shared per cart version and discount selection.");
+        System.out.println("--------------------------------------------------------------------");
+    }
+
+    @AfterAll
+    void printFooter() {
+        System.out.println("====================================================================\n");
+    }
+
+    @AfterEach
+    void reportTestResult(TestInfo testInfo) {
+        System.out.println("  - " + testInfo.getDisplayName() + " - PASSED");
+    }
+
+    @BeforeEach
+    void setUp() {
+        cart = new CartService();
+        discountCalculationService = new DiscountCalculationService();
+        RunningTotals runningTotals = new RunningTotals(cart, new TotalsCalculatorService(), discountCalculationService);
+        pricingQuoteService = new PricingQuoteService(cart, runningTotals, discountCalculationService);
+    }
+
+    @Test
+    @DisplayName("1. testSameStateGetsSameQuote()")
+    void testSameStateGetsSameQuote() {
+        cart.addItem(coffee, 4);
+
+        OrderTotals first = pricingQuoteService.quote(staff, "", false);
+        OrderTotals withoutDiscount = pricingQuoteService.quote(null, "", false);
+        OrderTotals again = pricingQuoteService.quote(staff, "", false);
+
+        assertSame(first, again, "Switching back to a discount reuses its quote.");
+        assertNotSame(first, withoutDiscount);
+        assertEquals(100, first.getDiscountValue());
+        assertSame(pricingQuoteService.quote(staff, "5", true), first, "The manual amount is ignored for a fixed discount.");
+    }
+
+    @Test
+    @DisplayName("2. testManualAmountIsPartOfTheQuote()")
+    void testManualAmountIsPartOfTheQuote() {
+        cart.addItem(coffee, 4); // Subtotal = 1000
+
+        OrderTotals fixed = pricingQuoteService.quote(other, "50", false);
+        OrderTotals percentage = pricingQuoteService.quote(other, "50", true);
+
+        assertEquals(50, fixed.getDiscountValue());
+        assertEquals(500, percentage.getDiscountValue());
+        assertSame(fixed, pricingQuoteService.quote(other, " 50 ", false), "The amount is compared once parsed.");
+    }
+
+    @Test
+    @DisplayName("3. testCartAndPromotionChangesGetNewQuotes()")
+    void testCartAndPromotionChangesGetNewQuotes() {
+        cart.addItem(coffee, 2);
+        OrderTotals before = pricingQuoteService.quote(staff, "", false);
+
+        cart.addItem(coffee, 2);
+        OrderTotals afterCartChange = pricingQuoteService.quote(staff, "", false);
+        assertNotSame(before, afterCartChange);
+        assertEquals(cart.getVersion(), afterCartChange.getCartVersion());
+        assertEquals(1000, afterCartChange.getSubtotal());
+
+        discountCalculationService.setPromotions(List.of(new Discount(2, "Coffee Promo", 50, false, true,
+                Discount.Scope.ITEM, 1, 0, 0, null, false)));
+        OrderTotals afterPromotions = pricingQuoteService.quote(staff, "", false);
+        assertNotSame(afterCartChange, afterPromotions);
+        assertEquals(200 + 80, afterPromotions.getDiscountValue(), "The order discount applies after the promotion.");
+    }
+}
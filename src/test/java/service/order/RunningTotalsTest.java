@@ -0,0 +1,132 @@
+package service.order;
+
+import model.dto.OrderTotals;
+import model.entity.Discount;
+import model.entity.Item;
+import org.junit.jupiter.api.*;
+import service.cart.CartService;
+import service.discount.DiscountCalculationService;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RunningTotalsTest {
+
+    private final TotalsCalculatorService totalsCalculatorService = new TotalsCalculatorService();
+    private CartService cart;
+    private RunningTotals runningTotals;
+    private Item coffee;
+    private Item cake;
+
+    @BeforeAll
+    void printHeader() {
+        System.out.println("====================================================================");
+        System.out.println("FILE TESTING: RunningTotalsTest.java");
+        System.out.println("PURPOSE: Tests that order totals follow cart and discount changes.");
+        System.out.println("--------------------------------------------------------------------");
+    }
+
+    @AfterAll
+    void printFooter() {
+        System.out.println("====================================================================\n");
+    }
+
+    @AfterEach
+    void reportTestResult(TestInfo testInfo) {
+        System.out.println("  - " + testInfo.getDisplayName() + " - PASSED");
+    }
+
+    @BeforeEach
+    void setUp() {
+        cart = new CartService();
+        runningTotals = new RunningTotals(cart, totalsCalculatorService, new DiscountCalculationService());
+        coffee = new Item(1, "Coffee", 250, 10);
+        cake = new Item(2, "Cake", 450, 5);
+    }
+
+    @Test
+    @DisplayName("1. testTotalsFollowCartChanges()")
+    void testTotalsFollowCartChanges() {
+        cart.addItem(coffee, 2);
+        cart.addItem(cake, 1);
+        cart.addItem(coffee, 1);
+        assertEquals(totalsCalculatorService.calculateSubtotal(cart.getCartItems()), runningTotals.getTotals().getSubtotal());
+        assertEquals(1200, runningTotals.getTotals().getSubtotal());
+
+        cart.removeItem(cart.getCartItems().get(0));
+        assertEquals(450, runningTotals.getTotals().getSubtotal());
+
+        cart.clearCart();
+        assertEquals(0, runningTotals.getTotals().getSubtotal());
+        assertEquals(0, runningTotals.getTotals().getTotal());
+    }
+
+    @Test
+    @DisplayName("2. testDiscountChangeMatchesFullRecalculation()")
+    void testDiscountChangeMatchesFullRecalculation() {
+        cart.addItem(coffee, 4); // Subtotal = 1000
+        Discount staff = new Discount(1, "Staff Discount", 10, true, true);
+
+        OrderTotals totals = runningTotals.setDiscount(staff, null, false);
+
+        assertEquals(100, totals.getDiscountValue());
+        assertEquals(63, totals.getTax());
+        assertEquals(963, totals.getTotal());
+        assertEquals(totalsCalculatorService.calculateFinalTotal(1000, 100), totals.getTotal());
+
+        cart.addItem(cake, 1); // The percentage discount follows the new subtotal.
+        assertEquals(145, runningTotals.getTotals().getDiscountValue());
+    }
+
+    @Test
+    @DisplayName("3. testPublishedTotalsAreImmutableSnapshots()")
+    void testPublishedTotalsAreImmutableSnapshots() {
+        cart.addItem(coffee, 1);
+        OrderTotals before = runningTotals.getTotals();
+
+        cart.addItem(cake, 1);
+        OrderTotals after = runningTotals.getTotals();
+
+        assertEquals(250, before.getSubtotal(), "Totals already read must not change.");
+        assertEquals(700, after.getSubtotal());
+        assertEquals(cart.getVersion(), after.getCartVersion());
+        assertSame(after, runningTotals.getTotals(), "Totals are only rebuilt when something changes.");
+    }
+
+    @Test
+    @DisplayName("4. testOrderDiscountAppliesAfterPromotions()")
+    void testOrderDiscountAppliesAfterPromotions() {
+        DiscountCalculationService discounts = new DiscountCalculationService();
+        discounts.setPromotions(List.of(new Discount(7, "Coffee 2+1", 100, true, true,
+                Discount.Scope.BUY_X_GET_Y, coffee.getId(), 2, 1, null, false)));
+        RunningTotals withPromotions = new RunningTotals(cart, totalsCalculatorService, discounts);
+
+        cart.addItem(coffee, 3); // Subtotal = 750, one coffee free
+        assertEquals(250, withPromotions.getTotals().getDiscountValue());
+
+        OrderTotals totals = withPromotions.setDiscount(new Discount(Discount.OTHER_ID, "Other", 0, false, true), "10", true);
+        assertEquals(250 + 50, totals.getDiscountValue(), "10% of what is left after the promotion.");
+        assertEquals(750 - 300 + 32, totals.getTotal());
+    }
+
+    @Test
+    @DisplayName("5. testTotalsAreBuiltOnlyWhenRead()")
+    void testTotalsAreBuiltOnlyWhenRead() {
+        TotalsCalculatorService calculator = spy(new TotalsCalculatorService());
+        CartService burstCart = new CartService();
+        RunningTotals lazyTotals = new RunningTotals(burstCart, calculator, new DiscountCalculationService());
+
+        burstCart.addItem(coffee, 1);
+        burstCart.addItem(cake, 2);
+        burstCart.clearCart();
+        verify(calculator, never()).calculateTotalsFromSubtotal(anyLong(), anyLong(), anyLong());
+
+        assertEquals(0, lazyTotals.getTotals().getTotal());
+        lazyTotals.getTotals();
+        verify(calculator, times(1)).calculateTotalsFromSubtotal(anyLong(), anyLong(), anyLong());
+    }
+}
@@ -1,8 +1,12 @@
 package service.receipt;
 
+import model.dto.CheckoutRecord;
+import model.dto.ReceiptHistoryFilter;
+import model.dto.ReceiptPage;
 import model.entity.ReceiptInfo;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -11,6 +15,8 @@ import service.auth.SessionManager;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -93,4 +99,47 @@ class DBReceiptServiceTest {
         verify(mockReceiptRepository).findRecentReceiptsForEmployee(101);
         verify(mockReceiptRepository, never()).findRecentReceiptsForManager();
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("4. testCompleteCheckoutWritesReceiptAndInventoryTogether()")
+    void testCompleteCheckoutWritesReceiptAndInventoryTogether() throws Exception {
+        byte[] fileData = {1, 2, 3};
+        Map<Integer, Integer> decrements = Map.of(1, 2, 7, 1);
+
+        dbReceiptService.completeCheckout("Test Customer", 1, fileData, decrements);
+
+        ArgumentCaptor<CheckoutRecord> captor = ArgumentCaptor.forClass(CheckoutRecord.class);
+        verify(mockReceiptRepository).saveCheckout(captor.capture());
+        verify(mockReceiptRepository, never()).save(anyString(), anyInt(), any());
+        assertEquals("Test Customer", captor.getValue().getCustomerName());
+        assertEquals(decrements, captor.getValue().getInventoryDecrements());
+    }
+
+    @Test
+    @DisplayName("5. testGetReceiptContentIsLoadedOnceAndCached()")
+    void testGetReceiptContentIsLoadedOnceAndCached() throws Exception {
+        byte[] fileData = {4, 5, 6};
+        when(mockReceiptRepository.findReceiptContent(42)).thenReturn(Optional.of(fileData));
+
+        assertArrayEquals(fileData, dbReceiptService.getReceiptContent(42));
+        assertArrayEquals(fileData, dbReceiptService.getReceiptContent(42));
+
+        verify(mockReceiptRepository, times(1)).findReceiptContent(42);
+    }
+
+    @Test
+    @DisplayName("6. testGetReceiptHistoryPageRestrictsEmployeeToOwnReceipts()")
+    void testGetReceiptHistoryPageRestrictsEmployeeToOwnReceipts() throws Exception {
+        when(mockSessionManager.isManager()).thenReturn(false);
+        when(mockSessionManager.getLoggedInEmployeeId()).thenReturn(101);
+        when(mockReceiptRepository.findReceiptPage(any(), isNull(), eq(50))).thenReturn(new ReceiptPage(Collections.emptyList(), false));
+
+        dbReceiptService.getReceiptHistoryPage(new ReceiptHistoryFilter(null, null, "An").withEmployeeId(7), null, 50);
+
+        ArgumentCaptor<ReceiptHistoryFilter> captor = ArgumentCaptor.forClass(ReceiptHistoryFilter.class);
+        verify(mockReceiptRepository).findReceiptPage(captor.capture(), isNull(), eq(50));
+        assertEquals(101, captor.getValue().getEmployeeId(), "Employees must only page through their own receipts.");
+        assertNotNull(captor.getValue().getFrom(), "Employees must be limited to a recent date window.");
+        assertEquals("An", captor.getValue().getCustomerNamePrefix());
+    }
+}
@@ -1,5 +1,6 @@
 package service.receipt;
 
+import model.dto.OrderTotals;
 import model.entity.CartItem;
 import model.entity.Discount;
 import model.entity.Item;
@@ -7,10 +8,13 @@ import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import service.discount.DiscountCalculationService;
 import service.order.TotalsCalculatorService;
+import util.CurrencyFormatter;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.when;
@@ -57,8 +61,8 @@ class ReceiptBuilderServiceTest {
         Discount discount = new Discount(1, "Staff Discount", 10, true, true);
 
         // Arrange mocks
-        when(mockTotalsCalculatorService.calculateSubtotal(Arrays.asList(cartItem1, cartItem2))).thenReturn(950);
-        when(mockTotalsCalculatorService.calculateTax(950 - 95)).thenReturn(59.85);
+        when(mockTotalsCalculatorService.calculateTotals(Arrays.asList(cartItem1, cartItem2), 95L))
+                .thenReturn(new OrderTotals(950, 95, 60, 915, 0));
 
         String receipt = receiptBuilderService.buildReceiptContent(
                 "Test Customer",
@@ -82,8 +86,8 @@ class ReceiptBuilderServiceTest {
         CartItem cartItem1 = new CartItem(coffee, 1);
 
         // Arrange mocks
-        when(mockTotalsCalculatorService.calculateSubtotal(Collections.singletonList(cartItem1))).thenReturn(250);
-        when(mockTotalsCalculatorService.calculateTax(250)).thenReturn(17.5);
+        when(mockTotalsCalculatorService.calculateTotals(Collections.singletonList(cartItem1), 0L))
+                .thenReturn(new OrderTotals(250, 0, 18, 268, 0));
 
         String receipt = receiptBuilderService.buildReceiptContent(
                 "Another Customer",
@@ -100,4 +104,25 @@ class ReceiptBuilderServiceTest {
         assertFalse(receipt.contains("Observations:"));
         assertTrue(receipt.contains("Amount Tendered:"));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("3. testPromotionsAreListedApartFromTheOrderDiscount()")
+    void testPromotionsAreListedApartFromTheOrderDiscount() {
+        Item coffee = new Item(1, "Coffee", 250, 10, 1);
+        List<CartItem> cart = List.of(new CartItem(coffee, 2));
+        Discount coffeeDeal = new Discount(7, "Coffee Deal", 50, false, true, Discount.Scope.ITEM, 1, 0, 0, null, true);
+        DiscountCalculationService discountCalculationService = new DiscountCalculationService();
+        discountCalculationService.setPromotions(List.of(coffeeDeal));
+        ReceiptBuilderService builder = new ReceiptBuilderService(mockTotalsCalculatorService, discountCalculationService);
+        Discount staff = new Discount(1, "Staff Discount", 10, true, true);
+
+        // 100 off from the promotion, then 10% of the remaining 400.
+        String receipt = builder.buildReceiptContent("Customer", "Employee", cart, staff,
+                new OrderTotals(500, 140, 100, 25, 385, 0), "", "Credit Card", 0, 0);
+
+        assertTrue(receipt.contains("Promotion (Coffee Deal):"));
+        assertTrue(receipt.contains("-" + CurrencyFormatter.format(100L)), "The promotion line shows its own amount.");
+        assertTrue(receipt.contains("Discount (Staff Discount):"));
+        assertTrue(receipt.contains("-" + CurrencyFormatter.format(40L)), "The staff discount no longer includes the promotion.");
+    }
+}
@@ -0,0 +1,108 @@
+package service.receipt;
+
+import model.entity.ReceiptInfo;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class StreamingReceiptLoaderTest {
+
+    private static final String HISTORY = """
+            [
+              { "employeeName": "Admin", "customerName": "John Doe", "uploadDate": "2025-11-02T10:30:00", "fileData": "first receipt" },
+              { "fileData": "second receipt", "employeeName": "Caixa", "extra": { "nested": [1, 2, 3] }, "customerName": "Jane Smith", "uploadDate": "2025-11-03T09:00:00" },
+              { "employeeName": "Admin", "customerName": null, "uploadDate": "2025-11-04T18:15:00", "fileData": "third receipt" }
+            ]
+            """;
+
+    private final StreamingReceiptLoader loader = new StreamingReceiptLoader();
+
+    @BeforeAll
+    void printHeader() {
+        System.out.println("====================================================================");
+        System.out.println("FILE TESTING: StreamingReceiptLoaderTest.java");
+        System.out.println("PURPOSE: Tests streaming receipt metadata and single receipt bodies from JSON.");
+        System.out.println("--------------------------------------------------------------------");
+    }
+
+    @AfterAll
+    void printFooter() {
+        System.out.println("====================================================================\n");
+    }
+
+    @AfterEach
+    void reportTestResult(TestInfo testInfo) {
+        System.out.println("  - " + testInfo.getDisplayName() + " - PASSED");
+    }
+
+    @Test
+    @DisplayName("1. testLoadsMetadataWithoutBodies()")
+    void testLoadsMetadataWithoutBodies() throws Exception {
+        List<ReceiptInfo> receipts = new ArrayList<>();
+
+        int total = loader.load(history(), null, null, receipts::add);
+
+        assertEquals(3, total);
+        assertEquals(3, receipts.size());
+        ReceiptInfo second = receipts.get(1);
+        assertEquals(2, second.getId());
+        assertEquals("Caixa", second.getEmployeeName());
+        assertEquals("Jane Smith", second.getCustomerName());
+        assertEquals(LocalDateTime.of(2025, 11, 3, 9, 0), second.getUploadDate());
+        assertFalse(second.hasFileData(), "Receipt bodies should not be kept in memory.");
+        assertNull(receipts.get(2).getCustomerName());
+    }
+
+    @Test
+    @DisplayName("2. testDateWindowKeepsFilePositionsAsIds()")
+    void testDateWindowKeepsFilePositionsAsIds() throws Exception {
+        List<ReceiptInfo> receipts = new ArrayList<>();
+
+        int total = loader.load(history(), LocalDateTime.of(2025, 11, 3, 0, 0), LocalDateTime.of(2025, 11, 4, 18, 15), receipts::add);
+
+        assertEquals(3, total, "Receipts outside the window still count towards the file positions.");
+        assertEquals(1, receipts.size());
+        assertEquals(2, receipts.get(0).getId());
+    }
+
+    @Test
+    @DisplayName("3. testReadContentReturnsOneReceiptBody()")
+    void testReadContentReturnsOneReceiptBody() throws Exception {
+        Map<Integer, Long> offsets = new HashMap<>();
+        loader.load(history(), null, null, receipt -> { }, offsets);
+
+        assertEquals("second receipt", new String(loader.readContentAt(history(), offsets.get(2)), StandardCharsets.UTF_8));
+        assertEquals("third receipt", new String(loader.readContentAt(history(), offsets.get(3)), StandardCharsets.UTF_8));
+        assertFalse(offsets.containsKey(4));
+    }
+
+    @Test
+    @DisplayName("4. testUndatedReceiptsAreCountedButNotLoaded()")
+    void testUndatedReceiptsAreCountedButNotLoaded() throws Exception {
+        String json = "[{\"customerName\":\"No Date\",\"fileData\":\"undated\"},"
+                + "{\"customerName\":\"Dated\",\"uploadDate\":\"2025-11-03T09:00:00\",\"fileData\":\"dated\"}]";
+        List<ReceiptInfo> receipts = new ArrayList<>();
+        Map<Integer, Long> offsets = new HashMap<>();
+
+        int total = loader.load(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), null, null, receipts::add, offsets);
+
+        assertEquals(2, total);
+        assertEquals(1, receipts.size());
+        assertEquals(2, receipts.get(0).getId());
+        assertEquals(Map.of(2, offsets.get(2)), offsets, "Only loaded receipts get a content offset.");
+    }
+
+    private static InputStream history() {
+        return new ByteArrayInputStream(HISTORY.getBytes(StandardCharsets.UTF_8));
+    }
+}
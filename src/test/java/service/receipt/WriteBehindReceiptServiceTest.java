@@ -0,0 +1,194 @@
+package service.receipt;
+
+import model.dto.CheckoutRecord;
+import model.dto.InventoryUpdateResult;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.junit.jupiter.api.io.TempDir;
+import repo.CheckoutQuarantine;
+import repo.repository.ReceiptRepository;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class WriteBehindReceiptServiceTest {
+
+    private WriteBehindReceiptService writeBehindService;
+
+    @Mock
+    private ReceiptService mockDelegate;
+    @Mock
+    private ReceiptRepository mockReceiptRepository;
+
+    @BeforeAll
+    void printHeader() {
+        System.out.println("====================================================================");
+        System.out.println("FILE TESTING: WriteBehindReceiptServiceTest.java");
+        System.out.println("PURPOSE: Tests queued, batched receipt writes and their backpressure.");
+        System.out.println("--------------------------------------------------------------------");
+    }
+
+    @AfterAll
+    void printFooter() {
+        System.out.println("====================================================================\n");
+    }
+
+    @AfterEach
+    void reportTestResult(TestInfo testInfo) {
+        System.out.println("  - " + testInfo.getDisplayName() + " - PASSED");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (writeBehindService != null) {
+            writeBehindService.close();
+        }
+    }
+
+    @Test
+    @DisplayName("1. testQueuedCheckoutsAreWrittenInBatches()")
+    void testQueuedCheckoutsAreWrittenInBatches() throws Exception {
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        when(mockReceiptRepository.saveCheckouts(anyList())).thenAnswer(invocation -> {
+            List<CheckoutRecord> batch = invocation.getArgument(0);
+            batchSizes.add(batch.size());
+            return Collections.nCopies(batch.size(), InventoryUpdateResult.complete());
+        });
+        writeBehindService = new WriteBehindReceiptService(mockDelegate, mockReceiptRepository, null, null,
+                WriteBehindReceiptService.DEFAULT_MAX_ATTEMPTS, 16, 8, 100);
+        writeBehindService.start();
+
+        for (int i = 0; i < 5; i++) {
+            writeBehindService.completeCheckout("Customer " + i, 1, new byte[]{1}, Map.of(1, 1));
+        }
+
+        assertTrue(writeBehindService.flush(5000), "The queue should drain.");
+        assertEquals(5, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        assertEquals(5, writeBehindService.getFlushedCount());
+        assertEquals(0, writeBehindService.getQueueDepth());
+        verify(mockDelegate, never()).completeCheckout(anyString(), anyInt(), any(), anyMap(), anyList());
+    }
+
+    @Test
+    @DisplayName("2. testFullQueueFallsBackToSynchronousWrite()")
+    void testFullQueueFallsBackToSynchronousWrite() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(mockReceiptRepository.saveCheckouts(anyList())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return Collections.nCopies(((List<?>) invocation.getArgument(0)).size(), InventoryUpdateResult.complete());
+        });
+        writeBehindService = new WriteBehindReceiptService(mockDelegate, mockReceiptRepository, null, null,
+                WriteBehindReceiptService.DEFAULT_MAX_ATTEMPTS, 1, 1, 50);
+        writeBehindService.start();
+
+        // The worker takes the first checkout and blocks; the second fills the queue; the third overflows.
+        writeBehindService.completeCheckout("First", 1, new byte[]{1}, Map.of());
+        Thread.sleep(200);
+        writeBehindService.completeCheckout("Second", 1, new byte[]{1}, Map.of());
+        writeBehindService.completeCheckout("Third", 1, new byte[]{1}, Map.of());
+
+        verify(mockDelegate).completeCheckout(eq("Third"), eq(1), any(), anyMap(), anyList());
+        assertEquals(1, writeBehindService.getSynchronousFallbackCount());
+        release.countDown();
+        assertTrue(writeBehindService.flush(5000));
+    }
+
+    @Test
+    @DisplayName("3. testFailedBatchIsRetried()")
+    @SuppressWarnings("unchecked")
+    void testFailedBatchIsRetried() throws Exception {
+        when(mockReceiptRepository.saveCheckouts(anyList()))
+                .thenThrow(new SQLException("Database unavailable"))
+                .thenReturn(List.of(InventoryUpdateResult.complete()));
+        writeBehindService = new WriteBehindReceiptService(mockDelegate, mockReceiptRepository, null, null,
+                WriteBehindReceiptService.DEFAULT_MAX_ATTEMPTS, 4, 4, 100);
+        writeBehindService.start();
+
+        writeBehindService.completeCheckout("Customer", 1, new byte[]{1}, Map.of(2, 1));
+
+        assertTrue(writeBehindService.flush(5000), "The batch should be written after a retry.");
+        ArgumentCaptor<List<CheckoutRecord>> captor = ArgumentCaptor.forClass(List.class);
+        verify(mockReceiptRepository, times(2)).saveCheckouts(captor.capture());
+        assertEquals("Customer", captor.getValue().get(0).getCustomerName());
+        assertEquals(1, writeBehindService.getFailedFlushCount());
+    }
+
+    @Test
+    @DisplayName("4. testRejectedCheckoutIsQuarantined()")
+    void testRejectedCheckoutIsQuarantined(@TempDir Path tempDir) throws Exception {
+        when(mockReceiptRepository.saveCheckouts(anyList())).thenAnswer(invocation -> {
+            List<CheckoutRecord> batch = invocation.getArgument(0);
+            if (batch.stream().anyMatch(record -> record.getCustomerName().equals("Poison"))) {
+                throw new SQLException("violates check constraint", "23514");
+            }
+            return Collections.nCopies(batch.size(), InventoryUpdateResult.complete());
+        });
+        try (CheckoutQuarantine quarantine = new CheckoutQuarantine(tempDir.resolve("checkout.quarantine"))) {
+            quarantine.start();
+            writeBehindService = new WriteBehindReceiptService(mockDelegate, mockReceiptRepository, null, quarantine, 2, 4, 4, 100);
+            writeBehindService.start();
+
+            writeBehindService.completeCheckout("Poison", 1, new byte[]{1}, Map.of(2, 1));
+            writeBehindService.completeCheckout("Good", 1, new byte[]{1}, Map.of(2, 1));
+
+            assertTrue(writeBehindService.flush(5000), "The poison checkout should not block the queue.");
+            assertEquals(1, writeBehindService.getFlushedCount());
+            assertEquals(1, writeBehindService.getQuarantinedCount());
+            List<CheckoutRecord> quarantined = quarantine.readAll();
+            assertEquals(1, quarantined.size());
+            assertEquals("Poison", quarantined.get(0).getCustomerName());
+            writeBehindService.close();
+            writeBehindService = null;
+        }
+    }
+
+    @Test
+    @DisplayName("5. testConnectionFailuresAreNotCountedAsRejections()")
+    void testConnectionFailuresAreNotCountedAsRejections() {
+        assertTrue(WriteBehindReceiptService.isConnectionFailure(new Exception("wrapped", new SQLTransientConnectionException("pool timeout"))));
+        assertTrue(WriteBehindReceiptService.isConnectionFailure(new SQLException("connection refused", "08001")));
+        assertFalse(WriteBehindReceiptService.isConnectionFailure(new SQLException("violates check constraint", "23514")));
+    }
+
+    @Test
+    @DisplayName("6. testQuarantinedCheckoutIsReplayedOnceAccepted()")
+    void testQuarantinedCheckoutIsReplayedOnceAccepted(@TempDir Path tempDir) throws Exception {
+        when(mockReceiptRepository.saveCheckouts(anyList())).thenAnswer(invocation -> {
+            List<CheckoutRecord> batch = invocation.getArgument(0);
+            if (batch.get(0).getCustomerName().equals("Rejected")) {
+                throw new SQLException("violates check constraint", "23514");
+            }
+            return List.of(InventoryUpdateResult.complete());
+        });
+        try (CheckoutQuarantine quarantine = new CheckoutQuarantine(tempDir.resolve("checkout.quarantine"))) {
+            quarantine.start();
+            quarantine.add(new CheckoutRecord("Rejected", 1, LocalDateTime.of(2024, 3, 1, 12, 30), new byte[]{1}, Map.of(2, 1)), "test");
+            quarantine.add(new CheckoutRecord("Fixed", 1, LocalDateTime.of(2024, 3, 1, 12, 31), new byte[]{1}, Map.of(2, 1)), "test");
+            writeBehindService = new WriteBehindReceiptService(mockDelegate, mockReceiptRepository, null, quarantine, 2, 4, 4, 100);
+            writeBehindService.start();
+
+            // The worker may replay on start before this call does; either way only the accepted sale leaves.
+            writeBehindService.replayQuarantine();
+            assertEquals(1, quarantine.getCount());
+            assertEquals("Rejected", quarantine.readAll().get(0).getCustomerName());
+            writeBehindService.close();
+            writeBehindService = null;
+        }
+    }
+}